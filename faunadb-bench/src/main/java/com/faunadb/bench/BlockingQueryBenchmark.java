@@ -0,0 +1,129 @@
+package com.faunadb.bench;
+
+import com.faunadb.client.FaunaClient;
+import com.faunadb.client.query.Expr;
+import com.faunadb.client.types.Value;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.faunadb.client.query.Language.*;
+
+/**
+ * Compares blocking callers that wait on {@code FaunaClient.query(Expr).join()} against callers of
+ * {@code FaunaClient.queryBlocking(Expr)}, which sends the request and handles its response on the calling thread.
+ *
+ * <p>Each invocation runs {@code callers} concurrent queries against a local HTTP server, each on its own
+ * virtual thread when running on a JVM that supports them, or on a thread of a cached pool otherwise.</p>
+ *
+ * <p>As the server runs in the same JVM, 10000 callers hold over 20000 sockets, so the JVM needs a higher limit
+ * of open files than that.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockingQueryBenchmark {
+
+  private static final byte[] RESPONSE =
+    "{\"resource\":{\"ref\":{\"@ref\":{\"id\":\"1000\",\"collection\":{\"@ref\":{\"id\":\"users\",\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}},\"ts\":1603756505090000,\"data\":{\"name\":\"user\",\"age\":42}}}"
+      .getBytes(StandardCharsets.UTF_8);
+
+  static {
+    // The local server closes its idle connections beyond 200, or after 30 seconds, by default, which the
+    // client then fails to reuse
+    System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+    System.setProperty("sun.net.httpserver.idleInterval", "600");
+  }
+
+  @Param({"1", "100", "10000"})
+  public int callers;
+
+  private final Expr query = Get(Ref(Collection("users"), "1000"));
+  private HttpServer server;
+  private ExecutorService serverThreads;
+  private ExecutorService callerThreads;
+  private FaunaClient client;
+
+  @Setup
+  public void setup() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), callers);
+    serverThreads = newThreads();
+    server.setExecutor(serverThreads);
+    server.createContext("/", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+      exchange.getResponseHeaders().add("X-Txn-Time", "1603756505090000");
+      exchange.sendResponseHeaders(200, RESPONSE.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(RESPONSE);
+      }
+    });
+    server.start();
+
+    client = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .build();
+    callerThreads = newThreads();
+  }
+
+  @TearDown
+  public void tearDown() {
+    callerThreads.shutdownNow();
+    server.stop(0);
+    serverThreads.shutdownNow();
+  }
+
+  @Benchmark
+  public int queryJoin() throws Exception {
+    return call(() -> client.query(query).join());
+  }
+
+  @Benchmark
+  public int queryBlocking() throws Exception {
+    return call(() -> client.queryBlocking(query));
+  }
+
+  private int call(Supplier<Value> caller) throws InterruptedException, ExecutionException {
+    List<Future<Value>> results = new ArrayList<>(callers);
+    for (int i = 0; i < callers; i++)
+      results.add(callerThreads.submit(caller::get));
+
+    int completed = 0;
+    for (Future<Value> result : results) {
+      result.get();
+      completed++;
+    }
+    return completed;
+  }
+
+  // A thread per task, virtual when the JVM supports them, without requiring a Java 21 build
+  private static ExecutorService newThreads() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+}
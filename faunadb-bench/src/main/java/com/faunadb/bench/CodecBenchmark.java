@@ -0,0 +1,106 @@
+package com.faunadb.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.faunadb.client.query.Language;
+import com.faunadb.client.types.Decoder;
+import com.faunadb.client.types.Encoder;
+import com.faunadb.client.types.FaunaConstructor;
+import com.faunadb.client.types.FaunaField;
+import com.faunadb.client.types.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-object cost of the reflection based codecs, used for classes that are not processed
+ * by {@code faunadb-processor}: fields, accessors, constructors with and without arguments, and collections.
+ * It also compares serializing an object through its {@link Value}, as {@link Language#Value(Object)} does,
+ * against writing it straight to JSON, as {@link Language#EncodedValue(Object)} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CodecBenchmark {
+
+  public static class Address {
+    @FaunaField private String street;
+    @FaunaField private int number;
+  }
+
+  public static class User {
+    private final String name;
+    private final long age;
+    private String email;
+
+    @FaunaField private List<String> tags;
+    @FaunaField private Address address;
+
+    @FaunaConstructor
+    public User(@FaunaField("name") String name, @FaunaField("age") long age) {
+      this.name = name;
+      this.age = age;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getAge() {
+      return age;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+
+    public void setEmail(String email) {
+      this.email = email;
+    }
+  }
+
+  private final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+  private User user;
+  private Value value;
+
+  @Setup
+  public void setup() {
+    user = new User("user", 42);
+    user.setEmail("user@example.com");
+    user.tags = Arrays.asList("a", "b", "c");
+    user.address = new Address();
+    user.address.street = "Main St";
+    user.address.number = 1;
+
+    value = Encoder.encode(user).get();
+  }
+
+  @Benchmark
+  public User decode() {
+    return Decoder.decode(value, User.class).get();
+  }
+
+  @Benchmark
+  public Value encode() {
+    return Encoder.encode(user).get();
+  }
+
+  @Benchmark
+  public byte[] serializeValue() throws JsonProcessingException {
+    return json.writeValueAsBytes(Language.Value(user));
+  }
+
+  @Benchmark
+  public byte[] serializeStreaming() throws JsonProcessingException {
+    return json.writeValueAsBytes(Language.EncodedValue(user));
+  }
+}
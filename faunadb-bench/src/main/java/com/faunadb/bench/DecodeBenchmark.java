@@ -0,0 +1,178 @@
+package com.faunadb.bench;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.faunadb.client.types.Codec;
+import com.faunadb.client.types.Decoder;
+import com.faunadb.client.types.FaunaField;
+import com.faunadb.client.types.Field;
+import com.faunadb.client.types.FieldSet;
+import com.faunadb.client.types.LazyValues;
+import com.faunadb.client.types.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a page of documents into user classes through the {@link Value} tree,
+ * as {@code FaunaClient.query(Expr)} followed by {@code Value.to(Class)} does, against decoding
+ * it straight from the JSON tokens, as {@code FaunaClient.query(Expr, Class)} does.
+ *
+ * <p>It also compares reading two fields of the page from an eagerly built {@link Value} tree against
+ * reading them from values materialized lazily, as a client built with {@code withLazyValues(true)} does.</p>
+ *
+ * <p>Finally, it compares extracting five fields of the last document one {@link Field} at a time against
+ * extracting them together with a {@link FieldSet}, from a {@link Value} tree and straight from the JSON tokens.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodeBenchmark {
+
+  public static class User {
+    @FaunaField public String name;
+    @FaunaField public String email;
+    @FaunaField public long age;
+    @FaunaField public List<String> tags;
+  }
+
+  public static class Document {
+    @FaunaField public User data;
+  }
+
+  public static class Page {
+    @FaunaField public List<Document> data;
+  }
+
+  @Param({"1", "100", "1000"})
+  public int documents;
+
+  private final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+  private String body;
+  private Value page;
+  private List<Field<?>> fields;
+  private FieldSet fieldSet;
+
+  @Setup
+  public void setup() {
+    StringBuilder page = new StringBuilder("{\"resource\":{\"data\":[");
+
+    for (int i = 0; i < documents; i++) {
+      if (i > 0) page.append(',');
+      page.append("{\"ref\":{\"@ref\":{\"id\":\"").append(1000 + i).append("\",\"collection\":{\"@ref\":{\"id\":\"users\",")
+        .append("\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}},\"ts\":1603756505090000,")
+        .append("\"data\":{\"name\":\"user").append(i).append("\",\"email\":\"user").append(i).append("@example.com\",")
+        .append("\"age\":").append(20 + i % 50).append(",\"tags\":[\"a\",\"b\",\"c\"],")
+        .append("\"address\":{\"street\":\"Main St\",\"number\":").append(i).append("}}}");
+    }
+
+    body = page.append("]}}").toString();
+
+    Field<Value> last = Field.at("resource", "data").at(Field.at(documents - 1));
+    fields = List.of(
+      last.at(Field.at("ts")).to(Codec.LONG),
+      last.at(Field.at("data", "name")).to(Codec.STRING),
+      last.at(Field.at("data", "email")).to(Codec.STRING),
+      last.at(Field.at("data", "age")).to(Codec.LONG),
+      last.at(Field.at("data", "address", "street")).to(Codec.STRING));
+    fieldSet = FieldSet.of(fields);
+
+    try {
+      this.page = json.readValue(body, Value.class);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  @Benchmark
+  public Page valueTree() throws IOException {
+    JsonNode resource = json.readTree(body).get("resource");
+    Value value = json.treeToValue(resource, Value.class);
+    return value.to(Page.class).get();
+  }
+
+  @Benchmark
+  public Page streaming() throws IOException {
+    try (JsonParser parser = json.getFactory().createParser(body)) {
+      parser.nextToken();
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+
+        if (field.equals("resource"))
+          return Decoder.decodeFrom(parser, Page.class).get();
+
+        parser.skipChildren();
+      }
+
+      throw new IllegalStateException("No resource in response");
+    }
+  }
+
+  @Benchmark
+  public String selectiveValueTree() throws IOException {
+    JsonNode resource = json.readTree(body).get("resource");
+    return selectFields(json.treeToValue(resource, Value.class));
+  }
+
+  @Benchmark
+  public String selectiveLazy() throws IOException {
+    char[] chars = body.toCharArray();
+
+    try (JsonParser parser = json.getFactory().createParser(chars)) {
+      parser.nextToken();
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+
+        if (field.equals("resource"))
+          return selectFields(LazyValues.decodeFrom(parser, chars).get());
+
+        parser.skipChildren();
+      }
+
+      throw new IllegalStateException("No resource in response");
+    }
+  }
+
+  private String selectFields(Value page) {
+    Value last = page.at("data").at(documents - 1);
+    return last.at("data", "name").to(String.class).get() + last.at("ts").to(Long.class).get();
+  }
+
+  @Benchmark
+  public Object[] projectFields() {
+    Object[] values = new Object[fields.size()];
+
+    for (int i = 0; i < values.length; i++)
+      values[i] = page.get(fields.get(i));
+
+    return values;
+  }
+
+  @Benchmark
+  public Object[] projectFieldSet() {
+    return page.get(fieldSet);
+  }
+
+  @Benchmark
+  public Object[] projectFieldSetStreaming() throws IOException {
+    try (JsonParser parser = json.getFactory().createParser(body)) {
+      return Decoder.decodeFrom(parser, fieldSet).get();
+    }
+  }
+}
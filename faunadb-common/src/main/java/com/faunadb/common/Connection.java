@@ -5,6 +5,7 @@ import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +23,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -86,6 +88,8 @@ public class Connection {
     private HttpClient client;
     private JvmDriver jvmDriver;
     private Optional<Duration> queryTimeout = Optional.empty();
+    private RequestListener requestListener;
+    private RequestScheduler scheduler;
 
     private Builder() {
     }
@@ -180,6 +184,32 @@ public class Connection {
       return this;
     }
 
+    /**
+     * Sets a {@link RequestListener} to receive the per-phase timestamps of every request.
+     * No timestamps are recorded when no listener is set.
+     *
+     * @param listener the {@link RequestListener} instance
+     * @return this {@link Builder} object
+     * @see MetricsRequestListener
+     */
+    public Builder withRequestListener(RequestListener listener) {
+      this.requestListener = listener;
+      return this;
+    }
+
+    /**
+     * Sets a {@link RequestScheduler} that schedules the requests of this connection and of its session
+     * connections fairly across their auth tokens. Requests are sent as soon as they are issued when no
+     * scheduler is set.
+     *
+     * @param scheduler the {@link RequestScheduler} instance
+     * @return this {@link Builder} object
+     */
+    public Builder withScheduler(RequestScheduler scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
     /**
      * @return a newly constructed {@link Connection} with its configuration based on
      * the settings of the {@link Builder} instance.
@@ -199,7 +229,8 @@ public class Connection {
           .build()
       );
 
-      return new Connection(root, authToken, http, registry, jvmDriver, lastSeenTxn, queryTimeout);
+      return new Connection(root, authToken, http, new ObjectMapper().writer(), registry, jvmDriver, lastSeenTxn,
+        queryTimeout, requestListener, scheduler);
     }
   }
 
@@ -214,19 +245,29 @@ public class Connection {
   private HttpClient client;
   private final MetricRegistry registry;
   private final Optional<Duration> defaultQueryTimeout;
+  private final RequestListener requestListener;
+  private final RequestScheduler scheduler;
+  private final String tenant;
 
   private final Logger log = LoggerFactory.getLogger(getClass());
-  private final ObjectMapper json = new ObjectMapper();
+  // shared with session connections, as it is immutable and its serializer caches are warm
+  private final ObjectWriter json;
   private final AtomicLong txnTime = new AtomicLong(0L);
 
-  private Connection(URL faunaRoot, String authToken, HttpClient client, MetricRegistry registry, JvmDriver jvmDriver, long lastSeenTxn, Optional<Duration> defaultQueryTimeout) {
+  private Connection(URL faunaRoot, String authToken, HttpClient client, ObjectWriter json, MetricRegistry registry,
+                     JvmDriver jvmDriver, long lastSeenTxn, Optional<Duration> defaultQueryTimeout,
+                     RequestListener requestListener, RequestScheduler scheduler) {
     this.faunaRoot = faunaRoot;
     this.authHeader = generateAuthHeader(authToken);
     this.client = client;
+    this.json = json;
     this.registry = registry;
     this.jvmDriver = jvmDriver;
     this.txnTime.set(lastSeenTxn);
     this.defaultQueryTimeout = defaultQueryTimeout;
+    this.requestListener = requestListener;
+    this.scheduler = scheduler;
+    this.tenant = scheduler == null ? null : scheduler.tenantOf(authToken);
   }
 
   /**
@@ -237,7 +278,56 @@ public class Connection {
    * @return a new {@link Connection}
    */
   public Connection newSessionConnection(String authToken) {
-    return new Connection(faunaRoot, authToken, client, registry, jvmDriver, getLastTxnTime(), defaultQueryTimeout);
+    return new Connection(faunaRoot, authToken, client, json, registry, jvmDriver, getLastTxnTime(),
+      defaultQueryTimeout, requestListener, scheduler);
+  }
+
+  /**
+   * Creates a new {@link Connection} sharing its underneath I/O resources, whose requests are also reported to
+   * the {@link RequestListener} provided, after the listener of this {@link Connection} (if any).
+   *
+   * @param authToken the token or key to be used to authenticate requests to the new {@link Connection}
+   * @param listener the additional {@link RequestListener}, such as one that tracks the requests of a tenant
+   * @return a new {@link Connection}
+   * @see #newSessionConnection(String)
+   */
+  public Connection newSessionConnection(String authToken, RequestListener listener) {
+    RequestListener listeners = requestListener == null ? listener : new RequestListener() {
+      @Override
+      public void onRequestCompleted(RequestTimings timings) {
+        requestListener.onRequestCompleted(timings);
+        listener.onRequestCompleted(timings);
+      }
+
+      @Override
+      public void onRequestFailed(RequestTimings timings, Throwable cause) {
+        requestListener.onRequestFailed(timings, cause);
+        listener.onRequestFailed(timings, cause);
+      }
+    };
+
+    return new Connection(faunaRoot, authToken, client, json, registry, jvmDriver, getLastTxnTime(),
+      defaultQueryTimeout, listeners, scheduler);
+  }
+
+  /**
+   * Starts recording the timestamps of a new request, marking its {@link RequestTimings.Phase#ENQUEUE} phase.
+   * Callers that pass the returned {@link RequestTimings} to a request method own it, and must call either
+   * {@link RequestTimings#complete()} or {@link RequestTimings#fail(Throwable)} once they are done with the response.
+   * The {@link Connection} fails the timings itself if the request cannot be sent.
+   *
+   * <p>Returns a shared, inert instance when no {@link RequestListener} is configured.</p>
+   *
+   * @param path the relative path of the request
+   * @return a new {@link RequestTimings}
+   */
+  public RequestTimings startTimings(String path) {
+    if (requestListener == null)
+      return RequestTimings.DISABLED;
+
+    RequestTimings timings = new RequestTimings(requestListener, path);
+    timings.mark(RequestTimings.Phase.ENQUEUE);
+    return timings;
   }
 
   /**
@@ -273,7 +363,7 @@ public class Connection {
    * @return a {@link CompletableFuture} containing the HTTP Response.
    */
   public CompletableFuture<HttpResponse<String>> get(String path, Optional<Duration> queryTimeout) {
-    return performRequest("GET", path, Optional.empty(), Map.of(), queryTimeout);
+    return performOwnedRequest("GET", path, Optional.empty(), Map.of(), queryTimeout);
   }
 
   /**
@@ -285,7 +375,7 @@ public class Connection {
    * @return a {@code CompletableFuture} containing the HTTP response.
    */
   public CompletableFuture<HttpResponse<String>> get(String path, Map<String, List<String>> params, Optional<Duration> queryTimeout) {
-    return performRequest("GET", path, Optional.empty(), params, queryTimeout);
+    return performOwnedRequest("GET", path, Optional.empty(), params, queryTimeout);
   }
 
   /**
@@ -297,7 +387,21 @@ public class Connection {
    * @return a {@link CompletableFuture} containing the HTTP response.
    */
   public CompletableFuture<HttpResponse<String>> post(String path, JsonNode body, Optional<Duration> queryTimeout) {
-    return performRequest("POST", path, Optional.of(body), Map.of(), queryTimeout);
+    return performOwnedRequest("POST", path, Optional.of(jsonBody(body)), Map.of(), queryTimeout);
+  }
+
+  /**
+   * Issues a {@code POST} request with the provided JSON request body, recording its phases
+   * on the {@link RequestTimings} provided. The caller is responsible for completing the timings.
+   *
+   * @param path the relative path of the resource.
+   * @param body the JSON tree that will be serialized into the request body.
+   * @param queryTimeout the query timeout for the current request.
+   * @param timings the {@link RequestTimings} obtained from {@link #startTimings(String)}.
+   * @return a {@link CompletableFuture} containing the HTTP response.
+   */
+  public CompletableFuture<HttpResponse<String>> post(String path, JsonNode body, Optional<Duration> queryTimeout, RequestTimings timings) {
+    return performRequest("POST", path, Optional.of(jsonBody(body)), Map.of(), queryTimeout, timings);
   }
 
   /**
@@ -309,7 +413,7 @@ public class Connection {
    * @return a {@link CompletableFuture} containing the HTTP response.
    */
   public CompletableFuture<HttpResponse<String>> put(String path, JsonNode body, Optional<Duration> queryTimeout) {
-    return performRequest("PUT", path, Optional.of(body), Map.of(), queryTimeout);
+    return performOwnedRequest("PUT", path, Optional.of(jsonBody(body)), Map.of(), queryTimeout);
   }
 
   /**
@@ -321,7 +425,54 @@ public class Connection {
    * @return a {@link CompletableFuture} containing the HTTP response.
    */
   public CompletableFuture<HttpResponse<String>> patch(String path, JsonNode body, Optional<Duration> queryTimeout) {
-    return performRequest("PATCH", path, Optional.of(body), Map.of(), queryTimeout);
+    return performOwnedRequest("PATCH", path, Optional.of(jsonBody(body)), Map.of(), queryTimeout);
+  }
+
+  /**
+   * Issues a {@code POST} request with an already serialized JSON request body, recording its phases
+   * on the {@link RequestTimings} provided. The caller is responsible for completing the timings.
+   *
+   * @param path the relative path of the resource.
+   * @param body the UTF-8 encoded JSON request body. It must not be modified after this call.
+   * @param queryTimeout the query timeout for the current request.
+   * @param timings the {@link RequestTimings} obtained from {@link #startTimings(String)}.
+   * @return a {@link CompletableFuture} containing the HTTP response.
+   */
+  public CompletableFuture<HttpResponse<String>> post(String path, byte[] body, Optional<Duration> queryTimeout, RequestTimings timings) {
+    return post(path, body, queryTimeout, timings, Priority.NORMAL);
+  }
+
+  /**
+   * Issues a {@code POST} request with an already serialized JSON request body, recording its phases
+   * on the {@link RequestTimings} provided. The caller is responsible for completing the timings.
+   *
+   * @param path the relative path of the resource.
+   * @param body the UTF-8 encoded JSON request body. It must not be modified after this call.
+   * @param queryTimeout the query timeout for the current request.
+   * @param timings the {@link RequestTimings} obtained from {@link #startTimings(String)}.
+   * @param priority the priority the request is scheduled with, if a {@link RequestScheduler} is set.
+   * @return a {@link CompletableFuture} containing the HTTP response.
+   */
+  public CompletableFuture<HttpResponse<String>> post(String path, byte[] body, Optional<Duration> queryTimeout, RequestTimings timings,
+                                                      Priority priority) {
+    return performRequest("POST", path, Optional.of(t -> body), Map.of(), queryTimeout, timings, priority);
+  }
+
+  /**
+   * The request body, serialized on demand so that serialization failures fail the request.
+   */
+  @FunctionalInterface
+  private interface RequestBody {
+    byte[] toBytes(RequestTimings timings) throws JsonProcessingException;
+  }
+
+  private RequestBody jsonBody(JsonNode body) {
+    return timings -> {
+      timings.mark(RequestTimings.Phase.SERIALIZE_START);
+      byte[] bytes = json.writeValueAsBytes(body);
+      timings.mark(RequestTimings.Phase.SERIALIZE_END);
+      return bytes;
+    };
   }
 
   private static URI appendUri(URI oldUri, String queryKey, List<String> queryValues) throws URISyntaxException {
@@ -334,38 +485,182 @@ public class Connection {
             oldUri.getQuery() == null ? query : oldUri.getQuery() + "&" + query, oldUri.getFragment());
   }
 
-  private CompletableFuture<HttpResponse<String>> performRequest(String httpMethod, String path, Optional<JsonNode> body,
-                                                                 Map<String, List<String>> params, final Optional<Duration> requestQueryTimeout) {
+  private CompletableFuture<HttpResponse<String>> performOwnedRequest(String httpMethod, String path, Optional<RequestBody> body,
+                                                                      Map<String, List<String>> params, final Optional<Duration> requestQueryTimeout) {
+    RequestTimings timings = startTimings(path);
+    CompletableFuture<HttpResponse<String>> rv = performRequest(httpMethod, path, body, params, requestQueryTimeout, timings);
+
+    if (timings.isEnabled())
+      rv.thenRun(timings::complete);
+
+    return rv;
+  }
+
+  private CompletableFuture<HttpResponse<String>> performRequest(String httpMethod, String path, Optional<RequestBody> body,
+                                                                 Map<String, List<String>> params, final Optional<Duration> requestQueryTimeout,
+                                                                 final RequestTimings timings) {
+    return performRequest(httpMethod, path, body, params, requestQueryTimeout, timings, Priority.NORMAL);
+  }
+
+  private CompletableFuture<HttpResponse<String>> performRequest(String httpMethod, String path, Optional<RequestBody> body,
+                                                                 Map<String, List<String>> params, final Optional<Duration> requestQueryTimeout,
+                                                                 final RequestTimings timings, Priority priority) {
     final Timer.Context ctx = registry.timer("fauna-request").time();
+    final RequestEvent event = new RequestEvent();
+    event.begin();
     final CompletableFuture<HttpResponse<String>> rv = new CompletableFuture<>();
     HttpRequest request;
     try {
-      request = makeHttpRequest(httpMethod, path, body, params, requestQueryTimeout, HttpClient.Version.HTTP_1_1);
+      request = makeHttpRequest(httpMethod, path, body, params, requestQueryTimeout, HttpClient.Version.HTTP_1_1, timings);
     } catch (MalformedURLException | URISyntaxException | JsonProcessingException ex) {
+      timings.fail(ex);
       rv.completeExceptionally(ex);
       return rv;
     }
-    sendRequest(request).whenCompleteAsync((response, throwable) -> {
-      ctx.stop();
+    scheduleRequest(request, timings, priority).whenCompleteAsync((response, throwable) -> {
       if (throwable != null) {
-        logFailure(request, throwable);
+        requestFailed(request, ctx, event, timings, throwable);
         rv.completeExceptionally(throwable);
-        return;
+      } else {
+        requestCompleted(request, response, ctx, event, timings);
+        rv.complete(response);
       }
+    });
 
-      Optional<String> txnTimeHeader = response.headers().firstValue("x-txn-time");
-      txnTimeHeader.ifPresent(s -> syncLastTxnTime(Long.parseLong(s)));
+    return rv;
+  }
 
-      logSuccess(request, response);
+  /**
+   * Issues a {@code POST} request with an already serialized JSON request body, and waits for its response
+   * on the calling thread, recording its phases on the {@link RequestTimings} provided. The caller is
+   * responsible for completing the timings.
+   * <p>
+   * The request is sent with {@link HttpClient#send}, without any asynchronous stage. When a
+   * {@link RequestScheduler} is set, the calling thread first waits for the turn of the request, which then
+   * counts as in flight until its response is received.
+   *
+   * @param path the relative path of the resource.
+   * @param body the UTF-8 encoded JSON request body. It must not be modified after this call.
+   * @param queryTimeout the query timeout for the current request.
+   * @param timings the {@link RequestTimings} obtained from {@link #startTimings(String)}.
+   * @return the HTTP response.
+   * @throws IOException if the request could not be sent, or its response could not be received.
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the response.
+   */
+  public HttpResponse<String> postBlocking(String path, byte[] body, Optional<Duration> queryTimeout, RequestTimings timings)
+    throws IOException, InterruptedException {
+    return postBlocking(path, body, queryTimeout, timings, Priority.NORMAL);
+  }
 
-      rv.complete(response);
+  /**
+   * Issues a {@code POST} request with an already serialized JSON request body, and waits for its response
+   * on the calling thread, recording its phases on the {@link RequestTimings} provided. The caller is
+   * responsible for completing the timings.
+   *
+   * @param path the relative path of the resource.
+   * @param body the UTF-8 encoded JSON request body. It must not be modified after this call.
+   * @param queryTimeout the query timeout for the current request.
+   * @param timings the {@link RequestTimings} obtained from {@link #startTimings(String)}.
+   * @param priority the priority the request is scheduled with, if a {@link RequestScheduler} is set.
+   * @return the HTTP response.
+   * @throws IOException if the request could not be sent, or its response could not be received.
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the response.
+   * @see #postBlocking(String, byte[], Optional, RequestTimings)
+   */
+  public HttpResponse<String> postBlocking(String path, byte[] body, Optional<Duration> queryTimeout, RequestTimings timings,
+                                           Priority priority) throws IOException, InterruptedException {
+    if (scheduler == null)
+      return sendBlocking(path, body, queryTimeout, timings);
+
+    CountDownLatch turn = new CountDownLatch(1);
+    CompletableFuture<Void> sent = new CompletableFuture<>();
+    scheduler.submit(tenant, priority, () -> {
+      turn.countDown();
+      return sent;
     });
 
-    return rv;
+    // Completing the scheduled request, even if interrupted while waiting, frees its turn for the next one
+    try {
+      turn.await();
+      return sendBlocking(path, body, queryTimeout, timings);
+    } finally {
+      sent.complete(null);
+    }
+  }
+
+  private HttpResponse<String> sendBlocking(String path, byte[] body, Optional<Duration> queryTimeout, RequestTimings timings)
+    throws IOException, InterruptedException {
+    final Timer.Context ctx = registry.timer("fauna-request").time();
+    final RequestEvent event = new RequestEvent();
+    event.begin();
+    HttpRequest request;
+    try {
+      request = makeHttpRequest("POST", path, Optional.of(t -> body), Map.of(), queryTimeout, HttpClient.Version.HTTP_1_1, timings);
+    } catch (URISyntaxException ex) {
+      timings.fail(ex);
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    } catch (IOException ex) {
+      timings.fail(ex);
+      throw ex;
+    }
+
+    HttpResponse<String> response;
+    try {
+      timings.mark(RequestTimings.Phase.SEND);
+      response = client.send(request, bodyHandler(timings));
+    } catch (IOException | InterruptedException | RuntimeException ex) {
+      requestFailed(request, ctx, event, timings, ex);
+      throw ex;
+    }
+
+    requestCompleted(request, response, ctx, event, timings);
+    return response;
+  }
+
+  private void requestCompleted(HttpRequest request, HttpResponse<String> response, Timer.Context ctx, RequestEvent event,
+                                RequestTimings timings) {
+    ctx.stop();
+    timings.status(response.statusCode());
+
+    Optional<String> txnTimeHeader = response.headers().firstValue("x-txn-time");
+    txnTimeHeader.ifPresent(s -> syncLastTxnTime(Long.parseLong(s)));
+
+    commitEvent(event, request, response, null);
+
+    logSuccess(request, response);
+  }
+
+  private void requestFailed(HttpRequest request, Timer.Context ctx, RequestEvent event, RequestTimings timings,
+                             Throwable throwable) {
+    ctx.stop();
+    logFailure(request, throwable);
+    commitEvent(event, request, null, throwable);
+    timings.fail(throwable);
+  }
+
+  private CompletableFuture<HttpResponse<String>> scheduleRequest(HttpRequest req, RequestTimings timings, Priority priority) {
+    if (scheduler == null)
+      return sendRequest(req, timings);
+
+    return scheduler.submit(tenant, priority, () -> sendRequest(req, timings));
   }
 
-  private CompletableFuture<HttpResponse<String>> sendRequest(HttpRequest req) {
-    return client.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+  private CompletableFuture<HttpResponse<String>> sendRequest(HttpRequest req, RequestTimings timings) {
+    timings.mark(RequestTimings.Phase.SEND);
+    return client.sendAsync(req, bodyHandler(timings));
+  }
+
+  private static HttpResponse.BodyHandler<String> bodyHandler(RequestTimings timings) {
+    if (!timings.isEnabled())
+      return HttpResponse.BodyHandlers.ofString();
+
+    return responseInfo -> {
+      timings.mark(RequestTimings.Phase.FIRST_BYTE);
+      return HttpResponse.BodySubscribers.mapping(HttpResponse.BodyHandlers.ofString().apply(responseInfo), body -> {
+        timings.mark(RequestTimings.Phase.LAST_BYTE);
+        return body;
+      });
+    };
   }
 
   public CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> streamRequest(HttpRequest req) {
@@ -378,7 +673,7 @@ public class Connection {
     final CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> rv = new CompletableFuture<>();
     HttpRequest request;
     try {
-      request = makeHttpRequest(httpMethod, path, Optional.of(body), params, Optional.empty(), HttpClient.Version.HTTP_2);
+      request = makeHttpRequest(httpMethod, path, Optional.of(jsonBody(body)), params, Optional.empty(), HttpClient.Version.HTTP_2, RequestTimings.DISABLED);
     } catch (MalformedURLException | URISyntaxException | JsonProcessingException ex) {
       rv.completeExceptionally(ex);
       return rv;
@@ -400,8 +695,9 @@ public class Connection {
     return rv;
   }
 
-  private HttpRequest makeHttpRequest(String httpMethod, String path, Optional<JsonNode> body, Map<String, List<String>> params,
-                                      Optional<Duration> requestQueryTimeout, HttpClient.Version httpVersion) throws MalformedURLException, URISyntaxException, JsonProcessingException {
+  private HttpRequest makeHttpRequest(String httpMethod, String path, Optional<RequestBody> body, Map<String, List<String>> params,
+                                      Optional<Duration> requestQueryTimeout, HttpClient.Version httpVersion,
+                                      RequestTimings timings) throws MalformedURLException, URISyntaxException, JsonProcessingException {
     URI requestUri = URI.create(mkUrl(path));
 
     // Encode all query parameters
@@ -414,8 +710,7 @@ public class Connection {
 
     HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
     if (body.isPresent()) {
-      byte[] jsonBody = json.writeValueAsBytes(body.get());
-      bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(jsonBody);
+      bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(body.get().toBytes(timings));
     }
 
     // If a query timeout has been given for the current request,
@@ -448,6 +743,29 @@ public class Connection {
     return new URL(faunaRoot, path).toString();
   }
 
+  private static void commitEvent(RequestEvent event, HttpRequest request, HttpResponse<String> response, Throwable failure) {
+    event.end();
+    if (!event.shouldCommit())
+      return;
+
+    event.method = request.method();
+    String path = request.uri().getPath();
+    event.path = path.isEmpty() ? "/" : path;
+    event.requestBytes = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+
+    if (response != null) {
+      int bodyLength = Optional.ofNullable(response.body()).map(String::length).orElse(0);
+      event.status = response.statusCode();
+      event.responseBytes = response.headers().firstValueAsLong("content-length").orElse(bodyLength);
+      event.txnTime = response.headers().firstValue("x-txn-time").map(Long::parseLong).orElse(0L);
+    }
+
+    if (failure != null)
+      event.failure = failure.toString();
+
+    event.commit();
+  }
+
   private void logSuccess(HttpRequest request, HttpResponse<String> response) {
     if (log.isDebugEnabled()) {
       String data = request.bodyPublisher().map(Object::toString).orElse("NoBody");
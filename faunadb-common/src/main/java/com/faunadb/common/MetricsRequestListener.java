@@ -0,0 +1,76 @@
+package com.faunadb.common;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import static com.faunadb.common.RequestTimings.Phase.*;
+
+/**
+ * A {@link RequestListener} that publishes per-phase latency histograms, in nanoseconds,
+ * to a {@link MetricRegistry}.
+ *
+ * <p>The following metrics are registered:</p>
+ * <ul>
+ *   <li>{@code fauna-request-serialize}: from {@link RequestTimings.Phase#SERIALIZE_START} to {@link RequestTimings.Phase#SERIALIZE_END}</li>
+ *   <li>{@code fauna-request-wait}: from {@link RequestTimings.Phase#SEND} to {@link RequestTimings.Phase#FIRST_BYTE}</li>
+ *   <li>{@code fauna-request-transfer}: from {@link RequestTimings.Phase#FIRST_BYTE} to {@link RequestTimings.Phase#LAST_BYTE}</li>
+ *   <li>{@code fauna-request-parse}: from {@link RequestTimings.Phase#LAST_BYTE} to {@link RequestTimings.Phase#PARSE_END}</li>
+ *   <li>{@code fauna-request-decode}: from {@link RequestTimings.Phase#PARSE_END} to {@link RequestTimings.Phase#DECODE_END}</li>
+ *   <li>{@code fauna-request-total}: from {@link RequestTimings.Phase#ENQUEUE} to the last recorded phase</li>
+ *   <li>{@code fauna-request-failures}: a meter of failed requests</li>
+ * </ul>
+ */
+public class MetricsRequestListener implements RequestListener {
+
+  private final Histogram serialize;
+  private final Histogram wait;
+  private final Histogram transfer;
+  private final Histogram parse;
+  private final Histogram decode;
+  private final Histogram total;
+  private final Meter failures;
+
+  public MetricsRequestListener(MetricRegistry registry) {
+    this.serialize = registry.histogram("fauna-request-serialize");
+    this.wait = registry.histogram("fauna-request-wait");
+    this.transfer = registry.histogram("fauna-request-transfer");
+    this.parse = registry.histogram("fauna-request-parse");
+    this.decode = registry.histogram("fauna-request-decode");
+    this.total = registry.histogram("fauna-request-total");
+    this.failures = registry.meter("fauna-request-failures");
+  }
+
+  @Override
+  public void onRequestCompleted(RequestTimings timings) {
+    update(serialize, timings.elapsed(SERIALIZE_START, SERIALIZE_END));
+    update(wait, timings.elapsed(SEND, FIRST_BYTE));
+    update(transfer, timings.elapsed(FIRST_BYTE, LAST_BYTE));
+    update(parse, timings.elapsed(LAST_BYTE, PARSE_END));
+    update(decode, timings.elapsed(PARSE_END, DECODE_END));
+    update(total, elapsedTotal(timings));
+  }
+
+  @Override
+  public void onRequestFailed(RequestTimings timings, Throwable cause) {
+    failures.mark();
+    onRequestCompleted(timings);
+  }
+
+  private static long elapsedTotal(RequestTimings timings) {
+    RequestTimings.Phase[] phases = RequestTimings.Phase.values();
+
+    for (int i = phases.length - 1; i > 0; i--) {
+      long elapsed = timings.elapsed(ENQUEUE, phases[i]);
+      if (elapsed >= 0)
+        return elapsed;
+    }
+
+    return -1L;
+  }
+
+  private static void update(Histogram histogram, long elapsed) {
+    if (elapsed >= 0)
+      histogram.update(elapsed);
+  }
+}
@@ -0,0 +1,16 @@
+package com.faunadb.common;
+
+/**
+ * The priority of a request, which selects the lane it is queued in by a {@link RequestScheduler}.
+ *
+ * <p>Requests are sent as soon as they are issued, whatever their priority, when no {@link RequestScheduler}
+ * is set.</p>
+ */
+public enum Priority {
+  /** Interactive requests, such as the ones a user is waiting for. */
+  HIGH,
+  /** The default priority. */
+  NORMAL,
+  /** Background requests, such as batch jobs, that should only use spare capacity. */
+  LOW
+}
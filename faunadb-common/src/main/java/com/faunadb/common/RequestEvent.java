@@ -0,0 +1,45 @@
+package com.faunadb.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted by {@link Connection} for every HTTP request, from the moment
+ * the request is built until its response body is fully received.
+ */
+@Name("com.faunadb.Request")
+@Label("FaunaDB Request")
+@Category({"FaunaDB", "Driver"})
+@Description("An HTTP request issued to FaunaDB")
+@StackTrace(false)
+final class RequestEvent extends jdk.jfr.Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Path")
+  String path;
+
+  @Label("Status")
+  @Description("HTTP status code of the response, or 0 if no response was received")
+  int status;
+
+  @Label("Request Size")
+  @DataAmount(DataAmount.BYTES)
+  long requestBytes;
+
+  @Label("Response Size")
+  @DataAmount(DataAmount.BYTES)
+  long responseBytes;
+
+  @Label("Transaction Time")
+  @Description("The x-txn-time header of the response, in microseconds since the epoch")
+  long txnTime;
+
+  @Label("Failure")
+  String failure;
+}
@@ -0,0 +1,34 @@
+package com.faunadb.common;
+
+/**
+ * Receives the per-phase timestamps of every request issued through a {@link Connection}.
+ *
+ * <p>Listeners are registered with {@link Connection.Builder#withRequestListener(RequestListener)}.
+ * When no listener is registered the {@link Connection} does not record any timestamps.</p>
+ *
+ * <p>Callbacks are invoked on the thread that completes the request, so implementations
+ * must be thread-safe and should return quickly.</p>
+ *
+ * @see RequestTimings
+ * @see MetricsRequestListener
+ */
+public interface RequestListener {
+
+  /**
+   * Called once the request has completed and its response has been handled.
+   *
+   * @param timings the timestamps recorded for the request
+   */
+  void onRequestCompleted(RequestTimings timings);
+
+  /**
+   * Called when the request could not be completed, either because of a network failure
+   * or because its response could not be handled.
+   *
+   * @param timings the timestamps recorded for the request up to the failure
+   * @param cause the failure cause
+   */
+  default void onRequestFailed(RequestTimings timings, Throwable cause) {
+    onRequestCompleted(timings);
+  }
+}
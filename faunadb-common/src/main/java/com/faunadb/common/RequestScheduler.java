@@ -0,0 +1,615 @@
+package com.faunadb.common;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Schedules the requests of the tenants that share a {@link Connection}, so a tenant sending many requests
+ * cannot starve the others, and background requests do not delay interactive ones.
+ *
+ * <p>Requests are queued in the lane of their {@link Priority}, per tenant. Each time a request can be started
+ * within the global limit of requests in flight, a lane is picked, and then a tenant of the lane.</p>
+ *
+ * <p>Lanes are picked in strict priority order by default: a lower priority request is only started when no
+ * higher priority request is waiting to, so {@link Priority#LOW} requests only use spare capacity. With lane
+ * weights, lanes are picked in deficit round robin order instead, each lane starting as many requests per round
+ * as its weight, so lower priority requests still make progress under sustained load. Each lane can also be
+ * given its own budget of requests in flight, which keeps capacity free for the other lanes, as requests in
+ * flight cannot be preempted.</p>
+ *
+ * <p>Within a lane, tenants are picked in deficit round robin order. Each round, a tenant with queued requests
+ * may start as many of them as its weight, so under load tenants get a share of the in-flight requests
+ * proportional to their weight, whatever the number of requests they queue. A tenant can also be capped to a
+ * maximum number of requests in flight, across lanes, even when there is spare capacity.</p>
+ *
+ * <p>By default every auth token is its own tenant, with a weight of 1. Session connections created from a
+ * {@link Connection} share its scheduler.</p>
+ *
+ * <p>When a {@link MetricRegistry} is set, the scheduler registers the following metrics:</p>
+ * <ul>
+ *   <li>{@code fauna-scheduler-queue-time}: a timer of the time requests wait in their tenant's queue</li>
+ *   <li>{@code fauna-scheduler-queue-time.<lane>}: a timer of the time the requests of a lane wait, per
+ *   {@link Priority} in lower case, such as {@code fauna-scheduler-queue-time.high}</li>
+ *   <li>{@code fauna-scheduler-in-flight}: a gauge of the number of requests in flight</li>
+ *   <li>{@code fauna-scheduler-in-flight.<lane>}: a gauge of the number of requests in flight of a lane</li>
+ *   <li>{@code fauna-scheduler-queued}: a gauge of the number of queued requests</li>
+ *   <li>{@code fauna-tenant.<tenant>.queue-time}: a timer of the time the requests of a tenant wait in its
+ *   queue, only if tenant names are set, so auth tokens are not exposed by the {@link MetricRegistry}</li>
+ * </ul>
+ *
+ * <p>Schedulers sharing a {@link MetricRegistry} must have different names, which are appended to the names of
+ * their metrics. For example, {@code fauna-scheduler-in-flight.high.orders} for a scheduler named
+ * {@code orders}.</p>
+ *
+ * <p>The metrics of a tenant are removed once it has no requests queued or in flight.</p>
+ *
+ * <p>Stream requests are not scheduled, as they stay open for as long as the stream is consumed.</p>
+ *
+ * <b>Example</b>:
+ *
+ * <pre>{@code
+ * RequestScheduler scheduler = RequestScheduler.builder()
+ *   .withMaxInFlight(256)
+ *   .withMaxInFlight(Priority.LOW, 64)
+ *   .withMaxInFlightPerTenant(64)
+ *   .withTenants(secret -> tenants.nameOf(secret))
+ *   .withWeights(tenant -> tenants.isPremium(tenant) ? 4 : 1)
+ *   .withMetrics(registry)
+ *   .build();
+ * }</pre>
+ */
+public final class RequestScheduler {
+
+  private static final Priority[] PRIORITIES = Priority.values();
+
+  /**
+   * Returns a new {@link Builder} instance.
+   *
+   * @return a new {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder for the {@link RequestScheduler} instance.
+   */
+  public static final class Builder {
+
+    private int maxInFlight = 256;
+    private final Map<Priority, Integer> maxInFlightPerLane = new EnumMap<>(Priority.class);
+    private int[] laneWeights;
+    private int maxInFlightPerTenant = Integer.MAX_VALUE;
+    private Function<String, String> tenants;
+    private ToIntFunction<String> weights = tenant -> 1;
+    private MetricRegistry registry;
+    private String name;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the maximum number of requests in flight, across all lanes and tenants. Defaults to 256.
+     *
+     * @param maxInFlight the maximum number of requests in flight
+     * @return this {@link Builder} object
+     */
+    public Builder withMaxInFlight(int maxInFlight) {
+      if (maxInFlight <= 0)
+        throw new IllegalArgumentException("The maximum number of requests in flight must be positive");
+
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight of a lane. Defaults to no limit other than
+     * {@link #withMaxInFlight(int)}.
+     *
+     * @param priority the priority of the lane
+     * @param maxInFlight the maximum number of requests in flight of the lane
+     * @return this {@link Builder} object
+     */
+    public Builder withMaxInFlight(Priority priority, int maxInFlight) {
+      if (maxInFlight <= 0)
+        throw new IllegalArgumentException("The maximum number of requests in flight must be positive");
+
+      this.maxInFlightPerLane.put(priority, maxInFlight);
+      return this;
+    }
+
+    /**
+     * Sets the weights of the lanes, which are then picked in weighted round robin order rather than in strict
+     * priority order. For example, weights of 8, 4 and 1 start up to 8 {@link Priority#HIGH} requests for each
+     * {@link Priority#LOW} request when all lanes have requests waiting.
+     *
+     * @param high the weight of the {@link Priority#HIGH} lane
+     * @param normal the weight of the {@link Priority#NORMAL} lane
+     * @param low the weight of the {@link Priority#LOW} lane
+     * @return this {@link Builder} object
+     */
+    public Builder withLaneWeights(int high, int normal, int low) {
+      if (high <= 0 || normal <= 0 || low <= 0)
+        throw new IllegalArgumentException("Lane weights must be positive");
+
+      this.laneWeights = new int[] { high, normal, low };
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight of each tenant, across lanes. Defaults to no limit other
+     * than {@link #withMaxInFlight(int)}.
+     *
+     * @param maxInFlightPerTenant the maximum number of requests in flight of a tenant
+     * @return this {@link Builder} object
+     */
+    public Builder withMaxInFlightPerTenant(int maxInFlightPerTenant) {
+      if (maxInFlightPerTenant <= 0)
+        throw new IllegalArgumentException("The maximum number of requests in flight per tenant must be positive");
+
+      this.maxInFlightPerTenant = maxInFlightPerTenant;
+      return this;
+    }
+
+    /**
+     * Sets the function that names the tenant of an auth token. The requests of all the auth tokens of a tenant
+     * share its queues, and the tenant names are used in the per-tenant metrics.
+     *
+     * @param tenants a function from an auth token to the name of its tenant
+     * @return this {@link Builder} object
+     */
+    public Builder withTenants(Function<String, String> tenants) {
+      this.tenants = tenants;
+      return this;
+    }
+
+    /**
+     * Sets the function that weighs a tenant: the number of requests it may start each round. Defaults to 1
+     * for every tenant.
+     *
+     * @param weights a function from a tenant, named as by {@link #withTenants(Function)}, to its weight
+     * @return this {@link Builder} object
+     */
+    public Builder withWeights(ToIntFunction<String> weights) {
+      this.weights = weights;
+      return this;
+    }
+
+    /**
+     * Sets a {@link MetricRegistry} that the scheduler will use to track queue times.
+     *
+     * @param registry the {@link MetricRegistry} instance.
+     * @return this {@link Builder} object
+     */
+    public Builder withMetrics(MetricRegistry registry) {
+      this.registry = registry;
+      return this;
+    }
+
+    /**
+     * Sets the name of the scheduler, appended to the names of its metrics so that several schedulers can share
+     * a {@link MetricRegistry}. Unnamed by default.
+     *
+     * @param name the name of the scheduler
+     * @return this {@link Builder} object
+     */
+    public Builder withName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    /**
+     * @return a newly constructed {@link RequestScheduler} with its configuration based on
+     * the settings of the {@link Builder} instance.
+     */
+    public RequestScheduler build() {
+      return new RequestScheduler(this);
+    }
+  }
+
+  /**
+   * A request waiting in the queue of its tenant.
+   */
+  private static final class Pending<T> {
+    final Tenant tenant;
+    final Lane lane;
+    final Supplier<CompletableFuture<T>> request;
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final long enqueued = System.nanoTime();
+
+    Pending(Tenant tenant, Lane lane, Supplier<CompletableFuture<T>> request) {
+      this.tenant = tenant;
+      this.lane = lane;
+      this.request = request;
+    }
+  }
+
+  /**
+   * The queues of a tenant, one per lane, which are only kept while the tenant has requests queued or in flight.
+   */
+  private static final class Tenant {
+    final String key;
+    final int weight;
+    final Timer queueTime;
+    final ArrayDeque<Pending<?>>[] queues;
+    final int[] deficits = new int[PRIORITIES.length];
+    final boolean[] active = new boolean[PRIORITIES.length];
+    int queued;
+    int inFlight;
+
+    // generic arrays can only be created raw
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Tenant(String key, int weight, Timer queueTime) {
+      this.key = key;
+      this.weight = weight;
+      this.queueTime = queueTime;
+      this.queues = new ArrayDeque[PRIORITIES.length];
+
+      for (int i = 0; i < queues.length; i++)
+        queues[i] = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * The tenants with requests of a priority, in round robin order.
+   */
+  private final class Lane {
+    final int index;
+    final int maxInFlight;
+    final int weight;
+    final Timer queueTime;
+    final ArrayDeque<Tenant> active = new ArrayDeque<>();
+    int inFlight;
+    int deficit;
+
+    Lane(Priority priority, int maxInFlight, int weight) {
+      this.index = priority.ordinal();
+      this.maxInFlight = maxInFlight;
+      this.weight = weight;
+
+      if (registry != null) {
+        String lane = priority.name().toLowerCase(Locale.ROOT);
+        this.queueTime = registry.timer(MetricRegistry.name("fauna-scheduler-queue-time", lane, name));
+        registry.register(MetricRegistry.name("fauna-scheduler-in-flight", lane, name),
+          (Gauge<Integer>) () -> RequestScheduler.this.inFlight(this));
+      } else {
+        this.queueTime = null;
+      }
+    }
+
+    boolean isReady() {
+      return !active.isEmpty() && inFlight < maxInFlight;
+    }
+
+    /**
+     * @return the next request of the lane, or null if all its tenants are at their cap
+     */
+    Pending<?> poll() {
+      // Tenants at their cap are skipped, until a whole round has been skipped
+      for (int skipped = 0; skipped < active.size(); skipped++) {
+        Tenant tenant = active.peekFirst();
+
+        if (tenant.inFlight >= maxInFlightPerTenant) {
+          active.addLast(active.pollFirst());
+          continue;
+        }
+
+        if (tenant.deficits[index] == 0)
+          tenant.deficits[index] = tenant.weight;
+
+        ArrayDeque<Pending<?>> queue = tenant.queues[index];
+        Pending<?> pending = queue.poll();
+        tenant.deficits[index]--;
+
+        if (queue.isEmpty()) {
+          active.pollFirst();
+          tenant.active[index] = false;
+          tenant.deficits[index] = 0;
+        } else if (tenant.deficits[index] == 0) {
+          active.addLast(active.pollFirst());
+        }
+
+        return pending;
+      }
+
+      return null;
+    }
+  }
+
+  private final int maxInFlight;
+  private final int maxInFlightPerTenant;
+  private final boolean weightedLanes;
+  private final Function<String, String> tenantNames;
+  private final ToIntFunction<String> weights;
+  private final MetricRegistry registry;
+  private final String name;
+  private final Timer queueTime;
+  private final Lane[] lanes;
+
+  private final Map<String, Tenant> tenants = new HashMap<>();
+  // the lane picked next when lanes are weighted
+  private int laneCursor;
+  // whether a thread is starting requests, which it keeps doing until none can be started
+  private boolean dispatching;
+  private int inFlight;
+  private int queued;
+
+  private RequestScheduler(Builder builder) {
+    this.maxInFlight = builder.maxInFlight;
+    this.maxInFlightPerTenant = builder.maxInFlightPerTenant;
+    this.weightedLanes = builder.laneWeights != null;
+    this.tenantNames = builder.tenants;
+    this.weights = builder.weights;
+    this.registry = builder.registry;
+    this.name = builder.name;
+    this.lanes = new Lane[PRIORITIES.length];
+
+    for (Priority priority : PRIORITIES) {
+      lanes[priority.ordinal()] = new Lane(priority,
+        builder.maxInFlightPerLane.getOrDefault(priority, maxInFlight),
+        weightedLanes ? builder.laneWeights[priority.ordinal()] : 1);
+    }
+
+    if (registry != null) {
+      this.queueTime = registry.timer(MetricRegistry.name("fauna-scheduler-queue-time", name));
+      registry.register(MetricRegistry.name("fauna-scheduler-in-flight", name), (Gauge<Integer>) this::inFlight);
+      registry.register(MetricRegistry.name("fauna-scheduler-queued", name), (Gauge<Integer>) this::queued);
+    } else {
+      this.queueTime = null;
+    }
+  }
+
+  /**
+   * Returns the tenant of an auth token, which the requests sent with the auth token are scheduled for.
+   *
+   * @param authToken the auth token
+   * @return the name of its tenant, or the auth token itself if no tenant names are set
+   */
+  public String tenantOf(String authToken) {
+    String token = authToken == null ? "" : authToken;
+    return tenantNames == null ? token : tenantNames.apply(token);
+  }
+
+  /**
+   * Schedules a request of a tenant with {@link Priority#NORMAL} priority.
+   *
+   * @see #submit(String, Priority, Supplier)
+   */
+  public <T> CompletableFuture<T> submit(String tenant, Supplier<CompletableFuture<T>> request) {
+    return submit(tenant, Priority.NORMAL, request);
+  }
+
+  /**
+   * Schedules a request of a tenant. The request is started once its turn comes, and its result completes
+   * the returned {@link CompletableFuture}.
+   *
+   * @param tenant the tenant of the request, as returned by {@link #tenantOf(String)}
+   * @param priority the priority of the request
+   * @param request starts the request, and returns its result
+   * @param <T> the type of the result
+   * @return a {@link CompletableFuture} completed with the result of the request
+   */
+  public <T> CompletableFuture<T> submit(String tenant, Priority priority, Supplier<CompletableFuture<T>> request) {
+    Pending<T> pending;
+
+    synchronized (this) {
+      Tenant queues = tenants.computeIfAbsent(tenant, this::newTenant);
+      Lane lane = lanes[priority.ordinal()];
+      pending = new Pending<>(queues, lane, request);
+      queues.queues[lane.index].add(pending);
+      queues.queued++;
+      queued++;
+
+      if (!queues.active[lane.index]) {
+        queues.active[lane.index] = true;
+        lane.active.addLast(queues);
+      }
+    }
+
+    dispatch();
+    return pending.result;
+  }
+
+  /**
+   * @return the number of requests in flight
+   */
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @param priority the priority of the lane
+   * @return the number of requests in flight of the lane
+   */
+  public int inFlight(Priority priority) {
+    return inFlight(lanes[priority.ordinal()]);
+  }
+
+  private synchronized int inFlight(Lane lane) {
+    return lane.inFlight;
+  }
+
+  /**
+   * @return the number of queued requests
+   */
+  public synchronized int queued() {
+    return queued;
+  }
+
+  private Tenant newTenant(String key) {
+    Timer tenantQueueTime = registry != null && tenantNames != null ?
+      registry.timer(tenantQueueTimeName(key)) :
+      null;
+
+    return new Tenant(key, Math.max(1, weights.applyAsInt(key)), tenantQueueTime);
+  }
+
+  private String tenantQueueTimeName(String key) {
+    return MetricRegistry.name("fauna-tenant", key, "queue-time", name);
+  }
+
+  /**
+   * Starts requests until none can be started. Requests completing while they are started, such as those
+   * completing synchronously, leave the requests they make room for to the loop rather than dispatching
+   * them recursively.
+   */
+  private void dispatch() {
+    synchronized (this) {
+      if (dispatching)
+        return;
+
+      dispatching = true;
+    }
+
+    // poll stops dispatching once no request can be started, otherwise a failure must not leave it on for good
+    boolean drained = false;
+    try {
+      List<Pending<?>> started;
+      while ((started = poll()) != null) {
+        for (Pending<?> pending : started)
+          start(pending);
+      }
+      drained = true;
+    } finally {
+      if (!drained) {
+        synchronized (this) {
+          dispatching = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the requests to start, or null if none can be started, in which case dispatching stops
+   */
+  private synchronized List<Pending<?>> poll() {
+    List<Pending<?>> started = null;
+
+    // Lanes whose ready tenants are all at their cap are blocked until the next poll
+    boolean[] blocked = new boolean[lanes.length];
+
+    while (inFlight < maxInFlight) {
+      Lane lane = nextLane(blocked);
+      if (lane == null)
+        break;
+
+      Pending<?> pending = lane.poll();
+      if (pending == null) {
+        blocked[lane.index] = true;
+        lane.deficit = 0;
+        continue;
+      }
+
+      if (weightedLanes && --lane.deficit == 0)
+        laneCursor = (lane.index + 1) % lanes.length;
+
+      pending.tenant.queued--;
+      pending.tenant.inFlight++;
+      lane.inFlight++;
+      inFlight++;
+      queued--;
+
+      if (started == null)
+        started = new ArrayList<>();
+      started.add(pending);
+    }
+
+    if (started == null)
+      dispatching = false;
+
+    return started;
+  }
+
+  /**
+   * @return the lane to start a request of, or null if no lane is ready
+   */
+  private Lane nextLane(boolean[] blocked) {
+    if (!weightedLanes) {
+      for (Lane lane : lanes) {
+        if (!blocked[lane.index] && lane.isReady())
+          return lane;
+      }
+
+      return null;
+    }
+
+    for (int i = 0; i < lanes.length; i++) {
+      Lane lane = lanes[(laneCursor + i) % lanes.length];
+
+      if (blocked[lane.index] || !lane.isReady()) {
+        lane.deficit = 0;
+        continue;
+      }
+
+      if (lane.deficit == 0)
+        lane.deficit = lane.weight;
+
+      laneCursor = lane.index;
+      return lane;
+    }
+
+    return null;
+  }
+
+  private <T> void start(Pending<T> pending) {
+    long waited = System.nanoTime() - pending.enqueued;
+    update(queueTime, waited);
+    update(pending.lane.queueTime, waited);
+    update(pending.tenant.queueTime, waited);
+
+    CompletableFuture<T> request;
+    try {
+      request = pending.request.get();
+      if (request == null)
+        throw new NullPointerException("The request returned a null future");
+    } catch (RuntimeException | Error ex) {
+      request = CompletableFuture.failedFuture(ex);
+    }
+
+    request.whenComplete((value, ex) -> {
+      release(pending);
+
+      if (ex != null)
+        pending.result.completeExceptionally(ex);
+      else
+        pending.result.complete(value);
+    });
+  }
+
+  private void release(Pending<?> pending) {
+    synchronized (this) {
+      Tenant tenant = pending.tenant;
+      tenant.inFlight--;
+      pending.lane.inFlight--;
+      inFlight--;
+
+      if (tenant.inFlight == 0 && tenant.queued == 0) {
+        tenants.remove(tenant.key);
+
+        if (tenant.queueTime != null)
+          registry.remove(tenantQueueTimeName(tenant.key));
+      }
+    }
+
+    dispatch();
+  }
+
+  private static void update(Timer timer, long elapsed) {
+    if (timer != null)
+      timer.update(elapsed, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,149 @@
+package com.faunadb.common;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * High-resolution timestamps, as returned by {@link System#nanoTime()}, for each phase of a single request.
+ *
+ * <p>Instances are created by {@link Connection#startTimings(String)} and handed to the
+ * {@link RequestListener} once the request completes. A phase is recorded at most once:
+ * later marks of an already recorded phase are ignored. Phases may be marked and read from
+ * different threads.</p>
+ *
+ * @see RequestListener
+ */
+public final class RequestTimings {
+
+  /**
+   * The phases of a request, in the order they happen.
+   */
+  public enum Phase {
+    /** The request was handed to the driver. */
+    ENQUEUE,
+    /** The driver started serializing the request body. */
+    SERIALIZE_START,
+    /** The request body was fully serialized to bytes. */
+    SERIALIZE_END,
+    /** The request was handed to the HTTP client. */
+    SEND,
+    /** The response status and headers were received. */
+    FIRST_BYTE,
+    /** The response body was fully received. */
+    LAST_BYTE,
+    /** The response body was parsed into a JSON tree. */
+    PARSE_END,
+    /** The JSON tree was converted into the driver's value representation. */
+    DECODE_END
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+
+  // System.nanoTime() may return any value, including 0 or negative ones
+  private static final long UNSET = Long.MIN_VALUE;
+
+  static final RequestTimings DISABLED = new RequestTimings(null, "");
+
+  private final RequestListener listener;
+  private final String path;
+  private final AtomicLongArray stamps = new AtomicLongArray(PHASES.length);
+  private final AtomicBoolean completed = new AtomicBoolean(false);
+  private volatile int status;
+
+  RequestTimings(RequestListener listener, String path) {
+    this.listener = listener;
+    this.path = path;
+
+    for (int i = 0; i < PHASES.length; i++)
+      stamps.set(i, UNSET);
+  }
+
+  /**
+   * @return true if the timestamps are being recorded for a {@link RequestListener}
+   */
+  public boolean isEnabled() {
+    return listener != null;
+  }
+
+  /**
+   * Records the current time for the phase provided, unless it was already recorded.
+   *
+   * @param phase the phase reached
+   */
+  public void mark(Phase phase) {
+    if (listener == null)
+      return;
+
+    stamps.compareAndSet(phase.ordinal(), UNSET, System.nanoTime());
+  }
+
+  /**
+   * @param phase the phase to look up
+   * @return true if the phase was reached
+   */
+  public boolean isMarked(Phase phase) {
+    return stamps.get(phase.ordinal()) != UNSET;
+  }
+
+  /**
+   * @param phase the phase to look up
+   * @return the {@link System#nanoTime()} timestamp recorded for the phase, or {@link Long#MIN_VALUE} if never
+   * reached
+   */
+  public long get(Phase phase) {
+    return stamps.get(phase.ordinal());
+  }
+
+  /**
+   * @param from the starting phase
+   * @param to the ending phase
+   * @return the nanoseconds elapsed between both phases, or {@code -1} if any of them was never reached
+   */
+  public long elapsed(Phase from, Phase to) {
+    long start = get(from);
+    long end = get(to);
+
+    if (start == UNSET || end == UNSET)
+      return -1L;
+
+    return end - start;
+  }
+
+  /**
+   * @return the relative path of the request
+   */
+  public String path() {
+    return path;
+  }
+
+  /**
+   * @return the HTTP status code of the response, or {@code 0} if no response was received
+   */
+  public int status() {
+    return status;
+  }
+
+  void status(int status) {
+    this.status = status;
+  }
+
+  /**
+   * Notifies the {@link RequestListener} that the request has completed.
+   * Only the first call to either {@link #complete()} or {@link #fail(Throwable)} has any effect.
+   */
+  public void complete() {
+    if (listener != null && completed.compareAndSet(false, true))
+      listener.onRequestCompleted(this);
+  }
+
+  /**
+   * Notifies the {@link RequestListener} that the request has failed.
+   * Only the first call to either {@link #complete()} or {@link #fail(Throwable)} has any effect.
+   *
+   * @param cause the failure cause
+   */
+  public void fail(Throwable cause) {
+    if (listener != null && completed.compareAndSet(false, true))
+      listener.onRequestFailed(this, cause);
+  }
+}
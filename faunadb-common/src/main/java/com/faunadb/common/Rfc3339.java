@@ -0,0 +1,324 @@
+package com.faunadb.common;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parses and formats the RFC 3339 timestamps and dates of FaunaDB {@code @ts} and {@code @date} values.
+ *
+ * <p>The timestamps and dates sent by FaunaDB, such as {@code 2020-10-26T23:55:05.090123456Z} and
+ * {@code 2020-10-26}, are parsed and formatted field by field, without the general purpose
+ * {@link DateTimeFormatter}s. Anything else, such as years beyond 9999 or offsets without minutes, is handed to
+ * {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} and {@link DateTimeFormatter#ISO_LOCAL_DATE}, so the results and
+ * errors are the same as theirs.</p>
+ *
+ * <p>Formatted values are the same as {@link Instant#toString()} and {@link LocalDate#toString()}.</p>
+ *
+ * <p><b>WARNING:</b> Internal API. Must not be used in production code.</p>
+ */
+public final class Rfc3339 {
+
+  private static final long DAYS_0000_TO_1970 = 719528L;
+  private static final long DAYS_PER_CYCLE = 146097L;
+  private static final long SECONDS_PER_DAY = 86400L;
+  private static final long MIN_SECOND = -62167219200L; // 0000-01-01T00:00:00Z
+  private static final long MAX_SECOND = 253402300799L; // 9999-12-31T23:59:59Z
+
+  private static final int[] POWERS_OF_TEN = {
+    1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+  };
+
+  private Rfc3339() {
+  }
+
+  /**
+   * Parses a timestamp, as {@code Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(text))} would.
+   *
+   * @param text the timestamp
+   * @return the instant of the timestamp
+   * @throws java.time.format.DateTimeParseException if the text is not a valid timestamp
+   */
+  public static Instant parseInstant(CharSequence text) {
+    char[] chars = text.toString().toCharArray();
+    return parseInstant(chars, 0, chars.length);
+  }
+
+  /**
+   * Parses a timestamp from a range of a buffer, such as the text buffer of a JSON parser.
+   *
+   * @param chars the buffer
+   * @param offset the index of the first character of the timestamp
+   * @param length the number of characters of the timestamp
+   * @return the instant of the timestamp
+   * @throws java.time.format.DateTimeParseException if the text is not a valid timestamp
+   * @see #parseInstant(CharSequence)
+   */
+  public static Instant parseInstant(char[] chars, int offset, int length) {
+    Instant instant = tryParseInstant(chars, offset, length);
+    if (instant != null)
+      return instant;
+
+    return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(new String(chars, offset, length)));
+  }
+
+  /**
+   * Parses a date, as {@code LocalDate.parse(text)} would.
+   *
+   * @param text the date
+   * @return the date
+   * @throws java.time.format.DateTimeParseException if the text is not a valid date
+   */
+  public static LocalDate parseDate(CharSequence text) {
+    char[] chars = text.toString().toCharArray();
+    return parseDate(chars, 0, chars.length);
+  }
+
+  /**
+   * Parses a date from a range of a buffer, such as the text buffer of a JSON parser.
+   *
+   * @param chars the buffer
+   * @param offset the index of the first character of the date
+   * @param length the number of characters of the date
+   * @return the date
+   * @throws java.time.format.DateTimeParseException if the text is not a valid date
+   * @see #parseDate(CharSequence)
+   */
+  public static LocalDate parseDate(char[] chars, int offset, int length) {
+    if (length == 10 && isDate(chars, offset)) {
+      int year = digits(chars, offset, 4);
+      int month = digits(chars, offset + 5, 2);
+      int day = digits(chars, offset + 8, 2);
+
+      if (month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month))
+        return LocalDate.of(year, month, day);
+    }
+
+    return LocalDate.parse(new String(chars, offset, length));
+  }
+
+  /**
+   * Formats an instant, as {@link Instant#toString()} does.
+   *
+   * @param instant the instant
+   * @return the formatted timestamp
+   */
+  public static String format(Instant instant) {
+    long seconds = instant.getEpochSecond();
+    int nanos = instant.getNano();
+
+    if (seconds < MIN_SECOND || seconds > MAX_SECOND)
+      return instant.toString();
+
+    int fraction = nanos == 0 ? 0 : nanos % 1_000_000 == 0 ? 3 : nanos % 1_000 == 0 ? 6 : 9;
+    char[] chars = new char[fraction == 0 ? 20 : 21 + fraction];
+
+    long epochDay = Math.floorDiv(seconds, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(seconds, SECONDS_PER_DAY);
+
+    writeDate(chars, epochDay);
+    chars[10] = 'T';
+    write(chars, 11, secondOfDay / 3600, 2);
+    chars[13] = ':';
+    write(chars, 14, secondOfDay / 60 % 60, 2);
+    chars[16] = ':';
+    write(chars, 17, secondOfDay % 60, 2);
+
+    if (fraction > 0) {
+      chars[19] = '.';
+      write(chars, 20, nanos / POWERS_OF_TEN[9 - fraction], fraction);
+    }
+
+    chars[chars.length - 1] = 'Z';
+    return new String(chars);
+  }
+
+  /**
+   * Formats a date, as {@link LocalDate#toString()} does.
+   *
+   * @param date the date
+   * @return the formatted date
+   */
+  public static String format(LocalDate date) {
+    int year = date.getYear();
+
+    if (year < 0 || year > 9999)
+      return date.toString();
+
+    char[] chars = new char[10];
+    write(chars, 0, year, 4);
+    chars[4] = '-';
+    write(chars, 5, date.getMonthValue(), 2);
+    chars[7] = '-';
+    write(chars, 8, date.getDayOfMonth(), 2);
+    return new String(chars);
+  }
+
+  /**
+   * Parses timestamps of the form {@code yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:mm|-HH:mm)}.
+   *
+   * @return the instant, or null if the timestamp has another form or is out of range
+   */
+  private static Instant tryParseInstant(char[] chars, int offset, int length) {
+    // yyyy-MM-ddTHH:mmZ is the shortest form
+    if (length < 17 || !isDate(chars, offset) || chars[offset + 10] != 'T' ||
+      !isDigits(chars, offset + 11, 2) || chars[offset + 13] != ':' || !isDigits(chars, offset + 14, 2))
+      return null;
+
+    int year = digits(chars, offset, 4);
+    int month = digits(chars, offset + 5, 2);
+    int day = digits(chars, offset + 8, 2);
+    int hour = digits(chars, offset + 11, 2);
+    int minute = digits(chars, offset + 14, 2);
+    int second = 0;
+    int nanos = 0;
+
+    int end = offset + length;
+    int i = offset + 16;
+
+    if (chars[i] == ':') {
+      if (i + 3 > end || !isDigits(chars, i + 1, 2))
+        return null;
+
+      second = digits(chars, i + 1, 2);
+      i += 3;
+
+      if (i < end && chars[i] == '.') {
+        int start = ++i;
+        while (i < end && i - start < 9 && isDigit(chars[i]))
+          i++;
+
+        int count = i - start;
+        if (count == 0)
+          return null;
+
+        nanos = digits(chars, start, count) * POWERS_OF_TEN[9 - count];
+      }
+    }
+
+    int offsetSeconds;
+
+    if (i == end - 1 && chars[i] == 'Z') {
+      offsetSeconds = 0;
+    } else if (i == end - 6 && (chars[i] == '+' || chars[i] == '-') &&
+      isDigits(chars, i + 1, 2) && chars[i + 3] == ':' && isDigits(chars, i + 4, 2)) {
+      int offsetHours = digits(chars, i + 1, 2);
+      int offsetMinutes = digits(chars, i + 4, 2);
+
+      if (offsetHours > 18 || offsetMinutes > 59 || offsetHours == 18 && offsetMinutes > 0)
+        return null;
+
+      offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (chars[i] == '-' ? -1 : 1);
+    } else {
+      return null;
+    }
+
+    if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) ||
+      hour > 23 || minute > 59 || second > 59)
+      return null;
+
+    long seconds = toEpochDay(year, month, day) * SECONDS_PER_DAY +
+      hour * 3600 + minute * 60 + second - offsetSeconds;
+
+    return Instant.ofEpochSecond(seconds, nanos);
+  }
+
+  private static boolean isDate(char[] chars, int offset) {
+    return isDigits(chars, offset, 4) && chars[offset + 4] == '-' &&
+      isDigits(chars, offset + 5, 2) && chars[offset + 7] == '-' &&
+      isDigits(chars, offset + 8, 2);
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isDigits(char[] chars, int offset, int count) {
+    for (int i = offset; i < offset + count; i++) {
+      if (!isDigit(chars[i]))
+        return false;
+    }
+
+    return true;
+  }
+
+  private static int digits(char[] chars, int offset, int count) {
+    int value = 0;
+
+    for (int i = offset; i < offset + count; i++)
+      value = value * 10 + (chars[i] - '0');
+
+    return value;
+  }
+
+  private static void write(char[] chars, int offset, int value, int count) {
+    for (int i = offset + count - 1; i >= offset; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static boolean isLeapYear(long year) {
+    return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  // Same as LocalDate.toEpochDay(), for years 0 to 9999
+  private static long toEpochDay(int year, int month, int day) {
+    long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+    total += (367 * month - 362) / 12;
+    total += day - 1;
+
+    if (month > 2) {
+      total--;
+      if (!isLeapYear(year))
+        total--;
+    }
+
+    return total - DAYS_0000_TO_1970;
+  }
+
+  // Same as LocalDate.ofEpochDay(epochDay).toString(), for years 0 to 9999
+  private static void writeDate(char[] chars, long epochDay) {
+    long zeroDay = epochDay + DAYS_0000_TO_1970 - 60; // days since 0000-03-01
+    long adjust = 0;
+
+    if (zeroDay < 0) {
+      long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+      adjust = adjustCycles * 400;
+      zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+    }
+
+    long year = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+    long dayOfYear = zeroDay - (365 * year + year / 4 - year / 100 + year / 400);
+
+    if (dayOfYear < 0) {
+      year--;
+      dayOfYear = zeroDay - (365 * year + year / 4 - year / 100 + year / 400);
+    }
+
+    int marchMonth = (int) (dayOfYear * 5 + 2) / 153;
+    int month = (marchMonth + 2) % 12 + 1;
+    int day = (int) dayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+    year += adjust + marchMonth / 10;
+
+    write(chars, 0, (int) year, 4);
+    chars[4] = '-';
+    write(chars, 5, month, 2);
+    chars[7] = '-';
+    write(chars, 8, day, 2);
+  }
+}
@@ -0,0 +1,27 @@
+package com.faunadb.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event emitted by {@link FaunaClient} while parsing a query response
+ * and converting it into a {@link com.faunadb.client.types.Value} tree. Only decodes that
+ * exceed the configured threshold are recorded.
+ */
+@Name("com.faunadb.Decode")
+@Label("FaunaDB Response Decode")
+@Category({"FaunaDB", "Driver"})
+@Description("Parsing and decoding of a FaunaDB query response")
+@Threshold("10 ms")
+@StackTrace(false)
+final class DecodeEvent extends jdk.jfr.Event {
+
+  @Label("Response Size")
+  @DataAmount(DataAmount.BYTES)
+  long responseBytes;
+}
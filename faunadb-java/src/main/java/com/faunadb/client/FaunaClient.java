@@ -1,20 +1,35 @@
 package com.faunadb.client;
 
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.faunadb.client.errors.*;
 import com.faunadb.client.query.Expr;
+import com.faunadb.client.query.PreparedQuery;
+import com.faunadb.client.query.QueryShape;
 import com.faunadb.client.streaming.BodyValueFlowProcessor;
 import com.faunadb.client.streaming.EventField;
+import com.faunadb.client.streaming.QueryFlowProcessor;
 import com.faunadb.client.streaming.SnapshotEventFlowProcessor;
+import com.faunadb.client.types.Codec;
+import com.faunadb.client.types.Decoder;
 import com.faunadb.client.types.Field;
+import com.faunadb.client.types.FieldSet;
+import com.faunadb.client.types.LazyValues;
+import com.faunadb.client.types.Result;
 import com.faunadb.client.types.Value;
 import com.faunadb.common.Connection;
 import com.faunadb.common.Connection.JvmDriver;
+import com.faunadb.common.Priority;
+import com.faunadb.common.RequestListener;
+import com.faunadb.common.RequestScheduler;
+import com.faunadb.common.RequestTimings;
 import com.faunadb.client.types.Value.NullV;
 
 import java.io.IOException;
@@ -28,7 +43,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Flow;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -84,6 +101,11 @@ public class FaunaClient {
     private URL endpoint;
     private MetricRegistry registry;
     private Duration queryTimeout;
+    private RequestListener requestListener;
+    private RequestScheduler scheduler;
+    private QueryShapeRegistry queryShapes;
+    private boolean lazyValues;
+    private boolean stacklessExceptions;
 
     private Builder() {
     }
@@ -134,6 +156,81 @@ public class FaunaClient {
       return this;
     }
 
+    /**
+     * Sets a {@link RequestListener} that receives the per-phase timestamps of every query issued by
+     * the {@link FaunaClient}, from serialization to the decoding of the response.
+     *
+     * @param listener the {@link RequestListener} instance
+     * @return this {@link Builder} object
+     * @see com.faunadb.common.MetricsRequestListener
+     */
+    public Builder withRequestListener(RequestListener listener) {
+      this.requestListener = listener;
+      return this;
+    }
+
+    /**
+     * Sets a {@link RequestScheduler} that schedules the queries of the {@link FaunaClient} and of its
+     * session clients fairly across their secrets, so a tenant issuing many queries cannot starve the others.
+     *
+     * @param scheduler the {@link RequestScheduler} instance
+     * @return this {@link Builder} object
+     */
+    public Builder withScheduler(RequestScheduler scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Sets a {@link QueryShapeRegistry} that tracks latency, size and cost metrics per query shape.
+     * Session clients created from the {@link FaunaClient} share the same registry.
+     *
+     * @param queryShapes the {@link QueryShapeRegistry} instance
+     * @return this {@link Builder} object
+     * @see QueryShape
+     */
+    public Builder withQueryShapes(QueryShapeRegistry queryShapes) {
+      this.queryShapes = queryShapes;
+      return this;
+    }
+
+    /**
+     * Sets whether the {@link Value} trees returned by the {@link FaunaClient} are materialized lazily.
+     * <p>
+     * Lazy values keep the text of the response, and only turn the objects and arrays that are accessed into
+     * values, the first time they are accessed. This saves parsing time and memory when reading a few fields
+     * of large documents, but retains the whole response as long as any part of it is reachable.
+     * Defaults to false.
+     *
+     * @param lazyValues whether values are materialized lazily
+     * @return this {@link Builder} object
+     * @see LazyValues
+     */
+    public Builder withLazyValues(boolean lazyValues) {
+      this.lazyValues = lazyValues;
+      return this;
+    }
+
+    /**
+     * Sets whether the exceptions for error responses, such as {@link NotFoundException}, are created without
+     * a stack trace.
+     * <p>
+     * Filling in the stack trace is most of the cost of an exception. Applications that use errors as part of
+     * their normal flow, such as checking for a document with a query that fails if it does not exist, can
+     * turn it off. The exceptions then point to where the response was handled rather than where the query was
+     * issued, which is rarely useful for asynchronous queries anyway. Their error responses are also only
+     * parsed when they are inspected, so an error response that cannot be parsed reads as having no errors,
+     * rather than failing with an {@link UnknownException}. Defaults to false.
+     *
+     * @param stacklessExceptions whether exceptions for error responses are created without a stack trace
+     * @return this {@link Builder} object
+     * @see FaunaClient#tryQuery(Expr)
+     */
+    public Builder withStacklessExceptions(boolean stacklessExceptions) {
+      this.stacklessExceptions = stacklessExceptions;
+      return this;
+    }
+
     /**
      * Returns a newly constructed {@link FaunaClient} with configuration based on the settings of this {@link Builder}.
      * @return {@link FaunaClient}
@@ -146,27 +243,58 @@ public class FaunaClient {
         .withJvmDriver(JvmDriver.JAVA);
 
       if (registry != null) builder.withMetrics(registry);
+      if (requestListener != null) builder.withRequestListener(requestListener);
+      if (scheduler != null) builder.withScheduler(scheduler);
 
-      return new FaunaClient(builder.build());
+      return new FaunaClient(builder.build(), queryShapes, lazyValues, stacklessExceptions);
     }
   }
 
-  private final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+  // Shared with session clients: they are immutable once configured, and their serializer caches are warm
+  private final ObjectMapper json;
+  private final ObjectWriter writer;
   private final Connection connection;
+  private final QueryShapeRegistry queryShapes;
+  private final boolean lazyValues;
+  private final boolean stacklessExceptions;
+
+  private FaunaClient(Connection connection, QueryShapeRegistry queryShapes, boolean lazyValues,
+                      boolean stacklessExceptions) {
+    this.json = new ObjectMapper().registerModule(new Jdk8Module());
+    this.writer = json.writer();
+    this.connection = connection;
+    this.queryShapes = queryShapes;
+    this.lazyValues = lazyValues;
+    this.stacklessExceptions = stacklessExceptions;
+  }
 
-  private FaunaClient(Connection connection) {
+  private FaunaClient(FaunaClient parent, Connection connection) {
+    this.json = parent.json;
+    this.writer = parent.writer;
     this.connection = connection;
+    this.queryShapes = parent.queryShapes;
+    this.lazyValues = parent.lazyValues;
+    this.stacklessExceptions = parent.stacklessExceptions;
   }
 
   /**
    * Creates a session client with the user secret provided. Queries submitted to a session client will be
-   * authenticated with the secret provided. A session client shares its parent's {@link Connection} instance.
+   * authenticated with the secret provided. A session client shares its parent's {@link Connection} instance,
+   * and its JSON serializers and deserializers, so creating one is cheap.
    *
    * @param secret user secret for the session client
    * @return a new {@link FaunaClient}
+   * @see SessionClientPool
    */
   public FaunaClient newSessionClient(String secret) {
-    return new FaunaClient(connection.newSessionConnection(secret));
+    return new FaunaClient(this, connection.newSessionConnection(secret));
+  }
+
+  /**
+   * Creates a session client whose requests are also reported to the {@link RequestListener} provided.
+   */
+  FaunaClient newSessionClient(String secret, RequestListener listener) {
+    return new FaunaClient(this, connection.newSessionConnection(secret, listener));
   }
 
   /**
@@ -223,7 +351,231 @@ public class FaunaClient {
    * @see com.faunadb.client.query.Language
    */
   public CompletableFuture<Value> query(Expr expr, Optional<Duration> timeout) {
-    return performRequest(json.valueToTree(expr), timeout);
+    return performRequest(expr, () -> QueryShape.of(expr), timeout);
+  }
+
+  /**
+   * Issues a Query to FaunaDB with the {@link QueryOptions} provided.
+   * <p>
+   * The priority of the options selects the lane the query is queued in by the {@link RequestScheduler}
+   * of this {@link FaunaClient}, so interactive queries can be preferred over batch ones.
+   *
+   * @param expr the query to be executed.
+   * @param options the options of the query, such as its timeout and priority.
+   * @return a {@link CompletableFuture} containing the root node of the response tree.
+   * @see QueryOptions
+   * @see Builder#withScheduler(RequestScheduler)
+   */
+  public CompletableFuture<Value> query(Expr expr, QueryOptions options) {
+    return performRequest(expr, () -> QueryShape.of(expr), options.timeout(), options.priority(), this::handleResponse);
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and waits for its result on the calling thread.
+   * <p>
+   * The request is sent and its response handled on the calling thread, without the asynchronous stages
+   * of {@link #query(Expr)}, which makes it cheaper than {@code query(expr).join()} for callers that block
+   * anyway, such as applications running each request on its own virtual thread. The calling thread does
+   * not hold any monitor while it waits.
+   * <p>
+   * When a {@link RequestScheduler} is set, the calling thread first waits for the turn of the query,
+   * then sends it itself.
+   *
+   * @param expr the query to be executed.
+   * @return the root node of the response tree.
+   * @throws FaunaException if FaunaDB returned an error, or {@link UnavailableException} if it could not
+   *         be reached or the calling thread was interrupted.
+   * @see #query(Expr)
+   */
+  public Value queryBlocking(Expr expr) {
+    return queryBlocking(expr, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and waits for its result on the calling thread.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return the root node of the response tree.
+   * @throws FaunaException if FaunaDB returned an error, or {@link UnavailableException} if it could not
+   *         be reached or the calling thread was interrupted.
+   * @see #queryBlocking(Expr)
+   */
+  public Value queryBlocking(Expr expr, Duration timeout) {
+    return queryBlocking(expr, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and waits for its result on the calling thread.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return the root node of the response tree.
+   * @throws FaunaException if FaunaDB returned an error, or {@link UnavailableException} if it could not
+   *         be reached or the calling thread was interrupted.
+   * @see #queryBlocking(Expr)
+   */
+  public Value queryBlocking(Expr expr, Optional<Duration> timeout) {
+    return queryBlocking(expr, timeout, Priority.NORMAL);
+  }
+
+  /**
+   * Issues a Query to FaunaDB with the options provided, and waits for its result on the calling thread.
+   *
+   * @param expr the query to be executed.
+   * @param options the timeout and scheduling priority of the query.
+   * @return the root node of the response tree.
+   * @throws FaunaException if FaunaDB returned an error, or {@link UnavailableException} if it could not
+   *         be reached or the calling thread was interrupted.
+   * @see #queryBlocking(Expr)
+   * @see #query(Expr, QueryOptions)
+   */
+  public Value queryBlocking(Expr expr, QueryOptions options) {
+    return queryBlocking(expr, options.timeout(), options.priority());
+  }
+
+  private Value queryBlocking(Expr expr, Optional<Duration> timeout, Priority priority) {
+    final long start = System.nanoTime();
+    RequestTimings timings = connection.startTimings("");
+    timings.mark(RequestTimings.Phase.SERIALIZE_START);
+    byte[] body = serialize(expr);
+    timings.mark(RequestTimings.Phase.SERIALIZE_END);
+
+    try {
+      HttpResponse<String> response = connection.postBlocking("", body, timeout, timings, priority);
+      if (queryShapes != null) queryShapes.record(QueryShape.of(expr), response, System.nanoTime() - start);
+
+      Value value = handleResponse(response, timings);
+      timings.complete();
+      return value;
+    } catch (IOException ex) {
+      throw new UnavailableException(ex.getMessage(), ex);
+    } catch (InterruptedException ex) {
+      timings.fail(ex);
+      Thread.currentThread().interrupt();
+      throw new UnavailableException("interrupted while waiting for the response", ex);
+    } catch (RuntimeException | Error ex) {
+      timings.fail(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns an empty result instead of failing if the query
+   * reads something that does not exist.
+   * <p>
+   * A {@link NotFoundException} completes the returned {@link CompletableFuture} with an empty
+   * {@link Optional}, without creating an exception or parsing the error response. Any other
+   * error fails it, as {@link #query(Expr)} does.
+   *
+   * @param expr the query to be executed.
+   * @return a {@link CompletableFuture} containing the root node of the response tree, or empty
+   *         if FaunaDB returned a 404 (Not Found) response.
+   * @see #tryQuery(Expr)
+   */
+  public CompletableFuture<Optional<Value>> queryOptional(Expr expr) {
+    return queryOptional(expr, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns an empty result instead of failing if the query
+   * reads something that does not exist.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the root node of the response tree, or empty
+   *         if FaunaDB returned a 404 (Not Found) response.
+   * @see #queryOptional(Expr)
+   */
+  public CompletableFuture<Optional<Value>> queryOptional(Expr expr, Duration timeout) {
+    return queryOptional(expr, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns an empty result instead of failing if the query
+   * reads something that does not exist.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the root node of the response tree, or empty
+   *         if FaunaDB returned a 404 (Not Found) response.
+   * @see #queryOptional(Expr)
+   */
+  public CompletableFuture<Optional<Value>> queryOptional(Expr expr, Optional<Duration> timeout) {
+    return performRequest(expr, () -> QueryShape.of(expr), timeout, (response, timings) -> {
+      if (response.statusCode() == 404) {
+        timings.complete();
+        return Optional.empty();
+      }
+
+      return Optional.of(handleResponse(response, timings));
+    });
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns the errors FaunaDB responds with as a {@link QueryOutcome}
+   * instead of failing.
+   * <p>
+   * The exceptions of failed outcomes are created without a stack trace, and their error response is
+   * only parsed when they are inspected, so errors that are part of the normal flow of an application,
+   * such as a {@link NotFoundException} or a {@link BadRequestException} for a unique constraint, cost
+   * little more than a successful query. An error response that cannot be parsed reads as having no errors.
+   * The returned {@link CompletableFuture} still fails if FaunaDB cannot be reached, or if the response
+   * cannot be read.
+   *
+   * @param expr the query to be executed.
+   * @return a {@link CompletableFuture} containing the outcome of the query.
+   * @see QueryOutcome
+   */
+  public CompletableFuture<QueryOutcome<Value>> tryQuery(Expr expr) {
+    return tryQuery(expr, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns the errors FaunaDB responds with as a {@link QueryOutcome}
+   * instead of failing.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the outcome of the query.
+   * @see #tryQuery(Expr)
+   */
+  public CompletableFuture<QueryOutcome<Value>> tryQuery(Expr expr, Duration timeout) {
+    return tryQuery(expr, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB, and returns the errors FaunaDB responds with as a {@link QueryOutcome}
+   * instead of failing.
+   *
+   * @param expr the query to be executed.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the outcome of the query.
+   * @see #tryQuery(Expr)
+   */
+  public CompletableFuture<QueryOutcome<Value>> tryQuery(Expr expr, Optional<Duration> timeout) {
+    return performRequest(expr, () -> QueryShape.of(expr), timeout, (response, timings) -> {
+      FaunaException error = queryError(response.statusCode(), response.body(), true);
+
+      if (error != null) {
+        timings.fail(error);
+        return QueryOutcome.failure(error);
+      }
+
+      return QueryOutcome.success(handleResponse(response, timings));
+    });
   }
 
   /**
@@ -285,7 +637,266 @@ public class FaunaClient {
    * @return a {@link CompletableFuture} containing an ordered list of the query's responses.
    */
   public CompletableFuture<List<Value>> query(List<? extends Expr> exprs, Optional<Duration> timeout) {
-    return performRequest(json.valueToTree(exprs), timeout).thenApply(result -> result.collect(Field.as(VALUE)));
+    return performRequest(exprs, () -> QueryShape.of(exprs), timeout).thenApply(result -> result.collect(Field.as(VALUE)));
+  }
+
+  /**
+   * Issues multiple queries to FaunaDB, in a single request, with the {@link QueryOptions} provided.
+   *
+   * @param exprs the list of queries to be sent to FaunaDB.
+   * @param options the options of the request, such as its timeout and priority.
+   * @return a {@link CompletableFuture} containing an ordered list of the query's responses.
+   * @see #query(Expr, QueryOptions)
+   */
+  public CompletableFuture<List<Value>> query(List<? extends Expr> exprs, QueryOptions options) {
+    return performRequest(exprs, () -> QueryShape.of(exprs), options.timeout(), options.priority(), this::handleResponse)
+      .thenApply(result -> result.collect(Field.as(VALUE)));
+  }
+
+  /**
+   * Issues a Query to FaunaDB for each expression of the {@link Flow.Publisher} provided, and publishes
+   * their results.
+   * <p>
+   * At most {@code maxInFlight} queries are in flight, or have a result waiting for the subscriber, at a
+   * time. Expressions are only requested from the publisher provided as results are consumed, so large
+   * pipelines run at the throughput of the cluster and of their subscriber, without accumulating pending
+   * queries in memory. The returned publisher subscribes to the one provided right away, and issues queries
+   * once it has a subscriber itself.
+   * <p>
+   * The first failed query fails the returned publisher, and cancels the subscription to the publisher provided.
+   *
+   * @param exprs the queries to be executed.
+   * @param maxInFlight the maximum number of queries in flight.
+   * @param ordered if true results are published in the order of their expressions, otherwise as soon as
+   *                their query completes.
+   * @return a {@link java.util.concurrent.Flow.Publisher} of the results of the queries.
+   * @see QueryFlowProcessor
+   */
+  public Flow.Publisher<Value> query(Flow.Publisher<? extends Expr> exprs, int maxInFlight, boolean ordered) {
+    return query(exprs, maxInFlight, ordered, QueryOptions.defaults());
+  }
+
+  /**
+   * Issues a Query to FaunaDB for each expression of the {@link Flow.Publisher} provided, with the
+   * {@link QueryOptions} provided, and publishes their results. For example, batch jobs can use
+   * {@link Priority#LOW} to leave capacity to interactive queries.
+   *
+   * @param exprs the queries to be executed.
+   * @param maxInFlight the maximum number of queries in flight.
+   * @param ordered if true results are published in the order of their expressions, otherwise as soon as
+   *                their query completes.
+   * @param options the options of the queries, such as their timeout and priority.
+   * @return a {@link java.util.concurrent.Flow.Publisher} of the results of the queries.
+   * @see #query(Flow.Publisher, int, boolean)
+   */
+  public Flow.Publisher<Value> query(Flow.Publisher<? extends Expr> exprs, int maxInFlight, boolean ordered,
+                                     QueryOptions options) {
+    QueryFlowProcessor queryFlowProcessor = new QueryFlowProcessor(expr -> query(expr, options), maxInFlight, ordered);
+    exprs.subscribe(queryFlowProcessor);
+    return queryFlowProcessor;
+  }
+
+  /**
+   * Issues a Query to FaunaDB and decodes its result straight into the class provided.
+   * <p>
+   * The response is decoded from the JSON tokens into the result type, with the same rules as
+   * {@link Value#to(Class)}, but without materializing it as a {@link Value} first. Fields of the
+   * response that are not mapped to the result type are skipped.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param resultType the class the result is decoded to, as supported by {@link Decoder}.
+   * @return a {@link CompletableFuture} containing the decoded result. It fails with an
+   *         {@link IllegalStateException} if the result cannot be decoded.
+   * @see Decoder#decodeFrom(JsonParser, Class)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Class<T> resultType) {
+    return query(expr, resultType, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB and decodes its result straight into the class provided.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param resultType the class the result is decoded to, as supported by {@link Decoder}.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the decoded result.
+   * @see #query(Expr, Class)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Class<T> resultType, Duration timeout) {
+    return query(expr, resultType, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB and decodes its result straight into the class provided.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param resultType the class the result is decoded to, as supported by {@link Decoder}.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the decoded result.
+   * @see #query(Expr, Class)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Class<T> resultType, Optional<Duration> timeout) {
+    return performRequest(expr, () -> QueryShape.of(expr), timeout,
+      (response, timings) -> handleResponse(response, timings, parser -> Decoder.decodeFrom(parser, resultType)));
+  }
+
+  /**
+   * Issues a Query to FaunaDB and converts its result with the {@link Codec} provided.
+   * <p>
+   * The result is read into a {@link Value} straight from the JSON tokens, without building
+   * an intermediate JSON tree.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param codec the {@link Codec} used to convert the result.
+   * @return a {@link CompletableFuture} containing the converted result. It fails with an
+   *         {@link IllegalStateException} if the codec fails.
+   * @see Value#to(Codec)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Codec<T> codec) {
+    return query(expr, codec, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB and converts its result with the {@link Codec} provided.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param codec the {@link Codec} used to convert the result.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the converted result.
+   * @see #query(Expr, Codec)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Codec<T> codec, Duration timeout) {
+    return query(expr, codec, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB and converts its result with the {@link Codec} provided.
+   *
+   * @param <T> the result type.
+   * @param expr the query to be executed.
+   * @param codec the {@link Codec} used to convert the result.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the converted result.
+   * @see #query(Expr, Codec)
+   */
+  public <T> CompletableFuture<T> query(Expr expr, Codec<T> codec, Optional<Duration> timeout) {
+    return performRequest(expr, () -> QueryShape.of(expr), timeout,
+      (response, timings) -> handleResponse(response, timings, parser -> Decoder.decodeFrom(parser, codec)));
+  }
+
+  /**
+   * Issues a Query to FaunaDB and extracts the {@link FieldSet} provided from its result.
+   * <p>
+   * The fields are extracted straight from the JSON tokens. Only the parts of the result that
+   * the fields are under are read into {@link Value}s, everything else is skipped.
+   *
+   * @param expr the query to be executed.
+   * @param fields the {@link FieldSet} to extract from the result.
+   * @return a {@link CompletableFuture} containing the values of the fields, in the order they
+   *         were given in. It fails with an {@link IllegalStateException} if any of the fields
+   *         cannot be extracted.
+   * @see Decoder#decodeFrom(JsonParser, FieldSet)
+   */
+  public CompletableFuture<Object[]> query(Expr expr, FieldSet fields) {
+    return query(expr, fields, Optional.empty());
+  }
+
+  /**
+   * Issues a Query to FaunaDB and extracts the {@link FieldSet} provided from its result.
+   *
+   * @param expr the query to be executed.
+   * @param fields the {@link FieldSet} to extract from the result.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the values of the fields.
+   * @see #query(Expr, FieldSet)
+   */
+  public CompletableFuture<Object[]> query(Expr expr, FieldSet fields, Duration timeout) {
+    return query(expr, fields, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a Query to FaunaDB and extracts the {@link FieldSet} provided from its result.
+   *
+   * @param expr the query to be executed.
+   * @param fields the {@link FieldSet} to extract from the result.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the values of the fields.
+   * @see #query(Expr, FieldSet)
+   */
+  public CompletableFuture<Object[]> query(Expr expr, FieldSet fields, Optional<Duration> timeout) {
+    return performRequest(expr, () -> QueryShape.of(expr), timeout,
+      (response, timings) -> handleResponse(response, timings, parser -> Decoder.decodeFrom(parser, fields)));
+  }
+
+  /**
+   * Issues a {@link PreparedQuery} to FaunaDB with the parameter values provided.
+   * <p>
+   * Only the parameter values are serialized, the rest of the request body was serialized
+   * when the query was prepared.
+   *
+   * @param query the prepared query to be executed.
+   * @param params the value of each parameter of the query, by name.
+   * @return a {@link CompletableFuture} containing the root node of the response tree.
+   * @throws IllegalArgumentException if a parameter is missing or unknown.
+   * @see PreparedQuery
+   */
+  public CompletableFuture<Value> query(PreparedQuery query, Map<String, ? extends Expr> params) {
+    return query(query, params, Optional.empty());
+  }
+
+  /**
+   * Issues a {@link PreparedQuery} to FaunaDB with the parameter values provided.
+   * <p>
+   * Only the parameter values are serialized, the rest of the request body was serialized
+   * when the query was prepared.
+   *
+   * @param query the prepared query to be executed.
+   * @param params the value of each parameter of the query, by name.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the root node of the response tree.
+   * @throws IllegalArgumentException if a parameter is missing or unknown.
+   * @see PreparedQuery
+   */
+  public CompletableFuture<Value> query(PreparedQuery query, Map<String, ? extends Expr> params, Duration timeout) {
+    return query(query, params, Optional.ofNullable(timeout));
+  }
+
+  /**
+   * Issues a {@link PreparedQuery} to FaunaDB with the parameter values provided.
+   * <p>
+   * Only the parameter values are serialized, the rest of the request body was serialized
+   * when the query was prepared.
+   *
+   * @param query the prepared query to be executed.
+   * @param params the value of each parameter of the query, by name.
+   * @param timeout the timeout for the current query. It replaces the timeout value set for this
+   *                {@link FaunaClient} (if any), for the scope of this query. The timeout value
+   *                has milliseconds precision.
+   * @return a {@link CompletableFuture} containing the root node of the response tree.
+   * @throws IllegalArgumentException if a parameter is missing or unknown.
+   * @see PreparedQuery
+   */
+  public CompletableFuture<Value> query(PreparedQuery query, Map<String, ? extends Expr> params, Optional<Duration> timeout) {
+    return performRequest(query, params, timeout);
   }
 
   /**
@@ -308,28 +919,143 @@ public class FaunaClient {
     return connection.getLastTxnTime();
   }
 
-  private Value handleResponse(HttpResponse<String> response) {
+  private Value handleResponse(HttpResponse<String> response, RequestTimings timings) {
+    if (lazyValues) {
+      // Lazy values point into the characters read, so the parser must read them rather than a copy
+      char[] body = response.body().toCharArray();
+      return handleResponse(response, timings, () -> json.getFactory().createParser(body),
+        parser -> LazyValues.decodeFrom(parser, body));
+    }
+
     try {
       handleQueryErrors(response.statusCode(), response.body());
+
+      DecodeEvent event = new DecodeEvent();
+      event.begin();
+
       JsonNode responseBody = parseResponseBody(response.body());
+      timings.mark(RequestTimings.Phase.PARSE_END);
       JsonNode resource = responseBody.get("resource");
 
       if(resource == null) {
         throw new IllegalArgumentException("Invalid JSON.");
       }
 
-      if(resource instanceof NullNode) {
-        return NullV.NULL;
+      Value value = resource instanceof NullNode ? NullV.NULL : json.treeToValue(resource, Value.class);
+      timings.mark(RequestTimings.Phase.DECODE_END);
+
+      event.end();
+      if (event.shouldCommit()) {
+        event.responseBytes = response.body().length();
+        event.commit();
       }
 
-      return json.treeToValue(resource, Value.class);
-    } catch (JsonProcessingException | IllegalArgumentException ex) {
+      return value;
+    } catch (IOException | IllegalArgumentException ex) {
       throw new AssertionError(ex);
     }
   }
 
-  private CompletableFuture<Value> performRequest(JsonNode body, Optional<Duration> queryTimeout) {
-    return handleNetworkExceptions(connection.post("", body, queryTimeout).thenApply(this::handleResponse));
+  private <T> T handleResponse(HttpResponse<String> response, RequestTimings timings, Function<JsonParser, Result<T>> decoder) {
+    return handleResponse(response, timings, () -> json.getFactory().createParser(response.body()), decoder);
+  }
+
+  private <T> T handleResponse(HttpResponse<String> response, RequestTimings timings, ParserFactory parserFactory,
+                               Function<JsonParser, Result<T>> decoder) {
+    handleQueryErrors(response.statusCode(), response.body());
+
+    DecodeEvent event = new DecodeEvent();
+    event.begin();
+
+    try (JsonParser parser = parserFactory.create()) {
+      if (parser.nextToken() != JsonToken.START_OBJECT)
+        throw new IllegalArgumentException("Invalid JSON.");
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+
+        if (!field.equals("resource")) {
+          parser.skipChildren();
+          continue;
+        }
+
+        timings.mark(RequestTimings.Phase.PARSE_END);
+        T value = decoder.apply(parser).get();
+        timings.mark(RequestTimings.Phase.DECODE_END);
+
+        event.end();
+        if (event.shouldCommit()) {
+          event.responseBytes = response.body().length();
+          event.commit();
+        }
+
+        return value;
+      }
+
+      throw new IllegalArgumentException("Invalid JSON.");
+    } catch (IOException | IllegalArgumentException ex) {
+      throw new AssertionError(ex);
+    }
+  }
+
+  private CompletableFuture<Value> performRequest(Object query, Supplier<QueryShape> shape, Optional<Duration> queryTimeout) {
+    return performRequest(query, shape, queryTimeout, this::handleResponse);
+  }
+
+  private <T> CompletableFuture<T> performRequest(Object query, Supplier<QueryShape> shape, Optional<Duration> queryTimeout,
+                                                  BiFunction<HttpResponse<String>, RequestTimings, T> responseHandler) {
+    return performRequest(query, shape, queryTimeout, Priority.NORMAL, responseHandler);
+  }
+
+  private <T> CompletableFuture<T> performRequest(Object query, Supplier<QueryShape> shape, Optional<Duration> queryTimeout,
+                                                  Priority priority,
+                                                  BiFunction<HttpResponse<String>, RequestTimings, T> responseHandler) {
+    final long start = System.nanoTime();
+    RequestTimings timings = connection.startTimings("");
+    timings.mark(RequestTimings.Phase.SERIALIZE_START);
+    byte[] body = serialize(query);
+    timings.mark(RequestTimings.Phase.SERIALIZE_END);
+
+    return handleQueryResponse(connection.post("", body, queryTimeout, timings, priority), shape, start, timings, responseHandler);
+  }
+
+  // Serializes the query straight to bytes, so expressions that write themselves skip the intermediate tree
+  private byte[] serialize(Object query) {
+    try {
+      return writer.writeValueAsBytes(query);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+  }
+
+  private CompletableFuture<Value> performRequest(PreparedQuery query, Map<String, ? extends Expr> params, Optional<Duration> queryTimeout) {
+    final long start = System.nanoTime();
+    RequestTimings timings = connection.startTimings("");
+    timings.mark(RequestTimings.Phase.SERIALIZE_START);
+    byte[] body = query.serialize(params);
+    timings.mark(RequestTimings.Phase.SERIALIZE_END);
+
+    return handleQueryResponse(connection.post("", body, queryTimeout, timings), query::shape, start, timings, this::handleResponse);
+  }
+
+  private <T> CompletableFuture<T> handleQueryResponse(CompletableFuture<HttpResponse<String>> request, Supplier<QueryShape> shape,
+                                                       long start, RequestTimings timings,
+                                                       BiFunction<HttpResponse<String>, RequestTimings, T> responseHandler) {
+    CompletableFuture<T> rv = request
+      .thenApply(response -> {
+        if (queryShapes != null) queryShapes.record(shape.get(), response, System.nanoTime() - start);
+        return responseHandler.apply(response, timings);
+      });
+
+    if (timings.isEnabled()) {
+      rv.whenComplete((value, ex) -> {
+        if (ex == null) timings.complete();
+        else timings.fail(ex);
+      });
+    }
+
+    return handleNetworkExceptions(rv);
   }
 
   /**
@@ -411,7 +1137,26 @@ public class FaunaClient {
   }
 
   private void handleQueryErrors(int statusCode, String body) {
-    if (statusCode >= 300) {
+    FaunaException error = queryError(statusCode, body, stacklessExceptions);
+    if (error != null)
+      throw error;
+  }
+
+  /**
+   * @return the exception for an error response, or null if the response is not an error. The errors of
+   *         stackless exceptions for a response with a JSON object body are only parsed when the exception
+   *         is inspected. Other error responses are parsed upfront, and fail with an {@link UnknownException},
+   *         or an {@link UnavailableException} for a 503, if they cannot be parsed.
+   */
+  private FaunaException queryError(int statusCode, String body, boolean stackless) {
+    if (statusCode < 300)
+      return null;
+
+    HttpResponses.QueryErrorResponse errorResponse;
+
+    if (stackless && isObject(body)) {
+      errorResponse = HttpResponses.QueryErrorResponse.lazy(statusCode, body, json);
+    } else {
       try {
         List<HttpResponses.QueryError> parsedErrors = new ArrayList<>();
 
@@ -422,32 +1167,42 @@ public class FaunaClient {
           }
         }
 
-        HttpResponses.QueryErrorResponse errorResponse = HttpResponses.QueryErrorResponse.create(statusCode, parsedErrors);
-
-        switch (statusCode) {
-          case 400:
-            throw new BadRequestException(errorResponse);
-          case 401:
-            throw new UnauthorizedException(errorResponse);
-          case 403:
-            throw new PermissionDeniedException(errorResponse);
-          case 404:
-            throw new NotFoundException(errorResponse);
-          case 500:
-            throw new InternalException(errorResponse);
-          case 503:
-            throw new UnavailableException(errorResponse);
-          default:
-            throw new UnknownException(errorResponse);
-        }
+        errorResponse = HttpResponses.QueryErrorResponse.create(statusCode, parsedErrors);
       } catch (JsonProcessingException | IllegalArgumentException ex) {
         if (statusCode == 503) {
-          throw new UnavailableException("Service Unavailable: Unparseable response.", ex);
+          return new UnavailableException("Service Unavailable: Unparseable response.", ex);
         } else {
-          throw new UnknownException("Unparseable service " + statusCode + " response.", ex);
+          return new UnknownException("Unparseable service " + statusCode + " response.", ex);
         }
       }
     }
+
+    switch (statusCode) {
+      case 400:
+        return new BadRequestException(errorResponse, !stackless);
+      case 401:
+        return new UnauthorizedException(errorResponse, !stackless);
+      case 403:
+        return new PermissionDeniedException(errorResponse, !stackless);
+      case 404:
+        return new NotFoundException(errorResponse, !stackless);
+      case 500:
+        return new InternalException(errorResponse, !stackless);
+      case 503:
+        return new UnavailableException(errorResponse, !stackless);
+      default:
+        return new UnknownException(errorResponse, !stackless);
+    }
+  }
+
+  private static boolean isObject(String body) {
+    for (int i = 0; i < body.length(); i++) {
+      char c = body.charAt(i);
+      if (!Character.isWhitespace(c))
+        return c == '{';
+    }
+
+    return false;
   }
 
   private <V> CompletableFuture<V> handleNetworkExceptions(CompletableFuture<V> f) {
@@ -470,4 +1225,7 @@ public class FaunaClient {
     }
   }
 
+  private interface ParserFactory {
+    JsonParser create() throws IOException;
+  }
 }
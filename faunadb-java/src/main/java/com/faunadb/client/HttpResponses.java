@@ -155,6 +155,14 @@ public class HttpResponses {
       return new QueryErrorResponse(status, Collections.unmodifiableList(errors));
     }
 
+    /**
+     * Creates a response whose errors are only parsed from the body the first time they are read.
+     * Errors that cannot be parsed are read as an empty list.
+     */
+    static QueryErrorResponse lazy(int status, String body, ObjectMapper json) {
+      return new LazyQueryErrorResponse(status, body, json);
+    }
+
     private final int status;
     private final List<QueryError> errors;
 
@@ -171,4 +179,44 @@ public class HttpResponses {
       return errors;
     }
   }
+
+  private static final class LazyQueryErrorResponse extends QueryErrorResponse {
+    private final String body;
+    private final ObjectMapper json;
+    private volatile List<QueryError> errors;
+
+    private LazyQueryErrorResponse(int status, String body, ObjectMapper json) {
+      super(status, null);
+      this.body = body;
+      this.json = json;
+    }
+
+    @Override
+    public List<QueryError> errors() {
+      List<QueryError> errors = this.errors;
+
+      if (errors == null)
+        this.errors = errors = parseErrors();
+
+      return errors;
+    }
+
+    private List<QueryError> parseErrors() {
+      try {
+        JsonNode tree = json.readTree(body);
+        JsonNode errorNodes = tree == null ? null : tree.get("errors");
+
+        if (errorNodes == null || !errorNodes.isArray())
+          return Collections.emptyList();
+
+        List<QueryError> errors = new ArrayList<>(errorNodes.size());
+        for (JsonNode errorNode : errorNodes)
+          errors.add(json.treeToValue(errorNode, QueryError.class));
+
+        return Collections.unmodifiableList(errors);
+      } catch (IOException ex) {
+        return Collections.emptyList();
+      }
+    }
+  }
 }
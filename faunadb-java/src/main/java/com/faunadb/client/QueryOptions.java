@@ -0,0 +1,122 @@
+package com.faunadb.client;
+
+import com.faunadb.common.Priority;
+import com.faunadb.common.RequestScheduler;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The options of a single query, such as its timeout and its priority.
+ *
+ * <p>Options are immutable. They can be created once, and shared by all the queries they apply to.</p>
+ *
+ * <b>Example</b>:
+ *
+ * <pre>{@code
+ * import static com.faunadb.common.Priority.*;
+ *
+ * QueryOptions interactive = QueryOptions.priority(HIGH).withTimeout(Duration.ofSeconds(2));
+ * QueryOptions batch = QueryOptions.priority(LOW);
+ *
+ * client.query(Get(ref), interactive);
+ * }</pre>
+ *
+ * @see FaunaClient#query(com.faunadb.client.query.Expr, QueryOptions)
+ */
+public final class QueryOptions {
+
+  private static final QueryOptions DEFAULT = new QueryOptions(Optional.empty(), Priority.NORMAL);
+
+  /**
+   * @return the default options: the timeout of the {@link FaunaClient}, and {@link Priority#NORMAL} priority
+   */
+  public static QueryOptions defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates options with the priority provided.
+   *
+   * @param priority the priority the query is scheduled with
+   * @return a new {@link QueryOptions} instance
+   * @see #withPriority(Priority)
+   */
+  public static QueryOptions priority(Priority priority) {
+    return DEFAULT.withPriority(priority);
+  }
+
+  /**
+   * Creates options with the timeout provided.
+   *
+   * @param timeout the timeout of the query
+   * @return a new {@link QueryOptions} instance
+   * @see #withTimeout(Duration)
+   */
+  public static QueryOptions timeout(Duration timeout) {
+    return DEFAULT.withTimeout(timeout);
+  }
+
+  private final Optional<Duration> timeout;
+  private final Priority priority;
+
+  private QueryOptions(Optional<Duration> timeout, Priority priority) {
+    this.timeout = timeout;
+    this.priority = priority;
+  }
+
+  /**
+   * Sets the timeout of the query. It replaces the timeout value set for the {@link FaunaClient} (if any), for
+   * the scope of the query. The timeout value has milliseconds precision.
+   *
+   * @param timeout the timeout of the query
+   * @return a copy of these options with the timeout provided
+   */
+  public QueryOptions withTimeout(Duration timeout) {
+    return new QueryOptions(Optional.ofNullable(timeout), priority);
+  }
+
+  /**
+   * Sets the priority of the query. The {@link RequestScheduler} of the {@link FaunaClient} queues the query in
+   * the lane of its priority, and has no effect without one.
+   *
+   * @param priority the priority the query is scheduled with
+   * @return a copy of these options with the priority provided
+   * @see FaunaClient.Builder#withScheduler(RequestScheduler)
+   */
+  public QueryOptions withPriority(Priority priority) {
+    return new QueryOptions(timeout, Objects.requireNonNull(priority));
+  }
+
+  /**
+   * @return the timeout of the query, or empty if it is the timeout of the {@link FaunaClient}
+   */
+  public Optional<Duration> timeout() {
+    return timeout;
+  }
+
+  /**
+   * @return the priority of the query
+   */
+  public Priority priority() {
+    return priority;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof QueryOptions &&
+      this.timeout.equals(((QueryOptions) other).timeout) &&
+      this.priority == ((QueryOptions) other).priority;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timeout, priority);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryOptions(" + timeout.map(Duration::toString).orElse("default timeout") + ", " + priority + ")";
+  }
+}
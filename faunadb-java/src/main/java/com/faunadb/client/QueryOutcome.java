@@ -0,0 +1,129 @@
+package com.faunadb.client;
+
+import com.faunadb.client.errors.FaunaException;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The outcome of a query issued with {@link FaunaClient#tryQuery(com.faunadb.client.query.Expr)}: either the
+ * result of the query, or the {@link FaunaException} for the error response returned by FaunaDB.
+ *
+ * <p>Errors such as a {@link com.faunadb.client.errors.NotFoundException} are returned as values rather than
+ * thrown, so expected errors can be handled without a failed {@link java.util.concurrent.CompletableFuture}.
+ * Their exceptions are created without a stack trace, and the error response is only parsed when the exception
+ * is inspected.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>{@code
+ * QueryOutcome<Value> outcome = client.tryQuery(Get(ref)).get();
+ *
+ * if (outcome.isSuccess())
+ *   render(outcome.get());
+ * else if (outcome.status() == 404)
+ *   renderMissing();
+ * else
+ *   throw outcome.getException().get();
+ * }</pre>
+ *
+ * @param <T> the type of the result
+ */
+public final class QueryOutcome<T> {
+
+  static <T> QueryOutcome<T> success(T value) {
+    return new QueryOutcome<>(value, null);
+  }
+
+  static <T> QueryOutcome<T> failure(FaunaException exception) {
+    return new QueryOutcome<>(null, exception);
+  }
+
+  private final T value;
+  private final FaunaException exception;
+
+  private QueryOutcome(T value, FaunaException exception) {
+    this.value = value;
+    this.exception = exception;
+  }
+
+  /**
+   * @return true if the query succeeded
+   */
+  public boolean isSuccess() {
+    return exception == null;
+  }
+
+  /**
+   * @return true if FaunaDB returned an error response
+   */
+  public boolean isFailure() {
+    return exception != null;
+  }
+
+  /**
+   * Gets the result of the query.
+   *
+   * @return the result of the query
+   * @throws FaunaException the exception of the error response, if the query failed
+   */
+  public T get() {
+    if (exception != null)
+      throw exception;
+
+    return value;
+  }
+
+  /**
+   * @return an {@link Optional} with the result of the query, or empty if the query failed
+   */
+  public Optional<T> getOptional() {
+    return exception == null ? Optional.ofNullable(value) : Optional.empty();
+  }
+
+  /**
+   * @return an {@link Optional} with the exception of the error response, or empty if the query succeeded
+   */
+  public Optional<FaunaException> getException() {
+    return Optional.ofNullable(exception);
+  }
+
+  /**
+   * Gets the HTTP status code of the response, without parsing the errors of an error response.
+   *
+   * @return the HTTP status code of an error response, or 200 if the query succeeded
+   */
+  public int status() {
+    return exception == null ? 200 : exception.status();
+  }
+
+  /**
+   * Converts the result of a successful query with the function provided.
+   *
+   * @param fn the conversion function
+   * @param <U> the converted type
+   * @return the outcome of the conversion, or this failure if the query failed
+   */
+  @SuppressWarnings("unchecked")
+  public <U> QueryOutcome<U> map(Function<T, U> fn) {
+    return exception == null ? success(fn.apply(value)) : (QueryOutcome<U>) this;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof QueryOutcome &&
+      Objects.equals(value, ((QueryOutcome<?>) other).value) &&
+      Objects.equals(exception, ((QueryOutcome<?>) other).exception);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(value, exception);
+  }
+
+  @Override
+  public String toString() {
+    return exception == null ? "Success(" + value + ")" : "Failure(" + exception.getClass().getSimpleName() + ")";
+  }
+}
@@ -0,0 +1,327 @@
+package com.faunadb.client;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.faunadb.client.query.QueryShape;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Tracks latency, request and response sizes, and query cost for each distinct {@link QueryShape}
+ * issued by a {@link FaunaClient}.
+ *
+ * <p>The registry keeps at most {@code capacity} shapes. The frequency of every shape seen, tracked or not,
+ * is estimated with counters that are halved periodically, so it reflects recent traffic rather than the
+ * whole lifetime of the client. When the registry is full, a new shape replaces the least frequent of a few
+ * sampled shapes only if it has been seen more often recently, so the registry converges to the currently
+ * most frequent shapes, and shapes seen once cannot push them out. Queries of shapes that are not tracked
+ * are not measured, but can still be logged as slow queries. The metrics of each tracked shape are registered in the {@link MetricRegistry} provided, if any, under the
+ * {@code fauna-query-shape.<fingerprint>} prefix and removed when the shape is evicted. Distinct shapes whose
+ * fingerprints collide are tracked separately, the later ones with a {@code -<n>} suffix after their fingerprint.</p>
+ *
+ * <p>Optionally, a sample of the queries slower than a threshold is logged with their shape.</p>
+ *
+ * <pre>{@code
+ * FaunaClient client = FaunaClient.builder()
+ *   .withSecret(secret)
+ *   .withQueryShapes(new QueryShapeRegistry(metrics, 100, Duration.ofMillis(500), 0.1))
+ *   .build();
+ * }</pre>
+ *
+ * @see QueryShape
+ */
+public final class QueryShapeRegistry {
+
+  private static final String PREFIX = "fauna-query-shape";
+
+  /**
+   * The metrics tracked for a single {@link QueryShape}.
+   */
+  public static final class ShapeStats {
+    private final QueryShape shape;
+    private final String name;
+    private final Timer latency;
+    private final Histogram requestBytes;
+    private final Histogram responseBytes;
+    private final Histogram computeOps;
+    private final Histogram readOps;
+    private final Histogram writeOps;
+    private final int slot;
+
+    private ShapeStats(QueryShape shape, String name, int slot) {
+      this.shape = shape;
+      this.name = name;
+      this.slot = slot;
+      this.latency = new Timer();
+      this.requestBytes = new Histogram(new ExponentiallyDecayingReservoir());
+      this.responseBytes = new Histogram(new ExponentiallyDecayingReservoir());
+      this.computeOps = new Histogram(new ExponentiallyDecayingReservoir());
+      this.readOps = new Histogram(new ExponentiallyDecayingReservoir());
+      this.writeOps = new Histogram(new ExponentiallyDecayingReservoir());
+    }
+
+    public QueryShape shape() {
+      return shape;
+    }
+
+    public Timer latency() {
+      return latency;
+    }
+
+    public Histogram requestBytes() {
+      return requestBytes;
+    }
+
+    public Histogram responseBytes() {
+      return responseBytes;
+    }
+
+    public Histogram computeOps() {
+      return computeOps;
+    }
+
+    public Histogram readOps() {
+      return readOps;
+    }
+
+    public Histogram writeOps() {
+      return writeOps;
+    }
+
+    private static final String[] METRICS = {"latency", "request-bytes", "response-bytes", "compute-ops", "read-ops", "write-ops"};
+
+    private void register(MetricRegistry registry) {
+      registry.register(MetricRegistry.name(name, "latency"), latency);
+      registry.register(MetricRegistry.name(name, "request-bytes"), requestBytes);
+      registry.register(MetricRegistry.name(name, "response-bytes"), responseBytes);
+      registry.register(MetricRegistry.name(name, "compute-ops"), computeOps);
+      registry.register(MetricRegistry.name(name, "read-ops"), readOps);
+      registry.register(MetricRegistry.name(name, "write-ops"), writeOps);
+    }
+
+    private void unregister(MetricRegistry registry) {
+      for (String metric : METRICS)
+        registry.remove(MetricRegistry.name(name, metric));
+    }
+  }
+
+  /**
+   * Estimates how often each shape was seen recently, in a fixed amount of memory. Each shape is counted
+   * in two counters picked by the two halves of its fingerprint, and its estimate is the lower of the two.
+   * All the counters are halved every {@code period} shapes seen.
+   */
+  private static final class FrequencySketch {
+    private final AtomicIntegerArray counters;
+    private final int mask;
+    private final int period;
+    private final AtomicInteger seen = new AtomicInteger();
+
+    FrequencySketch(int capacity) {
+      int width = Integer.highestOneBit(Math.min(Math.max(capacity, 4), 1 << 24) * 4 - 1) << 1;
+      this.counters = new AtomicIntegerArray(width);
+      this.mask = width - 1;
+      this.period = Math.min(capacity, 1 << 24) * 10;
+    }
+
+    /**
+     * Counts the shape as seen once more, and returns its estimated frequency.
+     */
+    int increment(QueryShape shape) {
+      long fingerprint = shape.fingerprint();
+      int frequency = Math.min(
+        counters.incrementAndGet((int) fingerprint & mask),
+        counters.incrementAndGet((int) (fingerprint >>> 32) & mask));
+
+      if (seen.incrementAndGet() == period) {
+        for (int i = 0; i < counters.length(); i++)
+          counters.updateAndGet(i, count -> count >>> 1);
+        seen.addAndGet(-period);
+      }
+
+      return frequency;
+    }
+
+    int frequency(QueryShape shape) {
+      long fingerprint = shape.fingerprint();
+      return Math.min(
+        counters.get((int) fingerprint & mask),
+        counters.get((int) (fingerprint >>> 32) & mask));
+    }
+  }
+
+  // Number of tracked shapes compared to pick the one replaced by a more frequent shape
+  private static final int EVICTION_SAMPLES = 8;
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final MetricRegistry registry;
+  private final int capacity;
+  private final long slowQueryThresholdNanos;
+  private final double slowQuerySampleRate;
+  private final ConcurrentHashMap<QueryShape, ShapeStats> shapes = new ConcurrentHashMap<>();
+  private final FrequencySketch frequencies;
+
+  // The tracked shapes by slot, and their metric names, guarded by the lock of shapes
+  private final ShapeStats[] slots;
+  private final Set<String> names = new HashSet<>();
+
+  /**
+   * Creates a registry that tracks up to {@code capacity} shapes, without slow query logging.
+   *
+   * @param registry the {@link MetricRegistry} where the per-shape metrics are registered, or null to keep them
+   *                 unregistered
+   * @param capacity the maximum number of shapes tracked
+   */
+  public QueryShapeRegistry(MetricRegistry registry, int capacity) {
+    this(registry, capacity, null, 0.0);
+  }
+
+  /**
+   * Creates a registry that tracks up to {@code capacity} shapes and logs a sample of the slow queries.
+   *
+   * @param registry the {@link MetricRegistry} where the per-shape metrics are registered, or null to keep them
+   *                 unregistered
+   * @param capacity the maximum number of shapes tracked
+   * @param slowQueryThreshold queries slower than this are candidates for the slow query log. Null disables it.
+   * @param slowQuerySampleRate the fraction, between 0 and 1, of slow queries that are logged
+   */
+  public QueryShapeRegistry(MetricRegistry registry, int capacity, Duration slowQueryThreshold, double slowQuerySampleRate) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("capacity must be greater than zero");
+
+    if (slowQuerySampleRate < 0.0 || slowQuerySampleRate > 1.0)
+      throw new IllegalArgumentException("slowQuerySampleRate must be between 0 and 1");
+
+    this.registry = registry;
+    this.capacity = capacity;
+    this.slowQueryThresholdNanos = slowQueryThreshold != null ? slowQueryThreshold.toNanos() : Long.MAX_VALUE;
+    this.slowQuerySampleRate = slowQuerySampleRate;
+    this.frequencies = new FrequencySketch(capacity);
+    this.slots = new ShapeStats[capacity];
+  }
+
+  /**
+   * Returns the tracked shapes ordered by the number of times they were seen, most frequent first.
+   *
+   * @param n the maximum number of shapes to return
+   * @return the top {@code n} shapes
+   */
+  public List<ShapeStats> top(int n) {
+    return shapes.values().stream()
+      .sorted(Comparator.comparingLong((ShapeStats s) -> s.latency.getCount()).reversed())
+      .limit(n)
+      .collect(Collectors.toList());
+  }
+
+  void record(QueryShape shape, HttpResponse<String> response, long elapsedNanos) {
+    ShapeStats stats = statsFor(shape);
+    HttpHeaders headers = response.headers();
+    long requestBytes = response.request().bodyPublisher().map(p -> p.contentLength()).orElse(0L);
+    long responseBytes = headers.firstValueAsLong("content-length").orElse(response.body() != null ? response.body().length() : 0);
+
+    if (stats != null) {
+      stats.latency.update(elapsedNanos, TimeUnit.NANOSECONDS);
+      stats.requestBytes.update(requestBytes);
+      stats.responseBytes.update(responseBytes);
+      headers.firstValueAsLong("x-compute-ops").ifPresent(stats.computeOps::update);
+      headers.firstValueAsLong("x-byte-read-ops").ifPresent(stats.readOps::update);
+      headers.firstValueAsLong("x-byte-write-ops").ifPresent(stats.writeOps::update);
+    }
+
+    if (elapsedNanos >= slowQueryThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate) {
+      log.warn(format("Slow query %s: %d ms, status %d, %d request bytes, %d response bytes. Shape: %s",
+        shape.fingerprintHex(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), response.statusCode(),
+        requestBytes, responseBytes, shape.shape()));
+    }
+  }
+
+  /**
+   * @return the stats of the shape, or null if it is not tracked because it is less frequent than the
+   *         shape it would replace
+   */
+  private ShapeStats statsFor(QueryShape shape) {
+    int frequency = frequencies.increment(shape);
+
+    // shapes are compared by their normalized form, so colliding fingerprints never share stats
+    ShapeStats stats = shapes.get(shape);
+    if (stats != null)
+      return stats;
+
+    synchronized (shapes) {
+      stats = shapes.get(shape);
+      if (stats != null)
+        return stats;
+
+      int slot = shapes.size();
+      if (slot >= capacity) {
+        ShapeStats victim = sampleLeastFrequent();
+        if (frequency <= frequencies.frequency(victim.shape))
+          return null;
+
+        evict(victim);
+        slot = victim.slot;
+      }
+
+      stats = new ShapeStats(shape, metricName(shape), slot);
+      if (registry != null)
+        stats.register(registry);
+      slots[slot] = stats;
+      names.add(stats.name);
+      shapes.put(shape, stats);
+      return stats;
+    }
+  }
+
+  private String metricName(QueryShape shape) {
+    String name = MetricRegistry.name(PREFIX, shape.fingerprintHex());
+    String candidate = name;
+
+    for (int n = 1; names.contains(candidate); n++)
+      candidate = name + "-" + n;
+
+    return candidate;
+  }
+
+  private ShapeStats sampleLeastFrequent() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    boolean sampled = capacity > EVICTION_SAMPLES;
+    ShapeStats victim = null;
+    int victimFrequency = Integer.MAX_VALUE;
+
+    for (int i = 0; i < Math.min(capacity, EVICTION_SAMPLES); i++) {
+      ShapeStats candidate = slots[sampled ? random.nextInt(capacity) : i];
+      int frequency = frequencies.frequency(candidate.shape);
+
+      if (frequency < victimFrequency) {
+        victim = candidate;
+        victimFrequency = frequency;
+      }
+    }
+
+    return victim;
+  }
+
+  private void evict(ShapeStats victim) {
+    shapes.remove(victim.shape);
+    names.remove(victim.name);
+    if (registry != null)
+      victim.unregister(registry);
+  }
+}
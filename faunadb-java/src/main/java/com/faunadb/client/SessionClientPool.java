@@ -0,0 +1,349 @@
+package com.faunadb.client;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.faunadb.common.RequestListener;
+import com.faunadb.common.RequestTimings;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A bounded pool of session clients, keyed by secret.
+ *
+ * <p>Multi-tenant applications that query with a different secret per request can get their session clients
+ * from a pool rather than creating one per request. The pool keeps the most recently used session clients, up to
+ * its maximum size, and drops the least recently used one when it is full.</p>
+ *
+ * <p>When a {@link MetricRegistry} is set, the pool registers the following metrics:</p>
+ * <ul>
+ *   <li>{@code fauna-session-pool-hits}: a meter of the session clients found in the pool</li>
+ *   <li>{@code fauna-session-pool-misses}: a meter of the session clients created</li>
+ *   <li>{@code fauna-session-pool-evictions}: a meter of the session clients dropped from the pool</li>
+ *   <li>{@code fauna-session-pool-size}: a gauge of the number of session clients in the pool</li>
+ * </ul>
+ *
+ * <p>Pools sharing a {@link MetricRegistry} must have different names, which are appended to the names of their
+ * metrics. For example, {@code fauna-session-pool-size.orders} for a pool named {@code orders}.</p>
+ *
+ * <p>When tenant names are also set, the requests of each tenant with a session client in the pool are tracked by:</p>
+ * <ul>
+ *   <li>{@code fauna-tenant.<tenant>.requests}: a timer of the requests, from enqueuing them to handling their response</li>
+ *   <li>{@code fauna-tenant.<tenant>.failures}: a meter of the failed requests</li>
+ * </ul>
+ *
+ * <p>The metrics of a tenant are removed once none of its session clients are in the pool. Tenant names, rather
+ * than secrets, are used in metric names so the secrets are not exposed by the {@link MetricRegistry}.</p>
+ *
+ * <b>Example</b>:
+ *
+ * <pre>{@code
+ * SessionClientPool sessions = SessionClientPool.builder(client)
+ *   .withMaxSize(1000)
+ *   .withMetrics(registry)
+ *   .withTenantNames(secret -> tenants.nameOf(secret))
+ *   .build();
+ *
+ * sessions.get(request.secret()).query(Get(ref));
+ * }</pre>
+ *
+ * <p>Pools are thread safe.</p>
+ */
+public final class SessionClientPool {
+
+  /**
+   * Creates a new {@link Builder} of pools of session clients of the client provided.
+   *
+   * @param client the parent client of the session clients
+   * @return {@link Builder}
+   */
+  public static Builder builder(FaunaClient client) {
+    return new Builder(client);
+  }
+
+  /**
+   * A builder for creating an instance of {@link SessionClientPool}
+   */
+  public static final class Builder {
+
+    private final FaunaClient client;
+    private int maxSize = 1000;
+    private MetricRegistry registry;
+    private String name;
+    private Function<String, String> tenantNames;
+
+    private Builder(FaunaClient client) {
+      this.client = client;
+    }
+
+    /**
+     * Sets the maximum number of session clients kept in the pool. Defaults to 1000.
+     *
+     * @param maxSize the maximum number of session clients
+     * @return this {@link Builder} object
+     */
+    public Builder withMaxSize(int maxSize) {
+      if (maxSize <= 0)
+        throw new IllegalArgumentException("The maximum size of a session client pool must be positive");
+
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Sets a {@link MetricRegistry} that the pool will use to register and track pool and tenant statistics.
+     *
+     * @param registry the {@link MetricRegistry} instance.
+     * @return this {@link Builder} object
+     */
+    public Builder withMetrics(MetricRegistry registry) {
+      this.registry = registry;
+      return this;
+    }
+
+    /**
+     * Sets the name of the pool, appended to the names of its metrics so that several pools can share a
+     * {@link MetricRegistry}. Unnamed by default.
+     *
+     * @param name the name of the pool
+     * @return this {@link Builder} object
+     */
+    public Builder withName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    /**
+     * Sets the function that names the tenant of a secret, for the per-tenant metrics. Several secrets can
+     * belong to the same tenant. Per-tenant metrics are only tracked if a {@link MetricRegistry} is set.
+     *
+     * @param tenantNames a function from a secret to the name of its tenant
+     * @return this {@link Builder} object
+     */
+    public Builder withTenantNames(Function<String, String> tenantNames) {
+      this.tenantNames = tenantNames;
+      return this;
+    }
+
+    /**
+     * Returns a newly constructed {@link SessionClientPool} with configuration based on the settings of this
+     * {@link Builder}.
+     *
+     * @return {@link SessionClientPool}
+     */
+    public SessionClientPool build() {
+      return new SessionClientPool(client, maxSize, registry, name, registry != null ? tenantNames : null);
+    }
+  }
+
+  /**
+   * A pooled session client, and the tenant its requests are tracked for.
+   */
+  private static final class Session {
+    final FaunaClient client;
+    final TenantMetrics tenant;
+
+    Session(FaunaClient client, TenantMetrics tenant) {
+      this.client = client;
+      this.tenant = tenant;
+    }
+  }
+
+  /**
+   * The request metrics of a tenant, shared by the pooled session clients of its secrets.
+   */
+  private static final class TenantMetrics implements RequestListener {
+    final String name;
+    final String requestsName;
+    final String failuresName;
+    final Timer requests;
+    final Meter failures;
+    int sessions;
+
+    TenantMetrics(String name, String poolName, MetricRegistry registry) {
+      this.name = name;
+      this.requestsName = MetricRegistry.name("fauna-tenant", name, "requests", poolName);
+      this.failuresName = MetricRegistry.name("fauna-tenant", name, "failures", poolName);
+      this.requests = registry.timer(requestsName);
+      this.failures = registry.meter(failuresName);
+    }
+
+    @Override
+    public void onRequestCompleted(RequestTimings timings) {
+      RequestTimings.Phase[] phases = RequestTimings.Phase.values();
+
+      // from enqueuing the request to the last phase it reached
+      for (int i = phases.length - 1; i > 0; i--) {
+        long elapsed = timings.elapsed(RequestTimings.Phase.ENQUEUE, phases[i]);
+
+        if (elapsed >= 0) {
+          requests.update(elapsed, TimeUnit.NANOSECONDS);
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void onRequestFailed(RequestTimings timings, Throwable cause) {
+      failures.mark();
+      onRequestCompleted(timings);
+    }
+  }
+
+  private final FaunaClient client;
+  private final int maxSize;
+  private final MetricRegistry registry;
+  private final String name;
+  private final Function<String, String> tenantNames;
+  private final Map<String, TenantMetrics> tenants = new HashMap<>();
+  private final LinkedHashMap<String, Session> sessions;
+  private final Meter hits;
+  private final Meter misses;
+  private final Meter evictions;
+
+  private SessionClientPool(FaunaClient client, int maxSize, MetricRegistry registry, String name,
+                            Function<String, String> tenantNames) {
+    this.client = client;
+    this.maxSize = maxSize;
+    this.registry = registry;
+    this.name = name;
+    this.tenantNames = tenantNames;
+    this.sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    if (registry != null) {
+      this.hits = registry.meter(MetricRegistry.name("fauna-session-pool-hits", name));
+      this.misses = registry.meter(MetricRegistry.name("fauna-session-pool-misses", name));
+      this.evictions = registry.meter(MetricRegistry.name("fauna-session-pool-evictions", name));
+      registry.register(MetricRegistry.name("fauna-session-pool-size", name), (Gauge<Integer>) this::size);
+    } else {
+      this.hits = null;
+      this.misses = null;
+      this.evictions = null;
+    }
+  }
+
+  /**
+   * Gets the session client of the secret provided, creating it if it is not in the pool.
+   *
+   * @param secret user secret for the session client
+   * @return the pooled session client
+   */
+  public FaunaClient get(String secret) {
+    TenantMetrics tenant;
+
+    synchronized (this) {
+      Session session = sessions.get(secret);
+
+      if (session != null) {
+        mark(hits);
+        return session.client;
+      }
+
+      // Holds the tenant metrics registered until the new session is pooled
+      tenant = acquireTenant(secret);
+    }
+
+    // Session clients are created outside the lock, so lookups of other secrets are not held up
+    Session created;
+    try {
+      created = newSession(secret, tenant);
+    } catch (RuntimeException | Error ex) {
+      synchronized (this) {
+        releaseTenant(tenant);
+      }
+      throw ex;
+    }
+
+    synchronized (this) {
+      Session session = sessions.get(secret);
+
+      // Another caller pooled a session client of the secret meanwhile
+      if (session != null) {
+        releaseTenant(tenant);
+        mark(hits);
+        return session.client;
+      }
+
+      mark(misses);
+      sessions.put(secret, created);
+
+      if (sessions.size() > maxSize) {
+        Map.Entry<String, Session> eldest = sessions.entrySet().iterator().next();
+        remove(eldest.getKey());
+        mark(evictions);
+      }
+
+      return created.client;
+    }
+  }
+
+  /**
+   * Drops the session client of the secret provided from the pool, if it is in the pool. For example, once
+   * the secret is revoked.
+   *
+   * @param secret user secret of the session client
+   */
+  public synchronized void invalidate(String secret) {
+    remove(secret);
+  }
+
+  /**
+   * Drops all the session clients from the pool.
+   */
+  public synchronized void clear() {
+    while (!sessions.isEmpty())
+      remove(sessions.keySet().iterator().next());
+  }
+
+  /**
+   * @return the number of session clients in the pool
+   */
+  public synchronized int size() {
+    return sessions.size();
+  }
+
+  private Session newSession(String secret, TenantMetrics tenant) {
+    if (tenant == null)
+      return new Session(client.newSessionClient(secret), null);
+
+    return new Session(client.newSessionClient(secret, tenant), tenant);
+  }
+
+  private TenantMetrics acquireTenant(String secret) {
+    if (tenantNames == null)
+      return null;
+
+    TenantMetrics tenant = tenants.computeIfAbsent(tenantNames.apply(secret), tenantName -> new TenantMetrics(tenantName, name, registry));
+    tenant.sessions++;
+    return tenant;
+  }
+
+  private void remove(String secret) {
+    Session session = sessions.remove(secret);
+
+    if (session != null)
+      releaseTenant(session.tenant);
+  }
+
+  private void releaseTenant(TenantMetrics tenant) {
+    if (tenant == null)
+      return;
+
+    // In-flight requests of an evicted session client still update the metrics, which are no longer registered
+    if (--tenant.sessions == 0) {
+      tenants.remove(tenant.name);
+      registry.remove(tenant.requestsName);
+      registry.remove(tenant.failuresName);
+    }
+  }
+
+  private static void mark(Meter meter) {
+    if (meter != null)
+      meter.mark();
+  }
+}
@@ -9,6 +9,11 @@ public class BadRequestException extends FaunaException {
   public BadRequestException(HttpResponses.QueryErrorResponse response) {
     super(response);
   }
+
+  public BadRequestException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
+
   public BadRequestException(String message) {
     super(message);
   }
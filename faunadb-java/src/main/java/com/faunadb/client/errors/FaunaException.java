@@ -12,9 +12,25 @@ import java.util.Optional;
  */
 public class FaunaException extends RuntimeException {
   private final Optional<HttpResponses.QueryErrorResponse> response;
+  // built from the errors of the response the first time it is read
+  private String message;
 
   public FaunaException(HttpResponses.QueryErrorResponse response) {
-    super(constructErrorMessage(response.errors()));
+    this(response, true);
+  }
+
+  /**
+   * Creates an exception for an error response.
+   * <p>
+   * The errors of the response are only read, and its message built, when the exception is inspected.
+   * Exceptions without a writable stack trace are cheap to create for errors that are expected as part
+   * of the normal flow of an application, such as a {@link NotFoundException}.
+   *
+   * @param response the error response
+   * @param writableStackTrace whether the stack trace is filled in
+   */
+  public FaunaException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(null, null, true, writableStackTrace);
     this.response = Optional.of(response);
   }
 
@@ -28,6 +44,18 @@ public class FaunaException extends RuntimeException {
     this.response = Optional.empty();
   }
 
+  @Override
+  public String getMessage() {
+    if (!response.isPresent())
+      return super.getMessage();
+
+    String message = this.message;
+    if (message == null)
+      this.message = message = constructErrorMessage(response.get().errors());
+
+    return message;
+  }
+
   /**
    * Gets the list of errors that caused the query to fail.
    *
@@ -10,4 +10,8 @@ public class InternalException extends FaunaException {
   public InternalException(HttpResponses.QueryErrorResponse response) {
     super(response);
   }
+
+  public InternalException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
 }
@@ -10,6 +10,10 @@ public class NotFoundException extends FaunaException {
     super(response);
   }
 
+  public NotFoundException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
+
   public NotFoundException(String message) {
     super(message);
   }
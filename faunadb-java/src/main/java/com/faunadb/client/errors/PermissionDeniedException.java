@@ -10,6 +10,10 @@ public class PermissionDeniedException extends FaunaException {
     super(response);
   }
 
+  public PermissionDeniedException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
+
   public PermissionDeniedException(String message) {
     super(message);
   }
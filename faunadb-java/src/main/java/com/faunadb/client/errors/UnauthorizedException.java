@@ -9,4 +9,8 @@ public class UnauthorizedException extends FaunaException {
   public UnauthorizedException(HttpResponses.QueryErrorResponse response) {
     super(response);
   }
+
+  public UnauthorizedException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
 }
@@ -14,4 +14,8 @@ public class UnavailableException extends FaunaException {
   public UnavailableException(HttpResponses.QueryErrorResponse response) {
     super(response);
   }
+
+  public UnavailableException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
 }
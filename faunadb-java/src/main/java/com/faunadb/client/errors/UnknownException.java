@@ -13,4 +13,8 @@ public class UnknownException extends FaunaException {
   public UnknownException(HttpResponses.QueryErrorResponse response) {
     super(response);
   }
+
+  public UnknownException(HttpResponses.QueryErrorResponse response, boolean writableStackTrace) {
+    super(response, writableStackTrace);
+  }
 }
@@ -13,7 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.UnaryOperator;
 
-import static com.faunadb.client.util.SymbolGenerator.genSym;
+import static com.faunadb.client.util.SymbolGenerator.withSym;
 
 /**
  * The {@link Language} class contains static constructors for the FaunaDB Query Language expressions.
@@ -503,6 +503,19 @@ public final class Language {
     return Encoder.encode(value).get();
   }
 
+  /**
+   * Encodes the given object using the reflection {@link Encoder} when the query is serialized,
+   * writing it straight into the request instead of building its {@link Value} first.
+   * Prefer it over {@link #Value(Object)} for large objects and bulk writes.
+   *
+   * @param value the object to be encoded
+   * @return a new {@link Expr} instance
+   * @see Encoder#encodeStreaming(Object)
+   */
+  public static Expr EncodedValue(Object value) {
+    return Encoder.encodeStreaming(value);
+  }
+
   /**
    * Encodes the given {@link String} as an {@link Expr} instance.
    *
@@ -522,7 +535,7 @@ public final class Language {
    * @see <a href="https://app.fauna.com/documentation/reference/queryapi#simple-type">FaunaDB Values</a>
    */
   public static Expr Value(long value) {
-    return new LongV(value);
+    return LongV.valueOf(value);
   }
 
   /**
@@ -1355,8 +1368,7 @@ public final class Language {
    * @see <a href="https://app.fauna.com/documentation/reference/queryapi#collections">FaunaDB Collection Functions</a>
    */
   public static Expr Map(Expr collection, UnaryOperator<Expr> lambda) {
-    String sym = genSym("map");
-    return Map(collection, Lambda(sym, lambda.apply(Var(sym))));
+    return withSym("map", sym -> Map(collection, Lambda(sym, lambda.apply(Var(sym)))));
   }
 
   /**
@@ -1391,8 +1403,7 @@ public final class Language {
    * @see <a href="https://app.fauna.com/documentation/reference/queryapi#collections">FaunaDB Collection Functions</a>
    */
   public static Expr Foreach(Expr collection, UnaryOperator<Expr> lambda) {
-    String sym = genSym("foreach");
-    return Foreach(collection, Lambda(sym, lambda.apply(Var(sym))));
+    return withSym("foreach", sym -> Foreach(collection, Lambda(sym, lambda.apply(Var(sym)))));
   }
 
   /**
@@ -1420,8 +1431,7 @@ public final class Language {
    * @see <a href="https://app.fauna.com/documentation/reference/queryapi#collections">FaunaDB Collection Functions</a>
    */
   public static Expr Filter(Expr collection, UnaryOperator<Expr> lambda) {
-    String sym = genSym("filter");
-    return Filter(collection, Lambda(sym, lambda.apply(Var(sym))));
+    return withSym("filter", sym -> Filter(collection, Lambda(sym, lambda.apply(Var(sym)))));
   }
 
   /**
@@ -2092,8 +2102,7 @@ public final class Language {
    * @see <a href="https://app.fauna.com/documentation/reference/queryapi#sets">FaunaDB Set Functions</a>
    */
   public static Expr Join(Expr source, UnaryOperator<Expr> lambda) {
-    String sym = genSym("join");
-    return Join(source, Lambda(sym, lambda.apply(Var(sym))));
+    return withSym("join", sym -> Join(source, Lambda(sym, lambda.apply(Var(sym)))));
   }
 
   /**
@@ -0,0 +1,225 @@
+package com.faunadb.client.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * A query expression serialized once, with named parameter slots that are filled in
+ * on each execution.
+ *
+ * <p>Preparing a query serializes its constant parts to bytes up front. Executing it only
+ * serializes the parameter values and splices them into the pre-serialized template, which
+ * avoids rebuilding and reserializing the whole expression tree for queries that are sent
+ * many times with different values.</p>
+ *
+ * <b>Example</b>:
+ *
+ * <pre>{@code
+ * import static com.faunadb.client.query.Language.*;
+ * import static com.faunadb.client.query.PreparedQuery.Param;
+ *
+ * PreparedQuery getUser = PreparedQuery.prepare(
+ *   Get(Ref(Collection("users"), Param("id")))
+ * );
+ *
+ * client.query(getUser, Map.of("id", Value("123")));
+ * }
+ * </pre>
+ *
+ * <p>Instances are immutable and can be shared between threads.</p>
+ *
+ * @see com.faunadb.client.FaunaClient#query(PreparedQuery, Map)
+ */
+public final class PreparedQuery {
+
+  private static final byte SLOT = 0x01;
+  private static final String SLOT_MARKER = "\u0001";
+  private static final String SLOTS_ATTRIBUTE = PreparedQuery.class.getName() + ".slots";
+
+  private static final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+
+  @JsonSerialize(using = ParamSerializer.class)
+  private static final class ParamExpr extends Expr {
+    private final String name;
+
+    private ParamExpr(String name) {
+      this.name = Objects.requireNonNull(name);
+    }
+
+    @Override
+    protected Object toJson() {
+      return name;
+    }
+  }
+
+  private static final class ParamSerializer extends JsonSerializer<ParamExpr> {
+    @Override
+    @SuppressWarnings("unchecked")
+    public void serialize(ParamExpr param, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      Object slots = provider.getAttribute(SLOTS_ATTRIBUTE);
+      if (slots == null)
+        throw JsonMappingException.from(gen, format("Parameter \"%s\" can only be used in a PreparedQuery", param.name));
+
+      ((List<String>) slots).add(param.name);
+      // A raw control character never appears in valid JSON, so it unambiguously marks the slot
+      gen.writeRawValue(SLOT_MARKER);
+    }
+  }
+
+  /**
+   * Creates a named parameter placeholder, to be used in the template of a {@link PreparedQuery}.
+   * The same parameter can be used more than once in a template.
+   *
+   * @param name the parameter name
+   * @return a new parameter expression
+   */
+  public static Expr Param(String name) {
+    return new ParamExpr(name);
+  }
+
+  /**
+   * Serializes the template expression provided into a {@link PreparedQuery}.
+   *
+   * @param template the query expression, with {@link #Param(String)} placeholders for its parameters
+   * @return a new {@link PreparedQuery}
+   * @throws IllegalArgumentException if the template cannot be serialized
+   */
+  public static PreparedQuery prepare(Expr template) {
+    List<String> slots = new ArrayList<>();
+    byte[] bytes;
+
+    try {
+      bytes = json.writer().withAttribute(SLOTS_ATTRIBUTE, slots).writeValueAsBytes(template);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+
+    List<byte[]> segments = new ArrayList<>(slots.size() + 1);
+    int from = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == SLOT) {
+        segments.add(Arrays.copyOfRange(bytes, from, i));
+        from = i + 1;
+      }
+    }
+    segments.add(Arrays.copyOfRange(bytes, from, bytes.length));
+
+    return new PreparedQuery(template, segments.toArray(new byte[0][]), slots.toArray(new String[0]));
+  }
+
+  private final Expr template;
+  private final QueryShape shape;
+  private final byte[][] segments;
+  private final String[] slots;
+  private final Set<String> params;
+  private final int templateLength;
+
+  private PreparedQuery(Expr template, byte[][] segments, String[] slots) {
+    this.template = template;
+    this.shape = QueryShape.of(template);
+    this.segments = segments;
+    this.slots = slots;
+
+    Set<String> params = new LinkedHashSet<>();
+    Collections.addAll(params, slots);
+    this.params = Collections.unmodifiableSet(params);
+
+    int length = 0;
+    for (byte[] segment : segments)
+      length += segment.length;
+    this.templateLength = length;
+  }
+
+  /**
+   * @return the template expression this query was prepared from
+   */
+  public Expr template() {
+    return template;
+  }
+
+  /**
+   * @return the {@link QueryShape} of the template. Parameters are treated as literals.
+   */
+  public QueryShape shape() {
+    return shape;
+  }
+
+  /**
+   * @return the names of the parameters of this query, in the order they first appear
+   */
+  public Set<String> params() {
+    return params;
+  }
+
+  /**
+   * Serializes this query with the parameter values provided, as sent in a request body.
+   *
+   * @param values the value of each parameter, by name
+   * @return the UTF-8 encoded JSON of the query
+   * @throws IllegalArgumentException if a parameter is missing or unknown, or if a value cannot be serialized
+   */
+  public byte[] serialize(Map<String, ? extends Expr> values) {
+    for (String name : values.keySet()) {
+      if (!params.contains(name))
+        throw new IllegalArgumentException(format("Unknown parameter \"%s\". Expected %s", name, params));
+    }
+
+    byte[][] encoded = new byte[slots.length][];
+    int length = templateLength;
+
+    for (int i = 0; i < slots.length; i++) {
+      Expr value = values.get(slots[i]);
+      if (value == null)
+        throw new IllegalArgumentException(format("Missing value for parameter \"%s\"", slots[i]));
+
+      encoded[i] = encode(value);
+      length += encoded[i].length;
+    }
+
+    byte[] body = new byte[length];
+    int pos = 0;
+
+    for (int i = 0; i < segments.length; i++) {
+      System.arraycopy(segments[i], 0, body, pos, segments[i].length);
+      pos += segments[i].length;
+
+      if (i < encoded.length) {
+        System.arraycopy(encoded[i], 0, body, pos, encoded[i].length);
+        pos += encoded[i].length;
+      }
+    }
+
+    return body;
+  }
+
+  private static byte[] encode(Expr value) {
+    try {
+      return json.writeValueAsBytes(value);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return format("PreparedQuery(%s)", template);
+  }
+}
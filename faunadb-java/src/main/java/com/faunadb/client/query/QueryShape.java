@@ -0,0 +1,277 @@
+package com.faunadb.client.query;
+
+import com.faunadb.client.types.Codec;
+import com.faunadb.client.types.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The normalized shape of a query expression and its stable 64-bit fingerprint.
+ *
+ * <p>Two expressions have the same shape when they only differ by their literal values or by
+ * the names of their lambda and let variables. For example, the following expressions share
+ * the same shape:</p>
+ *
+ * <pre>{@code
+ *   Map(Paginate(Match(Index("users_by_name"), Value("bob"))), Lambda("x", Get(Var("x"))))
+ *   Map(Paginate(Match(Index("users_by_email"), Value("alice@site.com"))), Lambda("ref", Get(Var("ref"))))
+ * }</pre>
+ *
+ * <p>In the textual shape, literals are replaced by {@code ?} and bound variables are renamed
+ * to {@code v0}, {@code v1}, ..., according to their binding depth. The fingerprint is the
+ * 64-bit FNV-1a hash of the textual shape, so it is stable across JVMs and driver instances.</p>
+ *
+ * @see Expr
+ */
+public final class QueryShape {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Computes the shape of the expression provided.
+   *
+   * @param expr the query expression
+   * @return the {@link QueryShape} of the expression
+   */
+  public static QueryShape of(Expr expr) {
+    return new QueryShape(new Normalizer().normalize(expr));
+  }
+
+  /**
+   * Computes the shape of a batch of expressions sent in a single request.
+   *
+   * @param exprs the query expressions
+   * @return the {@link QueryShape} of the batch
+   */
+  public static QueryShape of(List<? extends Expr> exprs) {
+    return new QueryShape(new Normalizer().normalize(exprs));
+  }
+
+  private final String shape;
+  private final long fingerprint;
+
+  private QueryShape(String shape) {
+    this.shape = shape;
+    this.fingerprint = fnv1a(shape);
+  }
+
+  /**
+   * @return the normalized textual representation of the expression
+   */
+  public String shape() {
+    return shape;
+  }
+
+  /**
+   * @return the 64-bit fingerprint of the normalized shape
+   */
+  public long fingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * @return the fingerprint as a 16 digit hexadecimal string
+   */
+  public String fingerprintHex() {
+    return String.format("%016x", fingerprint);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof QueryShape &&
+      this.fingerprint == ((QueryShape) other).fingerprint &&
+      this.shape.equals(((QueryShape) other).shape);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(fingerprint);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("QueryShape(%s, %s)", fingerprintHex(), shape);
+  }
+
+  private static long fnv1a(String str) {
+    long hash = FNV_OFFSET_BASIS;
+
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+      hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+    }
+
+    return hash;
+  }
+
+  private static final class Normalizer {
+    private final StringBuilder out = new StringBuilder();
+    private final List<String> scope = new ArrayList<>();
+
+    String normalize(Object node) {
+      walk(node);
+      return out.toString();
+    }
+
+    private void walk(Object node) {
+      if (node instanceof Value) {
+        out.append('?');
+      } else if (node instanceof Expr) {
+        walk(((Expr) node).toJson());
+      } else if (node instanceof Map) {
+        walkObject((Map<?, ?>) node);
+      } else if (node instanceof List) {
+        walkArray((List<?>) node);
+      } else {
+        out.append('?');
+      }
+    }
+
+    private void walkArray(List<?> array) {
+      out.append('[');
+      for (int i = 0; i < array.size(); i++) {
+        if (i > 0) out.append(',');
+        walk(array.get(i));
+      }
+      out.append(']');
+    }
+
+    private void walkObject(Map<?, ?> object) {
+      if (object.size() == 1 && object.containsKey("var")) {
+        Optional<String> name = asName(object.get("var"));
+        if (name.isPresent()) {
+          out.append("{var:").append(canonicalName(name.get())).append('}');
+          return;
+        }
+      }
+
+      if (object.size() == 2 && object.containsKey("lambda") && object.containsKey("expr")) {
+        Optional<List<String>> params = asNames(object.get("lambda"));
+        if (params.isPresent()) {
+          walkLambda(params.get(), object.get("expr"));
+          return;
+        }
+      }
+
+      if (object.size() == 2 && object.containsKey("let") && object.containsKey("in")) {
+        Object bindings = unwrap(object.get("let"));
+        if (bindings instanceof List) {
+          walkLet((List<?>) bindings, object.get("in"));
+          return;
+        }
+      }
+
+      out.append('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : object.entrySet()) {
+        if (!first) out.append(',');
+        first = false;
+        out.append(entry.getKey()).append(':');
+        walk(entry.getValue());
+      }
+      out.append('}');
+    }
+
+    private void walkLambda(List<String> params, Object body) {
+      int depth = scope.size();
+
+      out.append("{lambda:");
+      if (params.size() == 1) {
+        out.append(bind(params.get(0)));
+      } else {
+        out.append('[');
+        for (int i = 0; i < params.size(); i++) {
+          if (i > 0) out.append(',');
+          out.append(bind(params.get(i)));
+        }
+        out.append(']');
+      }
+      out.append(",expr:");
+      walk(body);
+      out.append('}');
+
+      unbind(depth);
+    }
+
+    private void walkLet(List<?> bindings, Object in) {
+      int depth = scope.size();
+
+      out.append("{let:[");
+      for (int i = 0; i < bindings.size(); i++) {
+        if (i > 0) out.append(',');
+
+        Object binding = unwrap(bindings.get(i));
+        if (binding instanceof Map && ((Map<?, ?>) binding).size() == 1) {
+          Map.Entry<?, ?> entry = ((Map<?, ?>) binding).entrySet().iterator().next();
+          // the bound expression cannot see its own name
+          out.append('{').append("v").append(scope.size()).append(':');
+          walk(entry.getValue());
+          out.append('}');
+          scope.add(String.valueOf(entry.getKey()));
+        } else {
+          walk(binding);
+        }
+      }
+      out.append("],in:");
+      walk(in);
+      out.append('}');
+
+      unbind(depth);
+    }
+
+    private String bind(String name) {
+      String canonical = "v" + scope.size();
+      scope.add(name);
+      return canonical;
+    }
+
+    private void unbind(int depth) {
+      while (scope.size() > depth)
+        scope.remove(scope.size() - 1);
+    }
+
+    private String canonicalName(String name) {
+      int index = scope.lastIndexOf(name);
+      return index >= 0 ? "v" + index : "?";
+    }
+
+    private static Object unwrap(Object node) {
+      if (node instanceof Expr && !(node instanceof Value))
+        return ((Expr) node).toJson();
+
+      return node;
+    }
+
+    private static Optional<String> asName(Object node) {
+      if (node instanceof Value)
+        return ((Value) node).to(Codec.STRING).getOptional();
+
+      return Optional.empty();
+    }
+
+    private static Optional<List<String>> asNames(Object node) {
+      Optional<String> single = asName(node);
+      if (single.isPresent())
+        return Optional.of(List.of(single.get()));
+
+      Object unwrapped = unwrap(node);
+      if (!(unwrapped instanceof List))
+        return Optional.empty();
+
+      List<String> names = new ArrayList<>();
+      for (Object param : (List<?>) unwrapped) {
+        Optional<String> name = asName(param);
+        if (name.isEmpty())
+          return Optional.empty();
+        names.add(name.get());
+      }
+
+      return Optional.of(names);
+    }
+  }
+}
@@ -15,6 +15,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.Flow;
 import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class BodyValueFlowProcessor extends SubmissionPublisher<Value> implements Flow.Processor<java.util.List<ByteBuffer>, Value> {
@@ -22,16 +23,21 @@ public class BodyValueFlowProcessor extends SubmissionPublisher<Value> implement
     public BodyValueFlowProcessor(ObjectMapper json, Connection connection) {
         this.json = json;
         this.connection = connection;
+        this.streamEvent.begin();
     }
 
     private static Value ErrorValue = new Value.StringV("error");
     private static Field<Long> TxnField = Field.at("txn").to(Long.class);
+    private static Field<String> TypeField = Field.at("type").to(String.class);
 
     private final Logger log = LoggerFactory.getLogger(getClass());
     private ObjectMapper json;
     private Connection connection;
     private Flow.Subscription subscription = null;
     private Flow.Subscriber<? super Value> subscriber = null;
+    private final StreamEvent streamEvent = new StreamEvent();
+    private final AtomicBoolean streamEventCommitted = new AtomicBoolean(false);
+    private long eventsDelivered = 0L;
 
     private void requestOne() {
         subscription.request(1);
@@ -52,15 +58,41 @@ public class BodyValueFlowProcessor extends SubmissionPublisher<Value> implement
         this.subscription = subscription;
     }
 
+    private void commitStreamEvent(String outcome) {
+        if (streamEventCommitted.compareAndSet(false, true)) {
+            streamEvent.end();
+            if (streamEvent.shouldCommit()) {
+                streamEvent.events = eventsDelivered;
+                streamEvent.outcome = outcome;
+                streamEvent.commit();
+            }
+        }
+    }
+
     @Override
     public void onNext(List<ByteBuffer> items) {
+        if (!isSubscribed(subscriber)) {
+            // the subscriber cancelled: stop consuming the response body
+            subscription.cancel();
+            commitStreamEvent("cancelled");
+            return;
+        }
+
+        StreamEventDeliveryEvent deliveryEvent = new StreamEventDeliveryEvent();
+        deliveryEvent.begin();
+        long bytes = 0L;
+        if (deliveryEvent.isEnabled()) {
+            for (ByteBuffer b : items) bytes += b.remaining();
+        }
+
         String text = items.stream()
             .map(b -> StandardCharsets.UTF_8.decode(b).toString())
             .collect(Collectors.joining());
 
+        Value value = null;
         try {
             JsonNode jsonNode = json.readTree(text);
-            Value value = json.treeToValue(jsonNode, Value.class);
+            value = json.treeToValue(jsonNode, Value.class);
             // update connection last txn time
             value.getOptional(TxnField).ifPresent(ts -> connection.syncLastTxnTime(ts));
 
@@ -74,13 +106,26 @@ public class BodyValueFlowProcessor extends SubmissionPublisher<Value> implement
                 Exception ex = new StreamingException(queryError);
                 subscriber.onError(ex); // notify subscriber stream
                 subscription.cancel(); // cancel subscription on the request body
+                commitStreamEvent("failed");
             } else {
                 submit(value);
+                eventsDelivered++;
             }
         } catch (Exception ex){
             log.error("could not parse event " + text, ex);
             subscriber.onError(ex); // notify subscriber stream
             subscription.cancel(); // cancel subscription on the request body
+            commitStreamEvent("failed");
+        } finally {
+            deliveryEvent.end();
+            if (deliveryEvent.shouldCommit()) {
+                if (value != null) {
+                    deliveryEvent.type = value.getOptional(TypeField).orElse(null);
+                    deliveryEvent.txnTime = value.getOptional(TxnField).orElse(0L);
+                }
+                deliveryEvent.bytes = bytes;
+                deliveryEvent.commit();
+            }
         }
 
         requestOne();
@@ -90,11 +135,13 @@ public class BodyValueFlowProcessor extends SubmissionPublisher<Value> implement
     public void onError(Throwable throwable) {
         log.error("unrecoverable error encountered by subscription", throwable);
         subscriber.onError(throwable);
+        commitStreamEvent("failed");
     }
 
     @Override
     public void onComplete() {
         log.debug("subscription completed");
         subscriber.onComplete();
+        commitStreamEvent("completed");
     }
 }
@@ -0,0 +1,223 @@
+package com.faunadb.client.streaming;
+
+import com.faunadb.client.query.Expr;
+import com.faunadb.client.types.Value;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Issues a query for each expression of a {@link Flow.Publisher}, and publishes their results.
+ *
+ * <p>At most {@code maxInFlight} queries are issued or buffered at a time: expressions are only requested
+ * upstream as results are delivered downstream, so a slow subscriber slows down the queries rather than
+ * accumulating results in memory.</p>
+ *
+ * <p>Results are published in the order of their expressions when {@code ordered}, or as soon as their query
+ * completes otherwise. The first failed query fails the publisher and cancels the upstream subscription.</p>
+ */
+public class QueryFlowProcessor implements Flow.Processor<Expr, Value> {
+
+    public QueryFlowProcessor(Function<Expr, CompletableFuture<Value>> query, int maxInFlight, boolean ordered) {
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("The maximum number of queries in flight must be positive");
+
+        this.query = query;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+    }
+
+    private final Function<Expr, CompletableFuture<Value>> query;
+    private final int maxInFlight;
+    private final boolean ordered;
+
+    // serializes the signals to the subscriber and the upstream subscription
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // the following are guarded by this
+    private Flow.Subscription subscription = null;
+    private Flow.Subscriber<? super Value> subscriber = null;
+    private boolean subscribed = false;
+    // queries in issue order when ordered, completed queries in completion order otherwise
+    private final ArrayDeque<CompletableFuture<Value>> results = new ArrayDeque<>();
+    private int inFlight = 0;
+    private long requested = 0L;
+    private long demand = 0L;
+    private boolean upstreamDone = false;
+    private Throwable error = null;
+    private boolean terminated = false;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Value> subscriber) {
+        synchronized (this) {
+            if (subscribed)
+                throw new IllegalStateException("QueryFlowProcessor can have only one subscriber");
+            subscribed = true;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (QueryFlowProcessor.this) {
+                    if (n <= 0)
+                        error = new IllegalArgumentException("Subscribers must request a positive number of results");
+                    else
+                        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                Flow.Subscription upstream;
+                synchronized (QueryFlowProcessor.this) {
+                    terminated = true;
+                    results.clear();
+                    upstream = subscription;
+                }
+                if (upstream != null) upstream.cancel();
+            }
+        });
+
+        synchronized (this) {
+            this.subscriber = subscriber;
+        }
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (this.subscription == null && !terminated) {
+                this.subscription = subscription;
+                subscription = null;
+            }
+        }
+
+        if (subscription != null)
+            subscription.cancel();
+        else
+            drain();
+    }
+
+    @Override
+    public void onNext(Expr expr) {
+        synchronized (this) {
+            if (terminated) return;
+            requested--;
+            inFlight++;
+        }
+
+        CompletableFuture<Value> result;
+        try {
+            result = query.apply(expr);
+        } catch (Exception ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+
+        if (ordered) {
+            synchronized (this) {
+                if (!terminated) results.add(result);
+            }
+            result.whenComplete((value, ex) -> drain());
+        } else {
+            CompletableFuture<Value> completed = result;
+            result.whenComplete((value, ex) -> {
+                synchronized (this) {
+                    if (!terminated) results.add(completed);
+                }
+                drain();
+            });
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (error == null) error = throwable;
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0)
+            return;
+
+        do {
+            emit();
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void emit() {
+        for (;;) {
+            Flow.Subscriber<? super Value> downstream;
+            Flow.Subscription upstream;
+            CompletableFuture<Value> next = null;
+            Throwable failure = null;
+            boolean complete = false;
+            long toRequest = 0L;
+
+            synchronized (this) {
+                downstream = subscriber;
+                upstream = subscription;
+                if (terminated || downstream == null) return;
+
+                if (demand > 0 && !results.isEmpty() && results.peek().isDone()) {
+                    next = results.poll();
+                    demand--;
+                    inFlight--;
+                } else if (error != null) {
+                    failure = error;
+                    terminated = true;
+                } else if (upstreamDone && inFlight == 0) {
+                    complete = true;
+                    terminated = true;
+                } else if (upstream != null && !upstreamDone) {
+                    // results waiting for demand hold their slot, so memory stays bounded
+                    toRequest = maxInFlight - inFlight - requested;
+                    requested += toRequest;
+                }
+            }
+
+            if (next != null) {
+                Value value;
+                try {
+                    value = next.join();
+                } catch (CompletionException | CancellationException ex) {
+                    synchronized (this) {
+                        terminated = true;
+                        results.clear();
+                    }
+                    if (upstream != null) upstream.cancel();
+                    downstream.onError(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    return;
+                }
+                downstream.onNext(value);
+            } else {
+                if (failure != null) {
+                    if (upstream != null) upstream.cancel();
+                    downstream.onError(failure);
+                } else if (complete) {
+                    downstream.onComplete();
+                } else if (toRequest > 0) {
+                    upstream.request(toRequest);
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.faunadb.client.streaming;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event spanning the lifetime of a stream, from the moment its
+ * response body starts being consumed until it completes or fails.
+ */
+@Name("com.faunadb.Stream")
+@Label("FaunaDB Stream")
+@Category({"FaunaDB", "Driver", "Streaming"})
+@Description("The lifecycle of a FaunaDB stream")
+@StackTrace(false)
+final class StreamEvent extends jdk.jfr.Event {
+
+    @Label("Events")
+    @Description("Number of events delivered to the subscriber")
+    long events;
+
+    @Label("Outcome")
+    @Description("How the stream ended: completed, failed or cancelled")
+    String outcome;
+}
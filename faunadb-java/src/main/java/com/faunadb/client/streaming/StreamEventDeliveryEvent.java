@@ -0,0 +1,31 @@
+package com.faunadb.client.streaming;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event measuring the delivery latency of a single stream event, from the
+ * moment its bytes are received until it has been handed to the subscriber.
+ */
+@Name("com.faunadb.StreamEventDelivery")
+@Label("FaunaDB Stream Event Delivery")
+@Category({"FaunaDB", "Driver", "Streaming"})
+@Description("Parsing and delivery of a single FaunaDB stream event")
+@StackTrace(false)
+final class StreamEventDeliveryEvent extends jdk.jfr.Event {
+
+    @Label("Event Type")
+    String type;
+
+    @Label("Transaction Time")
+    @Description("The txn field of the event, in microseconds since the epoch")
+    long txnTime;
+
+    @Label("Event Size")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
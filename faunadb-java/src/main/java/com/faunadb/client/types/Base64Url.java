@@ -0,0 +1,96 @@
+package com.faunadb.client.types;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+
+import java.util.Arrays;
+
+/**
+ * The URL safe base64 encoding of {@code @bytes} values.
+ *
+ * <p>Values are decoded straight from a range of characters, such as the text buffer of a JSON parser, with the same
+ * rules as {@link java.util.Base64#getUrlDecoder()}: padding is optional, but must be complete if present. They
+ * are encoded, padded, as {@link java.util.Base64#getUrlEncoder()} does, by {@link #VARIANT}.</p>
+ */
+final class Base64Url {
+
+  /**
+   * The variant that {@link com.fasterxml.jackson.core.JsonGenerator#writeBinary(Base64Variant, byte[], int, int)}
+   * encodes {@code @bytes} values with.
+   */
+  static final Base64Variant VARIANT =
+    new Base64Variant(Base64Variants.MODIFIED_FOR_URL, "FAUNA_URL_SAFE", true, '=', Integer.MAX_VALUE);
+
+  private static final byte[] VALUES = new byte[128];
+
+  static {
+    Arrays.fill(VALUES, (byte) -1);
+
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    for (int i = 0; i < alphabet.length(); i++)
+      VALUES[alphabet.charAt(i)] = (byte) i;
+  }
+
+  private Base64Url() {
+  }
+
+  static byte[] decode(String base64) {
+    return decode(base64.toCharArray(), 0, base64.length());
+  }
+
+  /**
+   * @throws IllegalArgumentException if the characters are not valid URL safe base64
+   */
+  static byte[] decode(char[] chars, int offset, int length) {
+    int end = offset + length;
+    int padding = 0;
+
+    if (length > 0 && chars[end - 1] == '=') {
+      padding++;
+      if (length > 1 && chars[end - 2] == '=')
+        padding++;
+    }
+
+    if (padding > 0 && length % 4 != 0)
+      throw new IllegalArgumentException("Input byte array has wrong 4-byte ending unit");
+
+    int count = length - padding;
+    if (count % 4 == 1)
+      throw new IllegalArgumentException("Last unit does not have enough valid bits");
+
+    byte[] bytes = new byte[count / 4 * 3 + Math.max(count % 4 - 1, 0)];
+    int in = offset;
+    int out = 0;
+
+    for (int units = count / 4; units > 0; units--) {
+      int bits = value(chars, in) << 18 | value(chars, in + 1) << 12 | value(chars, in + 2) << 6 | value(chars, in + 3);
+      bytes[out++] = (byte) (bits >> 16);
+      bytes[out++] = (byte) (bits >> 8);
+      bytes[out++] = (byte) bits;
+      in += 4;
+    }
+
+    switch (count % 4) {
+      case 2:
+        bytes[out] = (byte) ((value(chars, in) << 18 | value(chars, in + 1) << 12) >> 16);
+        break;
+      case 3:
+        int bits = value(chars, in) << 18 | value(chars, in + 1) << 12 | value(chars, in + 2) << 6;
+        bytes[out] = (byte) (bits >> 16);
+        bytes[out + 1] = (byte) (bits >> 8);
+        break;
+    }
+
+    return bytes;
+  }
+
+  private static int value(char[] chars, int index) {
+    char c = chars[index];
+    int value = c < 128 ? VALUES[c] : -1;
+
+    if (value < 0)
+      throw new IllegalArgumentException("Illegal base64 character " + Integer.toString(c, 16));
+
+    return value;
+  }
+}
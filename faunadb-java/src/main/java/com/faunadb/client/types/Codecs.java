@@ -6,7 +6,10 @@ import com.faunadb.client.types.Value.ObjectV;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
@@ -23,6 +26,20 @@ final class Codecs {
   private static final Map<Class<?>, Codec<?>> CODECS = new HashMap<>();
   private static final ConcurrentHashMap<Class<?>, EncoderEntryCache> ENCODERS = new ConcurrentHashMap<>();
   private static final ConcurrentHashMap<Class<?>, Function<Value, Object>> DECODERS = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Class<?>, Properties.Property[]> READ_PROPERTIES = new ConcurrentHashMap<>();
+
+  // Codecs generated at compile time, looked up once per class through its own class loader. They are held
+  // by the class itself, so neither the class nor its loader is kept from being unloaded.
+  private static final ClassValue<GeneratedCodec<?>> GENERATED = new ClassValue<GeneratedCodec<?>>() {
+    @Override
+    protected GeneratedCodec<?> computeValue(Class<?> type) {
+      ClassLoader loader = type.getClassLoader();
+      if (loader == null)
+        return null;
+
+      return loadGeneratedCodec(type, loader);
+    }
+  };
 
   static {
     CODECS.put(String.class, Codec.STRING);
@@ -52,6 +69,21 @@ final class Codecs {
     if (codec != null)
       return (Codec<Object>) codec;
 
+    GeneratedCodec<?> generated = GENERATED.get(type);
+    if (generated != null)
+      return (Codec<Object>) generated;
+
+    return new ObjectDecoder(getObjectDecoder(type));
+  }
+
+  /**
+   * Returns the reflection based decoder for a user defined class, or null for the types with a predefined
+   * or generated codec.
+   */
+  static Function<Value, Object> getObjectDecoder(Class<?> type) {
+    if (CODECS.containsKey(type) || GENERATED.get(type) != null)
+      return null;
+
     Function<Value, Object> decoder = DECODERS.get(type);
 
     if (decoder == null) {
@@ -60,7 +92,7 @@ final class Codecs {
       DECODERS.put(type, decoder);
     }
 
-    return new ObjectDecoder(decoder);
+    return decoder;
   }
 
   @SuppressWarnings("unchecked")
@@ -69,11 +101,48 @@ final class Codecs {
     if (codec != null)
       return (Codec<Object>) codec;
 
+    GeneratedCodec<?> generated = GENERATED.get(type);
+    if (generated != null)
+      return new GeneratedEncoder(encoder, (GeneratedCodec<Object>) generated);
+
     return new ObjectEncoder(encoder, ENCODERS.computeIfAbsent(type, Codecs::createEncoder));
   }
 
+  private static GeneratedCodec<?> loadGeneratedCodec(Class<?> type, ClassLoader loader) {
+    Iterator<?> it = ServiceLoader.load(GeneratedCodec.class, loader).stream().iterator();
+
+    while (it.hasNext()) {
+      try {
+        ServiceLoader.Provider<?> provider = (ServiceLoader.Provider<?>) it.next();
+
+        // Codecs are generated next to their class, so only those of the same package are instantiated
+        if (!provider.type().getPackageName().equals(type.getPackageName()))
+          continue;
+
+        GeneratedCodec<?> codec = (GeneratedCodec<?>) provider.get();
+        if (codec.getType() == type)
+          return codec;
+      } catch (ServiceConfigurationError err) {
+        // A stale or broken registration only disables that codec; its class falls back to reflection
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the properties encoded by the reflection based encoder for a user defined class, or null for the
+   * types with a predefined or generated codec.
+   */
+  static Properties.Property[] getObjectProperties(Class<?> type) {
+    if (CODECS.containsKey(type) || GENERATED.get(type) != null)
+      return null;
+
+    return READ_PROPERTIES.computeIfAbsent(type, Properties::getReadProperties);
+  }
+
   private static EncoderEntryCache createEncoder(Class<?> type) {
-    final Properties.Property[] readProperties = Properties.getReadProperties(type);
+    final Properties.Property[] readProperties = READ_PROPERTIES.computeIfAbsent(type, Properties::getReadProperties);
 
     return (encoder, value) -> {
       Map<String, Value> fields = new HashMap<>();
@@ -127,4 +196,24 @@ final class Codecs {
       return Result.success(encoderEntryCache.encode(encoder, value));
     }
   }
+
+  private static class GeneratedEncoder implements Codec<Object> {
+    private final Encoder encoder;
+    private final GeneratedCodec<Object> codec;
+
+    GeneratedEncoder(Encoder encoder, GeneratedCodec<Object> codec) {
+      this.encoder = encoder;
+      this.codec = codec;
+    }
+
+    @Override
+    public Result<Object> decode(Value value) {
+      throw new FaunaException("Operation not permitted: calling decode() in an encoding only codec.");
+    }
+
+    @Override
+    public Result<Value> encode(Object value) {
+      return Result.success(codec.encode(encoder, value));
+    }
+  }
 }
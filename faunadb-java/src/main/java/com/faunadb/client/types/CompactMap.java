@@ -0,0 +1,156 @@
+package com.faunadb.client.types;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map of the fields of a small object, stored as key/value pairs in a single array, in insertion order.
+ *
+ * <p>Lookups scan the keys linearly. Field names read by Jackson are interned, so keys are compared by identity
+ * first. For the few fields of the objects returned by FaunaDB, this is as fast as hashing, and takes a fraction of
+ * the memory of a {@link LinkedHashMap}.</p>
+ */
+final class CompactMap extends AbstractMap<String, Value> {
+
+  /**
+   * Objects with more fields than this are stored in a {@link LinkedHashMap}.
+   */
+  static final int MAX_SIZE = 16;
+
+  static final CompactMap EMPTY = new CompactMap(new Object[0]);
+
+  // key, value, key, value, ...
+  private final Object[] entries;
+  private Set<Entry<String, Value>> entrySet;
+
+  private CompactMap(Object[] entries) {
+    this.entries = entries;
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < entries.length; i += 2) {
+      if (entries[i] == key)
+        return i;
+    }
+
+    if (key != null) {
+      for (int i = 0; i < entries.length; i += 2) {
+        if (entries[i].equals(key))
+          return i;
+      }
+    }
+
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return entries.length / 2;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public Value get(Object key) {
+    int i = indexOf(key);
+    return i >= 0 ? (Value) entries[i + 1] : null;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Value> action) {
+    for (int i = 0; i < entries.length; i += 2)
+      action.accept((String) entries[i], (Value) entries[i + 1]);
+  }
+
+  @Override
+  public Set<Entry<String, Value>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new AbstractSet<Entry<String, Value>>() {
+        @Override
+        public Iterator<Entry<String, Value>> iterator() {
+          return new Iterator<Entry<String, Value>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < entries.length;
+            }
+
+            @Override
+            public Entry<String, Value> next() {
+              if (next >= entries.length)
+                throw new NoSuchElementException();
+
+              Entry<String, Value> entry = new SimpleImmutableEntry<>((String) entries[next], (Value) entries[next + 1]);
+              next += 2;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return entries.length / 2;
+        }
+      };
+    }
+
+    return entrySet;
+  }
+
+  /**
+   * Collects the fields of an object, as {@link Map#put(Object, Object)} would, into a {@link CompactMap}, or into
+   * a {@link LinkedHashMap} once there are more than {@link #MAX_SIZE} fields.
+   */
+  static final class Builder {
+    private Object[] entries = new Object[8];
+    private int length;
+    private Map<String, Value> overflow;
+
+    void put(String key, Value value) {
+      if (overflow != null) {
+        overflow.put(key, value);
+        return;
+      }
+
+      for (int i = 0; i < length; i += 2) {
+        if (entries[i].equals(key)) {
+          entries[i + 1] = value;
+          return;
+        }
+      }
+
+      if (length == MAX_SIZE * 2) {
+        overflow = new LinkedHashMap<>();
+        for (int i = 0; i < length; i += 2)
+          overflow.put((String) entries[i], (Value) entries[i + 1]);
+
+        overflow.put(key, value);
+        return;
+      }
+
+      if (length == entries.length)
+        entries = Arrays.copyOf(entries, length * 2);
+
+      entries[length++] = key;
+      entries[length++] = value;
+    }
+
+    Map<String, Value> build() {
+      if (overflow != null)
+        return overflow;
+
+      return length == 0 ? EMPTY : new CompactMap(Arrays.copyOf(entries, length));
+    }
+  }
+}
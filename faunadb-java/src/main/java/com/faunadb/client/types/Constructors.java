@@ -1,21 +1,27 @@
 package com.faunadb.client.types;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.faunadb.client.errors.FaunaException;
 import com.faunadb.client.types.Properties.Property;
 import com.faunadb.client.types.Types.SimpleType;
 import com.faunadb.client.types.Value.ObjectV;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
 import static com.faunadb.client.types.Decoder.decodeImpl;
+import static com.faunadb.client.types.Decoder.defaultValue;
 import static java.lang.String.format;
 
 final class Constructors {
@@ -77,17 +83,25 @@ final class Constructors {
     return null;
   }
 
-  static private abstract class AbstractConstructorDecoder implements Function<Value, Object> {
+  static abstract class AbstractConstructorDecoder implements Function<Value, Object> {
     final private Class<?> rawClass;
     final private String[] parameterNames;
     final private SimpleType[] parameterTypes;
     final private Property[] writeProperties;
 
+    // Arguments and write properties by field name, and their default values, for the streaming decoder
+    final private Map<String, Integer> slots = new HashMap<>();
+    final private SimpleType[] slotTypes;
+    final private Object[] slotDefaults;
+
     AbstractConstructorDecoder(Constructor<?> constructor) {
       this.rawClass = constructor.getDeclaringClass();
       this.parameterNames = getParameterNames(constructor.getParameterAnnotations());
       this.parameterTypes = getParameterTypes(constructor.getGenericParameterTypes());
       this.writeProperties = filterProperties(Properties.getWriteProperties(constructor.getDeclaringClass()), this.parameterNames);
+      this.slotTypes = new SimpleType[parameterTypes.length + writeProperties.length];
+      this.slotDefaults = new Object[slotTypes.length];
+      initSlots();
     }
 
     AbstractConstructorDecoder(Method method) {
@@ -95,6 +109,25 @@ final class Constructors {
       this.parameterNames = getParameterNames(method.getParameterAnnotations());
       this.parameterTypes = getParameterTypes(method.getGenericParameterTypes());
       this.writeProperties = filterProperties(Properties.getWriteProperties(method.getDeclaringClass()), this.parameterNames);
+      this.slotTypes = new SimpleType[parameterTypes.length + writeProperties.length];
+      this.slotDefaults = new Object[slotTypes.length];
+      initSlots();
+    }
+
+    private void initSlots() {
+      for (int i = 0; i < parameterTypes.length; i++) {
+        slots.put(parameterNames[i], i);
+        slotTypes[i] = parameterTypes[i];
+      }
+
+      for (int i = 0; i < writeProperties.length; i++) {
+        int slot = parameterTypes.length + i;
+        slots.put(writeProperties[i].getName(), slot);
+        slotTypes[slot] = writeProperties[i].getType();
+      }
+
+      for (int i = 0; i < slotTypes.length; i++)
+        slotDefaults[i] = defaultValue(slotTypes[i].getRawClass());
     }
 
     private SimpleType[] getParameterTypes(Type[] genericParameterTypes) {
@@ -156,6 +189,58 @@ final class Constructors {
       }
     }
 
+    /**
+     * Decodes an object from the JSON tokens, starting at its {@code START_OBJECT} token.
+     * Fields that are not mapped to an argument or property are skipped without being decoded.
+     */
+    Object decode(JsonParser parser) throws IOException {
+      String field = parser.nextFieldName();
+
+      if (field == null || !field.startsWith("@"))
+        return decodeFields(parser, field);
+
+      if (!field.equals("@obj"))
+        return apply(StreamingDecoder.readObject(parser, field));
+
+      Object instance = parser.nextToken() == JsonToken.START_OBJECT ?
+        decodeFields(parser, parser.nextFieldName()) :
+        apply(StreamingDecoder.readValue(parser));
+
+      StreamingDecoder.skipFields(parser);
+      return instance;
+    }
+
+    private Object decodeFields(JsonParser parser, String field) throws IOException {
+      try {
+        Object[] values = slotDefaults.clone();
+
+        for (; field != null; field = parser.nextFieldName()) {
+          parser.nextToken();
+          Integer slot = slots.get(field);
+
+          if (slot != null)
+            values[slot] = StreamingDecoder.decode(parser, slotTypes[slot]);
+          else
+            parser.skipChildren();
+        }
+
+        Object instance = newInstance(buildArguments(values));
+
+        for (int i = 0; i < writeProperties.length; i++)
+          writeProperties[i].set(instance, values[parameterTypes.length + i]);
+
+        return instance;
+      } catch (IOException ex) {
+        throw ex;
+      } catch (Exception ex) {
+        throw new FaunaException(format("Could not instantiate object of class %s", rawClass.getName()), ex);
+      }
+    }
+
+    protected Object[] buildArguments(Object[] values) {
+      return Arrays.copyOf(values, parameterTypes.length);
+    }
+
     protected Object[] buildArguments(ObjectV value) {
       Object[] arguments = new Object[parameterTypes.length];
 
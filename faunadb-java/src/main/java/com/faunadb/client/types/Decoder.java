@@ -1,5 +1,7 @@
 package com.faunadb.client.types;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.faunadb.client.errors.FaunaException;
 import com.faunadb.client.types.Types.CollectionType;
 import com.faunadb.client.types.Types.MapType;
@@ -94,6 +96,99 @@ public final class Decoder {
     return decode(value, (Type)dstType);
   }
 
+  /**
+   * Decode the JSON value at the current token of a {@link JsonParser} straight into a specified type,
+   * without materializing it as a {@link Value} first.
+   *
+   * <p>The same decoding rules as {@link #decode(Value, Type)} apply. Fields of the JSON objects
+   * that are not mapped to the destination type are skipped without being decoded.</p>
+   *
+   * <pre>{@code
+   *     Result<User> user = Decoder.decodeFrom(parser, User.class);
+   *     Result<List<User>> users = Decoder.decodeFrom(parser, Types.arrayListOf(User.class));
+   * }</pre>
+   *
+   * @param <T>     The return type of the method.
+   * @param parser  The parser, positioned at the first token of the value, or before it. It is left at the last token of the value.
+   * @param dstType The {@link Type} in which value should be decoded.
+   * @return A {@link Result} instance of type {@link T}
+   */
+  public static <T> Result<T> decodeFrom(JsonParser parser, Type dstType) {
+    try {
+      if (!parser.hasCurrentToken())
+        parser.nextToken();
+
+      if (!parser.hasCurrentToken() || parser.currentToken() == JsonToken.VALUE_NULL)
+        return Result.fail("Value is null");
+
+      return Result.success((T) StreamingDecoder.decode(parser, Types.of(dstType)));
+    } catch (Exception ex) {
+      return Result.fail(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Decode the JSON value at the current token of a {@link JsonParser} straight into a specified class.
+   *
+   * @param <T>     The return type of the method.
+   * @param parser  The parser, positioned at the first token of the value, or before it. It is left at the last token of the value.
+   * @param dstType The {@link Class} in which value should be decoded.
+   * @return A {@link Result} instance of type {@link T}
+   * @see #decodeFrom(JsonParser, Type)
+   */
+  public static <T> Result<T> decodeFrom(JsonParser parser, Class<T> dstType) {
+    return decodeFrom(parser, (Type) dstType);
+  }
+
+  /**
+   * Decode the JSON value at the current token of a {@link JsonParser} with a {@link Codec}.
+   *
+   * <p>The value is read into a {@link Value} straight from the parser tokens, without an intermediate
+   * {@link com.fasterxml.jackson.databind.JsonNode} tree, and then passed to the codec.</p>
+   *
+   * @param <T>    The return type of the method.
+   * @param parser The parser, positioned at the first token of the value, or before it. It is left at the last token of the value.
+   * @param codec  The {@link Codec} used to convert the value.
+   * @return A {@link Result} instance of type {@link T}
+   * @see Value#to(Codec)
+   */
+  public static <T> Result<T> decodeFrom(JsonParser parser, Codec<T> codec) {
+    Value value;
+
+    try {
+      if (!parser.hasCurrentToken())
+        parser.nextToken();
+
+      value = parser.hasCurrentToken() ? StreamingDecoder.readValue(parser) : NullV.NULL;
+    } catch (Exception ex) {
+      return Result.fail(ex.getMessage(), ex);
+    }
+
+    return codec.decode(value);
+  }
+
+  /**
+   * Extract a {@link FieldSet} from the JSON value at the current token of a {@link JsonParser}.
+   *
+   * <p>Only the parts of the JSON value that the fields are under are read into {@link Value}s. Everything else
+   * is skipped without being decoded.</p>
+   *
+   * @param parser The parser, positioned at the first token of the value, or before it. It is left at the last token of the value.
+   * @param fields The {@link FieldSet} to extract.
+   * @return A {@link Result} with the values of the fields, in the order they were given in.
+   * @see FieldSet#get(Value)
+   */
+  public static Result<Object[]> decodeFrom(JsonParser parser, FieldSet fields) {
+    try {
+      if (!parser.hasCurrentToken())
+        parser.nextToken();
+
+      return parser.hasCurrentToken() ? fields.decodeFrom(parser) : fields.get(NullV.NULL);
+    } catch (Exception ex) {
+      return Result.fail(ex.getMessage(), ex);
+    }
+  }
+
   static Object decodeImpl(Value value, SimpleType dstType) {
     Class<?> rawType = dstType.getRawClass();
 
@@ -124,7 +219,7 @@ public final class Decoder {
     return Codecs.getDecoder(rawType).decode(value).get();
   }
 
-  private static <T> T defaultValue(Class<T> type) {
+  static <T> T defaultValue(Class<T> type) {
     if (type == boolean.class) {
       return (T) Boolean.FALSE;
     } else if (type == char.class) {
@@ -171,7 +266,7 @@ public final class Decoder {
     }
   }
 
-  private static Map<String, Object> couldNotInstantiateMap(Type dstType, Exception ex) {
+  static Map<String, Object> couldNotInstantiateMap(Type dstType, Exception ex) {
     throw new FaunaException(format("Could not instantiate map of type %s", dstType), ex);
   }
 
@@ -195,11 +290,11 @@ public final class Decoder {
     }
   }
 
-  private static <T> T couldNotInstantiateCollection(Type dstType, Exception ex) {
+  static <T> T couldNotInstantiateCollection(Type dstType, Exception ex) {
     throw new FaunaException(format("Could not instantiate collection of type %s", dstType), ex);
   }
 
-  private static Class<?> getConcreteClass(Class<?> rawClass) {
+  static Class<?> getConcreteClass(Class<?> rawClass) {
     if (!isAbstract(rawClass.getModifiers()) && !rawClass.isInterface())
       return rawClass;
 
@@ -218,6 +313,12 @@ public final class Decoder {
   private static Object toArray(Value value, Class<?> dstType) {
     List<Value> values = value.to(Codec.ARRAY).get();
 
+    if (values instanceof PrimitiveList) {
+      Object array = ((PrimitiveList) values).toArray(dstType.getComponentType());
+      if (array != null)
+        return array;
+    }
+
     SimpleType componentType = Types.of(dstType.getComponentType());
 
     int length = values.size();
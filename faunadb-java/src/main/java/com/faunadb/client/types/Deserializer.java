@@ -7,12 +7,10 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.faunadb.common.Rfc3339;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import static com.faunadb.client.types.Value.ArrayV.*;
@@ -47,10 +45,13 @@ class Deserializer {
         case STRING:
           return json.convertValue(tree, StringV.class);
         case BOOLEAN:
-          return json.convertValue(tree, BooleanV.class);
+          return BooleanV.valueOf(tree.booleanValue());
         case NUMBER:
-          return tree.isDouble() ?
-            json.convertValue(tree, DoubleV.class) :
+          if (tree.isDouble())
+            return new DoubleV(tree.doubleValue());
+
+          return tree.canConvertToLong() ?
+            LongV.valueOf(tree.longValue()) :
             json.convertValue(tree, LongV.class);
         case NULL:
           return NullV.NULL;
@@ -67,14 +68,23 @@ class Deserializer {
 
       switch (firstField) {
         case "@ref":
-          return deserializeRefs(tree);
+          return deserializeRefs(tree, false);
         case "@set":
           return json.convertValue(tree, SetRefV.class);
         case "@ts":
+          if (tree.size() == 1 && tree.get("@ts").isTextual())
+            return new TimeV(Rfc3339.parseInstant(tree.get("@ts").textValue()));
+
           return json.convertValue(tree, TimeV.class);
         case "@date":
+          if (tree.size() == 1 && tree.get("@date").isTextual())
+            return new DateV(Rfc3339.parseDate(tree.get("@date").textValue()));
+
           return json.convertValue(tree, DateV.class);
         case "@bytes":
+          if (tree.size() == 1 && tree.get("@bytes").isTextual())
+            return new BytesV(Base64Url.decode(tree.get("@bytes").textValue()));
+
           return json.convertValue(tree, BytesV.class);
         case "@query":
           return json.convertValue(tree, QueryV.class);
@@ -85,29 +95,29 @@ class Deserializer {
       }
     }
 
-    private RefV deserializeRefs(JsonNode node) {
+    private RefV deserializeRefs(JsonNode node, boolean nested) {
       if (node == null)
         return null;
 
       JsonNode ref = node.get("@ref");
 
       if (ref != null)
-        return makeRef(ref);
+        return makeRef(ref, nested);
 
       throw new IllegalArgumentException(format("Malformed @ref: %s", node));
     }
 
-    private RefV makeRef(JsonNode node) {
+    private RefV makeRef(JsonNode node, boolean nested) {
       JsonNode id = node.get("id");
-      RefV collection = deserializeRefs(node.get("collection"));
-      RefV database = deserializeRefs(node.get("database"));
+      RefV collection = deserializeRefs(node.get("collection"), true);
+      RefV database = deserializeRefs(node.get("database"), true);
 
       String idE = id.textValue();
 
       if (collection == null && database == null)
         return Native.fromName(idE);
 
-      return new RefV(idE, collection, database);
+      return RefCache.of(idE, collection, database, nested);
     }
   }
 
@@ -115,13 +125,13 @@ class Deserializer {
     @Override
     ArrayV deserializeTree(JsonParser jsonParser, JsonNode tree, final ObjectMapper json, JsonLocation loc) {
 
-      List<Value> values = new ArrayList<>();
+      PrimitiveList.Builder values = new PrimitiveList.Builder();
 
       for (Iterator<JsonNode> elements = tree.elements(); elements.hasNext(); ) {
         values.add(toValueOrNullV(elements.next(), json));
       }
 
-      return new ArrayV(values);
+      return new ArrayV(values.build());
     }
 
   }
@@ -130,14 +140,14 @@ class Deserializer {
     @Override
     ObjectV deserializeTree(JsonParser jsonParser, final JsonNode tree, final ObjectMapper json, JsonLocation loc) {
 
-      Map<String, Value> values = new LinkedHashMap<>();
+      CompactMap.Builder values = new CompactMap.Builder();
 
       for (Iterator<Map.Entry<String, JsonNode>> entries = tree.fields(); entries.hasNext(); ) {
         Map.Entry<String, JsonNode> entry = entries.next();
         values.put(entry.getKey(), toValueOrNullV(entry.getValue(), json));
       }
 
-      return new ObjectV(values);
+      return new ObjectV(values.build());
     }
   }
 
@@ -1,17 +1,25 @@
 package com.faunadb.client.types;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.faunadb.client.errors.FaunaException;
+import com.faunadb.client.query.Expr;
 import com.faunadb.client.types.Value.ArrayV;
 import com.faunadb.client.types.Value.ObjectV;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Stack;
+import java.util.Set;
 
 import static java.lang.String.format;
 
@@ -22,6 +30,7 @@ import static java.lang.String.format;
  * as properly annotated with: {@link FaunaField}, {@link FaunaConstructor}, {@link FaunaIgnore}, and {@link FaunaEnum}.
  *
  * @see Encoder#encode(Object)
+ * @see Encoder#encodeStreaming(Object)
  * @see FaunaField
  * @see FaunaConstructor
  * @see FaunaEnum
@@ -34,7 +43,8 @@ public final class Encoder {
   private Encoder() {
   }
 
-  private final Stack<Object> stack = new Stack<>();
+  // The objects being encoded, from the root to the current one
+  private final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
 
   /**
    * Encode the specified object into a {@link Value} instance.
@@ -52,6 +62,23 @@ public final class Encoder {
     }
   }
 
+  /**
+   * Returns an expression that encodes the specified object when the query is serialized, writing it straight
+   * into the JSON of the request instead of building its {@link Value} representation first. Objects are
+   * encoded as {@link #encode(Object)} does.
+   *
+   * <p>Since the object is encoded later, encoding errors are raised when the query is executed, and changes
+   * made to the object in the meantime are sent.</p>
+   *
+   * @param obj Any instance of user defined classes, primitive values or any
+   *            generic collection like {@link java.util.List}, {@link java.util.Set} or {@link java.util.Map}
+   * @return an {@link Expr} that encodes the given argument when serialized
+   * @see com.faunadb.client.query.Language#EncodedValue(Object)
+   */
+  public static Expr encodeStreaming(Object obj) {
+    return new StreamingExpr(obj);
+  }
+
   Value encodeImpl(Object obj) {
     if (obj == null)
       return Value.NullV.NULL;
@@ -59,25 +86,26 @@ public final class Encoder {
     if (obj instanceof Value)
       return (Value) obj;
 
-    if (contains(obj))
-      throw new FaunaException(format("Self reference loop detected for object \"%s\"", obj));
+    if (isScalar(obj))
+      return encodeIntern(obj);
 
+    enter(obj);
     try {
-      stack.push(obj);
-
       return encodeIntern(obj);
     } finally {
-      stack.pop();
+      path.remove(obj);
     }
   }
 
-  private boolean contains(Object value) {
-    for (Object obj : stack) {
-      if (obj == value)
-        return true;
-    }
+  private void enter(Object obj) {
+    if (!path.add(obj))
+      throw new FaunaException(format("Self reference loop detected for object \"%s\"", obj));
+  }
 
-    return false;
+  // Scalars cannot refer back to the objects being encoded
+  private static boolean isScalar(Object obj) {
+    return obj instanceof String || obj instanceof Long || obj instanceof Integer ||
+      obj instanceof Double || obj instanceof Boolean;
   }
 
   private Value encodeIntern(Object obj) {
@@ -89,6 +117,12 @@ public final class Encoder {
     if (clazz == byte[].class)
       return Codec.BYTES.encode((byte[]) obj).get();
 
+    if (clazz == long[].class)
+      return new ArrayV(new PrimitiveList.Longs(((long[]) obj).clone()));
+
+    if (clazz == double[].class)
+      return new ArrayV(new PrimitiveList.Doubles(((double[]) obj).clone()));
+
     if (clazz.isArray())
       return wrapArray(obj);
 
@@ -133,4 +167,105 @@ public final class Encoder {
     return new ArrayV(values);
   }
 
+  private void write(JsonGenerator gen, SerializerProvider provider, Object obj) throws IOException {
+    if (obj == null) {
+      gen.writeNull();
+    } else if (obj instanceof String) {
+      gen.writeString((String) obj);
+    } else if (obj instanceof Long || obj instanceof Integer) {
+      gen.writeNumber(((Number) obj).longValue());
+    } else if (obj instanceof Double) {
+      gen.writeNumber((Double) obj);
+    } else if (obj instanceof Boolean) {
+      gen.writeBoolean((Boolean) obj);
+    } else if (obj instanceof Value) {
+      provider.defaultSerializeValue(obj, gen);
+    } else {
+      enter(obj);
+      try {
+        writeIntern(gen, provider, obj);
+      } finally {
+        path.remove(obj);
+      }
+    }
+  }
+
+  private void writeIntern(JsonGenerator gen, SerializerProvider provider, Object obj) throws IOException {
+    Class<?> clazz = obj.getClass();
+
+    if (clazz == long[].class) {
+      long[] array = (long[]) obj;
+      gen.writeArray(array, 0, array.length);
+    } else if (clazz == double[].class) {
+      double[] array = (double[]) obj;
+      gen.writeArray(array, 0, array.length);
+    } else if (clazz.isArray() && clazz != byte[].class) {
+      int length = Array.getLength(obj);
+
+      gen.writeStartArray();
+      for (int i = 0; i < length; i++)
+        write(gen, provider, Array.get(obj, i));
+      gen.writeEndArray();
+    } else if (obj instanceof Iterable) {
+      gen.writeStartArray();
+      for (Object element : (Iterable<?>) obj)
+        write(gen, provider, element);
+      gen.writeEndArray();
+    } else if (obj instanceof Map) {
+      gen.writeStartObject();
+      gen.writeFieldName("object");
+      gen.writeStartObject();
+      for (Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+        gen.writeFieldName(entry.getKey().toString());
+        write(gen, provider, entry.getValue());
+      }
+      gen.writeEndObject();
+      gen.writeEndObject();
+    } else {
+      Properties.Property[] properties = clazz.isEnum() || clazz == byte[].class ? null : Codecs.getObjectProperties(clazz);
+
+      if (properties == null) {
+        // Enums, bytes and the types with a predefined or generated codec are encoded as values
+        provider.defaultSerializeValue(encodeIntern(obj), gen);
+        return;
+      }
+
+      gen.writeStartObject();
+      gen.writeFieldName("object");
+      gen.writeStartObject();
+      for (Properties.Property property : properties) {
+        gen.writeFieldName(property.getName());
+        try {
+          write(gen, provider, property.get(obj));
+        } catch (IOException ex) {
+          throw ex;
+        } catch (Exception ex) {
+          throw new FaunaException(format("Could not encode field \"%s\". Reason: %s", property.getName(), ex.getMessage()));
+        }
+      }
+      gen.writeEndObject();
+      gen.writeEndObject();
+    }
+  }
+
+  @JsonSerialize(using = StreamingExprSerializer.class)
+  private static final class StreamingExpr extends Expr {
+    private final Object value;
+
+    private StreamingExpr(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    protected Object toJson() {
+      return value;
+    }
+  }
+
+  private static final class StreamingExprSerializer extends JsonSerializer<StreamingExpr> {
+    @Override
+    public void serialize(StreamingExpr expr, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      new Encoder().write(gen, provider, expr.value);
+    }
+  }
 }
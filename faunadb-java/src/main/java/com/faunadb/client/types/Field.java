@@ -1,10 +1,12 @@
 package com.faunadb.client.types;
 
+import com.faunadb.client.types.Value.ArrayV;
+import com.faunadb.client.types.Value.ObjectV;
+
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import static java.lang.String.format;
 
@@ -37,39 +39,36 @@ public final class Field<T> {
 
     @Override
     public Result<List<A>> decode(Value input) {
-      return input.to(ARRAY).<List<A>>flatMap(toList);
+      if (!(input instanceof ArrayV))
+        return Result.fail(() -> Transformations.cannotConvert(input, ArrayV.class));
+
+      List<Value> values = ((ArrayV) input).values;
+      List<A> success = new ArrayList<>(values.size());
+      Failures failures = null;
+
+      for (int i = 0; i < values.size(); i++) {
+        Result<A> res = field.get(values.get(i));
+
+        if (res.isSuccess()) {
+          success.add(res.get());
+        } else {
+          if (failures == null)
+            failures = new Failures();
+
+          failures.add(path.subPath(Path.from(i)), field.path, res);
+        }
+      }
+
+      if (failures != null)
+        return failures.toResult();
+
+      return Result.success(success);
     }
 
     @Override
     public Result<Value> encode(List<A> value) {
       throw new IllegalArgumentException("not implemented");
     }
-
-    private final Function<List<Value>, Result<List<A>>> toList =
-      new Function<List<Value>, Result<List<A>>>() {
-        @Override
-        public Result<List<A>> apply(List<Value> values) {
-          List<A> success = new ArrayList<>();
-          List<String> failures = new ArrayList<>();
-
-          for (int i = 0; i < values.size(); i++) {
-            Result<A> res = field.get(values.get(i));
-
-            if (res.isSuccess()) {
-              success.add(res.get());
-            } else {
-              Path subPath = path.subPath(Path.from(i)).subPath(field.path);
-              failures.add(format("\"%s\" %s", subPath, res));
-            }
-          }
-
-          if (!failures.isEmpty()) {
-            return Result.fail(format("Failed to collect values: %s", String.join(", ", failures)));
-          }
-
-          return Result.success(success);
-        }
-      };
   }
 
   private static final class MapCodec<A> implements Codec<Map<String, A>> {
@@ -83,41 +82,61 @@ public final class Field<T> {
 
     @Override
     public Result<Map<String, A>> decode(Value input) {
-      return input.to(OBJECT).flatMap(toMap);
+      if (!(input instanceof ObjectV))
+        return Result.fail(() -> Transformations.cannotConvert(input, ObjectV.class));
+
+      Map<String, A> success = new LinkedHashMap<>();
+      Failures failures = null;
+
+      for (Map.Entry<String, Value> entry : ((ObjectV) input).values.entrySet()) {
+        Result<A> res = field.get(entry.getValue());
+
+        if (res.isSuccess()) {
+          success.put(entry.getKey(), res.get());
+        } else {
+          if (failures == null)
+            failures = new Failures();
+
+          failures.add(path.subPath(Path.from(entry.getKey())), field.path, res);
+        }
+      }
+
+      if (failures != null)
+        return failures.toResult();
+
+      return Result.success(success);
     }
 
     @Override
     public Result<Value> encode(Map<String, A> value) {
       throw new UnsupportedOperationException("not implemented");
     }
+  }
 
-    private final Function<Map<String, Value>, Result<Map<String, A>>> toMap =
-      new Function<Map<String, Value>, Result<Map<String, A>>>() {
-
-        @Override
-        public Result<Map<String, A>> apply(Map<String, Value> values) {
-          Map<String, A> success = new LinkedHashMap<>();
-          List<String> failures = new ArrayList<>();
+  /**
+   * The failures of collecting a field from several values. Their sub-paths are only formatted if the error message
+   * is read.
+   */
+  private static final class Failures {
+    private final List<Path> paths = new ArrayList<>();
+    private final List<Result<?>> results = new ArrayList<>();
 
-          for (Map.Entry<String, Value> entry: values.entrySet()) {
-            Result<A> res = field.get(entry.getValue());
+    void add(Path elementPath, Path fieldPath, Result<?> result) {
+      paths.add(elementPath.subPath(fieldPath));
+      results.add(result);
+    }
 
-            if (res.isSuccess()) {
-              success.put(entry.getKey(), res.get());
-            } else {
-              Path subPath = path.subPath(Path.from(entry.getKey())).subPath(field.path);
-              failures.add(format("\"%s\" %s", subPath, res));
-            }
-          }
+    <T> Result<T> toResult() {
+      return Result.fail(() -> {
+        List<String> failures = new ArrayList<>(paths.size());
 
-          if (!failures.isEmpty()) {
-            return Result.fail(format("Failed to collect values: %s", String.join(", ", failures)));
-          }
+        for (int i = 0; i < paths.size(); i++)
+          failures.add(format("\"%s\" %s", paths.get(i), results.get(i)));
 
-          return Result.success(success);
-        }
-      };
+        return format("Failed to collect values: %s", String.join(", ", failures));
+      });
     }
+  }
 
   /**
    * Creates a field that extracts the underlying value from the path provided, assuming the {@link Value} instance
@@ -185,14 +204,8 @@ public final class Field<T> {
     return new Field<>(Path.empty(), Codec.VALUE);
   }
 
-  private final Path path;
-  private final Codec<T> codec;
-  private final Function<Value, Result<T>> codecFn = new Function<Value, Result<T>>() {
-    @Override
-    public Result<T> apply(Value input) {
-      return codec.decode(input);
-    }
-  };
+  final Path path;
+  final Codec<T> codec;
 
   private Field(Path path, Codec<T> codec) {
     this.path = path;
@@ -255,7 +268,8 @@ public final class Field<T> {
   }
 
   Result<T> get(Value root) {
-    return path.get(root).flatMap(codecFn);
+    Value value = path.find(root);
+    return value != null ? codec.decode(value) : path.notFound(root);
   }
 
   @Override
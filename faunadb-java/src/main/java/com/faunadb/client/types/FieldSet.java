@@ -0,0 +1,343 @@
+package com.faunadb.client.types;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.faunadb.client.types.Value.ArrayV;
+import com.faunadb.client.types.Value.ObjectV;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * A set of {@link Field}s extracted from a {@link Value} together, in a single traversal.
+ *
+ * <p>The paths of the fields are merged into a tree, so path prefixes shared by several fields are only looked up
+ * once. The fields are extracted into an array, in the order they were given in.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>{@code
+ * Field<String> name = Field.at("data", "name").to(String.class);
+ * Field<String> email = Field.at("data", "email").to(String.class);
+ * Field<Long> ts = Field.at("ts").to(Codec.LONG);
+ *
+ * FieldSet fields = FieldSet.of(name, email, ts);
+ * Object[] row = result.get(fields);
+ * User user = new User((String) row[0], (String) row[1], (Long) row[2]);
+ * }</pre>
+ *
+ * <p>The same fields can be extracted straight from JSON with {@link Decoder#decodeFrom(JsonParser, FieldSet)},
+ * which skips the parts of the JSON that no field is under.</p>
+ *
+ * @see Field
+ * @see Value#get(FieldSet)
+ */
+public final class FieldSet {
+
+  private static final Value EMPTY_OBJECT = new ObjectV(CompactMap.EMPTY);
+  private static final Value EMPTY_ARRAY = new ArrayV(Collections.emptyList());
+
+  /**
+   * A node of the tree of paths, for the path prefix of its depth.
+   */
+  private static final class Node {
+    final int depth;
+    // indexes of the fields whose path ends at this node, and of all the fields under it
+    int[] ends = new int[0];
+    int[] fields = new int[0];
+    Map<String, Node> keys;
+    Map<Integer, Node> indexes;
+    int ordinal;
+    int children;
+
+    Node(int depth) {
+      this.depth = depth;
+    }
+
+    Node child(Object segment) {
+      Node child;
+
+      if (segment instanceof String) {
+        if (keys == null)
+          keys = new LinkedHashMap<>();
+        child = keys.get(segment);
+        if (child == null)
+          keys.put((String) segment, child = newChild());
+      } else {
+        if (indexes == null)
+          indexes = new LinkedHashMap<>();
+        child = indexes.get(segment);
+        if (child == null)
+          indexes.put((Integer) segment, child = newChild());
+      }
+
+      return child;
+    }
+
+    private Node newChild() {
+      Node child = new Node(depth + 1);
+      child.ordinal = children++;
+      return child;
+    }
+  }
+
+  /**
+   * Creates a set of the fields provided.
+   *
+   * @param fields the fields to extract
+   * @return a new {@link FieldSet} instance
+   */
+  public static FieldSet of(Field<?>... fields) {
+    return new FieldSet(fields.clone());
+  }
+
+  /**
+   * Creates a set of the fields provided.
+   *
+   * @param fields the fields to extract
+   * @return a new {@link FieldSet} instance
+   */
+  public static FieldSet of(List<? extends Field<?>> fields) {
+    return new FieldSet(fields.toArray(new Field<?>[0]));
+  }
+
+  private final Field<?>[] fields;
+  private final Node root = new Node(0);
+
+  private FieldSet(Field<?>[] fields) {
+    this.fields = fields;
+
+    for (int i = 0; i < fields.length; i++) {
+      Path path = fields[i].path;
+      Node node = root;
+
+      node.fields = append(node.fields, i);
+      for (int depth = 0; depth < path.size(); depth++) {
+        node = node.child(path.segment(depth));
+        node.fields = append(node.fields, i);
+      }
+
+      node.ends = append(node.ends, i);
+    }
+  }
+
+  /**
+   * @return the number of fields in this set
+   */
+  public int size() {
+    return fields.length;
+  }
+
+  /**
+   * Extracts the fields from the value provided.
+   *
+   * @param value the value to extract the fields from
+   * @return a {@link Result} with the values of the fields, in the order they were given in. It fails if any of
+   * the fields cannot be extracted.
+   */
+  public Result<Object[]> get(Value value) {
+    Extraction extraction = new Extraction();
+    extraction.extract(root, value);
+    return extraction.result();
+  }
+
+  /**
+   * Extracts the fields from the JSON value at the current token of the parser provided.
+   *
+   * @see Decoder#decodeFrom(JsonParser, FieldSet)
+   */
+  Result<Object[]> decodeFrom(JsonParser parser) throws IOException {
+    Extraction extraction = new Extraction();
+    extraction.decode(root, parser);
+    return extraction.result();
+  }
+
+  /**
+   * The state of extracting the fields from one value.
+   */
+  private final class Extraction {
+    private final Object[] values = new Object[fields.length];
+    private Result<?>[] failures;
+
+    void extract(Node node, Value value) {
+      for (int field : node.ends) {
+        Result<?> result = fields[field].codec.decode(value);
+
+        if (result.isSuccess())
+          values[field] = result.get();
+        else
+          fail(field, result);
+      }
+
+      if (node.keys != null) {
+        if (value instanceof ObjectV) {
+          Map<String, Value> object = ((ObjectV) value).values;
+
+          for (Map.Entry<String, Node> key : node.keys.entrySet()) {
+            Value child = object.get(key.getKey());
+
+            if (child != null)
+              extract(key.getValue(), child);
+            else
+              notFound(key.getValue(), value);
+          }
+        } else {
+          for (Node child : node.keys.values())
+            notFound(child, value);
+        }
+      }
+
+      if (node.indexes != null) {
+        if (value instanceof ArrayV) {
+          List<Value> array = ((ArrayV) value).values;
+
+          for (Map.Entry<Integer, Node> index : node.indexes.entrySet()) {
+            int i = index.getKey();
+
+            if (i >= 0 && i < array.size())
+              extract(index.getValue(), array.get(i));
+            else
+              notFound(index.getValue(), value);
+          }
+        } else {
+          for (Node child : node.indexes.values())
+            notFound(child, value);
+        }
+      }
+    }
+
+    void decode(Node node, JsonParser parser) throws IOException {
+      JsonToken token = parser.currentToken();
+
+      if (node.fields.length == 0) {
+        parser.skipChildren();
+        return;
+      }
+
+      // Values that are extracted whole, or do not have the shape of the tree, are read and extracted from instead
+      if (node.ends.length > 0 || node.keys != null && node.indexes != null) {
+        extract(node, StreamingDecoder.readValue(parser));
+      } else if (node.keys != null && token == JsonToken.START_OBJECT) {
+        decodeObject(node, parser);
+      } else if (node.indexes != null && token == JsonToken.START_ARRAY) {
+        decodeArray(node, parser);
+      } else {
+        extract(node, StreamingDecoder.readValue(parser));
+      }
+    }
+
+    private void decodeObject(Node node, JsonParser parser) throws IOException {
+      String field = parser.nextFieldName();
+
+      // Special values, and objects wrapped in @obj, are not looked into
+      if (field != null && field.startsWith("@")) {
+        extract(node, StreamingDecoder.readObject(parser, field));
+        return;
+      }
+
+      boolean[] found = new boolean[node.children];
+
+      for (; field != null; field = parser.nextFieldName()) {
+        parser.nextToken();
+        Node child = node.keys.get(field);
+
+        if (child != null) {
+          found[child.ordinal] = true;
+          decode(child, parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      for (Node child : node.keys.values()) {
+        if (!found[child.ordinal])
+          notFound(child, EMPTY_OBJECT);
+      }
+    }
+
+    private void decodeArray(Node node, JsonParser parser) throws IOException {
+      boolean[] found = new boolean[node.children];
+
+      for (int i = 0; parser.nextToken() != JsonToken.END_ARRAY; i++) {
+        Node child = node.indexes.get(i);
+
+        if (child != null) {
+          found[child.ordinal] = true;
+          decode(child, parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      for (Node child : node.indexes.values()) {
+        if (!found[child.ordinal])
+          notFound(child, EMPTY_ARRAY);
+      }
+    }
+
+    /**
+     * Fails all the fields under a node that is not in the value of its parent.
+     */
+    private void notFound(Node node, Value parent) {
+      for (int field : node.fields)
+        fail(field, fields[field].path.notFound(parent, node.depth - 1));
+    }
+
+    private void fail(int field, Result<?> failure) {
+      if (failures == null)
+        failures = new Result<?>[fields.length];
+
+      failures[field] = failure;
+    }
+
+    Result<Object[]> result() {
+      if (failures == null)
+        return Result.success(values);
+
+      Result<?>[] failures = this.failures;
+
+      return Result.fail(() -> {
+        List<String> errors = new ArrayList<>();
+
+        for (int i = 0; i < failures.length; i++) {
+          if (failures[i] != null)
+            errors.add(format("\"%s\" %s", fields[i], failures[i]));
+        }
+
+        return format("Failed to extract fields: %s", String.join(", ", errors));
+      });
+    }
+  }
+
+  private static int[] append(int[] array, int value) {
+    int[] appended = Arrays.copyOf(array, array.length + 1);
+    appended[array.length] = value;
+    return appended;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof FieldSet &&
+      Arrays.equals(this.fields, ((FieldSet) other).fields);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(fields);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.stream(fields)
+      .map(Field::toString)
+      .collect(Collectors.joining(", ", "[", "]"));
+  }
+}
@@ -0,0 +1,94 @@
+package com.faunadb.client.types;
+
+import com.faunadb.client.errors.FaunaException;
+import com.faunadb.client.types.Types.SimpleType;
+import com.faunadb.client.types.Value.ObjectV;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Base class of the codecs generated at compile time by the {@code faunadb-processor} annotation processor
+ * for classes annotated with {@link FaunaField} and {@link FaunaConstructor}.
+ *
+ * <p>Generated codecs follow the same rules as the reflection based codecs used by {@link Encoder} and
+ * {@link Decoder}, but access fields, accessors and constructors directly, so no reflection is involved
+ * when encoding or decoding. They are registered as services of this class and picked up automatically by
+ * {@link Encoder} and {@link Decoder}.</p>
+ *
+ * <p><b>WARNING:</b> Internal API. Must not be used in production code. Subclasses are only meant to be
+ * generated by the annotation processor.</p>
+ *
+ * @param <T> the type encoded and decoded by this codec
+ */
+public abstract class GeneratedCodec<T> implements Codec<T> {
+  private final Class<T> type;
+
+  protected GeneratedCodec(Class<T> type) {
+    this.type = type;
+  }
+
+  /**
+   * @return the class encoded and decoded by this codec
+   */
+  public final Class<T> getType() {
+    return type;
+  }
+
+  @Override
+  public final Result<T> decode(Value value) {
+    if (!(value instanceof ObjectV))
+      return Result.fail(() -> Transformations.cannotConvert(value, ObjectV.class));
+
+    try {
+      return Result.success(decodeFields(((ObjectV) value).values));
+    } catch (Error err) {
+      throw err;
+    } catch (Throwable ex) {
+      return Result.fail(format("Could not instantiate object of class %s", type.getName()), ex);
+    }
+  }
+
+  @Override
+  public final Result<Value> encode(T value) {
+    return Encoder.encode(value);
+  }
+
+  final Value encode(Encoder encoder, T value) {
+    Map<String, Value> fields = new HashMap<>();
+    encodeFields(value, encoder, fields);
+    return new ObjectV(fields);
+  }
+
+  /**
+   * Creates a new instance from the fields of an object.
+   */
+  protected abstract T decodeFields(Map<String, Value> fields) throws Throwable;
+
+  /**
+   * Encodes the properties of an instance into the fields of an object.
+   */
+  protected abstract void encodeFields(T value, Encoder encoder, Map<String, Value> fields);
+
+  /**
+   * Resolves a type once, to be passed to {@link #decodeField(Map, String, Type)}.
+   */
+  protected static Type resolve(Type type) {
+    return Types.of(type);
+  }
+
+  protected static Object decodeField(Map<String, Value> fields, String name, Type type) {
+    return Decoder.decodeImpl(fields.get(name), (SimpleType) type);
+  }
+
+  protected static void encodeField(Encoder encoder, Map<String, Value> fields, String name, Object value) {
+    try {
+      fields.put(name, encoder.encodeImpl(value));
+    } catch (Exception ex) {
+      throw new FaunaException(format("Could not encode field \"%s\". Reason: %s", name, ex.getMessage()));
+    }
+  }
+}
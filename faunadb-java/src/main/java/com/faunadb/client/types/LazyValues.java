@@ -0,0 +1,309 @@
+package com.faunadb.client.types;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.faunadb.client.types.Value.ArrayV;
+import com.faunadb.client.types.Value.NullV;
+import com.faunadb.client.types.Value.ObjectV;
+import com.faunadb.client.types.Value.StringV;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Reads {@link Value} trees lazily from the JSON text of a response.
+ *
+ * <p>Objects and arrays are not materialized when read. Each one keeps the offset of its first token in
+ * the source text, and indexes the offsets of its members the first time it is accessed. Strings are
+ * materialized when first looked up, by {@link Value#at(String...)}, a {@link Field} or a {@link Decoder};
+ * nested objects and arrays are lazy themselves. The parts of a large document that are never read are
+ * scanned, but never turned into values.</p>
+ *
+ * <p>Lazily read values are regular {@link ObjectV} and {@link ArrayV} instances, equal to the values read
+ * eagerly from the same text. They keep the whole source text reachable.</p>
+ *
+ * <p><b>WARNING:</b> Internal API. Must not be used in production code.</p>
+ */
+public final class LazyValues {
+  private LazyValues() {}
+
+  private static final JsonFactory factory = new JsonFactory();
+
+  // Lookups scan the keys of smaller objects instead of hashing them
+  private static final int MAX_SCANNED_KEYS = 8;
+
+  /**
+   * Reads the JSON value at the current token of a {@link JsonParser} lazily.
+   *
+   * @param parser The parser, created over {@code source} and positioned at the first token of the value, or before it.
+   *               It is left at the last token of the value.
+   * @param source The characters read by the parser, which lazily read values keep referencing.
+   * @return A {@link Result} with the value read, or {@link NullV} if there was none.
+   */
+  public static Result<Value> decodeFrom(JsonParser parser, char[] source) {
+    try {
+      if (!parser.hasCurrentToken())
+        parser.nextToken();
+
+      return Result.success(parser.hasCurrentToken() ? read(parser, new Source(source)) : NullV.NULL);
+    } catch (Exception ex) {
+      return Result.fail(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Reads the value at the current token. Objects and arrays are skipped, and read lazily later on.
+   * Special objects are small, so they are read eagerly.
+   */
+  private static Value read(JsonParser parser, Source source) throws IOException {
+    switch (parser.currentToken()) {
+      case START_OBJECT:
+        int offset = offset(parser);
+        String field = parser.nextFieldName();
+
+        if (field == null)
+          return new ObjectV(CompactMap.EMPTY);
+
+        if (field.startsWith("@"))
+          return StreamingDecoder.readObject(parser, field);
+
+        parser.nextToken();
+        parser.skipChildren();
+        StreamingDecoder.skipFields(parser);
+        return new ObjectV(new LazyObject(source, offset));
+      case START_ARRAY:
+        ArrayV array = new ArrayV(new LazyArray(source, offset(parser)));
+        parser.skipChildren();
+        return array;
+      default:
+        return StreamingDecoder.readValue(parser);
+    }
+  }
+
+  private static int offset(JsonParser parser) {
+    return (int) parser.getTokenLocation().getCharOffset();
+  }
+
+  private static final class Source {
+    final char[] chars;
+
+    Source(char[] chars) {
+      this.chars = chars;
+    }
+
+    /**
+     * Indexes the members of the object or array at the offset provided. Strings are left out, to be read by
+     * {@link #readString(int)} on lookup.
+     */
+    Members index(int offset) {
+      try (JsonParser parser = factory.createParser(chars, offset, chars.length - offset)) {
+        Members members = new Members();
+
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+          for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            members.add(field, parser, this);
+          }
+        } else {
+          while (parser.nextToken() != JsonToken.END_ARRAY)
+            members.add(null, parser, this);
+        }
+
+        return members.indexKeys();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+
+    StringV readString(int offset) {
+      try (JsonParser parser = factory.createParser(chars, offset, chars.length - offset)) {
+        parser.nextToken();
+        return new StringV(parser.getText());
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  /**
+   * The members of an object or array. Threads racing on a member that was not read yet may both materialize it,
+   * which is harmless since values are immutable.
+   */
+  private static final class Members {
+    String[] keys = new String[8];
+    int[] offsets = new int[8];
+    Value[] values = new Value[8];
+    Map<String, Integer> positions;
+    int size;
+
+    void add(String key, JsonParser parser, Source source) throws IOException {
+      if (size == offsets.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        offsets = Arrays.copyOf(offsets, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+
+      keys[size] = key;
+      offsets[size] = offset(parser);
+
+      if (parser.currentToken() != JsonToken.VALUE_STRING)
+        values[size] = read(parser, source);
+
+      size++;
+    }
+
+    Members indexKeys() {
+      if (size > MAX_SCANNED_KEYS && keys[0] != null) {
+        positions = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++)
+          positions.put(keys[i], i);
+      }
+
+      return this;
+    }
+
+    int find(Object key) {
+      if (positions != null) {
+        Integer position = positions.get(key);
+        return position != null ? position : -1;
+      }
+
+      for (int i = 0; i < size; i++) {
+        if (keys[i].equals(key))
+          return i;
+      }
+
+      return -1;
+    }
+
+    Value get(int i, Source source) {
+      Value value = values[i];
+
+      if (value == null)
+        values[i] = value = source.readString(offsets[i]);
+
+      return value;
+    }
+  }
+
+  private static final class LazyObject extends AbstractMap<String, Value> {
+    private final Source source;
+    private final int offset;
+    private volatile Members members;
+    private Set<Entry<String, Value>> entries;
+
+    LazyObject(Source source, int offset) {
+      this.source = source;
+      this.offset = offset;
+    }
+
+    private Members members() {
+      Members members = this.members;
+
+      if (members == null)
+        this.members = members = source.index(offset);
+
+      return members;
+    }
+
+    @Override
+    public int size() {
+      return members().size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return members().find(key) >= 0;
+    }
+
+    @Override
+    public Value get(Object key) {
+      Members members = members();
+      int i = members.find(key);
+      return i >= 0 ? members.get(i, source) : null;
+    }
+
+    @Override
+    public Set<Entry<String, Value>> entrySet() {
+      if (entries == null) {
+        entries = new AbstractSet<Entry<String, Value>>() {
+          @Override
+          public Iterator<Entry<String, Value>> iterator() {
+            Members members = members();
+
+            return new Iterator<Entry<String, Value>>() {
+              private int next = 0;
+
+              @Override
+              public boolean hasNext() {
+                return next < members.size;
+              }
+
+              @Override
+              public Entry<String, Value> next() {
+                if (next >= members.size)
+                  throw new NoSuchElementException();
+
+                int i = next++;
+                return new SimpleImmutableEntry<>(members.keys[i], members.get(i, source));
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            return members().size;
+          }
+        };
+      }
+
+      return entries;
+    }
+  }
+
+  private static final class LazyArray extends AbstractList<Value> implements RandomAccess {
+    private final Source source;
+    private final int offset;
+    private volatile Members members;
+
+    LazyArray(Source source, int offset) {
+      this.source = source;
+      this.offset = offset;
+    }
+
+    private Members members() {
+      Members members = this.members;
+
+      if (members == null)
+        this.members = members = source.index(offset);
+
+      return members;
+    }
+
+    @Override
+    public int size() {
+      return members().size;
+    }
+
+    @Override
+    public Value get(int index) {
+      Members members = members();
+
+      if (index < 0 || index >= members.size)
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + members.size);
+
+      return members.get(index, source);
+    }
+  }
+}
@@ -1,14 +1,20 @@
 package com.faunadb.client.types;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import com.faunadb.client.types.Value.ArrayV;
+import com.faunadb.client.types.Value.ObjectV;
+
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static com.faunadb.client.types.Codec.ARRAY;
-import static com.faunadb.client.types.Codec.OBJECT;
 import static java.lang.String.format;
 
+/**
+ * A path of object keys and array indexes into a {@link Value}.
+ *
+ * <p>Lookups walk the segments with a type check per segment, without allocating. When a lookup fails, the reason is
+ * only worked out if the error message of the failure is read.</p>
+ */
 final class Path {
 
   private static abstract class Segment<T> {
@@ -18,7 +24,15 @@ final class Path {
       this.segment = segment;
     }
 
-    abstract Result<Value> get(Value root);
+    /**
+     * @return the value under this segment, or null if there is none
+     */
+    abstract Value find(Value root);
+
+    /**
+     * @return why {@link #find(Value)} returned null for the value provided
+     */
+    abstract String notFound(Value root);
 
     @Override
     public boolean equals(Object other) {
@@ -43,99 +57,189 @@ final class Path {
     }
 
     @Override
-    public Result<Value> get(Value root) {
-      return root.to(OBJECT).flatMap(obj -> {
-        Value value = obj.get(segment);
-        if (value != null)
-          return Result.success(value);
-
-        return Result.fail(format("Object key \"%s\" not found", segment));
-      });
+    Value find(Value root) {
+      return root instanceof ObjectV ? ((ObjectV) root).values.get(segment) : null;
     }
 
+    @Override
+    String notFound(Value root) {
+      if (!(root instanceof ObjectV))
+        return Transformations.cannotConvert(root, ObjectV.class);
+
+      return format("Object key \"%s\" not found", segment);
+    }
   }
 
   private static final class ArrayIndex extends Segment<Integer> {
-    private ArrayIndex(Integer segment) {
+    private final int index;
+
+    private ArrayIndex(int segment) {
       super(segment);
+      this.index = segment;
     }
 
     @Override
-    public Result<Value> get(Value root) {
-      return root.to(ARRAY).flatMap(array -> {
-        try {
-          return Result.success(array.get(segment));
-        } catch (IndexOutOfBoundsException ign) {
-          return Result.fail(format("Array index \"%s\" not found", segment));
-        }
-      });
+    Value find(Value root) {
+      if (!(root instanceof ArrayV))
+        return null;
+
+      List<Value> values = ((ArrayV) root).values;
+      return index >= 0 && index < values.size() ? values.get(index) : null;
     }
 
+    @Override
+    String notFound(Value root) {
+      if (!(root instanceof ArrayV))
+        return Transformations.cannotConvert(root, ArrayV.class);
+
+      return format("Array index \"%s\" not found", segment);
+    }
   }
 
+  private static final Path EMPTY = new Path(new Segment<?>[0]);
+
   static Path empty() {
-    return new Path(Collections.emptyList());
+    return EMPTY;
   }
 
   static Path from(String... keys) {
-    List<Segment> segments = new ArrayList<>(keys.length);
+    Segment<?>[] segments = new Segment<?>[keys.length];
 
-    for (String key : keys)
-      segments.add(new ObjectKey(key));
+    for (int i = 0; i < keys.length; i++)
+      segments[i] = new ObjectKey(keys[i]);
 
-    return new Path(Collections.unmodifiableList(segments));
+    return new Path(segments);
   }
 
   static Path from(int... indexes) {
-    List<Segment> segments = new ArrayList<>(indexes.length);
+    Segment<?>[] segments = new Segment<?>[indexes.length];
+
+    for (int i = 0; i < indexes.length; i++)
+      segments[i] = new ArrayIndex(indexes[i]);
+
+    return new Path(segments);
+  }
+
+  /**
+   * Looks up the object keys provided, without building a {@link Path}.
+   *
+   * @return the value under the keys, or null if there is none
+   */
+  static Value find(Value root, String... keys) {
+    Value value = root;
 
-    for (Integer index : indexes)
-      segments.add(new ArrayIndex(index));
+    for (int i = 0; value != null && i < keys.length; i++)
+      value = value instanceof ObjectV ? ((ObjectV) value).values.get(keys[i]) : null;
 
-    return new Path(Collections.unmodifiableList(segments));
+    return value;
   }
 
-  private final List<Segment> segments;
+  /**
+   * Looks up the array indexes provided, without building a {@link Path}.
+   *
+   * @return the value under the indexes, or null if there is none
+   */
+  static Value find(Value root, int... indexes) {
+    Value value = root;
 
-  private Path(List<Segment> segments) {
+    for (int i = 0; value != null && i < indexes.length; i++) {
+      if (!(value instanceof ArrayV))
+        return null;
+
+      List<Value> values = ((ArrayV) value).values;
+      value = indexes[i] >= 0 && indexes[i] < values.size() ? values.get(indexes[i]) : null;
+    }
+
+    return value;
+  }
+
+  private final Segment<?>[] segments;
+
+  private Path(Segment<?>[] segments) {
     this.segments = segments;
   }
 
+  boolean isEmpty() {
+    return segments.length == 0;
+  }
+
+  int size() {
+    return segments.length;
+  }
+
+  /**
+   * @return the object key, as a {@link String}, or the array index, as an {@link Integer}, of a segment
+   */
+  Object segment(int index) {
+    return segments[index].segment;
+  }
+
   Path subPath(Path other) {
-    List<Segment> newSegments = new ArrayList<>(segments.size() + other.segments.size());
-    newSegments.addAll(segments);
-    newSegments.addAll(other.segments);
+    if (other.isEmpty())
+      return this;
+
+    if (isEmpty())
+      return other;
 
-    return new Path(Collections.unmodifiableList(newSegments));
+    Segment<?>[] newSegments = Arrays.copyOf(segments, segments.length + other.segments.length);
+    System.arraycopy(other.segments, 0, newSegments, segments.length, other.segments.length);
+
+    return new Path(newSegments);
   }
 
-  Result<Value> get(Value root) {
-    Result<Value> result = Result.success(root);
+  /**
+   * @return the value under this path, or null if there is none
+   */
+  Value find(Value root) {
+    Value value = root;
 
-    for (Segment<?> segment : segments) {
-      result = segment.get(result.get());
-      if (result.isFailure())
-        return Result.fail(
-          format("Can not find path \"%s\". %s", this, result));
-    }
+    for (int i = 0; value != null && i < segments.length; i++)
+      value = segments[i].find(value);
+
+    return value;
+  }
+
+  /**
+   * @return a failure explaining why {@link #find(Value)} returned null for the value provided
+   */
+  <T> Result<T> notFound(Value root) {
+    return notFound(root, 0);
+  }
+
+  /**
+   * @param value the value under the segments before {@code from}
+   * @return a failure explaining why the segments from {@code from} on cannot be found in the value provided
+   */
+  <T> Result<T> notFound(Value value, int from) {
+    return Result.fail(() -> {
+      Value current = value;
+
+      for (int i = from; i < segments.length; i++) {
+        Value next = segments[i].find(current);
+        if (next == null)
+          return format("Can not find path \"%s\". %s", this, segments[i].notFound(current));
+
+        current = next;
+      }
 
-    return result;
+      return format("Can not find path \"%s\"", this);
+    });
   }
 
   @Override
   public boolean equals(Object other) {
     return other instanceof Path &&
-      this.segments.equals(((Path) other).segments);
+      Arrays.equals(this.segments, ((Path) other).segments);
   }
 
   @Override
   public int hashCode() {
-    return segments.hashCode();
+    return Arrays.hashCode(segments);
   }
 
   @Override
   public String toString() {
-    return segments.stream()
+    return Arrays.stream(segments)
       .map(Segment::toString)
       .collect(Collectors.joining("/"));
   }
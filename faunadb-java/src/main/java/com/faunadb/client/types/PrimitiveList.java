@@ -0,0 +1,179 @@
+package com.faunadb.client.types;
+
+import com.faunadb.client.types.Value.DoubleV;
+import com.faunadb.client.types.Value.LongV;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of the elements of an array of numbers, backed by an array of primitives.
+ *
+ * <p>Arrays whose elements are all longs, or all doubles, are stored this way by the deserializers. Elements are
+ * only wrapped in a {@link Value} when read from the list, and the array can be decoded to {@code long[]} or
+ * {@code double[]} without wrapping them at all.</p>
+ */
+abstract class PrimitiveList extends AbstractList<Value> implements RandomAccess {
+
+  /**
+   * Copies the elements into an array of the primitive type provided, converted as {@link Codec} would.
+   *
+   * @return the array, or null if the elements cannot be copied into an array of that type
+   */
+  abstract Object toArray(Class<?> componentType);
+
+  static final class Longs extends PrimitiveList {
+    private final long[] values;
+
+    Longs(long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Value get(int index) {
+      return LongV.valueOf(values[index]);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    Object toArray(Class<?> componentType) {
+      if (componentType == long.class)
+        return values.clone();
+
+      if (componentType == int.class) {
+        int[] array = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+          array[i] = (int) values[i];
+        return array;
+      }
+
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof Longs)
+        return Arrays.equals(values, ((Longs) other).values);
+
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 1;
+      for (long value : values)
+        hash = 31 * hash + Long.hashCode(value);
+      return hash;
+    }
+  }
+
+  static final class Doubles extends PrimitiveList {
+    private final double[] values;
+
+    Doubles(double[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Value get(int index) {
+      return new DoubleV(values[index]);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    Object toArray(Class<?> componentType) {
+      if (componentType == double.class)
+        return values.clone();
+
+      if (componentType == float.class) {
+        float[] array = new float[values.length];
+        for (int i = 0; i < values.length; i++)
+          array[i] = (float) values[i];
+        return array;
+      }
+
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof Doubles)
+        return Arrays.equals(values, ((Doubles) other).values);
+
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 1;
+      for (double value : values)
+        hash = 31 * hash + Double.hashCode(value);
+      return hash;
+    }
+  }
+
+  /**
+   * Collects the elements of an array into a {@link Longs} or {@link Doubles} list while they are all longs or all
+   * doubles, and into an {@link ArrayList} as soon as they are not.
+   */
+  static final class Builder {
+    private long[] longs;
+    private double[] doubles;
+    private List<Value> values;
+    private int size;
+
+    void add(Value value) {
+      if (values == null) {
+        if (doubles == null && value instanceof LongV) {
+          if (longs == null)
+            longs = new long[8];
+          else if (size == longs.length)
+            longs = Arrays.copyOf(longs, size * 2);
+
+          longs[size++] = ((LongV) value).value;
+          return;
+        }
+
+        if (longs == null && value instanceof DoubleV) {
+          if (doubles == null)
+            doubles = new double[8];
+          else if (size == doubles.length)
+            doubles = Arrays.copyOf(doubles, size * 2);
+
+          doubles[size++] = ((DoubleV) value).value;
+          return;
+        }
+
+        values = new ArrayList<>(Math.max(size * 2, 8));
+        for (int i = 0; i < size; i++)
+          values.add(longs != null ? LongV.valueOf(longs[i]) : new DoubleV(doubles[i]));
+      }
+
+      values.add(value);
+    }
+
+    List<Value> build() {
+      if (values != null)
+        return values;
+
+      if (longs != null)
+        return new Longs(Arrays.copyOf(longs, size));
+
+      if (doubles != null)
+        return new Doubles(Arrays.copyOf(doubles, size));
+
+      return new ArrayList<>();
+    }
+  }
+}
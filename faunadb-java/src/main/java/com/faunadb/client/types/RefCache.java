@@ -0,0 +1,61 @@
+package com.faunadb.client.types;
+
+import com.faunadb.client.types.Value.RefV;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * A bounded cache of {@link RefV} instances, so refs repeated across responses share one instance.
+ *
+ * <p>The cache is a fixed size table with one weakly held ref per slot. A ref replaces whatever ref was cached in its
+ * slot, and cached refs are collected once no value references them. Lookups do not lock: racing threads may cache
+ * equal refs in turn, which only costs a cache miss.</p>
+ *
+ * <p>Collection and database refs are always cached. Document refs are only cached if the
+ * {@code faunadb.internDocumentRefs} system property is set to true, as most responses contain few repeated
+ * document refs.</p>
+ */
+final class RefCache {
+
+  static final RefCache SCHEMA = new RefCache(1024);
+
+  static final RefCache DOCUMENTS = Boolean.getBoolean("faunadb.internDocumentRefs") ? new RefCache(4096) : null;
+
+  private final WeakReference<RefV>[] slots;
+
+  // generic arrays can only be created raw
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private RefCache(int size) {
+    this.slots = new WeakReference[size];
+  }
+
+  /**
+   * Returns a ref, from the cache if it is a collection or database ref, or a document ref and document refs are cached.
+   *
+   * @param nested whether the ref is the collection or database of another ref, so it cannot be a document ref
+   */
+  static RefV of(String id, RefV collection, RefV database, boolean nested) {
+    if (nested || collection == null || collection.isNative())
+      return SCHEMA.intern(id, collection, database);
+
+    if (DOCUMENTS != null)
+      return DOCUMENTS.intern(id, collection, database);
+
+    return new RefV(id, collection, database);
+  }
+
+  RefV intern(String id, RefV collection, RefV database) {
+    int hash = Value.RefID.hash(id, collection, database);
+    int index = (hash ^ (hash >>> 16)) & (slots.length - 1);
+
+    WeakReference<RefV> slot = slots[index];
+    RefV ref = slot != null ? slot.get() : null;
+
+    if (ref != null && ref.matches(id, collection, database))
+      return ref;
+
+    ref = new RefV(id, collection, database);
+    slots[index] = new WeakReference<>(ref);
+    return ref;
+  }
+}
@@ -73,14 +73,35 @@ public abstract class Result<T> {
 
   private static final class Failure<A> extends Result<A> {
 
-    private final String error;
+    private final Supplier<String> message;
     private final Throwable cause;
+    private String error;
 
     private Failure(String error, Throwable cause) {
+      this.message = null;
       this.error = error;
       this.cause = cause;
     }
 
+    private Failure(Supplier<String> message, Throwable cause) {
+      this.message = message;
+      this.cause = cause;
+    }
+
+    private Failure(Failure<?> other) {
+      this.message = other.message;
+      this.error = other.error;
+      this.cause = other.cause;
+    }
+
+    // Built on first read, as most failures are only checked with isFailure() or getOrElse()
+    private String error() {
+      if (error == null && message != null)
+        error = message.get();
+
+      return error;
+    }
+
     @Override
     public boolean isSuccess() {
       return false;
@@ -93,7 +114,7 @@ public abstract class Result<T> {
 
     @Override
     public A get() {
-      throw new IllegalStateException(error, cause);
+      throw new IllegalStateException(error(), cause);
     }
 
     @Override
@@ -108,28 +129,28 @@ public abstract class Result<T> {
 
     @Override
     public <U> Result<U> map(Function<A, U> fn) {
-      return new Failure<>(error, cause);
+      return new Failure<>(this);
     }
 
     @Override
     public <U> Result<U> flatMap(Function<A, Result<U>> fn) {
-      return new Failure<>(error, cause);
+      return new Failure<>(this);
     }
 
     @Override
     public boolean equals(Object other) {
       return other instanceof Failure &&
-        this.error.equals(((Failure) other).error);
+        this.error().equals(((Failure) other).error());
     }
 
     @Override
     public int hashCode() {
-      return error.hashCode();
+      return error().hashCode();
     }
 
     @Override
     public String toString() {
-      return error;
+      return error();
     }
   }
 
@@ -167,6 +188,13 @@ public abstract class Result<T> {
     return new Failure<>(error, cause);
   }
 
+  /**
+   * Creates failure result whose error message is only built if it is read.
+   */
+  static <T> Result<T> fail(Supplier<String> error) {
+    return new Failure<>(error, null);
+  }
+
   private Result() {
   }
 
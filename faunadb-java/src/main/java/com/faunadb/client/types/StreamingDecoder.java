@@ -0,0 +1,308 @@
+package com.faunadb.client.types;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.faunadb.client.types.Types.CollectionType;
+import com.faunadb.client.types.Types.MapType;
+import com.faunadb.client.types.Types.SimpleType;
+import com.faunadb.client.types.Value.*;
+import com.faunadb.common.Rfc3339;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.faunadb.client.types.Decoder.couldNotInstantiateCollection;
+import static com.faunadb.client.types.Decoder.couldNotInstantiateMap;
+import static com.faunadb.client.types.Decoder.decodeImpl;
+import static com.faunadb.client.types.Decoder.defaultValue;
+import static com.faunadb.client.types.Decoder.getConcreteClass;
+import static java.lang.String.format;
+
+/**
+ * Decodes JSON tokens straight into the destination type, without building the intermediate
+ * {@link com.fasterxml.jackson.databind.JsonNode} and {@link Value} trees.
+ *
+ * <p>It follows the same rules as {@link Decoder#decodeImpl(Value, SimpleType)}. Whenever the
+ * tokens do not match what the destination type expects, the value at hand is materialized as
+ * a {@link Value} and decoded by {@link Decoder} instead, so the results and errors are the same
+ * on both paths.</p>
+ *
+ * <p>All methods expect the parser to be positioned at the first token of the value to decode,
+ * and leave it at the last token of that value.</p>
+ */
+@SuppressWarnings("unchecked")
+final class StreamingDecoder {
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private StreamingDecoder() {
+  }
+
+  static Object decode(JsonParser parser, SimpleType dstType) throws IOException {
+    Class<?> rawType = dstType.getRawClass();
+    JsonToken token = parser.currentToken();
+
+    if (token == JsonToken.VALUE_NULL)
+      return defaultValue(rawType);
+
+    if (Value.class.isAssignableFrom(rawType) || rawType == Object.class)
+      return decodeImpl(readValue(parser), dstType);
+
+    if (rawType.isEnum() && token == JsonToken.VALUE_STRING)
+      return Enums.getDecodingMap((Class<Enum>) rawType).get(parser.getText());
+
+    if (rawType.isArray() && token == JsonToken.START_ARRAY)
+      return toArray(parser, rawType);
+
+    if (dstType.getClass() == CollectionType.class && token == JsonToken.START_ARRAY)
+      return toCollection(parser, (CollectionType) dstType);
+
+    if (dstType.getClass() == MapType.class && token == JsonToken.START_OBJECT)
+      return toMap(parser, (MapType) dstType);
+
+    if (token == JsonToken.START_OBJECT && !rawType.isEnum() && !rawType.isArray() && dstType.getClass() == SimpleType.class) {
+      Function<Value, Object> decoder = Codecs.getObjectDecoder(rawType);
+
+      if (decoder instanceof Constructors.AbstractConstructorDecoder)
+        return ((Constructors.AbstractConstructorDecoder) decoder).decode(parser);
+    }
+
+    return decodeImpl(readValue(parser), dstType);
+  }
+
+  private static Object toArray(JsonParser parser, Class<?> dstType) throws IOException {
+    SimpleType componentType = Types.of(dstType.getComponentType());
+
+    if (dstType == long[].class)
+      return toLongArray(parser, componentType);
+
+    if (dstType == double[].class)
+      return toDoubleArray(parser, componentType);
+
+    List<Object> values = new ArrayList<>();
+
+    while (parser.nextToken() != JsonToken.END_ARRAY)
+      values.add(decode(parser, componentType));
+
+    Object array = Array.newInstance(dstType.getComponentType(), values.size());
+
+    for (int i = 0; i < values.size(); i++)
+      Array.set(array, i, values.get(i));
+
+    return array;
+  }
+
+  // Numbers are read straight into the array, other elements are decoded as they would be into a Long
+  private static long[] toLongArray(JsonParser parser, SimpleType componentType) throws IOException {
+    long[] array = new long[16];
+    int size = 0;
+    JsonToken token;
+
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (size == array.length)
+        array = Arrays.copyOf(array, size * 2);
+
+      array[size++] = token == JsonToken.VALUE_NUMBER_INT ?
+        parser.getLongValue() :
+        (Long) decode(parser, componentType);
+    }
+
+    return Arrays.copyOf(array, size);
+  }
+
+  private static double[] toDoubleArray(JsonParser parser, SimpleType componentType) throws IOException {
+    double[] array = new double[16];
+    int size = 0;
+    JsonToken token;
+
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (size == array.length)
+        array = Arrays.copyOf(array, size * 2);
+
+      array[size++] = token == JsonToken.VALUE_NUMBER_FLOAT ?
+        parser.getDoubleValue() :
+        (Double) decode(parser, componentType);
+    }
+
+    return Arrays.copyOf(array, size);
+  }
+
+  private static Collection<Object> toCollection(JsonParser parser, CollectionType dstType) throws IOException {
+    Collection<Object> collection;
+
+    try {
+      collection = (Collection<Object>) getConcreteClass(dstType.getRawClass()).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException ex) {
+      return couldNotInstantiateCollection(dstType, ex);
+    }
+
+    SimpleType elementType = dstType.getElementType();
+
+    while (parser.nextToken() != JsonToken.END_ARRAY)
+      collection.add(decode(parser, elementType));
+
+    return collection;
+  }
+
+  private static Object toMap(JsonParser parser, MapType dstType) throws IOException {
+    String field = parser.nextFieldName();
+
+    if (field != null && field.startsWith("@")) {
+      if (!field.equals("@obj"))
+        return decodeImpl(readObject(parser, field), dstType);
+
+      Object map = parser.nextToken() == JsonToken.START_OBJECT ?
+        toMap(parser, dstType, parser.nextFieldName()) :
+        decodeImpl(readValue(parser), dstType);
+
+      skipFields(parser);
+      return map;
+    }
+
+    return toMap(parser, dstType, field);
+  }
+
+  private static Object toMap(JsonParser parser, MapType dstType, String field) throws IOException {
+    Map<String, Object> map;
+
+    try {
+      map = (Map<String, Object>) getConcreteClass(dstType.getRawClass()).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException ex) {
+      return couldNotInstantiateMap(dstType, ex);
+    }
+
+    SimpleType valueType = dstType.getValueType();
+
+    for (; field != null; field = parser.nextFieldName()) {
+      parser.nextToken();
+      map.put(field, decode(parser, valueType));
+    }
+
+    return map;
+  }
+
+  /**
+   * Reads the value at the current token, as {@link Deserializer.ValueDeserializer} would.
+   */
+  static Value readValue(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case START_OBJECT:
+        String field = parser.nextFieldName();
+        return field == null ? new ObjectV(CompactMap.EMPTY) : readObject(parser, field);
+      case START_ARRAY:
+        PrimitiveList.Builder values = new PrimitiveList.Builder();
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+          values.add(readValue(parser));
+        return new ArrayV(values.build());
+      case VALUE_STRING:
+        return new StringV(parser.getText());
+      case VALUE_NUMBER_INT:
+        return LongV.valueOf(parser.getLongValue());
+      case VALUE_NUMBER_FLOAT:
+        return new DoubleV(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return BooleanV.TRUE;
+      case VALUE_FALSE:
+        return BooleanV.FALSE;
+      case VALUE_NULL:
+        return NullV.NULL;
+      default:
+        throw new JsonParseException(parser, "Cannot deserialize as a Value");
+    }
+  }
+
+  /**
+   * Reads the rest of an object whose first field name was just read.
+   */
+  static Value readObject(JsonParser parser, String field) throws IOException {
+    switch (field) {
+      case "@obj":
+        Value object = parser.nextToken() == JsonToken.START_OBJECT ?
+          readPlainObject(parser, parser.nextFieldName()) :
+          readValue(parser);
+
+        skipFields(parser);
+        return object;
+      case "@ts":
+      case "@date":
+        return readTime(parser, field);
+      case "@bytes":
+        return readBytes(parser);
+      case "@ref":
+      case "@set":
+      case "@query":
+        return readSpecialObject(parser, field);
+      default:
+        return readPlainObject(parser, field);
+    }
+  }
+
+  static ObjectV readPlainObject(JsonParser parser, String field) throws IOException {
+    CompactMap.Builder values = new CompactMap.Builder();
+
+    for (; field != null; field = parser.nextFieldName()) {
+      parser.nextToken();
+      values.put(field, readValue(parser));
+    }
+
+    return new ObjectV(values.build());
+  }
+
+  // Timestamps and dates are parsed straight from the parser's text buffer
+  private static Value readTime(JsonParser parser, String field) throws IOException {
+    if (parser.nextToken() == JsonToken.VALUE_STRING) {
+      char[] chars = parser.getTextCharacters();
+      int offset = parser.getTextOffset();
+      int length = parser.getTextLength();
+
+      Value value = field.equals("@ts") ?
+        new TimeV(Rfc3339.parseInstant(chars, offset, length)) :
+        new DateV(Rfc3339.parseDate(chars, offset, length));
+
+      if (parser.nextToken() == JsonToken.END_OBJECT)
+        return value;
+    }
+
+    throw new JsonParseException(parser, format("Malformed %s", field));
+  }
+
+  // Bytes are decoded straight from the parser's text buffer, without building a base64 string first
+  private static Value readBytes(JsonParser parser) throws IOException {
+    if (parser.nextToken() == JsonToken.VALUE_STRING) {
+      Value value = new BytesV(Base64Url.decode(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+
+      if (parser.nextToken() == JsonToken.END_OBJECT)
+        return value;
+    }
+
+    throw new JsonParseException(parser, "Malformed @bytes");
+  }
+
+  // Special types are small, so they are decoded by the tree based deserializer to keep a single implementation
+  private static Value readSpecialObject(JsonParser parser, String field) throws IOException {
+    ObjectNode tree = JsonNodeFactory.instance.objectNode();
+
+    for (; field != null; field = parser.nextFieldName()) {
+      parser.nextToken();
+      tree.set(field, json.readTree(parser));
+    }
+
+    return json.convertValue(tree, Value.class);
+  }
+
+  static void skipFields(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      parser.nextToken();
+      parser.skipChildren();
+    }
+  }
+}
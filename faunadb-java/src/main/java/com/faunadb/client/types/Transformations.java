@@ -0,0 +1,130 @@
+package com.faunadb.client.types;
+
+import com.faunadb.client.types.Value.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+final class Transformations {
+
+  static <V extends Value, O> Codec<O> mapTo(final Class<V> clazz, final Function<V, O> extractValue, final Function<O, Value> wrapValue) {
+    return new Codec<O>() {
+      @Override
+      public Result<O> decode(Value input) {
+        if (!clazz.isInstance(input))
+          return Result.fail(() -> cannotConvert(input, clazz));
+
+        try {
+          return Result.success(extractValue.apply(clazz.cast(input)));
+        } catch (Exception ex) {
+          return Result.fail(ex.getMessage(), ex);
+        }
+      }
+
+      @Override
+      public Result<Value> encode(O value) {
+        try {
+          return Result.success(wrapValue.apply(value));
+        } catch (Exception ex) {
+          return Result.fail(ex.getMessage(), ex);
+        }
+      }
+    };
+  }
+
+  static <I, O> Codec<O> mapWith(final Codec<I> codec, final Function<I, O> mapFunction, final Function<O, I> unmapFunction) {
+    return new Codec<O>() {
+      @Override
+      public Result<O> decode(Value input) {
+        try {
+          return codec.decode(input).map(mapFunction);
+        } catch (Exception ex) {
+          return Result.fail(ex.getMessage(), ex);
+        }
+      }
+
+      @Override
+      public Result<Value> encode(O value) {
+        try {
+          return codec.encode(unmapFunction.apply(value));
+        } catch (Exception ex) {
+          return Result.fail(ex.getMessage(), ex);
+        }
+      }
+    };
+  }
+
+  static String cannotConvert(Value value, Class<?> clazz) {
+    return format("Can not convert %s to %s", value.getClass().getSimpleName(), clazz.getSimpleName());
+  }
+
+  static <T extends ScalarValue<R>, R> Function<T, R> scalarValue() {
+    return input -> input.value;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <I extends O, O> Function<I, O> upCast() {
+    return (Function) Function.identity();
+  }
+
+  /// Cast functions
+
+  final static Function<Long, Integer> LONG_TO_INTEGER = Long::intValue;
+
+  final static Function<Integer, Long> INTEGER_TO_LONG = Integer::longValue;
+
+  final static Function<Long, Short> LONG_TO_SHORT = Long::shortValue;
+
+  final static Function<Short, Long> SHORT_TO_LONG = Short::longValue;
+
+  final static Function<Long, Byte> LONG_TO_BYTE = Long::byteValue;
+
+  final static Function<Byte, Long> BYTE_TO_LONG = Byte::longValue;
+
+  final static Function<Long, Character> LONG_TO_CHAR = input -> (char) input.longValue();
+
+  final static Function<Character, Long> CHAR_TO_LONG = Long::valueOf;
+
+  final static Function<Double, Float> DOUBLE_TO_FLOAT = Double::floatValue;
+
+  final static Function<Float, Double> FLOAT_TO_DOUBLE = Float::doubleValue;
+
+  /// Wrap functions
+
+  final static Function<Long, Value> LONG_TO_VALUE = LongV::valueOf;
+
+  final static Function<Double, Value> DOUBLE_TO_VALUE = DoubleV::new;
+
+  final static Function<String, Value> STRING_TO_VALUE = StringV::new;
+
+  final static Function<Boolean, Value> BOOLEAN_TO_VALUE = BooleanV::valueOf;
+
+  final static Function<Instant, Value> INSTANT_TO_VALUE = TimeV::new;
+
+  final static Function<LocalDate, Value> LOCAL_DATE_TO_VALUE = DateV::new;
+
+  final static Function<Map<String, Value>, Value> MAP_TO_VALUE = ObjectV::new;
+
+  final static Function<List<Value>, Value> LIST_TO_VALUE = ArrayV::new;
+
+  final static Function<byte[], Value> BYTES_TO_VALUE = BytesV::new;
+
+  /// Unwrap functions
+
+  final static Function<LongV, Long> VALUE_TO_LONG = input -> input.value;
+
+  final static Function<DoubleV, Double> VALUE_TO_DOUBLE = input -> input.value;
+
+  final static Function<BooleanV, Boolean> VALUE_TO_BOOLEAN = input -> input.value;
+
+  final static Function<TimeV, Instant> VALUE_TO_INSTANT = TimeV::truncated;
+
+  final static Function<ArrayV, List<Value>> VALUE_TO_LIST = input -> input.values;
+
+  final static Function<ObjectV, Map<String, Value>> VALUE_TO_MAP = input -> input.values;
+}
@@ -1,15 +1,22 @@
 package com.faunadb.client.types;
 
 import com.fasterxml.jackson.annotation.*;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.faunadb.client.query.Expr;
 import com.faunadb.client.query.Language;
+import com.faunadb.common.Rfc3339;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
@@ -18,7 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -70,7 +76,6 @@ import static java.lang.String.format;
  */
 @JsonDeserialize(using = Deserializer.ValueDeserializer.class)
 public abstract class Value extends Expr {
-  private static Supplier<Value> NULL_SUPPLIER = () -> NullV.NULL;
 
   private Value() {
   }
@@ -175,6 +180,18 @@ public abstract class Value extends Expr {
     return field.get(this).get();
   }
 
+  /**
+   * Extract a {@link FieldSet} from the value, in a single traversal.
+   *
+   * @param fields the {@link FieldSet} to extract
+   * @return the values of the fields, in the order they were given in
+   * @throws IllegalStateException if any of the fields does not exist on this value
+   * @see FieldSet
+   */
+  public final Object[] get(FieldSet fields) {
+    return fields.get(this).get();
+  }
+
   /**
    * Attempts to decode the value using the reflection {@link Decoder}.
    *
@@ -254,7 +271,8 @@ public abstract class Value extends Expr {
    * @return the {@link Value} under the path provided
    */
   public final Value at(String... keys) {
-    return Field.at(keys).get(this).getOrElse(NULL_SUPPLIER);
+    Value value = Path.find(this, keys);
+    return value != null ? value : NullV.NULL;
   }
 
   /**
@@ -271,7 +289,8 @@ public abstract class Value extends Expr {
    * @return the {@link Value} under the path provided
    */
   public final Value at(int... indexes) {
-    return Field.at(indexes).get(this).getOrElse(NULL_SUPPLIER);
+    Value value = Path.find(this, indexes);
+    return value != null ? value : NullV.NULL;
   }
 
   /**
@@ -323,8 +342,11 @@ public abstract class Value extends Expr {
 
     final Map<String, Value> values;
 
+    @SuppressWarnings("unchecked")
     public ObjectV(Map<String, ? extends Value> values) {
-      this.values = Collections.unmodifiableMap(values);
+      this.values = values instanceof CompactMap ?
+        (Map<String, Value>) values :
+        Collections.unmodifiableMap(values);
     }
 
     @Override
@@ -367,8 +389,11 @@ public abstract class Value extends Expr {
 
     final List<Value> values;
 
+    @SuppressWarnings("unchecked")
     public ArrayV(List<? extends Value> values) {
-      this.values = Collections.unmodifiableList(values);
+      this.values = values instanceof PrimitiveList ?
+        (List<Value>) values :
+        Collections.unmodifiableList(values);
     }
 
     @Override
@@ -406,17 +431,22 @@ public abstract class Value extends Expr {
    * @see Language#Value(boolean)
    * @see Value
    */
-  public static final class BooleanV extends ScalarValue<Boolean> {
+  @JsonDeserialize(using = JsonDeserializer.None.class) // Disables generic value deserializer for scalar values
+  public static final class BooleanV extends Value {
 
     public final static BooleanV TRUE = new BooleanV(true);
     public final static BooleanV FALSE = new BooleanV(false);
 
+    @JsonCreator
     public static BooleanV valueOf(boolean value) {
       return value ? TRUE : FALSE;
     }
 
-    private BooleanV(Boolean value) {
-      super(value);
+    @JsonIgnore
+    final boolean value;
+
+    private BooleanV(boolean value) {
+      this.value = value;
     }
 
     @Override
@@ -425,6 +455,20 @@ public abstract class Value extends Expr {
       return value;
     }
 
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof BooleanV && value == ((BooleanV) other).value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Boolean.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return Boolean.toString(value);
+    }
   }
 
   /**
@@ -435,9 +479,15 @@ public abstract class Value extends Expr {
    * @see Language#Value(double)
    * @see Value
    */
-  public static final class DoubleV extends ScalarValue<Double> {
+  @JsonDeserialize(using = JsonDeserializer.None.class) // Disables generic value deserializer for scalar values
+  public static final class DoubleV extends Value {
+
+    @JsonIgnore
+    final double value;
+
+    @JsonCreator
     public DoubleV(double value) {
-      super(value);
+      this.value = value;
     }
 
     @Override
@@ -445,6 +495,22 @@ public abstract class Value extends Expr {
     protected Double toJson() {
       return value;
     }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof DoubleV &&
+        Double.doubleToLongBits(value) == Double.doubleToLongBits(((DoubleV) other).value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Double.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return Double.toString(value);
+    }
   }
 
   /**
@@ -455,9 +521,36 @@ public abstract class Value extends Expr {
    * @see Language#Value(long)
    * @see Value
    */
-  public static final class LongV extends ScalarValue<Long> {
+  @JsonDeserialize(using = JsonDeserializer.None.class) // Disables generic value deserializer for scalar values
+  public static final class LongV extends Value {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final LongV[] CACHE = new LongV[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+      for (int i = 0; i < CACHE.length; i++)
+        CACHE[i] = new LongV(i + CACHE_LOW);
+    }
+
+    /**
+     * Returns a {@link LongV} for the value provided. Small values are cached, as {@link Long#valueOf(long)} does.
+     *
+     * @param value the long value
+     * @return a {@link LongV} instance
+     */
+    @JsonCreator
+    public static LongV valueOf(long value) {
+      if (value >= CACHE_LOW && value <= CACHE_HIGH)
+        return CACHE[(int) value - CACHE_LOW];
+
+      return new LongV(value);
+    }
+
+    @JsonIgnore
+    final long value;
+
     public LongV(long value) {
-      super(value);
+      this.value = value;
     }
 
     @Override
@@ -465,6 +558,21 @@ public abstract class Value extends Expr {
     protected Long toJson() {
       return value;
     }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof LongV && value == ((LongV) other).value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return Long.toString(value);
+    }
   }
 
   /**
@@ -552,7 +660,7 @@ public abstract class Value extends Expr {
 
     @JsonCreator
     private TimeV(@JsonProperty("@ts") String value) {
-      this(Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value)));
+      this(Rfc3339.parseInstant(value));
     }
 
     Instant truncated() {
@@ -562,7 +670,7 @@ public abstract class Value extends Expr {
     @Override
     @JsonProperty("@ts")
     protected String toJson() {
-      return value.toString();
+      return Rfc3339.format(value);
     }
 
   }
@@ -583,13 +691,13 @@ public abstract class Value extends Expr {
 
     @JsonCreator
     private DateV(@JsonProperty("@date") String value) {
-      super(LocalDate.parse(value));
+      super(Rfc3339.parseDate(value));
     }
 
     @Override
     @JsonProperty("@date")
     protected String toJson() {
-      return value.toString();
+      return Rfc3339.format(value);
     }
   }
 
@@ -647,28 +755,43 @@ public abstract class Value extends Expr {
     @JsonProperty("id")         private final String id;
     @JsonProperty("collection") private final RefV collection;
     @JsonProperty("database")   private final RefV database;
+    @JsonIgnore                 private final int hash;
 
     private RefID(String id, RefV collection, RefV database) {
       this.id = id;
       this.collection = collection;
       this.database = database;
+      this.hash = hash(id, collection, database);
+    }
+
+    // Same as Objects.hash(id, collection, database), without the varargs array
+    static int hash(String id, RefV collection, RefV database) {
+      int hash = 31 + Objects.hashCode(id);
+      hash = 31 * hash + Objects.hashCode(collection);
+      return 31 * hash + Objects.hashCode(database);
+    }
+
+    boolean matches(String id, RefV collection, RefV database) {
+      return Objects.equals(this.id, id) &&
+        Objects.equals(this.collection, collection) &&
+        Objects.equals(this.database, database);
     }
 
     @Override
     public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+
       if (!(obj instanceof RefID))
         return false;
 
       RefID other = (RefID) obj;
-
-      return Objects.equals(id, other.id) &&
-        Objects.equals(collection, other.collection) &&
-        Objects.equals(database, other.database);
+      return hash == other.hash && matches(other.id, other.collection, other.database);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(id, collection, database);
+      return hash;
     }
   }
 
@@ -720,8 +843,20 @@ public abstract class Value extends Expr {
       return value;
     }
 
+    boolean matches(String id, RefV collection, RefV database) {
+      return value.matches(id, collection, database);
+    }
+
+    // Whether this is a native ref, such as the collection of all collections
+    boolean isNative() {
+      return value.collection == null && value.database == null;
+    }
+
     @Override
     public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+
       if (!(obj instanceof RefV))
         return false;
 
@@ -763,6 +898,7 @@ public abstract class Value extends Expr {
 
     public static RefV fromName(String name) {
       switch (name) {
+        case "access_providers": return ACCESS_PROVIDERS;
         case "collections": return COLLECTIONS;
         case "indexes": return INDEXES;
         case "databases": return DATABASES;
@@ -771,7 +907,7 @@ public abstract class Value extends Expr {
         case "roles": return ROLES;
       }
 
-      return new RefV(name, null, null);
+      return RefCache.SCHEMA.intern(name, null, null);
     }
   }
 
@@ -784,40 +920,154 @@ public abstract class Value extends Expr {
    * @see Language#Value(byte[])
    * @see Value
    */
-  public static final class BytesV extends ScalarValue<byte[]> {
+  @JsonDeserialize(using = JsonDeserializer.None.class) // Disables generic value deserializer for scalar values
+  @JsonSerialize(using = BytesV.Serializer.class)
+  public static final class BytesV extends Value {
+
+    // The array the bytes were given or decoded into, if any, and a read-only view of the bytes
+    private final byte[] array;
+    private final ByteBuffer buffer;
 
     public BytesV(byte[] bytes) {
-      super(bytes);
+      this.array = Objects.requireNonNull(bytes);
+      this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates a value of the remaining bytes of the buffer provided, without copying them. The buffer's content
+     * must not be changed afterwards.
+     *
+     * @param bytes the buffer of bytes
+     */
+    public BytesV(ByteBuffer bytes) {
+      this.array = null;
+      this.buffer = bytes.slice().asReadOnlyBuffer();
     }
 
     @JsonCreator
     public BytesV(@JsonProperty("@bytes") String urlSafeBase64) {
-      super(Base64.getUrlDecoder().decode(urlSafeBase64));
+      this(Base64Url.decode(urlSafeBase64));
+    }
+
+    /**
+     * Returns a read-only view of the bytes, without copying them.
+     *
+     * @return a new read-only {@link ByteBuffer}, positioned at the first byte
+     */
+    public ByteBuffer asByteBuffer() {
+      return buffer.duplicate();
+    }
+
+    /**
+     * Returns a stream of the bytes, without copying them.
+     *
+     * @return a new {@link InputStream}, positioned at the first byte
+     */
+    public InputStream asInputStream() {
+      return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     * @return the number of bytes
+     */
+    public int size() {
+      return buffer.remaining();
+    }
+
+    /**
+     * Returns the array of the bytes: the array they were given or decoded into, or a copy of them if they were
+     * given as a {@link ByteBuffer}.
+     */
+    byte[] bytes() {
+      if (array != null)
+        return array;
+
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return bytes;
     }
 
     @Override
     @JsonProperty("@bytes")
     protected Object toJson() {
-      return Base64.getUrlEncoder().encodeToString(value);
+      return Base64.getUrlEncoder().encodeToString(bytes());
     }
 
     @Override
     public boolean equals(Object other) {
       return other instanceof BytesV &&
-        Arrays.equals(this.value, ((BytesV) other).value);
+        this.buffer.equals(((BytesV) other).buffer);
     }
 
     @Override
     public int hashCode() {
-      return Arrays.hashCode(value);
+      // Same as Arrays.hashCode(bytes())
+      int hash = 1;
+      for (int i = 0; i < buffer.limit(); i++)
+        hash = 31 * hash + buffer.get(i);
+      return hash;
     }
 
     @Override
     public String toString() {
-        return IntStream.range(0, value.length)
-            .mapToObj(i -> format("0x%02x", value[i]))
+        return IntStream.range(0, buffer.limit())
+            .mapToObj(i -> format("0x%02x", buffer.get(i)))
             .collect(Collectors.joining(" ", "[", "]"));
     }
+
+    // Encodes the bytes straight into the generator's output, without building a base64 string first
+    static final class Serializer extends JsonSerializer<BytesV> {
+      @Override
+      public void serialize(BytesV value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("@bytes");
+
+        if (value.array != null)
+          gen.writeBinary(Base64Url.VARIANT, value.array, 0, value.array.length);
+        else
+          gen.writeBinary(Base64Url.VARIANT, value.asInputStream(), value.size());
+
+        gen.writeEndObject();
+      }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+      private final ByteBuffer buffer;
+
+      private ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+      }
+
+      @Override
+      public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+        if (length == 0)
+          return 0;
+
+        if (!buffer.hasRemaining())
+          return -1;
+
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+      }
+
+      @Override
+      public long skip(long count) {
+        int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return buffer.remaining();
+      }
+    }
   }
 
   /**
@@ -1,16 +1,23 @@
 package com.faunadb.client.util;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * The singleton SymbolGenerator is used to automatically generate
  * symbol names when a Java lambda function is provided where a
- * FaunaDB lambda expression is accepted. The symbol space is 2^64 and
- * thread-safe.
+ * FaunaDB lambda expression is accepted.
+ *
+ * <p>Symbols are named after their lambda nesting depth, so the same
+ * expression always produces the same symbols and serializes to the
+ * same JSON. Nested lambdas get distinct symbols, while sibling lambdas
+ * reuse them since their scopes do not overlap. The depth is tracked
+ * per thread, so no state is shared between threads.</p>
  */
 final public class SymbolGenerator {
     private static final AtomicLong counter = new AtomicLong(0);
-    
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
     private SymbolGenerator() {
     }
 
@@ -19,9 +26,34 @@ final public class SymbolGenerator {
      *
      * @param prefix the symbol prefix
      * @return a new symbol
+     * @deprecated symbols generated by this method are unique per JVM, so identical
+     * expressions serialize differently. Use {@link #withSym(String, Function)} instead.
      */
+    @Deprecated
     public static String genSym(String prefix) {
         long i = counter.incrementAndGet();
         return String.format("%s%s", prefix, i);
     }
+
+    /**
+     * Generate a symbol with the provided prefix, named after the current lambda
+     * nesting depth, and apply it to the scope provided. Symbols generated while
+     * the scope is being built are one level deeper.
+     *
+     * @param <T> the type of the scope's result
+     * @param prefix the symbol prefix
+     * @param scope the function that builds the lambda using the symbol
+     * @return the scope's result
+     */
+    public static <T> T withSym(String prefix, Function<String, T> scope) {
+        int[] level = depth.get();
+        String sym = prefix + level[0];
+
+        level[0]++;
+        try {
+            return scope.apply(sym);
+        } finally {
+            level[0]--;
+        }
+    }
 }
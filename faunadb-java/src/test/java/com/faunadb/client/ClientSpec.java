@@ -242,6 +242,34 @@ public class ClientSpec {
     query(Get(Ref(Collection("spells"), "1234"))).get();
   }
 
+  @Test
+  public void shouldReturnEmptyWhenInstanceDoesntExists() throws Exception {
+    assertThat(serverClient.queryOptional(Get(Ref(Collection("spells"), "1234"))).get(), is(Optional.<Value>empty()));
+    assertThat(serverClient.queryOptional(Get(magicMissile)).get().map(v -> v.get(REF_FIELD)), is(Optional.of(magicMissile)));
+  }
+
+  @Test
+  public void shouldReturnErrorsAsOutcomes() throws Exception {
+    QueryOutcome<Value> notFound = serverClient.tryQuery(Get(Ref(Collection("spells"), "1234"))).get();
+    assertThat(notFound.isFailure(), is(true));
+    assertThat(notFound.status(), equalTo(404));
+    assertThat(notFound.getException().get(), instanceOf(NotFoundException.class));
+    assertThat(notFound.getException().get().getStackTrace().length, equalTo(0));
+    assertThat(notFound.getException().get().errors().get(0).code(), equalTo("instance not found"));
+
+    QueryOutcome<Value> aborted = serverClient.tryQuery(Abort("a message")).get();
+    assertThat(aborted.getException().get(), instanceOf(BadRequestException.class));
+    assertThat(aborted.getException().get().getMessage(), containsString("transaction aborted: a message"));
+
+    QueryOutcome<Value> found = serverClient.tryQuery(Get(magicMissile)).get();
+    assertThat(found.isSuccess(), is(true));
+    assertThat(found.status(), equalTo(200));
+    assertThat(found.get().get(REF_FIELD), equalTo(magicMissile));
+
+    thrown.expect(NotFoundException.class);
+    notFound.get();
+  }
+
   @Test
   public void shouldReturnNullValueWhenTheResultIsNull() throws Exception {
     Value nullValue = query(Null()).get();
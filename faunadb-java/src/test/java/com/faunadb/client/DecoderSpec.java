@@ -1,5 +1,7 @@
 package com.faunadb.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.faunadb.client.types.*;
 import com.faunadb.client.types.Value.*;
 import org.junit.Test;
@@ -553,4 +555,103 @@ public class DecoderSpec {
         assertNull(classWithDefaults.nullableField);
         assertEquals(0, classWithDefaults.nonNullableField);
    }
+
+    private static final ObjectMapper json = new ObjectMapper();
+
+    private static JsonParser parse(String str) throws IOException {
+        return json.getFactory().createParser(str);
+    }
+
+    @Test
+    public void shouldDecodeFromParserSkippingUnknownFields() throws IOException {
+        SimpleObject obj = new SimpleObject();
+        obj.setStrField("value");
+        obj.setLongField(10);
+        obj.setListStrField(asList("value1", "value2"));
+        obj.setSetLongField(newHashSet(1L, 2L, 3L));
+        obj.setMapStrToStr(Collections.singletonMap("key", "value"));
+
+        String str = "{\"strField\":\"value\",\"unknown\":{\"a\":[1,{\"@ref\":{\"id\":\"1\"}}]},\"longField\":10," +
+            "\"listStrField\":[\"value1\",\"value2\"],\"setLongField\":[1,2,3],\"mapStrToStr\":{\"key\":\"value\"}}";
+
+        assertEquals(obj, Decoder.decodeFrom(parse(str), SimpleObject.class).get());
+        assertEquals(obj, decode(json.readValue(str, Value.class), SimpleObject.class).get());
+    }
+
+    @Test
+    public void shouldDecodeEscapedObjectsFromParser() throws IOException {
+        ObjectWithCreatorAndPropertiesMixed obj = new ObjectWithCreatorAndPropertiesMixed();
+        obj.strField = "value";
+        obj.longField = 10;
+
+        String str = "[{\"@obj\":{\"strField\":\"value\",\"longField\":10}}]";
+        Object list = Decoder.decodeFrom(parse(str), Types.arrayListOf(ObjectWithCreatorAndPropertiesMixed.class)).get();
+
+        assertEquals(asList(obj), list);
+        assertEquals(Collections.singletonMap("@ref", 1L), Decoder.decodeFrom(parse("{\"@obj\":{\"@ref\":1}}"), Types.hashMapOf(Long.class)).get());
+    }
+
+    @Test
+    public void shouldDecodeSpecialTypesFromParser() throws IOException {
+        String ref = "{\"@ref\":{\"id\":\"1\",\"collection\":{\"@ref\":{\"id\":\"users\",\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}}";
+
+        assertEquals(json.readValue(ref, Value.class), Decoder.decodeFrom(parse(ref), Value.class).get());
+        assertEquals(json.readValue(ref, Value.class), Decoder.decodeFrom(parse(ref), RefV.class).get());
+        assertEquals(parseInstant("1970-01-01T00:05:02.010000000Z"), Decoder.decodeFrom(parse("{\"@ts\":\"1970-01-01T00:05:02.010000000Z\"}"), Instant.class).get());
+        assertEquals(LocalDate.parse("1970-01-01"), Decoder.decodeFrom(parse("{\"@date\":\"1970-01-01\"}"), LocalDate.class).get());
+        assertArrayEquals(new byte[] {1, 2, 3}, Decoder.decodeFrom(parse("{\"@bytes\":\"AQID\"}"), byte[].class).get());
+        assertEquals(CpuType.X86_64, Decoder.decodeFrom(parse("\"x86_64\""), CpuType.class).get());
+        assertArrayEquals(new int[] {1, 2}, Decoder.decodeFrom(parse("[1,2]"), int[].class).get());
+    }
+
+    @Test
+    public void shouldDecodeFromParserWithCodec() throws IOException {
+        assertEquals(Long.valueOf(10), Decoder.decodeFrom(parse("10"), Codec.LONG).get());
+        assertEquals(Arrays.<Value>asList(new StringV("a"), new LongV(1)), Decoder.decodeFrom(parse("[\"a\",1]"), Codec.ARRAY).get());
+        assertEquals(Result.fail("Value is null"), Decoder.decodeFrom(parse("null"), Codec.VALUE));
+    }
+
+    @Test
+    public void shouldFailToDecodeFromParserLikeFromValue() throws IOException {
+        assertEquals(Result.fail("Value is null"), Decoder.decodeFrom(parse("null"), Value.class));
+        assertEquals(decode(new StringV("str"), long.class), Decoder.decodeFrom(parse("\"str\""), long.class));
+        assertEquals(decode(new LongV(1), ObjectWithConstructor.class).isFailure(), Decoder.decodeFrom(parse("1"), ObjectWithConstructor.class).isFailure());
+        assertTrue(Decoder.decodeFrom(parse("{\"strField\":[1]}"), ObjectWithConstructor.class).isFailure());
+    }
+
+    @Test
+    public void shouldDecodeNumericArraysToPrimitiveArrays() throws IOException {
+        Value longs = json.readValue("[1,2,3000000000]", Value.class);
+        Value doubles = json.readValue("[1.5,2.5]", Value.class);
+        Value mixed = json.readValue("[1,2.5,null]", Value.class);
+
+        assertArrayEquals(new long[] {1, 2, 3000000000L}, longs.to(long[].class).get());
+        assertArrayEquals(new int[] {1, 2, (int) 3000000000L}, longs.to(int[].class).get());
+        assertArrayEquals(new double[] {1.5, 2.5}, doubles.to(double[].class).get(), 0);
+        assertArrayEquals(new float[] {1.5f, 2.5f}, doubles.to(float[].class).get(), 0);
+        assertEquals(decode(new ArrayV(asList(new LongV(1), new LongV(2))), double[].class), json.readValue("[1,2]", Value.class).to(double[].class));
+
+        assertEquals(new ArrayV(asList(new LongV(1), new LongV(2), new LongV(3000000000L))), longs);
+        assertEquals(longs, new ArrayV(asList(new LongV(1), new LongV(2), new LongV(3000000000L))));
+        assertEquals(new ArrayV(asList(new LongV(1), new LongV(2), new LongV(3000000000L))).hashCode(), longs.hashCode());
+        assertEquals(new ArrayV(asList(new DoubleV(1.5), new DoubleV(2.5))).hashCode(), doubles.hashCode());
+        assertEquals(new ArrayV(asList(new LongV(1), new DoubleV(2.5), NullV.NULL)), mixed);
+        assertEquals(new DoubleV(2.5), doubles.at(1));
+    }
+
+    @Test
+    public void shouldDecodeNumericArraysToPrimitiveArraysFromParser() throws IOException {
+        assertArrayEquals(new long[] {1, 2, 0}, Decoder.decodeFrom(parse("[1,2,null]"), long[].class).get());
+        assertArrayEquals(new double[] {1.5, 0}, Decoder.decodeFrom(parse("[1.5,null]"), double[].class).get(), 0);
+        assertEquals(decode(new ArrayV(asList(new StringV("a"))), long[].class), Decoder.decodeFrom(parse("[\"a\"]"), long[].class));
+    }
+
+    @Test
+    public void shouldCacheSmallLongValues() {
+        assertSame(LongV.valueOf(42), LongV.valueOf(42));
+        assertSame(LongV.valueOf(-1), Codec.LONG.encode(-1L).get());
+        assertEquals(new LongV(100000), LongV.valueOf(100000));
+        assertEquals(Long.valueOf(100000).hashCode(), LongV.valueOf(100000).hashCode());
+        assertEquals(Double.valueOf(1.5).hashCode(), new DoubleV(1.5).hashCode());
+    }
 }
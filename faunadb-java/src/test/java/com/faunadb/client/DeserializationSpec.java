@@ -2,24 +2,41 @@ package com.faunadb.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.faunadb.client.types.Decoder;
+import com.faunadb.client.types.Field;
+import com.faunadb.client.types.FieldSet;
+import com.faunadb.client.types.LazyValues;
 import com.faunadb.client.types.Value;
+import com.faunadb.client.types.Value.BytesV;
+import com.faunadb.client.types.Value.LongV;
 import com.faunadb.client.types.Value.Native;
+import com.faunadb.client.types.Value.NullV;
 import com.faunadb.client.types.Value.ObjectV;
 import com.faunadb.client.types.Value.RefV;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
 import static com.faunadb.client.types.Codec.*;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class DeserializationSpec {
@@ -61,6 +78,22 @@ public class DeserializationSpec {
       equalTo(new RefV("1", new RefV("people", Native.COLLECTIONS))));
   }
 
+  @Test
+  public void shouldShareRepeatedCollectionRefs() throws Exception {
+    String document = "{\"@ref\":{\"id\":\"%s\",\"collection\":{\"@ref\":{\"id\":\"spells\"," +
+      "\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}}";
+
+    RefV first = parsed(String.format(document, "1")).to(REF).get();
+    RefV second = parsed(String.format(document, "2")).to(REF).get();
+    RefV collection = parsed("{\"@ref\":{\"id\":\"spells\",\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}").to(REF).get();
+
+    assertThat(first.getCollection().get(), sameInstance(second.getCollection().get()));
+    assertThat(collection, sameInstance(first.getCollection().get()));
+    assertThat(first, equalTo(new RefV("1", new RefV("spells", Native.COLLECTIONS))));
+    assertThat(first.hashCode(), equalTo(new RefV("1", new RefV("spells", Native.COLLECTIONS)).hashCode()));
+    assertThat(Native.fromName("access_providers"), sameInstance(Native.ACCESS_PROVIDERS));
+  }
+
   @Test
   public void shouldDeserializeArray() throws Exception {
     Value parsed = parsed("[1, \"string\", [true, false], {\"@ref\": {\"id\": \"databases\"}}]");
@@ -89,6 +122,27 @@ public class DeserializationSpec {
       equalTo(Instant.ofEpochMilli(5)));
   }
 
+  @Test
+  public void shouldDeserializeTimeWithNanosecondsAndOffsets() throws IOException {
+    assertThat(parsed("{ \"@ts\": \"2020-10-26T23:55:05.090123456Z\" }").to(TIME).get(),
+      equalTo(Instant.ofEpochSecond(1603756505L, 90123456)));
+
+    assertThat(lazy("{ \"@ts\": \"2020-10-26T23:55:05.090123456Z\" }").to(TIME).get(),
+      equalTo(Instant.ofEpochSecond(1603756505L, 90123456)));
+
+    assertThat(parsed("{ \"@ts\": \"2020-10-27T01:25:05.1+01:30\" }").to(TIME).get(),
+      equalTo(Instant.ofEpochSecond(1603756505L, 100000000)));
+
+    assertThat(parsed("{ \"@ts\": \"2020-10-26T23:55-00:00\" }").to(TIME).get(),
+      equalTo(Instant.ofEpochSecond(1603756500L)));
+
+    assertThat(parsed("{ \"@ts\": \"+10000-01-01T00:00:00Z\" }").to(TIME).get(),
+      equalTo(Instant.parse("+10000-01-01T00:00:00Z")));
+
+    assertThat(parsed("{ \"@date\": \"2020-02-29\" }").to(DATE).get(),
+      equalTo(LocalDate.of(2020, 2, 29)));
+  }
+
   @Test
   public void shouldDeserializeObject() throws Exception {
     Value parsed = parsed("{" +
@@ -174,8 +228,164 @@ public class DeserializationSpec {
     assertThat(parsed("{\"@bytes\":\"_w==\"}").to(BYTES).get(), equalTo(new byte[] {(byte)0xff}));
   }
 
+  @Test
+  public void shouldDeserializeLargeBytes() throws Exception {
+    byte[] bytes = new byte[300_001];
+    new Random(42).nextBytes(bytes);
+
+    String document = "{\"data\":{\"@bytes\":\"" + Base64.getUrlEncoder().encodeToString(bytes) + "\"}}";
+    String unpadded = "{\"data\":{\"@bytes\":\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes) + "\"}}";
+
+    assertThat(parsed(document).at("data").to(BYTES).get(), equalTo(bytes));
+    assertThat(parsed(unpadded).at("data").to(BYTES).get(), equalTo(bytes));
+    assertThat(lazy(document).at("data").to(BYTES).get(), equalTo(bytes));
+    assertThat(Decoder.decodeFrom(json.getFactory().createParser(document), Value.class).get().at("data").to(BYTES).get(),
+      equalTo(bytes));
+
+    BytesV value = (BytesV) parsed(document).at("data");
+    ByteBuffer buffer = value.asByteBuffer();
+    byte[] read = new byte[bytes.length];
+
+    assertThat(buffer.isReadOnly(), is(true));
+    assertThat(value.size(), equalTo(bytes.length));
+    assertThat(buffer.get(read).hasRemaining(), is(false));
+    assertThat(read, equalTo(bytes));
+
+    try (InputStream in = value.asInputStream()) {
+      assertThat(in.readAllBytes(), equalTo(bytes));
+    }
+
+    assertThat(new BytesV(ByteBuffer.wrap(bytes)), equalTo(value));
+    assertThat(new BytesV(ByteBuffer.wrap(bytes)).hashCode(), equalTo(Arrays.hashCode(bytes)));
+  }
+
+  @Test
+  public void shouldKeepTheFieldOrderOfObjects() throws Exception {
+    StringBuilder document = new StringBuilder("{");
+    List<String> keys = new ArrayList<>();
+    Map<String, Value> fields = new LinkedHashMap<>();
+
+    for (int i = 20; i > 0; i--) {
+      document.append(i < 20 ? "," : "").append("\"f").append(i).append("\":").append(i);
+      keys.add("f" + i);
+      fields.put("f" + i, new LongV(i));
+    }
+
+    Value large = parsed(document.append("}").toString());
+    Value small = parsed("{\"ts\":1,\"ref\":2,\"data\":3,\"ts\":4}");
+
+    assertThat(new ArrayList<>(large.to(OBJECT).get().keySet()), equalTo(keys));
+    assertThat(large, equalTo(new ObjectV(fields)));
+    assertThat(new ArrayList<>(small.to(OBJECT).get().keySet()), equalTo(Arrays.asList("ts", "ref", "data")));
+    assertThat(small.at("ts"), equalTo(new LongV(4)));
+    assertThat(small.at("data"), equalTo(new LongV(3)));
+    assertThat(small.hashCode(), equalTo(new ObjectV(new LinkedHashMap<>(small.to(OBJECT).get())).hashCode()));
+  }
+
+  @Test
+  public void shouldReadLazyValuesEqualToEagerValues() throws Exception {
+    String document = "{\"ref\":{\"@ref\":{\"id\":\"1\",\"collection\":{\"@ref\":{\"id\":\"spells\"," +
+      "\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}},\"ts\":1,\"data\":{\"name\":\"fire\"," +
+      "\"tags\":[\"a\",\"b\",[]],\"cost\":1.5,\"empty\":{},\"lit\":{\"@obj\":{\"@name\":\"x\"}},\"none\":null," +
+      "\"many\":{\"k1\":1,\"k2\":2,\"k3\":3,\"k4\":4,\"k5\":5,\"k6\":6,\"k7\":7,\"k8\":8,\"k9\":\"9\"}}}";
+
+    Value eager = parsed(document);
+
+    assertThat(lazy(document), equalTo(eager));
+    assertThat(eager, equalTo(lazy(document)));
+    assertThat(lazy(document).hashCode(), equalTo(eager.hashCode()));
+    assertThat(lazy(document).toString(), equalTo(eager.toString()));
+  }
+
+  @Test
+  public void shouldLookUpLazyValues() throws Exception {
+    Value value = lazy("{\"data\":{\"name\":\"fire\",\"elements\":[{\"name\":\"air\"},{\"name\":\"water\"}]," +
+      "\"level\":3,\"scroll\":{\"@ref\":{\"id\":\"scrolls\"}}}}");
+
+    assertThat(value.at("data", "name").to(STRING).get(), equalTo("fire"));
+    assertThat(value.get(Field.at("data", "level").to(LONG)), equalTo(3L));
+    assertThat(value.at("data", "elements").collect(Field.at("name").to(STRING)), equalTo(Arrays.asList("air", "water")));
+    assertThat(value.at("data", "scroll").to(REF).get(), equalTo(Native.fromName("scrolls")));
+    assertThat(value.at("data", "missing").getOptional(), equalTo(Optional.empty()));
+    assertThat(value.at("data", "elements").at(2).getOptional(), equalTo(Optional.empty()));
+    assertThat(value.at("data").toMap(Value.class).keySet(), equalTo(new LinkedHashSet<>(Arrays.asList("name", "elements", "level", "scroll"))));
+    assertThat(lazy("null"), equalTo(NullV.NULL));
+  }
+
+  @Test
+  public void shouldReportWhyFieldsCannotBeExtracted() throws Exception {
+    Value value = parsed("{\"data\":{\"name\":\"fire\",\"elements\":[{\"name\":\"air\"},{\"name\":10}]}}");
+
+    assertThat(failure(value, Field.at("data", "missing")),
+      equalTo("Can not find path \"data/missing\". Object key \"missing\" not found"));
+    assertThat(failure(value, Field.at("data", "name", "first")),
+      equalTo("Can not find path \"data/name/first\". Can not convert StringV to ObjectV"));
+    assertThat(failure(value, Field.at("data", "elements").at(Field.at(2))),
+      equalTo("Can not find path \"data/elements/2\". Array index \"2\" not found"));
+    assertThat(failure(value, Field.at("data", "name").to(LONG)),
+      equalTo("Can not convert StringV to LongV"));
+    assertThat(failure(value, Field.at("data", "elements").collect(Field.at("name").to(STRING))),
+      equalTo("Failed to collect values: \"data/elements/1/name\" Can not convert LongV to StringV"));
+    assertThat(value.getOptional(Field.at("data", "elements").at(Field.at(1, 0))), equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void shouldExtractFieldSets() throws Exception {
+    String document = "{\"ref\":{\"@ref\":{\"id\":\"1\",\"collection\":{\"@ref\":{\"id\":\"spells\"," +
+      "\"collection\":{\"@ref\":{\"id\":\"collections\"}}}}}},\"ts\":10,\"data\":{\"name\":\"fire\"," +
+      "\"elements\":[\"air\",{\"@obj\":{\"@name\":\"water\"}}],\"cost\":{\"mana\":5,\"gold\":null},\"unused\":[1,2,3]}}";
+
+    FieldSet fields = FieldSet.of(Arrays.asList(
+      Field.at("data", "name").to(STRING),
+      Field.at("ts").to(LONG),
+      Field.at("data", "elements").at(Field.at(0)).to(STRING),
+      Field.at("data", "elements").at(Field.at(1)).at(Field.at("@name")).to(STRING),
+      Field.at("data", "cost", "mana").to(LONG),
+      Field.at("ref").to(REF),
+      Field.at("data", "name").to(STRING)));
+
+    Object[] expected = {"fire", 10L, "air", "water", 5L, new RefV("1", new RefV("spells", Native.COLLECTIONS)), "fire"};
+
+    assertThat(parsed(document).get(fields), equalTo(expected));
+    assertThat(Decoder.decodeFrom(json.getFactory().createParser(document), fields).get(), equalTo(expected));
+    assertThat(lazy(document).get(fields), equalTo(expected));
+
+    FieldSet failing = FieldSet.of(Field.at("data", "name").to(STRING), Field.at("data", "elements").at(Field.at(1, 0)));
+    String error = "Failed to extract fields: " +
+      "\"data/elements/1/0\" Can not find path \"data/elements/1/0\". Can not convert ObjectV to ArrayV";
+
+    assertThat(failing.get(parsed(document)).toString(), equalTo(error));
+    assertThat(Decoder.decodeFrom(json.getFactory().createParser(document), failing).toString(), equalTo(error));
+
+    FieldSet missing = FieldSet.of(Field.at("data", "cost", "gold").to(LONG), Field.at("data", "cost", "silver"),
+      Field.at("data", "unused").at(Field.at(3)), Field.at("nothing", "here"));
+
+    String missingError = "Failed to extract fields: " +
+      "\"data/cost/gold\" Can not convert NullV to LongV, " +
+      "\"data/cost/silver\" Can not find path \"data/cost/silver\". Object key \"silver\" not found, " +
+      "\"data/unused/3\" Can not find path \"data/unused/3\". Array index \"3\" not found, " +
+      "\"nothing/here\" Can not find path \"nothing/here\". Object key \"nothing\" not found";
+
+    assertThat(missing.get(parsed(document)).toString(), equalTo(missingError));
+    assertThat(Decoder.decodeFrom(json.getFactory().createParser(document), missing).toString(), equalTo(missingError));
+  }
+
+  private String failure(Value value, Field<?> field) {
+    try {
+      value.get(field);
+      throw new AssertionError("Expected " + field + " to fail");
+    } catch (IllegalStateException ex) {
+      return ex.getMessage();
+    }
+  }
+
   private Value parsed(String str) throws java.io.IOException {
     return json.readValue(str, Value.class);
   }
 
+  private Value lazy(String str) throws java.io.IOException {
+    char[] source = str.toCharArray();
+    return LazyValues.decodeFrom(json.getFactory().createParser(source), source).get();
+  }
+
 }
@@ -1,5 +1,9 @@
 package com.faunadb.client;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.faunadb.client.query.Expr;
 import com.faunadb.client.types.*;
 import com.faunadb.client.types.Value.*;
 import org.junit.Test;
@@ -14,12 +18,19 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static com.faunadb.client.types.Encoder.encode;
+import static com.faunadb.client.types.Encoder.encodeStreaming;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 
 public class EncoderSpec {
 
+    private final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+
     private Instant parseInstant(String str) {
         return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(str));
     }
@@ -64,6 +75,8 @@ public class EncoderSpec {
         assertEquals(new ArrayV(asList(new LongV(1))), encode(new short[] { 1 }).get());
         assertEquals(new ArrayV(asList(new LongV(1))), encode(new int[] { 1 }).get());
         assertEquals(new ArrayV(asList(new LongV(1))), encode(new long[] { 1 }).get());
+        assertEquals(new ArrayV(asList(new DoubleV(1.5))), encode(new double[] { 1.5 }).get());
+        assertArrayEquals(new long[] { 1, 2 }, encode(new long[] { 1, 2 }).get().to(long[].class).get());
 
         assertEquals(new ArrayV(Arrays.<Value>asList(new LongV(1), new StringV("a string"))), encode(new Object[] { 1, "a string" }).get());
     }
@@ -284,4 +297,56 @@ public class EncoderSpec {
         assertEquals(new StringV("ARM"), encode(CpuType.ARM).get());
         assertEquals(new StringV("MIPS"), encode(CpuType.MIPS).get());
     }
+
+    static class Order {
+        @FaunaField
+        private final User customer = new User();
+
+        @FaunaField
+        private final Object[] lines = { "a", 1, 2.5, true, null, CpuType.ARM, new byte[] {1, 2} };
+
+        @FaunaField
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        public Order() {
+            attributes.put("placed", LocalDate.parse("2020-01-01"));
+            attributes.put("tags", asList("x", new StringV("y")));
+        }
+    }
+
+    @Test
+    public void shouldStreamObjectsAsTheirEncodedValue() throws Exception {
+        Object[] objects = {
+            null, "a string", 10, 10L, 10.5, true, CpuType.X86, new byte[] {1, 2},
+            new User(), new Order(), asList(new User(), new Order()), new ObjectRenamed(), new ObjectWithIgnore()
+        };
+
+        for (Object obj : objects) {
+            Expr streamed = encodeStreaming(obj);
+            assertEquals(json.readTree(json.writeValueAsBytes(encode(obj).get())), json.readTree(json.writeValueAsBytes(streamed)));
+        }
+    }
+
+    @Test
+    public void shouldDetectReferenceLoopsWhenStreaming() {
+        Node head = new Node(10);
+        Node tail = new Node(20);
+
+        head.next = tail;
+        tail.next = head;
+
+        JsonMappingException ex = assertThrows(JsonMappingException.class, () -> json.writeValueAsBytes(encodeStreaming(head)));
+        assertThat(ex.getMessage(), containsString("Self reference loop detected for object \"Node(10)\""));
+    }
+
+    @Test
+    public void shouldEncodeTheSameObjectMoreThanOnce() {
+        User user = new User();
+        Map<String, Value> obj = new LinkedHashMap<>();
+
+        obj.put("name", new StringV("john"));
+        obj.put("age", new LongV(30));
+
+        assertEquals(new ArrayV(asList(new ObjectV(obj), new ObjectV(obj))), encode(asList(user, user)).get());
+    }
 }
@@ -0,0 +1,175 @@
+package com.faunadb.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.faunadb.client.streaming.BodyValueFlowProcessor;
+import com.faunadb.client.types.Value;
+import com.faunadb.common.Connection;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.faunadb.client.query.Language.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JfrEventsSpec {
+
+  private static final String RESPONSE = "{\"resource\":\"hello\"}";
+
+  private final Recording recording = new Recording();
+
+  @Before
+  public void startRecording() {
+    recording.enable("com.faunadb.Request");
+    recording.enable("com.faunadb.Decode").withThreshold(Duration.ZERO);
+    recording.enable("com.faunadb.Stream");
+    recording.enable("com.faunadb.StreamEventDelivery");
+    recording.start();
+  }
+
+  @After
+  public void closeRecording() {
+    recording.close();
+  }
+
+  private List<RecordedEvent> recorded(String name) throws IOException {
+    if (recording.getState() == RecordingState.RUNNING)
+      recording.stop();
+
+    Path file = Files.createTempFile("faunadb", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+        .filter(event -> event.getEventType().getName().equals(name))
+        .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void shouldRecordRequestsAndDecodes() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.start();
+
+    try {
+      FaunaClient client = FaunaClient.builder()
+        .withEndpoint("http://localhost:" + server.getAddress().getPort())
+        .withSecret("secret")
+        .build();
+
+      client.query(Value("hello")).join();
+    } finally {
+      server.stop(0);
+    }
+
+    List<RecordedEvent> requests = recorded("com.faunadb.Request");
+    assertThat(requests.size(), equalTo(1));
+    assertThat(requests.get(0).getInt("status"), equalTo(200));
+    assertThat(requests.get(0).getLong("responseBytes"), equalTo((long) RESPONSE.length()));
+
+    List<RecordedEvent> decodes = recorded("com.faunadb.Decode");
+    assertThat(decodes.size(), equalTo(1));
+    assertThat(decodes.get(0).getLong("responseBytes"), equalTo((long) RESPONSE.length()));
+  }
+
+  /**
+   * Receives a single event, then cancels its subscription.
+   */
+  private static final class CancellingSubscriber implements Flow.Subscriber<Value> {
+    final CountDownLatch received = new CountDownLatch(1);
+    Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Value item) {
+      subscription.cancel();
+      received.countDown();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {}
+
+    @Override
+    public void onComplete() {}
+  }
+
+  /**
+   * Records whether the response body was cancelled.
+   */
+  private static final class Body implements Flow.Subscription {
+    boolean cancelled;
+
+    @Override
+    public void request(long n) {}
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  private static List<ByteBuffer> event(String type) {
+    String event = "{\"type\":\"" + type + "\",\"txn\":42,\"event\":42}";
+    return List.of(ByteBuffer.wrap(event.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void shouldRecordStreamsCancelledBySubscribers() throws Exception {
+    BodyValueFlowProcessor processor = new BodyValueFlowProcessor(new ObjectMapper(), Connection.builder().build());
+    CancellingSubscriber subscriber = new CancellingSubscriber();
+    Body body = new Body();
+
+    processor.onSubscribe(body);
+    processor.subscribe(subscriber);
+    processor.onNext(event("start"));
+    assertThat(subscriber.received.await(10, TimeUnit.SECONDS), is(true));
+
+    processor.onNext(event("version"));
+    assertThat(body.cancelled, is(true));
+
+    List<RecordedEvent> deliveries = recorded("com.faunadb.StreamEventDelivery");
+    assertThat(deliveries.size(), equalTo(1));
+    assertThat(deliveries.get(0).getString("type"), equalTo("start"));
+    assertThat(deliveries.get(0).getLong("txnTime"), equalTo(42L));
+
+    List<RecordedEvent> streams = recorded("com.faunadb.Stream");
+    assertThat(streams.size(), equalTo(1));
+    assertThat(streams.get(0).getString("outcome"), equalTo("cancelled"));
+    assertThat(streams.get(0).getLong("events"), equalTo(1L));
+  }
+}
@@ -0,0 +1,76 @@
+package com.faunadb.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.faunadb.client.query.Expr;
+import com.faunadb.client.query.PreparedQuery;
+import com.faunadb.client.query.QueryShape;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static com.faunadb.client.query.Language.*;
+import static com.faunadb.client.query.PreparedQuery.Param;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class PreparedQuerySpec {
+
+  private final ObjectMapper json = new ObjectMapper().registerModule(new Jdk8Module());
+
+  private final PreparedQuery query = PreparedQuery.prepare(
+    If(Exists(Ref(Collection("users"), Param("id"))),
+      Update(Ref(Collection("users"), Param("id")), Obj("data", Obj("name", Param("name")))),
+      Value("tab\t \"quoted\" \u00e9"))
+  );
+
+  @Test
+  public void shouldSpliceParametersIntoTemplate() throws Exception {
+    Expr expected =
+      If(Exists(Ref(Collection("users"), Value("123"))),
+        Update(Ref(Collection("users"), Value("123")), Obj("data", Obj("name", Arr(Value("bob"), Null())))),
+        Value("tab\t \"quoted\" \u00e9"));
+
+    byte[] body = query.serialize(Map.of("id", Value("123"), "name", Arr(Value("bob"), Null())));
+
+    assertThat(new String(body, StandardCharsets.UTF_8), equalTo(json.writeValueAsString(expected)));
+    assertThat(json.readTree(body), equalTo(json.valueToTree(expected)));
+  }
+
+  @Test
+  public void shouldListParametersInOrder() {
+    assertThat(query.params(), equalTo(Set.of("id", "name")));
+    assertThat(query.params().iterator().next(), equalTo("id"));
+  }
+
+  @Test
+  public void shouldTreatParametersAsLiteralsInShape() {
+    assertThat(query.shape(), equalTo(QueryShape.of(
+      If(Exists(Ref(Collection("users"), Value("1"))),
+        Update(Ref(Collection("users"), Value("1")), Obj("data", Obj("name", Value("x")))),
+        Value("y")))));
+  }
+
+  @Test
+  public void shouldPrepareQueriesWithoutParameters() {
+    PreparedQuery constant = PreparedQuery.prepare(Add(Value(1), Value(2)));
+
+    assertThat(new String(constant.serialize(Map.of()), StandardCharsets.UTF_8), equalTo("{\"add\":[1,2]}"));
+  }
+
+  @Test
+  public void shouldRejectMissingOrUnknownParameters() {
+    assertThrows(IllegalArgumentException.class, () -> query.serialize(Map.of("id", Value("123"))));
+    assertThrows(IllegalArgumentException.class, () ->
+      query.serialize(Map.of("id", Value("123"), "name", Value("bob"), "age", Value(42))));
+  }
+
+  @Test
+  public void shouldRejectParametersOutsidePreparedQueries() {
+    assertThrows(IllegalArgumentException.class, () -> json.valueToTree(Get(Param("id"))));
+    assertThrows(IllegalArgumentException.class, () -> query.serialize(Map.of("id", Param("id"), "name", Value("bob"))));
+  }
+}
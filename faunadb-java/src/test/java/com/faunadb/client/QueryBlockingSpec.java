@@ -0,0 +1,196 @@
+package com.faunadb.client;
+
+import com.faunadb.client.errors.NotFoundException;
+import com.faunadb.client.errors.UnavailableException;
+import com.faunadb.client.types.Value;
+import com.faunadb.common.Priority;
+import com.faunadb.common.RequestListener;
+import com.faunadb.common.RequestScheduler;
+import com.faunadb.common.RequestTimings;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.faunadb.client.query.Language.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QueryBlockingSpec {
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final ConcurrentLinkedQueue<String> received = new ConcurrentLinkedQueue<>();
+  private HttpServer server;
+  private FaunaClient client;
+
+  @Before
+  public void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+      requests.incrementAndGet();
+      received.add(request);
+      boolean missing = request.equals("\"missing\"");
+
+      byte[] response = (missing ?
+        "{\"errors\":[{\"position\":[],\"code\":\"instance not found\",\"description\":\"Document not found.\"}]}" :
+        "{\"resource\":" + request + "}").getBytes(StandardCharsets.UTF_8);
+
+      exchange.getResponseHeaders().add("X-Txn-Time", "42");
+      exchange.sendResponseHeaders(missing ? 404 : 200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.start();
+
+    client = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .build();
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void shouldReturnTheSameResultAsQuery() {
+    Value blocking = client.queryBlocking(Value("hello"));
+
+    assertThat(blocking, equalTo(client.query(Value("hello")).join()));
+    assertThat(blocking.to(String.class).get(), equalTo("hello"));
+    assertThat(client.getLastTxnTime(), equalTo(42L));
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void shouldThrowErrorResponses() {
+    client.queryBlocking(Value("missing"));
+  }
+
+  @Test(expected = UnavailableException.class)
+  public void shouldThrowUnavailableWhenUnreachable() throws Exception {
+    FaunaClient unreachable = FaunaClient.builder()
+      .withEndpoint("http://localhost:1")
+      .withSecret("secret")
+      .build();
+
+    unreachable.queryBlocking(Value("hello"));
+  }
+
+  @Test
+  public void shouldWaitForItsTurnWhenScheduled() throws Exception {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+    FaunaClient scheduled = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .withScheduler(scheduler)
+      .build();
+
+    CompletableFuture<String> busy = new CompletableFuture<>();
+    scheduler.submit(scheduler.tenantOf("secret"), () -> busy);
+
+    CompletableFuture<Value> blocking = CompletableFuture.supplyAsync(() -> scheduled.queryBlocking(Value("hello")));
+    try {
+      blocking.get(200, TimeUnit.MILLISECONDS);
+      throw new AssertionError("expected the query to wait for its turn");
+    } catch (TimeoutException expected) {
+      assertThat(requests.get(), equalTo(0));
+      assertThat(scheduler.queued(), equalTo(1));
+    }
+
+    busy.complete("done");
+    assertThat(blocking.get(10, TimeUnit.SECONDS).to(String.class).get(), equalTo("hello"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+  }
+
+  @Test
+  public void shouldFreeItsTurnWhenInterrupted() throws Exception {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+    FaunaClient scheduled = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .withScheduler(scheduler)
+      .build();
+
+    CompletableFuture<Throwable> failed = new CompletableFuture<>();
+    FaunaClient listened = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .withScheduler(scheduler)
+      .withRequestListener(new RequestListener() {
+        @Override
+        public void onRequestCompleted(RequestTimings timings) {
+        }
+
+        @Override
+        public void onRequestFailed(RequestTimings timings, Throwable cause) {
+          failed.complete(cause);
+        }
+      })
+      .build();
+
+    CompletableFuture<String> busy = new CompletableFuture<>();
+    scheduler.submit(scheduler.tenantOf("secret"), () -> busy);
+
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+    Thread caller = new Thread(() -> {
+      try {
+        listened.queryBlocking(Value("hello"));
+      } catch (Throwable ex) {
+        failure.complete(ex);
+      }
+    });
+    caller.start();
+
+    while (scheduler.queued() == 0)
+      Thread.sleep(10);
+
+    caller.interrupt();
+    assertThat(failure.get(10, TimeUnit.SECONDS), instanceOf(UnavailableException.class));
+    assertThat(failed.get(10, TimeUnit.SECONDS), instanceOf(InterruptedException.class));
+
+    busy.complete("done");
+    assertThat(scheduler.inFlight(), equalTo(0));
+    assertThat(scheduler.queued(), equalTo(0));
+    assertThat(requests.get(), equalTo(0));
+  }
+
+  @Test
+  public void shouldWaitForItsTurnWithItsPriority() throws Exception {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+    FaunaClient scheduled = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .withScheduler(scheduler)
+      .build();
+
+    CompletableFuture<String> busy = new CompletableFuture<>();
+    scheduler.submit(scheduler.tenantOf("secret"), () -> busy);
+
+    CompletableFuture<Value> low = scheduled.query(Value("low"), QueryOptions.priority(Priority.LOW));
+    CompletableFuture<Value> high = CompletableFuture.supplyAsync(() ->
+      scheduled.queryBlocking(Value("high"), QueryOptions.priority(Priority.HIGH)));
+
+    while (scheduler.queued() < 2)
+      Thread.sleep(10);
+
+    busy.complete("done");
+    assertThat(high.get(10, TimeUnit.SECONDS).to(String.class).get(), equalTo("high"));
+    assertThat(low.get(10, TimeUnit.SECONDS).to(String.class).get(), equalTo("low"));
+    assertThat(List.copyOf(received), equalTo(List.of("\"high\"", "\"low\"")));
+  }
+}
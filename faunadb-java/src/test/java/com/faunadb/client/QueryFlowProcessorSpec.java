@@ -0,0 +1,194 @@
+package com.faunadb.client;
+
+import com.faunadb.client.query.Expr;
+import com.faunadb.client.streaming.QueryFlowProcessor;
+import com.faunadb.client.types.Value;
+import com.faunadb.client.types.Value.LongV;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static com.faunadb.client.query.Language.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QueryFlowProcessorSpec {
+
+  /**
+   * Publishes the expressions {@code 1..count} as they are requested.
+   */
+  private static final class Exprs implements Flow.Publisher<Expr> {
+    final int count;
+    long requested;
+    int published;
+    boolean cancelled;
+    Flow.Subscriber<? super Expr> subscriber;
+
+    Exprs(int count) {
+      this.count = count;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Expr> subscriber) {
+      this.subscriber = subscriber;
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          requested += n;
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+
+    void publish() {
+      while (published < requested && published < count && !cancelled)
+        subscriber.onNext(Value(++published));
+
+      if (published == count)
+        subscriber.onComplete();
+    }
+  }
+
+  /**
+   * Completes queries when told to, with the value of their expression.
+   */
+  private static final class Queries {
+    final Map<Long, CompletableFuture<Value>> inFlight = new HashMap<>();
+
+    CompletableFuture<Value> query(Expr expr) {
+      CompletableFuture<Value> result = new CompletableFuture<>();
+      inFlight.put(((LongV) expr).get(Long.class), result);
+      return result;
+    }
+
+    void complete(long... exprs) {
+      for (long expr : exprs)
+        inFlight.remove(expr).complete(new LongV(expr));
+    }
+  }
+
+  /**
+   * Records the results it receives, requesting them one at a time when told to.
+   */
+  private static final class Results implements Flow.Subscriber<Value> {
+    final List<Long> received = new ArrayList<>();
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(Value item) {
+      received.add(item.get(Long.class));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+  private final Exprs exprs = new Exprs(5);
+  private final Queries queries = new Queries();
+  private final Results results = new Results();
+
+  private void subscribe(int maxInFlight, boolean ordered) {
+    QueryFlowProcessor processor = new QueryFlowProcessor(queries::query, maxInFlight, ordered);
+    exprs.subscribe(processor);
+    processor.subscribe(results);
+  }
+
+  @Test
+  public void shouldBoundTheQueriesInFlight() {
+    subscribe(2, true);
+    assertThat(exprs.requested, equalTo(2L));
+
+    results.subscription.request(Long.MAX_VALUE);
+    exprs.publish();
+    assertThat(queries.inFlight.size(), equalTo(2));
+
+    queries.complete(1);
+    assertThat(exprs.requested, equalTo(3L));
+    exprs.publish();
+    assertThat(queries.inFlight.size(), equalTo(2));
+  }
+
+  @Test
+  public void shouldHoldSlotsUntilResultsAreConsumed() {
+    subscribe(2, true);
+    exprs.publish();
+    queries.complete(1, 2);
+
+    assertThat(results.received.isEmpty(), is(true));
+    assertThat(exprs.requested, equalTo(2L));
+
+    results.subscription.request(1);
+    assertThat(results.received, equalTo(Arrays.asList(1L)));
+    assertThat(exprs.requested, equalTo(3L));
+  }
+
+  @Test
+  public void shouldPublishResultsInOrder() {
+    subscribe(5, true);
+    results.subscription.request(Long.MAX_VALUE);
+    exprs.publish();
+
+    queries.complete(3, 2);
+    assertThat(results.received.isEmpty(), is(true));
+
+    queries.complete(1, 5, 4);
+    assertThat(results.received, equalTo(Arrays.asList(1L, 2L, 3L, 4L, 5L)));
+    assertThat(results.completed, is(true));
+  }
+
+  @Test
+  public void shouldPublishResultsAsTheyComplete() {
+    subscribe(5, false);
+    results.subscription.request(Long.MAX_VALUE);
+    exprs.publish();
+
+    queries.complete(3, 2);
+    assertThat(results.received, equalTo(Arrays.asList(3L, 2L)));
+
+    queries.complete(1, 5, 4);
+    assertThat(results.received, equalTo(Arrays.asList(3L, 2L, 1L, 5L, 4L)));
+    assertThat(results.completed, is(true));
+  }
+
+  @Test
+  public void shouldFailOnTheFirstFailedQuery() {
+    subscribe(2, false);
+    results.subscription.request(Long.MAX_VALUE);
+    exprs.publish();
+
+    queries.inFlight.remove(2L).completeExceptionally(new IllegalStateException("failed"));
+
+    assertThat(results.error, instanceOf(IllegalStateException.class));
+    assertThat(exprs.cancelled, is(true));
+
+    queries.complete(1);
+    assertThat(results.received.isEmpty(), is(true));
+    assertThat(results.completed, is(false));
+  }
+}
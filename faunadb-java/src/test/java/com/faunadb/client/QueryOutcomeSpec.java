@@ -0,0 +1,200 @@
+package com.faunadb.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.faunadb.client.errors.BadRequestException;
+import com.faunadb.client.errors.NotFoundException;
+import com.faunadb.client.errors.UnavailableException;
+import com.faunadb.client.errors.UnknownException;
+import com.faunadb.client.types.Value;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static com.faunadb.client.query.Language.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class QueryOutcomeSpec {
+
+  private static final String NOT_FOUND =
+    "{\"errors\":[{\"position\":[],\"code\":\"instance not found\",\"description\":\"Document not found.\"}]}";
+
+  private static final String NOT_UNIQUE =
+    "{\"errors\":[{\"position\":[\"create\"],\"code\":\"instance not unique\",\"description\":\"document is not unique.\"}]}";
+
+  private static final String UNPARSEABLE = "{\"errors\":[";
+
+  /**
+   * Counts the response bodies it parses.
+   */
+  private static final class CountingMapper extends ObjectMapper {
+    int parsed;
+
+    @Override
+    public JsonNode readTree(String content) throws JsonProcessingException {
+      parsed++;
+      return super.readTree(content);
+    }
+  }
+
+  private HttpServer server;
+  private FaunaClient client;
+
+  @Before
+  public void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+      int status;
+      String response;
+      switch (request) {
+        case "\"missing\"":
+          status = 404;
+          response = NOT_FOUND;
+          break;
+        case "\"duplicate\"":
+          status = 400;
+          response = NOT_UNIQUE;
+          break;
+        case "\"unparseable\"":
+          status = 400;
+          response = UNPARSEABLE;
+          break;
+        case "\"unavailable\"":
+          status = 503;
+          response = UNPARSEABLE;
+          break;
+        default:
+          status = 200;
+          response = "{\"resource\":" + request + "}";
+      }
+
+      byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    });
+    server.start();
+
+    client = FaunaClient.builder()
+      .withEndpoint("http://localhost:" + server.getAddress().getPort())
+      .withSecret("secret")
+      .build();
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void shouldParseErrorResponsesOnlyWhenRead() {
+    CountingMapper json = new CountingMapper();
+    HttpResponses.QueryErrorResponse response = HttpResponses.QueryErrorResponse.lazy(404, NOT_FOUND, json);
+
+    assertThat(response.status(), equalTo(404));
+    assertThat(json.parsed, equalTo(0));
+
+    assertThat(response.errors().size(), equalTo(1));
+    assertThat(response.errors().get(0).code(), equalTo("instance not found"));
+    assertThat(response.errors(), sameInstance(response.errors()));
+    assertThat(json.parsed, equalTo(1));
+  }
+
+  @Test
+  public void shouldReadUnparseableErrorResponsesAsNoErrorsWhenStackless() {
+    HttpResponses.QueryErrorResponse response = HttpResponses.QueryErrorResponse.lazy(400, UNPARSEABLE, new ObjectMapper());
+    assertThat(response.errors().isEmpty(), is(true));
+
+    QueryOutcome<Value> outcome = client.tryQuery(Value("unparseable")).join();
+    assertThat(outcome.getException().get(), instanceOf(BadRequestException.class));
+    assertThat(outcome.getException().get().errors().isEmpty(), is(true));
+  }
+
+  @Test
+  public void shouldFailOnUnparseableErrorResponses() {
+    try {
+      client.query(Value("unparseable")).join();
+      fail("expected an UnknownException");
+    } catch (CompletionException ex) {
+      assertThat(ex.getCause(), instanceOf(UnknownException.class));
+      assertThat(ex.getCause().getMessage(), equalTo("Unparseable service 400 response."));
+      assertThat(ex.getCause().getCause(), notNullValue());
+    }
+
+    try {
+      client.query(Value("unavailable")).join();
+      fail("expected an UnavailableException");
+    } catch (CompletionException ex) {
+      assertThat(ex.getCause(), instanceOf(UnavailableException.class));
+      assertThat(ex.getCause().getMessage(), equalTo("FaunaDB unavailable: Service Unavailable: Unparseable response."));
+      assertThat(ex.getCause().getCause(), notNullValue());
+    }
+  }
+
+  @Test
+  public void shouldMapSuccessfulQueries() {
+    QueryOutcome<Value> outcome = client.tryQuery(Value("hello")).join();
+
+    assertThat(outcome.isSuccess(), is(true));
+    assertThat(outcome.status(), equalTo(200));
+    assertThat(outcome.get().to(String.class).get(), equalTo("hello"));
+    assertThat(outcome.map(v -> v.to(String.class).get().length()).get(), equalTo(5));
+  }
+
+  @Test
+  public void shouldMapErrorResponsesToStacklessExceptions() {
+    QueryOutcome<Value> outcome = client.tryQuery(Value("missing")).join();
+
+    assertThat(outcome.isFailure(), is(true));
+    assertThat(outcome.status(), equalTo(404));
+    assertThat(outcome.getOptional().isPresent(), is(false));
+    assertThat(outcome.map(v -> 1).isFailure(), is(true));
+
+    NotFoundException ex = (NotFoundException) outcome.getException().get();
+    assertThat(ex.getStackTrace().length, equalTo(0));
+    assertThat(ex.getMessage(), equalTo("instance not found: Document not found."));
+
+    try {
+      outcome.get();
+      fail("expected the outcome's exception");
+    } catch (NotFoundException thrown) {
+      assertThat(thrown, sameInstance(ex));
+    }
+
+    QueryOutcome<Value> duplicate = client.tryQuery(Value("duplicate")).join();
+    assertThat(duplicate.getException().get(), instanceOf(BadRequestException.class));
+    assertThat(duplicate.getException().get().errors().get(0).position(), equalTo(List.of("create")));
+  }
+
+  @Test
+  public void shouldReadMissingResultsAsEmpty() {
+    assertThat(client.queryOptional(Value("missing")).join(), equalTo(Optional.empty()));
+    assertThat(client.queryOptional(Value("hello")).join().get().to(String.class).get(), equalTo("hello"));
+
+    try {
+      client.queryOptional(Value("duplicate")).join();
+      fail("expected a BadRequestException");
+    } catch (CompletionException ex) {
+      assertThat(ex.getCause(), instanceOf(BadRequestException.class));
+    }
+  }
+}
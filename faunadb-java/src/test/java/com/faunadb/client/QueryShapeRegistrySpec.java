@@ -0,0 +1,130 @@
+package com.faunadb.client;
+
+import com.codahale.metrics.MetricRegistry;
+import com.faunadb.client.query.QueryShape;
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.faunadb.client.query.Language.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QueryShapeRegistrySpec {
+
+  /**
+   * A response to a query costing a single compute op.
+   */
+  private static final class Response implements HttpResponse<String> {
+    @Override
+    public int statusCode() {
+      return 200;
+    }
+
+    @Override
+    public HttpRequest request() {
+      return HttpRequest.newBuilder(URI.create("http://localhost")).POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+    }
+
+    @Override
+    public Optional<HttpResponse<String>> previousResponse() {
+      return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+      return HttpHeaders.of(Map.of("x-compute-ops", List.of("1")), (name, value) -> true);
+    }
+
+    @Override
+    public String body() {
+      return "{\"resource\":null}";
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+      return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+      return URI.create("http://localhost");
+    }
+
+    @Override
+    public HttpClient.Version version() {
+      return HttpClient.Version.HTTP_1_1;
+    }
+  }
+
+  private final QueryShape get = QueryShape.of(Get(Ref(Collection("users"), "1")));
+  private final QueryShape paginate = QueryShape.of(Paginate(Match(Index("users_by_name"), Value("john"))));
+
+  @Test
+  public void shouldTrackShapesWithoutMetricRegistry() {
+    QueryShapeRegistry shapes = new QueryShapeRegistry(null, 10);
+
+    shapes.record(get, new Response(), 1000L);
+    shapes.record(get, new Response(), 1000L);
+    shapes.record(paginate, new Response(), 1000L);
+
+    assertThat(shapes.top(1).get(0).shape(), equalTo(get));
+    assertThat(shapes.top(1).get(0).latency().getCount(), equalTo(2L));
+    assertThat(shapes.top(1).get(0).computeOps().getCount(), equalTo(2L));
+  }
+
+  @Test
+  public void shouldRemoveTheMetricsOfEvictedShapes() {
+    MetricRegistry registry = new MetricRegistry();
+    QueryShapeRegistry shapes = new QueryShapeRegistry(registry, 1);
+
+    shapes.record(get, new Response(), 1000L);
+    assertThat(registry.getTimers().containsKey("fauna-query-shape." + get.fingerprintHex() + ".latency"), is(true));
+
+    // a new shape replaces a tracked one only once it has been seen more often
+    shapes.record(paginate, new Response(), 1000L);
+    assertThat(registry.getTimers().containsKey("fauna-query-shape." + paginate.fingerprintHex() + ".latency"), is(false));
+
+    shapes.record(paginate, new Response(), 1000L);
+    assertThat(registry.getTimers().containsKey("fauna-query-shape." + get.fingerprintHex() + ".latency"), is(false));
+    assertThat(registry.getTimers().containsKey("fauna-query-shape." + paginate.fingerprintHex() + ".latency"), is(true));
+    assertThat(registry.getHistograms().keySet().stream().anyMatch(name -> name.contains(get.fingerprintHex())), is(false));
+  }
+
+  @Test
+  public void shouldKeepFrequentShapesOverShapesSeenOnce() {
+    QueryShapeRegistry shapes = new QueryShapeRegistry(null, 1);
+
+    for (int i = 0; i < 3; i++)
+      shapes.record(get, new Response(), 1000L);
+
+    shapes.record(paginate, new Response(), 1000L);
+    shapes.record(QueryShape.of(Exists(Ref(Collection("users"), "1"))), new Response(), 1000L);
+    shapes.record(QueryShape.of(Count(Collection("users"))), new Response(), 1000L);
+
+    assertThat(shapes.top(1).get(0).shape(), equalTo(get));
+    assertThat(shapes.top(1).get(0).latency().getCount(), equalTo(3L));
+  }
+
+  @Test
+  public void shouldAgeTheFrequencyOfShapesNoLongerSeen() {
+    QueryShapeRegistry shapes = new QueryShapeRegistry(null, 1);
+
+    for (int i = 0; i < 1000; i++)
+      shapes.record(get, new Response(), 1000L);
+
+    for (int i = 0; i < 100; i++)
+      shapes.record(paginate, new Response(), 1000L);
+
+    assertThat(shapes.top(1).get(0).shape(), equalTo(paginate));
+  }
+}
@@ -0,0 +1,57 @@
+package com.faunadb.client;
+
+import com.faunadb.client.query.Expr;
+import com.faunadb.client.query.QueryShape;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.faunadb.client.query.Language.*;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QueryShapeSpec {
+
+  @Test
+  public void shouldStripLiteralValues() {
+    Expr bob = Get(Ref(Collection("users"), Value("1")));
+    Expr alice = Get(Ref(Collection("people"), Value("2")));
+
+    assertThat(QueryShape.of(bob), equalTo(QueryShape.of(alice)));
+    assertThat(QueryShape.of(bob).shape(), equalTo("{get:{ref:{collection:?},id:?}}"));
+  }
+
+  @Test
+  public void shouldCanonicalizeLambdaVariables() {
+    Expr x = Map(Arr(Value(1)), Lambda("x", Add(Var("x"), Value(1))));
+    Expr y = Map(Arr(Value(2)), Lambda("y", Add(Var("y"), Value(2))));
+
+    assertThat(QueryShape.of(x), equalTo(QueryShape.of(y)));
+    assertThat(QueryShape.of(x).shape(), equalTo("{map:{lambda:v0,expr:{add:[{var:v0},?]}},collection:[?]}"));
+  }
+
+  @Test
+  public void shouldCanonicalizeNestedAndLetVariables() {
+    Expr a = Let("a", Value(1), "b", Var("a")).in(Lambda(Arr(Value("x"), Value("y")), Add(Var("a"), Var("b"), Var("y"))));
+    Expr b = Let("c", Value(2), "d", Var("c")).in(Lambda(Arr(Value("i"), Value("j")), Add(Var("c"), Var("d"), Var("j"))));
+
+    assertThat(QueryShape.of(a), equalTo(QueryShape.of(b)));
+    assertThat(QueryShape.of(a).shape(),
+      equalTo("{let:[{v0:?},{v1:{var:v0}}],in:{lambda:[v2,v3],expr:{add:[{var:v0},{var:v1},{var:v3}]}}}"));
+  }
+
+  @Test
+  public void shouldDistinguishDifferentShapes() {
+    assertThat(QueryShape.of(Get(Var("x"))), not(equalTo(QueryShape.of(Exists(Var("x"))))));
+    assertThat(QueryShape.of(Lambda("x", Var("x"))), not(equalTo(QueryShape.of(Lambda("x", Var("y"))))));
+  }
+
+  @Test
+  public void shouldFingerprintBatches() {
+    QueryShape batch = QueryShape.of(Arrays.asList(Get(Var("x")), Exists(Var("x"))));
+
+    assertThat(batch.shape(), equalTo("[{get:{var:?}},{exists:{var:?}}]"));
+    assertThat(batch.fingerprintHex().length(), equalTo(16));
+  }
+}
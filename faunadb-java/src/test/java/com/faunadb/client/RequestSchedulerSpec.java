@@ -0,0 +1,284 @@
+package com.faunadb.client;
+
+import com.codahale.metrics.MetricRegistry;
+import com.faunadb.common.Priority;
+import com.faunadb.common.RequestScheduler;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RequestSchedulerSpec {
+
+  /**
+   * Records the order requests are started in, and completes them one at a time.
+   */
+  private static final class Requests {
+    final RequestScheduler scheduler;
+    final List<String> started = new ArrayList<>();
+    final ArrayDeque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+
+    Requests(RequestScheduler scheduler) {
+      this.scheduler = scheduler;
+    }
+
+    CompletableFuture<String> submit(String tenant, String name) {
+      return submit(tenant, Priority.NORMAL, name);
+    }
+
+    CompletableFuture<String> submit(String tenant, Priority priority, String name) {
+      return scheduler.submit(tenant, priority, () -> {
+        started.add(name);
+        CompletableFuture<String> response = new CompletableFuture<>();
+        inFlight.add(response);
+        return response;
+      });
+    }
+
+    void completeAll() {
+      while (!inFlight.isEmpty())
+        inFlight.poll().complete("done");
+    }
+  }
+
+  @Test
+  public void shouldRoundRobinAcrossTenants() {
+    Requests requests = new Requests(RequestScheduler.builder().withMaxInFlight(1).build());
+
+    for (int i = 1; i <= 6; i++)
+      requests.submit("a", "a" + i);
+    requests.submit("b", "b1");
+    requests.submit("b", "b2");
+
+    requests.completeAll();
+
+    assertThat(requests.started, equalTo(Arrays.asList("a1", "a2", "b1", "a3", "b2", "a4", "a5", "a6")));
+  }
+
+  @Test
+  public void shouldShareInProportionToWeights() {
+    Requests requests = new Requests(RequestScheduler.builder()
+      .withMaxInFlight(1)
+      .withWeights(tenant -> tenant.equals("a") ? 2 : 1)
+      .build());
+
+    for (int i = 1; i <= 6; i++)
+      requests.submit("a", "a" + i);
+    requests.submit("b", "b1");
+    requests.submit("b", "b2");
+
+    requests.completeAll();
+
+    assertThat(requests.started, equalTo(Arrays.asList("a1", "a2", "a3", "b1", "a4", "a5", "b2", "a6")));
+  }
+
+  @Test
+  public void shouldCapTheRequestsInFlightOfATenant() {
+    RequestScheduler scheduler = RequestScheduler.builder()
+      .withMaxInFlight(4)
+      .withMaxInFlightPerTenant(2)
+      .build();
+    Requests requests = new Requests(scheduler);
+
+    requests.submit("a", "a1");
+    requests.submit("a", "a2");
+    CompletableFuture<String> a3 = requests.submit("a", "a3");
+    requests.submit("b", "b1");
+
+    assertThat(requests.started, equalTo(Arrays.asList("a1", "a2", "b1")));
+    assertThat(scheduler.inFlight(), equalTo(3));
+    assertThat(scheduler.queued(), equalTo(1));
+
+    requests.inFlight.poll().complete("done");
+    assertThat(requests.started, equalTo(Arrays.asList("a1", "a2", "b1", "a3")));
+
+    requests.completeAll();
+    assertThat(a3.join(), equalTo("done"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+  }
+
+  @Test
+  public void shouldPreferHigherPriorityLanes() {
+    Requests requests = new Requests(RequestScheduler.builder().withMaxInFlight(1).build());
+
+    requests.submit("a", Priority.LOW, "low1");
+    requests.submit("a", Priority.LOW, "low2");
+    requests.submit("a", Priority.NORMAL, "normal1");
+    requests.submit("b", Priority.HIGH, "high1");
+    requests.submit("a", Priority.HIGH, "high2");
+
+    requests.completeAll();
+
+    assertThat(requests.started, equalTo(Arrays.asList("low1", "high1", "high2", "normal1", "low2")));
+  }
+
+  @Test
+  public void shouldKeepLanesWithinTheirBudgets() {
+    RequestScheduler scheduler = RequestScheduler.builder()
+      .withMaxInFlight(4)
+      .withMaxInFlight(Priority.LOW, 1)
+      .build();
+    Requests requests = new Requests(scheduler);
+
+    for (int i = 1; i <= 3; i++)
+      requests.submit("a", Priority.LOW, "low" + i);
+    requests.submit("b", Priority.HIGH, "high1");
+
+    // Batch requests leave the rest of the capacity to the other lanes
+    assertThat(requests.started, equalTo(Arrays.asList("low1", "high1")));
+    assertThat(scheduler.inFlight(Priority.LOW), equalTo(1));
+    assertThat(scheduler.inFlight(Priority.HIGH), equalTo(1));
+
+    requests.completeAll();
+    assertThat(requests.started, equalTo(Arrays.asList("low1", "high1", "low2", "low3")));
+  }
+
+  @Test
+  public void shouldShareInProportionToLaneWeights() {
+    Requests requests = new Requests(RequestScheduler.builder()
+      .withMaxInFlight(1)
+      .withLaneWeights(3, 2, 1)
+      .build());
+
+    requests.submit("a", Priority.HIGH, "first");
+    for (int i = 1; i <= 4; i++) {
+      requests.submit("a", Priority.HIGH, "high" + i);
+      requests.submit("a", Priority.NORMAL, "normal" + i);
+      requests.submit("a", Priority.LOW, "low" + i);
+    }
+
+    requests.completeAll();
+
+    assertThat(requests.started.subList(0, 7),
+      equalTo(Arrays.asList("first", "high1", "high2", "normal1", "normal2", "low1", "high3")));
+    assertThat(requests.started.size(), equalTo(13));
+  }
+
+  @Test
+  public void shouldReportFailedRequests() {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+
+    CompletableFuture<String> failed = scheduler.submit("a", () -> {
+      throw new IllegalStateException("cannot send");
+    });
+    CompletableFuture<String> next = scheduler.submit("a", () -> CompletableFuture.completedFuture("sent"));
+
+    assertThat(failed.isCompletedExceptionally(), is(true));
+    assertThat(next.join(), equalTo("sent"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+  }
+
+  @Test
+  public void shouldTrackQueueTimesPerTenant() {
+    MetricRegistry registry = new MetricRegistry();
+    RequestScheduler scheduler = RequestScheduler.builder()
+      .withTenants(secret -> secret.substring(0, secret.indexOf(':')))
+      .withMetrics(registry)
+      .build();
+
+    assertThat(scheduler.tenantOf("acme:1"), equalTo("acme"));
+
+    // Keeps the tenant busy, so its metrics are kept
+    CompletableFuture<String> busy = new CompletableFuture<>();
+    CompletableFuture<String> first = scheduler.submit(scheduler.tenantOf("acme:1"), () -> busy);
+
+    scheduler.submit(scheduler.tenantOf("acme:1"), () -> CompletableFuture.completedFuture("sent")).join();
+    scheduler.submit(scheduler.tenantOf("acme:2"), () -> CompletableFuture.completedFuture("sent")).join();
+
+    scheduler.submit(scheduler.tenantOf("acme:1"), Priority.HIGH, () -> CompletableFuture.completedFuture("sent")).join();
+
+    assertThat(registry.getNames(), hasItems("fauna-scheduler-queue-time", "fauna-scheduler-in-flight",
+      "fauna-scheduler-queued", "fauna-tenant.acme.queue-time", "fauna-scheduler-queue-time.high",
+      "fauna-scheduler-in-flight.low"));
+    assertThat(registry.timer("fauna-tenant.acme.queue-time").getCount(), equalTo(4L));
+    assertThat(registry.timer("fauna-scheduler-queue-time.normal").getCount(), equalTo(3L));
+    assertThat(registry.timer("fauna-scheduler-queue-time.high").getCount(), equalTo(1L));
+
+    // The metrics of a tenant are removed once it is idle
+    busy.complete("sent");
+    assertThat(first.join(), equalTo("sent"));
+    assertThat(registry.getNames(), not(hasItems("fauna-tenant.acme.queue-time")));
+    assertThat(registry.getNames(), hasItems("fauna-scheduler-queue-time"));
+  }
+
+  // Recursive dispatching overflows the stack, leaving requests incomplete
+  @Test(timeout = 10000)
+  public void shouldStartSynchronouslyCompletedRequestsIteratively() {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+
+    CompletableFuture<String> gate = new CompletableFuture<>();
+    scheduler.submit("a", () -> gate);
+
+    // Each request completes as it is started, making room for the next one
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++)
+      results.add(scheduler.submit("a", () -> CompletableFuture.completedFuture("sent")));
+
+    gate.complete("sent");
+
+    for (CompletableFuture<String> result : results)
+      assertThat(result.join(), equalTo("sent"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+    assertThat(scheduler.queued(), equalTo(0));
+  }
+
+  @Test
+  public void shouldNameTheMetricsOfSchedulersSharingARegistry() {
+    MetricRegistry registry = new MetricRegistry();
+    RequestScheduler orders = RequestScheduler.builder().withMetrics(registry).withName("orders").build();
+    RequestScheduler users = RequestScheduler.builder().withMetrics(registry).withName("users").build();
+
+    CompletableFuture<String> busy = new CompletableFuture<>();
+    orders.submit("a", () -> busy);
+
+    assertThat(registry.getGauges().get("fauna-scheduler-in-flight.orders").getValue(), equalTo(1));
+    assertThat(registry.getGauges().get("fauna-scheduler-in-flight.users").getValue(), equalTo(0));
+    assertThat(registry.getGauges().get("fauna-scheduler-in-flight.normal.orders").getValue(), equalTo(1));
+    assertThat(registry.getNames(), hasItems("fauna-scheduler-queued.users", "fauna-scheduler-queue-time.high.users"));
+
+    try {
+      RequestScheduler.builder().withMetrics(registry).withName("orders").build();
+      fail("expected the metrics of a scheduler with the same name to be rejected");
+    } catch (IllegalArgumentException expected) {
+    }
+
+    busy.complete("sent");
+    assertThat(users.inFlight(), equalTo(0));
+  }
+
+  @Test(timeout = 10000)
+  public void shouldFailRequestsReturningNoFuture() {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+
+    CompletableFuture<String> failed = scheduler.submit("a", () -> null);
+    CompletableFuture<String> next = scheduler.submit("a", () -> CompletableFuture.completedFuture("sent"));
+
+    assertThat(failed.isCompletedExceptionally(), is(true));
+    assertThat(next.join(), equalTo("sent"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+  }
+
+  @Test(timeout = 10000)
+  public void shouldFailRequestsThrowingErrors() {
+    RequestScheduler scheduler = RequestScheduler.builder().withMaxInFlight(1).build();
+
+    CompletableFuture<String> failed = scheduler.submit("a", () -> {
+      throw new AssertionError("cannot send");
+    });
+    CompletableFuture<String> next = scheduler.submit("a", () -> CompletableFuture.completedFuture("sent"));
+
+    assertThat(failed.isCompletedExceptionally(), is(true));
+    assertThat(next.join(), equalTo("sent"));
+    assertThat(scheduler.inFlight(), equalTo(0));
+  }
+}
@@ -0,0 +1,42 @@
+package com.faunadb.client;
+
+import com.faunadb.common.Connection;
+import com.faunadb.common.RequestTimings;
+import com.faunadb.common.RequestTimings.Phase;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequestTimingsSpec {
+
+  private final Connection connection = Connection.builder()
+    .withRequestListener(timings -> {})
+    .build();
+
+  @Test
+  public void shouldReportUnreachedPhases() {
+    RequestTimings timings = connection.startTimings("");
+
+    assertThat(timings.isMarked(Phase.ENQUEUE), is(true));
+    assertThat(timings.isMarked(Phase.SEND), is(false));
+    assertThat(timings.get(Phase.SEND), equalTo(Long.MIN_VALUE));
+    assertThat(timings.elapsed(Phase.ENQUEUE, Phase.SEND), equalTo(-1L));
+  }
+
+  @Test
+  public void shouldRecordPhasesOnceAcrossThreads() {
+    RequestTimings timings = connection.startTimings("");
+
+    CompletableFuture.runAsync(() -> timings.mark(Phase.SEND)).join();
+    long send = timings.get(Phase.SEND);
+    timings.mark(Phase.SEND);
+
+    assertThat(timings.isMarked(Phase.SEND), is(true));
+    assertThat(timings.get(Phase.SEND), equalTo(send));
+    assertThat(timings.elapsed(Phase.ENQUEUE, Phase.SEND) >= 0, is(true));
+  }
+}
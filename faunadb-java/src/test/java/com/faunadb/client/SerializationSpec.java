@@ -8,12 +8,15 @@ import com.faunadb.client.types.Value.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Random;
 
 import static com.faunadb.client.query.Language.*;
 import static com.faunadb.client.query.Language.Collection;
@@ -150,6 +153,10 @@ public class SerializationSpec {
   @Test
   public void shouldSerializeInstantValue() throws Exception {
     assertJson(Value(Instant.ofEpochMilli(0)), "{\"@ts\":\"1970-01-01T00:00:00Z\"}");
+    assertJson(Value(Instant.ofEpochSecond(1603756505L, 90000000)), "{\"@ts\":\"2020-10-26T23:55:05.090Z\"}");
+    assertJson(Value(Instant.ofEpochSecond(1603756505L, 90123000)), "{\"@ts\":\"2020-10-26T23:55:05.090123Z\"}");
+    assertJson(Value(Instant.ofEpochSecond(1603756505L, 90123456)), "{\"@ts\":\"2020-10-26T23:55:05.090123456Z\"}");
+    assertJson(Value(Instant.ofEpochSecond(-62198755200L)), "{\"@ts\":\"-0001-01-01T00:00:00Z\"}");
   }
 
   @Test
@@ -175,6 +182,21 @@ public class SerializationSpec {
     assertJson(Value(new byte[] {(byte)0xff}), "{\"@bytes\":\"_w==\"}");
   }
 
+  @Test
+  public void shouldSerializeBytesBuffer() throws Exception {
+    byte[] bytes = new byte[100_001];
+    new Random(42).nextBytes(bytes);
+
+    String expected = "{\"@bytes\":\"" + Base64.getUrlEncoder().encodeToString(bytes) + "\"}";
+
+    assertJson(new BytesV(bytes), expected);
+    assertJson(new BytesV(ByteBuffer.wrap(bytes).asReadOnlyBuffer()), expected);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+    direct.put((byte) 1).put(bytes).put((byte) 2).flip().position(1).limit(bytes.length + 1);
+    assertJson(new BytesV(direct), expected);
+  }
+
   @Test
   public void shouldSerializeAbort() throws Exception {
     assertJson(Abort(Value("a message")), "{\"abort\":\"a message\"}");
@@ -330,6 +352,22 @@ public class SerializationSpec {
       ), "{\"filter\":{\"lambda\":\"x\",\"expr\":{\"var\":\"x\"}},\"collection\":[true,false]}");
   }
 
+  @Test
+  public void shouldSerializeJavaLambdasDeterministically() throws Exception {
+    assertJson(
+      Map(
+        Arr(Arr(Value(1)), Arr(Value(2))),
+        arr -> Filter(arr, x -> Equals(x, Var("arr")))
+      ), "{\"map\":{\"lambda\":\"map0\",\"expr\":{\"filter\":{\"lambda\":\"filter1\",\"expr\":" +
+        "{\"equals\":[{\"var\":\"filter1\"},{\"var\":\"arr\"}]}},\"collection\":{\"var\":\"map0\"}}}," +
+        "\"collection\":[[1],[2]]}");
+
+    assertJson(
+      Foreach(Arr(Value(1)), x -> Join(x, y -> Var("y"))),
+      "{\"foreach\":{\"lambda\":\"foreach0\",\"expr\":{\"join\":{\"var\":\"foreach0\"}," +
+        "\"with\":{\"lambda\":\"join1\",\"expr\":{\"var\":\"y\"}}}},\"collection\":[1]}");
+  }
+
   @Test
   public void shouldSerializeTake() throws Exception {
     assertJson(
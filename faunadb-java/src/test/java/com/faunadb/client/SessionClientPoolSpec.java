@@ -0,0 +1,210 @@
+package com.faunadb.client;
+
+import com.codahale.metrics.MetricRegistry;
+import com.faunadb.client.types.Value;
+import com.faunadb.common.RequestScheduler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.faunadb.client.query.Language.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SessionClientPoolSpec {
+
+  private static FaunaClient unreachableClient() throws Exception {
+    return FaunaClient.builder()
+      .withEndpoint("http://localhost:1")
+      .withSecret("root")
+      .build();
+  }
+
+  @Test
+  public void shouldKeepTheMostRecentlyUsedSessionClients() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    SessionClientPool pool = SessionClientPool.builder(unreachableClient())
+      .withMaxSize(2)
+      .withMetrics(registry)
+      .build();
+
+    FaunaClient a = pool.get("a");
+    FaunaClient b = pool.get("b");
+
+    assertThat(pool.get("a"), sameInstance(a));
+    assertThat(pool.get("c"), not(sameInstance(b)));
+    assertThat(pool.size(), equalTo(2));
+
+    // b was the least recently used
+    assertThat(pool.get("a"), sameInstance(a));
+    assertThat(pool.get("b"), not(sameInstance(b)));
+
+    assertThat(registry.meter("fauna-session-pool-hits").getCount(), equalTo(2L));
+    assertThat(registry.meter("fauna-session-pool-misses").getCount(), equalTo(4L));
+    assertThat(registry.meter("fauna-session-pool-evictions").getCount(), equalTo(2L));
+    assertThat(registry.getGauges().get("fauna-session-pool-size").getValue(), equalTo(2));
+
+    pool.invalidate("a");
+    assertThat(pool.get("a"), not(sameInstance(a)));
+
+    pool.clear();
+    assertThat(pool.size(), equalTo(0));
+  }
+
+  @Test
+  public void shouldTrackTheRequestsOfEachTenant() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    SessionClientPool pool = SessionClientPool.builder(unreachableClient())
+      .withMetrics(registry)
+      .withTenantNames(secret -> secret.substring(0, secret.indexOf(':')))
+      .build();
+
+    try {
+      pool.get("acme:1").query(Value(1)).get();
+    } catch (ExecutionException ignored) {
+    }
+
+    pool.get("acme:2");
+    pool.get("initech:1");
+
+    assertThat(registry.getNames(), hasItems(
+      "fauna-tenant.acme.requests", "fauna-tenant.acme.failures", "fauna-tenant.initech.requests"));
+    assertThat(registry.meter("fauna-tenant.acme.failures").getCount(), equalTo(1L));
+    assertThat(registry.timer("fauna-tenant.acme.requests").getCount(), equalTo(1L));
+
+    // The metrics of a tenant are kept until none of its session clients are pooled
+    pool.invalidate("acme:1");
+    assertThat(registry.getNames(), hasItems("fauna-tenant.acme.requests"));
+
+    pool.invalidate("acme:2");
+    assertThat(registry.getNames(), not(hasItems("fauna-tenant.acme.requests")));
+  }
+
+  @Test
+  public void shouldReleaseTheTenantOfSessionClientsThatCannotBeCreated() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    FaunaClient client = FaunaClient.builder()
+      .withEndpoint("http://localhost:1")
+      .withSecret("root")
+      .withScheduler(RequestScheduler.builder()
+        .withTenants(secret -> {
+          if (secret.endsWith(":revoked"))
+            throw new IllegalArgumentException("revoked secret");
+          return secret;
+        })
+        .build())
+      .build();
+
+    SessionClientPool pool = SessionClientPool.builder(client)
+      .withMetrics(registry)
+      .withTenantNames(secret -> secret.substring(0, secret.indexOf(':')))
+      .build();
+
+    try {
+      pool.get("acme:revoked");
+      fail("expected the session client not to be created");
+    } catch (IllegalArgumentException expected) {
+    }
+
+    pool.get("acme:1");
+    pool.invalidate("acme:1");
+    assertThat(registry.getNames(), not(hasItems("fauna-tenant.acme.requests")));
+  }
+
+  @Test
+  public void shouldNameTheMetricsOfPoolsSharingARegistry() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    FaunaClient client = unreachableClient();
+
+    SessionClientPool orders = SessionClientPool.builder(client).withMetrics(registry).withName("orders").build();
+    SessionClientPool billing = SessionClientPool.builder(client).withMetrics(registry).withName("billing").build();
+
+    orders.get("a");
+    orders.get("b");
+    billing.get("a");
+
+    assertThat(registry.getGauges().get("fauna-session-pool-size.orders").getValue(), equalTo(2));
+    assertThat(registry.getGauges().get("fauna-session-pool-size.billing").getValue(), equalTo(1));
+    assertThat(registry.meter("fauna-session-pool-misses.orders").getCount(), equalTo(2L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectPoolsOfTheSameNameSharingARegistry() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    FaunaClient client = unreachableClient();
+
+    SessionClientPool.builder(client).withMetrics(registry).build();
+    SessionClientPool.builder(client).withMetrics(registry).build();
+  }
+
+  @Test
+  public void shouldPoolASingleSessionClientPerSecret() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    SessionClientPool pool = SessionClientPool.builder(unreachableClient())
+      .withMetrics(registry)
+      .withTenantNames(secret -> "acme")
+      .build();
+
+    List<CompletableFuture<FaunaClient>> clients = IntStream.range(0, 64)
+      .mapToObj(i -> CompletableFuture.supplyAsync(() -> pool.get("acme:1")))
+      .collect(Collectors.toList());
+
+    FaunaClient first = clients.get(0).get();
+    for (CompletableFuture<FaunaClient> client : clients)
+      assertThat(client.get(), sameInstance(first));
+
+    assertThat(pool.size(), equalTo(1));
+    assertThat(registry.meter("fauna-session-pool-misses").getCount(), equalTo(1L));
+
+    // Session clients created by callers that lost the race do not hold the tenant metrics
+    pool.invalidate("acme:1");
+    assertThat(registry.getNames(), not(hasItems("fauna-tenant.acme.requests")));
+  }
+
+  @Test
+  public void shouldDecodeTheResponsesOfPooledSessionClients() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+      byte[] response = ("{\"resource\":{\"secret\":\"" + exchange.getRequestHeaders().getFirst("Authorization") +
+        "\",\"query\":" + request + "}}").getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.start();
+
+    try {
+      FaunaClient client = FaunaClient.builder()
+        .withEndpoint("http://localhost:" + server.getAddress().getPort())
+        .withSecret("root")
+        .build();
+
+      SessionClientPool pool = SessionClientPool.builder(client).build();
+
+      // Session clients share their parent's mapper, which decodes eager responses
+      for (String secret : List.of("a", "b", "a")) {
+        Value value = pool.get(secret).query(Value(secret)).get();
+        assertThat(value.at("query").to(String.class).get(), equalTo(secret));
+        assertThat(value.at("secret").to(String.class).get(), not(equalTo(
+          client.query(Value(secret)).get().at("secret").to(String.class).get())));
+      }
+    } finally {
+      server.stop(0);
+    }
+  }
+}
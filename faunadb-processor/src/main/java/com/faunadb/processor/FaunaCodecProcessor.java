@@ -0,0 +1,790 @@
+package com.faunadb.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+
+/**
+ * Generates a {@code com.faunadb.client.types.GeneratedCodec} for each class with fields, accessors or
+ * constructors annotated with {@code @FaunaField} or {@code @FaunaConstructor}, and registers it as a
+ * service so the driver's {@code Encoder} and {@code Decoder} use it instead of reflection.
+ *
+ * <p>The generated codecs follow the same rules as the reflection based codecs. Public and package-private
+ * members are accessed directly. Private fields and constructors are accessed through method handles resolved
+ * once, when the codec is loaded, and registered for reflection in GraalVM native images. Classes that cannot be handled at compile time, such as generic or non-static
+ * inner classes, are reported with a note and keep using reflection.</p>
+ *
+ * <p>To enable it, add {@code faunadb-processor} to the annotation processor path of the compiler.</p>
+ */
+@SupportedAnnotationTypes({
+  FaunaCodecProcessor.FAUNA_FIELD,
+  FaunaCodecProcessor.FAUNA_CONSTRUCTOR
+})
+public final class FaunaCodecProcessor extends AbstractProcessor {
+
+  static final String FAUNA_FIELD = "com.faunadb.client.types.FaunaField";
+  static final String FAUNA_CONSTRUCTOR = "com.faunadb.client.types.FaunaConstructor";
+  static final String FAUNA_IGNORE = "com.faunadb.client.types.FaunaIgnore";
+  static final String GENERATED_CODEC = "com.faunadb.client.types.GeneratedCodec";
+  static final String SERVICE_FILE = "META-INF/services/" + GENERATED_CODEC;
+  static final String CODEC_PREFIX = "FaunaCodec_";
+
+  private Elements elements;
+  private Types types;
+  private Filer filer;
+  private final Set<String> codecs = new TreeSet<>();
+
+  /**
+   * Raised when a class cannot be handled at compile time.
+   */
+  private static final class Unsupported extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    Unsupported(String message, Object... args) {
+      super(format(message, args), null, false, false);
+    }
+  }
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+    this.filer = processingEnv.getFiler();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeServiceFile();
+      return false;
+    }
+
+    Set<TypeElement> classes = new LinkedHashSet<>();
+
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        TypeElement clazz = enclosingClass(element);
+        if (clazz != null)
+          classes.add(clazz);
+      }
+    }
+
+    for (TypeElement clazz : classes) {
+      try {
+        generate(clazz);
+      } catch (Unsupported ex) {
+        note(clazz, "No codec generated for %s, it will be encoded and decoded using reflection: %s",
+          clazz.getQualifiedName(), ex.getMessage());
+      } catch (IOException ex) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          format("Could not write codec for %s: %s", clazz.getQualifiedName(), ex.getMessage()), clazz);
+      }
+    }
+
+    return false;
+  }
+
+  private static TypeElement enclosingClass(Element element) {
+    while (element != null && !(element instanceof TypeElement))
+      element = element.getEnclosingElement();
+
+    return (TypeElement) element;
+  }
+
+  //
+  // Model
+  //
+
+  private enum Access {FIELD, METHOD, HANDLE}
+
+  private static final class Property {
+    final String name;
+    final Element element;
+    final TypeMirror type;
+    final Access access;
+
+    Property(String name, Element element, TypeMirror type, Access access) {
+      this.name = name;
+      this.element = element;
+      this.type = type;
+      this.access = access;
+    }
+  }
+
+  private static final class Creator {
+    final ExecutableElement element;
+    final List<String> names = new ArrayList<>();
+    final boolean viaHandle;
+
+    Creator(ExecutableElement element, boolean viaHandle) {
+      this.element = element;
+      this.viaHandle = viaHandle;
+    }
+  }
+
+  private void generate(TypeElement clazz) throws Unsupported, IOException {
+    checkClass(clazz);
+
+    PackageElement pkg = elements.getPackageOf(clazz);
+    Creator creator = findCreator(clazz);
+    List<Property> writeProperties = new ArrayList<>();
+
+    for (Property property : getProperties(clazz, true)) {
+      if (!creator.names.contains(property.name))
+        writeProperties.add(property);
+    }
+
+    List<Property> readProperties = getProperties(clazz, false);
+
+    for (VariableElement param : creator.element.getParameters())
+      typeExpression(param.asType(), pkg);
+    for (Property property : writeProperties)
+      typeExpression(property.type, pkg);
+    for (Property property : readProperties)
+      accessibleType(property.type, pkg);
+
+    String codecName = CODEC_PREFIX + binarySimpleName(clazz);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String qualifiedName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+
+    CodecWriter codec;
+    JavaFileObject file = filer.createSourceFile(qualifiedName, clazz);
+    try (Writer writer = file.openWriter()) {
+      codec = new CodecWriter(new PrintWriter(writer), clazz, pkg, codecName, creator, writeProperties, readProperties);
+      codec.write();
+    }
+
+    if (!codec.handles.isEmpty())
+      writeReflectConfig(clazz, qualifiedName, codec.handles.keySet());
+
+    codecs.add(qualifiedName);
+  }
+
+  /**
+   * Registers the private members accessed through method handles for GraalVM native images.
+   */
+  private void writeReflectConfig(TypeElement clazz, String codecName, Set<Element> members) throws IOException {
+    List<String> fields = new ArrayList<>();
+    List<String> methods = new ArrayList<>();
+
+    for (Element member : members) {
+      if (member instanceof VariableElement) {
+        fields.add(format("{\"name\":\"%s\"}", member.getSimpleName()));
+      } else {
+        ExecutableElement executable = (ExecutableElement) member;
+        List<String> params = new ArrayList<>();
+        for (VariableElement param : executable.getParameters())
+          params.add("\"" + reflectName(param.asType()) + "\"");
+
+        String name = executable.getKind() == ElementKind.CONSTRUCTOR ? "<init>" : executable.getSimpleName().toString();
+        methods.add(format("{\"name\":\"%s\",\"parameterTypes\":[%s]}", name, String.join(",", params)));
+      }
+    }
+
+    String path = "META-INF/native-image/faunadb-codecs/" + codecName + "/reflect-config.json";
+    FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", path, clazz);
+
+    try (Writer writer = file.openWriter()) {
+      writer.write(format("[{\"name\":\"%s\",\"fields\":[%s],\"methods\":[%s]}]%n",
+        elements.getBinaryName(clazz), String.join(",", fields), String.join(",", methods)));
+    }
+  }
+
+  private String reflectName(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY)
+      return reflectName(((ArrayType) type).getComponentType()) + "[]";
+
+    if (type.getKind() == TypeKind.DECLARED)
+      return elements.getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+
+    return type.toString();
+  }
+
+  private void checkClass(TypeElement clazz) throws Unsupported {
+    if (clazz.getKind() != ElementKind.CLASS && !clazz.getKind().name().equals("RECORD"))
+      throw new Unsupported("only classes are supported");
+
+    if (clazz.getModifiers().contains(Modifier.ABSTRACT))
+      throw new Unsupported("abstract classes cannot be instantiated");
+
+    if (!clazz.getTypeParameters().isEmpty())
+      throw new Unsupported("generic classes are not supported");
+
+    for (Element e = clazz; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE))
+        throw new Unsupported("private classes are not supported");
+
+      if (e.getEnclosingElement() instanceof TypeElement && !e.getModifiers().contains(Modifier.STATIC) &&
+        ((TypeElement) e.getEnclosingElement()).getKind().isClass())
+        throw new Unsupported("inner classes are not supported, declare them static");
+
+      if (e.getEnclosingElement() != null && !(e.getEnclosingElement() instanceof TypeElement) &&
+        !(e.getEnclosingElement() instanceof PackageElement))
+        throw new Unsupported("local classes are not supported");
+    }
+  }
+
+  /**
+   * Mirrors {@code Constructors.createDecoder}: an annotated factory method, an annotated constructor,
+   * or a no-args constructor, in that order.
+   */
+  private Creator findCreator(TypeElement clazz) throws Unsupported {
+    ExecutableElement factory = single(clazz, ElementKind.METHOD, e -> {
+      Set<Modifier> modifiers = e.getModifiers();
+      return hasAnnotation(e, FAUNA_CONSTRUCTOR) &&
+        (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PUBLIC));
+    });
+
+    if (factory != null) {
+      if (!factory.getModifiers().contains(Modifier.STATIC))
+        throw new Unsupported("factory method %s must be static", factory.getSimpleName());
+
+      return creator(factory);
+    }
+
+    ExecutableElement constructor = single(clazz, ElementKind.CONSTRUCTOR, e -> hasAnnotation(e, FAUNA_CONSTRUCTOR));
+
+    if (constructor == null)
+      constructor = single(clazz, ElementKind.CONSTRUCTOR, e -> e.getParameters().isEmpty());
+
+    if (constructor == null)
+      throw new Unsupported("no suitable constructor or factory method found");
+
+    return creator(constructor);
+  }
+
+  private interface ExecutableFilter {
+    boolean test(ExecutableElement element);
+  }
+
+  private ExecutableElement single(TypeElement clazz, ElementKind kind, ExecutableFilter filter) throws Unsupported {
+    ExecutableElement found = null;
+
+    for (Element element : clazz.getEnclosedElements()) {
+      if (element.getKind() != kind || !filter.test((ExecutableElement) element))
+        continue;
+
+      // Reflection picks the first one in an unspecified order
+      if (found != null)
+        throw new Unsupported("more than one constructor or factory method annotated with @FaunaConstructor");
+
+      found = (ExecutableElement) element;
+    }
+
+    return found;
+  }
+
+  private Creator creator(ExecutableElement element) throws Unsupported {
+    Creator creator = new Creator(element, element.getModifiers().contains(Modifier.PRIVATE));
+
+    for (VariableElement param : element.getParameters()) {
+      AnnotationMirror field = annotation(param, FAUNA_FIELD);
+      if (field == null)
+        throw new Unsupported("all constructor or factory method arguments must be annotated with @FaunaField");
+
+      creator.names.add(fieldName(field));
+    }
+
+    return creator;
+  }
+
+  /**
+   * Mirrors {@code Properties.getProperties}.
+   */
+  private List<Property> getProperties(TypeElement clazz, boolean isWrite) throws Unsupported {
+    Map<String, Property> fields = new LinkedHashMap<>();
+
+    for (VariableElement field : ElementFilter.fieldsIn(clazz.getEnclosedElements())) {
+      Set<Modifier> modifiers = field.getModifiers();
+
+      if (modifiers.contains(Modifier.STATIC) || (isWrite && modifiers.contains(Modifier.FINAL)))
+        continue;
+
+      if (hasAnnotation(field, FAUNA_IGNORE))
+        continue;
+
+      AnnotationMirror faunaField = annotation(field, FAUNA_FIELD);
+
+      if (faunaField != null) {
+        String name = fieldName(faunaField);
+        if (name.isEmpty())
+          name = field.getSimpleName().toString();
+
+        Access access = modifiers.contains(Modifier.PRIVATE) ? Access.HANDLE : Access.FIELD;
+        putUnique(fields, new Property(name, field, field.asType(), access));
+      }
+    }
+
+    Map<String, Property> props = new LinkedHashMap<>();
+
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(clazz))) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC))
+        continue;
+
+      int offset = getPrefixOffset(method, isWrite);
+      if (offset < 0)
+        continue;
+
+      String methodName = method.getSimpleName().toString();
+      if (methodName.length() == offset)
+        throw new Unsupported("accessor %s has no property name", methodName);
+
+      String name = Character.toLowerCase(methodName.charAt(offset)) + methodName.substring(offset + 1);
+
+      if ("class".equals(name) || hasAnnotation(method, FAUNA_IGNORE))
+        continue;
+
+      if (method.getModifiers().contains(Modifier.STATIC))
+        throw new Unsupported("static accessor %s is used as a property", methodName);
+
+      rawName(method.getEnclosingElement().asType(), elements.getPackageOf(clazz));
+
+      AnnotationMirror faunaField = annotation(method, FAUNA_FIELD);
+
+      if (faunaField != null && !fieldName(faunaField).isEmpty())
+        name = fieldName(faunaField);
+
+      TypeMirror type = isWrite ? method.getParameters().get(0).asType() : method.getReturnType();
+      if (type.getKind() == TypeKind.VOID)
+        throw new Unsupported("getter %s returns void", methodName);
+
+      Property property = new Property(name, method, type, Access.METHOD);
+
+      if (!fields.containsKey(name)) {
+        putUnique(props, property);
+      } else if (faunaField != null) {
+        fields.remove(name);
+        putUnique(props, property);
+      }
+    }
+
+    List<Property> properties = new ArrayList<>(fields.values());
+    properties.addAll(props.values());
+    return properties;
+  }
+
+  private static void putUnique(Map<String, Property> properties, Property property) throws Unsupported {
+    // Reflection keeps one of them, in an unspecified order
+    if (properties.put(property.name, property) != null)
+      throw new Unsupported("more than one member is mapped to the field \"%s\"", property.name);
+  }
+
+  private int getPrefixOffset(ExecutableElement method, boolean isWrite) {
+    String name = method.getSimpleName().toString();
+    int params = method.getParameters().size();
+
+    if (isWrite && name.startsWith("set") && params == 1) return 3;
+    if (!isWrite && name.startsWith("get") && params == 0) return 3;
+    if (!isWrite && name.startsWith("is") && params == 0 && isBoolean(method.getReturnType())) return 2;
+    return -1;
+  }
+
+  private boolean isBoolean(TypeMirror type) {
+    return type.getKind() == TypeKind.BOOLEAN ||
+      types.isSameType(type, elements.getTypeElement("java.lang.Boolean").asType());
+  }
+
+  private static boolean hasAnnotation(Element element, String name) {
+    return annotation(element, name) != null;
+  }
+
+  private static AnnotationMirror annotation(Element element, String name) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name))
+        return mirror;
+    }
+
+    return null;
+  }
+
+  private static String fieldName(AnnotationMirror faunaField) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : faunaField.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals("value"))
+        return (String) entry.getValue().getValue();
+    }
+
+    return "";
+  }
+
+  //
+  // Types
+  //
+
+  /**
+   * Returns the expression of the type the driver resolves for a property, mirroring {@code Types.of}.
+   */
+  private String typeExpression(TypeMirror type, PackageElement pkg) throws Unsupported {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case CHAR:
+      case FLOAT:
+      case DOUBLE:
+        return type + ".class";
+
+      case ARRAY:
+        TypeMirror component = ((ArrayType) type).getComponentType();
+        while (component.getKind() == TypeKind.ARRAY)
+          component = ((ArrayType) component).getComponentType();
+
+        if (component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty())
+          throw new Unsupported("generic array type %s is not supported", type);
+
+        return rawName(type, pkg) + ".class";
+
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        List<? extends TypeMirror> args = declared.getTypeArguments();
+        String raw = rawName(type, pkg) + ".class";
+
+        if (isSubtype(type, "java.util.Collection")) {
+          return format("com.faunadb.client.types.Types.collectionOf(%s, %s)", raw,
+            args.isEmpty() ? "java.lang.Object.class" : typeExpression(args.get(0), pkg));
+        }
+
+        if (isSubtype(type, "java.util.Map")) {
+          if (args.size() < 2 || !types.isSameType(args.get(0), elements.getTypeElement("java.lang.String").asType()))
+            throw new Unsupported("only string keys are supported for maps");
+
+          return format("com.faunadb.client.types.Types.mapOf(%s, %s)", raw, typeExpression(args.get(1), pkg));
+        }
+
+        for (TypeMirror arg : args)
+          typeExpression(arg, pkg);
+
+        return raw;
+
+      default:
+        throw new Unsupported("type %s is not supported", type);
+    }
+  }
+
+  private boolean isSubtype(TypeMirror type, String superType) {
+    return types.isSubtype(types.erasure(type), types.erasure(elements.getTypeElement(superType).asType()));
+  }
+
+  private void accessibleType(TypeMirror type, PackageElement pkg) throws Unsupported {
+    if (type.getKind() == TypeKind.ARRAY || type.getKind() == TypeKind.DECLARED)
+      rawName(type, pkg);
+  }
+
+  /**
+   * Returns the source name of the erasure of a type, which must be accessible from the package provided.
+   */
+  private String rawName(TypeMirror type, PackageElement pkg) throws Unsupported {
+    if (type.getKind().isPrimitive())
+      return type.toString();
+
+    if (type.getKind() == TypeKind.ARRAY)
+      return rawName(((ArrayType) type).getComponentType(), pkg) + "[]";
+
+    if (type.getKind() != TypeKind.DECLARED)
+      throw new Unsupported("type %s is not supported", type);
+
+    TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+
+    for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      Set<Modifier> modifiers = e.getModifiers();
+
+      if (modifiers.contains(Modifier.PRIVATE) ||
+        (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(e).equals(pkg)))
+        throw new Unsupported("type %s is not accessible", element.getQualifiedName());
+    }
+
+    return element.getQualifiedName().toString();
+  }
+
+  private String castType(TypeMirror type, PackageElement pkg) throws Unsupported {
+    if (type.getKind().isPrimitive())
+      return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+
+    return rawName(type, pkg);
+  }
+
+  private static String binarySimpleName(TypeElement clazz) {
+    String name = clazz.getSimpleName().toString();
+
+    for (Element e = clazz.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement())
+      name = e.getSimpleName() + "_" + name;
+
+    return name;
+  }
+
+  //
+  // Code generation
+  //
+
+  private final class CodecWriter {
+    private final PrintWriter out;
+    private final TypeElement clazz;
+    private final PackageElement pkg;
+    private final String codecName;
+    private final Creator creator;
+    private final List<Property> writeProperties;
+    private final List<Property> readProperties;
+    private final String className;
+    private final Map<String, String> typeConstants = new LinkedHashMap<>();
+    private final Map<Element, String> handles = new LinkedHashMap<>();
+
+    CodecWriter(PrintWriter out, TypeElement clazz, PackageElement pkg, String codecName, Creator creator,
+                List<Property> writeProperties, List<Property> readProperties) {
+      this.out = out;
+      this.clazz = clazz;
+      this.pkg = pkg;
+      this.codecName = codecName;
+      this.creator = creator;
+      this.writeProperties = writeProperties;
+      this.readProperties = readProperties;
+      this.className = clazz.getQualifiedName().toString();
+    }
+
+    void write() throws Unsupported {
+      String decodeBody = decodeBody();
+      String encodeBody = encodeBody();
+
+      if (!pkg.isUnnamed()) {
+        out.println("package " + pkg.getQualifiedName() + ";");
+        out.println();
+      }
+
+      out.println("@javax.annotation.processing.Generated(\"" + FaunaCodecProcessor.class.getName() + "\")");
+      out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+      out.println("public final class " + codecName + " extends " + GENERATED_CODEC + "<" + className + "> {");
+
+      for (Map.Entry<String, String> constant : typeConstants.entrySet())
+        out.println("  private static final java.lang.reflect.Type " + constant.getValue() + " = resolve(" + constant.getKey() + ");");
+
+      writeHandles();
+
+      out.println();
+      out.println("  public " + codecName + "() {");
+      out.println("    super(" + className + ".class);");
+      out.println("  }");
+      out.println();
+      out.println("  @Override");
+      out.println("  protected " + className + " decodeFields(java.util.Map<java.lang.String, com.faunadb.client.types.Value> fields) throws java.lang.Throwable {");
+      out.print(decodeBody);
+      out.println("  }");
+      out.println();
+      out.println("  @Override");
+      out.println("  protected void encodeFields(" + className + " value, com.faunadb.client.types.Encoder encoder, java.util.Map<java.lang.String, com.faunadb.client.types.Value> fields) {");
+      out.print(encodeBody);
+      out.println("  }");
+      out.println("}");
+      out.flush();
+    }
+
+    private String decodeBody() throws Unsupported {
+      StringBuilder body = new StringBuilder();
+      List<String> args = new ArrayList<>();
+      List<? extends VariableElement> params = creator.element.getParameters();
+
+      for (int i = 0; i < params.size(); i++)
+        args.add(decodeExpression(creator.names.get(i), params.get(i).asType()));
+
+      String arguments = String.join(",\n        ", args);
+      if (!args.isEmpty())
+        arguments = "\n        " + arguments;
+
+      String create;
+      if (creator.viaHandle) {
+        create = format("(%s) %s.invoke(%s)", className, handle(creator.element), arguments);
+      } else if (creator.element.getKind() == ElementKind.CONSTRUCTOR) {
+        create = format("new %s(%s)", className, arguments);
+      } else {
+        create = format("(%s) %s.%s(%s)", className, className, creator.element.getSimpleName(), arguments);
+      }
+
+      body.append(format("    %s instance = %s;%n", className, create));
+
+      for (Property property : writeProperties) {
+        String value = decodeExpression(property.name, property.type);
+
+        switch (property.access) {
+          case FIELD:
+            body.append(format("    instance.%s = %s;%n", property.element.getSimpleName(), value));
+            break;
+          case METHOD:
+            body.append(format("    instance.%s(%s);%n", property.element.getSimpleName(), value));
+            break;
+          case HANDLE:
+            body.append(format("    %s.set(instance, %s);%n", handle(property.element), value));
+            break;
+        }
+      }
+
+      body.append("    return instance;\n");
+      return body.toString();
+    }
+
+    private String decodeExpression(String name, TypeMirror type) throws Unsupported {
+      String expression = typeExpression(type, pkg);
+      String constant = typeConstants.computeIfAbsent(expression, k -> "TYPE_" + typeConstants.size());
+
+      return format("(%s) decodeField(fields, %s, %s)", castType(type, pkg), literal(name), constant);
+    }
+
+    private String encodeBody() throws Unsupported {
+      StringBuilder body = new StringBuilder();
+
+      for (Property property : readProperties) {
+        String value;
+
+        switch (property.access) {
+          case FIELD:
+            value = "value." + property.element.getSimpleName();
+            break;
+          case METHOD:
+            value = "value." + property.element.getSimpleName() + "()";
+            break;
+          default:
+            value = format("(%s) %s.get(value)", castType(property.type, pkg), handle(property.element));
+            break;
+        }
+
+        body.append(format("    encodeField(encoder, fields, %s, %s);%n", literal(property.name), value));
+      }
+
+      return body.toString();
+    }
+
+    private String handle(Element element) {
+      return handles.computeIfAbsent(element, e -> "HANDLE_" + handles.size());
+    }
+
+    private void writeHandles() throws Unsupported {
+      if (handles.isEmpty())
+        return;
+
+      for (Map.Entry<Element, String> handle : handles.entrySet()) {
+        String type = handle.getKey() instanceof VariableElement ? "java.lang.invoke.VarHandle" : "java.lang.invoke.MethodHandle";
+        out.println("  private static final " + type + " " + handle.getValue() + ";");
+      }
+
+      out.println();
+      out.println("  static {");
+      out.println("    try {");
+      out.println("      java.lang.invoke.MethodHandles.Lookup lookup = java.lang.invoke.MethodHandles.privateLookupIn(" + className + ".class, java.lang.invoke.MethodHandles.lookup());");
+
+      for (Map.Entry<Element, String> handle : handles.entrySet()) {
+        Element element = handle.getKey();
+
+        if (element instanceof VariableElement) {
+          out.println(format("      %s = lookup.findVarHandle(%s.class, %s, %s.class);",
+            handle.getValue(), className, literal(element.getSimpleName().toString()), rawName(element.asType(), pkg)));
+        } else {
+          ExecutableElement executable = (ExecutableElement) element;
+          StringBuilder paramTypes = new StringBuilder();
+          for (VariableElement param : executable.getParameters())
+            paramTypes.append(", ").append(rawName(param.asType(), pkg)).append(".class");
+
+          if (executable.getKind() == ElementKind.CONSTRUCTOR) {
+            out.println(format("      %s = lookup.findConstructor(%s.class, java.lang.invoke.MethodType.methodType(void.class%s));",
+              handle.getValue(), className, paramTypes));
+          } else {
+            out.println(format("      %s = lookup.findStatic(%s.class, %s, java.lang.invoke.MethodType.methodType(%s.class%s));",
+              handle.getValue(), className, literal(executable.getSimpleName().toString()),
+              rawName(executable.getReturnType(), pkg), paramTypes));
+          }
+        }
+      }
+
+      out.println("    } catch (java.lang.ReflectiveOperationException ex) {");
+      out.println("      throw new java.lang.ExceptionInInitializerError(ex);");
+      out.println("    }");
+      out.println("  }");
+    }
+  }
+
+  private String literal(String value) {
+    return elements.getConstantExpression(value);
+  }
+
+  private void note(Element element, String message, Object... args) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, format(message, args), element);
+  }
+
+  //
+  // Service registration
+  //
+
+  private void writeServiceFile() {
+    if (codecs.isEmpty())
+      return;
+
+    Set<String> entries = new TreeSet<>(codecs);
+
+    // Keep the codecs registered by previous incremental compilations
+    try {
+      FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          line = line.trim();
+          if (!line.isEmpty() && !line.startsWith("#"))
+            entries.add(line);
+        }
+      }
+    } catch (IOException ex) {
+      // No previous registrations
+    }
+
+    try {
+      FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (Writer writer = file.openWriter()) {
+        for (String entry : entries)
+          writer.write(entry + "\n");
+      }
+    } catch (IOException ex) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+        format("Could not write %s: %s", SERVICE_FILE, ex.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.faunadb.processor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.faunadb.client.types.Decoder;
+import com.faunadb.client.types.Encoder;
+import com.faunadb.client.types.GeneratedCodec;
+import com.faunadb.client.types.Value;
+import com.faunadb.client.types.Value.ArrayV;
+import com.faunadb.client.types.Value.LongV;
+import com.faunadb.client.types.Value.ObjectV;
+import com.faunadb.client.types.Value.StringV;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class FaunaCodecProcessorSpec {
+
+  private static final String PERSON =
+    "package sample;\n" +
+    "import com.faunadb.client.types.*;\n" +
+    "import java.util.List;\n" +
+    "import java.util.Map;\n" +
+    "public class Person {\n" +
+    "  public static String lastCaller;\n" +
+    "  @FaunaField private final String name;\n" +
+    "  @FaunaField(\"years\") private long age;\n" +
+    "  @FaunaField List<String> tags;\n" +
+    "  @FaunaField public Map<String, Address> addresses;\n" +
+    "  @FaunaIgnore @FaunaField String ignored;\n" +
+    "  private String nickname;\n" +
+    "  @FaunaConstructor\n" +
+    "  private Person(@FaunaField(\"name\") String name) { this.name = name; }\n" +
+    "  public String getNickname() { return nickname; }\n" +
+    "  public void setNickname(String nickname) {\n" +
+    "    lastCaller = new Throwable().getStackTrace()[1].getClassName();\n" +
+    "    this.nickname = nickname;\n" +
+    "  }\n" +
+    "  public String getName() { return name; }\n" +
+    "  public long getAge() { return age; }\n" +
+    "  public static class Address {\n" +
+    "    @FaunaField public String street;\n" +
+    "    @FaunaField public int number;\n" +
+    "  }\n" +
+    "}\n";
+
+  private static final String BOX =
+    "package sample;\n" +
+    "import com.faunadb.client.types.*;\n" +
+    "public class Box<T> {\n" +
+    "  @FaunaField public String label;\n" +
+    "}\n";
+
+  private static final String POINT =
+    "package sample;\n" +
+    "import com.faunadb.client.types.*;\n" +
+    "public class Point {\n" +
+    "  private final int x;\n" +
+    "  private final int y;\n" +
+    "  private Point(int x, int y) { this.x = x; this.y = y; }\n" +
+    "  @FaunaConstructor\n" +
+    "  static Point create(@FaunaField(\"x\") int x, @FaunaField(\"y\") int y) { return new Point(x, y); }\n" +
+    "  public int getX() { return x; }\n" +
+    "  public int getY() { return y; }\n" +
+    "}\n";
+
+  private static Path output;
+  private static List<Diagnostic<? extends JavaFileObject>> diagnostics;
+  private static ClassLoader loader;
+
+  @BeforeClass
+  public static void compileSources() throws Exception {
+    Path sources = Files.createTempDirectory("fauna-codec-sources");
+    output = Files.createTempDirectory("fauna-codec-classes");
+
+    List<File> files = new ArrayList<>();
+    files.add(write(sources, "Person.java", PERSON));
+    files.add(write(sources, "Box.java", BOX));
+    files.add(write(sources, "Point.java", POINT));
+
+    String classPath = Arrays.asList(GeneratedCodec.class, JsonNode.class, JsonParser.class, JsonProperty.class).stream()
+      .map(FaunaCodecProcessorSpec::location)
+      .collect(Collectors.joining(File.pathSeparator));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector,
+        Arrays.asList("-classpath", classPath, "-d", output.toString(), "-s", output.toString()),
+        null, fileManager.getJavaFileObjectsFromFiles(files));
+
+      task.setProcessors(Arrays.asList(new FaunaCodecProcessor()));
+      assertTrue(collector.getDiagnostics().toString(), task.call());
+    }
+
+    diagnostics = collector.getDiagnostics();
+    loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, FaunaCodecProcessorSpec.class.getClassLoader());
+  }
+
+  @Test
+  public void shouldRegisterGeneratedCodecs() throws Exception {
+    List<String> services = Files.readAllLines(output.resolve(FaunaCodecProcessor.SERVICE_FILE));
+    assertThat(services, equalTo(Arrays.asList("sample.FaunaCodec_Person", "sample.FaunaCodec_Person_Address", "sample.FaunaCodec_Point")));
+
+    List<Class<?>> types = new ArrayList<>();
+    for (GeneratedCodec<?> codec : ServiceLoader.load(GeneratedCodec.class, loader))
+      types.add(codec.getType());
+
+    assertThat(types, hasItem(loader.loadClass("sample.Person")));
+  }
+
+  @Test
+  public void shouldRegisterPrivateMembersForNativeImages() throws Exception {
+    String config = new String(Files.readAllBytes(
+      output.resolve("META-INF/native-image/faunadb-codecs/sample.FaunaCodec_Person/reflect-config.json")), StandardCharsets.UTF_8);
+
+    assertThat(config, containsString("\"name\":\"sample.Person\""));
+    assertThat(config, containsString("{\"name\":\"age\"}"));
+    assertThat(config, containsString("{\"name\":\"<init>\",\"parameterTypes\":[\"java.lang.String\"]}"));
+    assertThat(Files.exists(output.resolve("META-INF/native-image/faunadb-codecs/sample.FaunaCodec_Point")), is(false));
+  }
+
+  @Test
+  public void shouldSkipUnsupportedClassesWithANote() throws Exception {
+    List<String> notes = diagnostics.stream()
+      .filter(d -> d.getKind() == Diagnostic.Kind.NOTE)
+      .map(d -> d.getMessage(null))
+      .collect(Collectors.toList());
+
+    assertThat(notes.toString(), containsString("No codec generated for sample.Box"));
+    assertThat(Files.exists(output.resolve("sample/FaunaCodec_Box.class")), is(false));
+
+    Map<String, Value> fields = new HashMap<>();
+    fields.put("label", new StringV("books"));
+    Object box = Decoder.decode(new ObjectV(fields), loader.loadClass("sample.Box")).get();
+    assertThat(box.getClass().getField("label").get(box), equalTo("books"));
+  }
+
+  @Test
+  public void shouldDecodeWithGeneratedCodec() throws Exception {
+    Class<?> person = loader.loadClass("sample.Person");
+
+    Map<String, Value> address = new HashMap<>();
+    address.put("street", new StringV("Main St"));
+    address.put("number", new LongV(42));
+
+    Map<String, Value> fields = new HashMap<>();
+    fields.put("name", new StringV("Alice"));
+    fields.put("years", new LongV(30));
+    fields.put("tags", new ArrayV(Arrays.<Value>asList(new StringV("a"), new StringV("b"))));
+    fields.put("addresses", new ObjectV(Map.of("home", new ObjectV(address))));
+    fields.put("nickname", new StringV("Al"));
+
+    Object decoded = Decoder.decode(new ObjectV(fields), person).get();
+
+    assertThat(person.getField("lastCaller").get(null), equalTo("sample.FaunaCodec_Person"));
+    assertThat(person.getMethod("getName").invoke(decoded), equalTo("Alice"));
+    assertThat(person.getMethod("getAge").invoke(decoded), equalTo(30L));
+    assertThat(person.getMethod("getNickname").invoke(decoded), equalTo("Al"));
+    Field tags = person.getDeclaredField("tags");
+    tags.setAccessible(true);
+    assertThat(tags.get(decoded), equalTo(Arrays.asList("a", "b")));
+
+    Object home = ((Map<?, ?>) person.getField("addresses").get(decoded)).get("home");
+    assertThat(home.getClass().getField("street").get(home), equalTo("Main St"));
+    assertThat(home.getClass().getField("number").get(home), equalTo(42));
+  }
+
+  @Test
+  public void shouldEncodeWithGeneratedCodec() throws Exception {
+    Class<?> point = loader.loadClass("sample.Point");
+    Map<String, Value> fields = new HashMap<>();
+    fields.put("x", new LongV(1));
+    fields.put("y", new LongV(2));
+
+    Object decoded = Decoder.decode(new ObjectV(fields), point).get();
+    Value encoded = Encoder.encode(decoded).get();
+
+    assertThat(encoded, equalTo(new ObjectV(fields)));
+  }
+
+  @Test
+  public void shouldReportDecodingErrorsAsReflectionDoes() throws Exception {
+    Class<?> person = loader.loadClass("sample.Person");
+    Map<String, Value> fields = new HashMap<>();
+    fields.put("years", new StringV("thirty"));
+
+    String error = Decoder.decode(new ObjectV(fields), person).toString();
+
+    assertThat(error, containsString("Could not instantiate object of class sample.Person"));
+    assertThat(error, not(containsString("FaunaCodec_Person")));
+  }
+
+  @Test
+  public void shouldReportNonObjectValuesAsReflectionDoes() throws Exception {
+    Class<?> person = loader.loadClass("sample.Person");
+
+    String error = Decoder.decode(new StringV("Alice"), person).toString();
+
+    assertThat(error, containsString("Can not convert StringV to ObjectV"));
+  }
+
+  private static File write(Path dir, String name, String source) throws Exception {
+    Path file = dir.resolve(name);
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    return file.toFile();
+  }
+
+  private static String location(Class<?> clazz) {
+    try {
+      return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    } catch (Exception ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
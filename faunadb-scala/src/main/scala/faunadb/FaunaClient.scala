@@ -1,14 +1,15 @@
 package faunadb
 
 import com.codahale.metrics.MetricRegistry
+import com.fasterxml.jackson.core.{JsonParser, JsonToken}
 import com.fasterxml.jackson.databind.{JsonNode, ObjectMapper}
-import com.fasterxml.jackson.databind.node.{ArrayNode, NullNode}
+import com.fasterxml.jackson.databind.node.ArrayNode
 import com.fasterxml.jackson.module.scala.DefaultScalaModule
-import com.faunadb.common.Connection
+import com.faunadb.common.{Connection, RequestListener, RequestScheduler}
 import com.faunadb.common.Connection.JvmDriver
 import faunadb.errors._
 import faunadb.query.{Expr, Get}
-import faunadb.values.{ArrayV, NullV, Value}
+import faunadb.values.{ArrayV, Decoder, FieldPathEmpty, NullV, StreamingDecoder, Value}
 import java.io.IOException
 import java.net.ConnectException
 import java.net.http.HttpResponse
@@ -23,7 +24,8 @@ import scala.compat.java8.DurationConverters._
 import scala.compat.java8.FutureConverters._
 import scala.compat.java8.OptionConverters._
 import scala.concurrent.duration.FiniteDuration
-import scala.concurrent.{ExecutionContext, Future}
+import scala.concurrent.{ExecutionContext, ExecutionContextExecutor, Future, Promise}
+import scala.util.{Failure, Success, Try}
 
 /** Companion object to the FaunaClient class. */
 object FaunaClient {
@@ -36,22 +38,46 @@ object FaunaClient {
     * @param metrics An optional [[com.codahale.metrics.MetricRegistry]] to record stats.
     * @param queryTimeout An optional global timeout for all the queries issued by this client. The timeout value has
     *                     milliseconds precision. If not provided, a default timeout value is set on the server side.
+    * @param requestListener An optional [[com.faunadb.common.RequestListener]] to receive the per-phase timestamps
+    *                        of every request.
+    * @param scheduler An optional [[com.faunadb.common.RequestScheduler]] to schedule the queries of the client and
+    *                  of its session clients fairly across their secrets.
+    * @param parserContext An optional `ExecutionContext` to parse query responses on. By default responses are
+    *                      parsed on the thread that completes their HTTP request, rather than on the
+    *                      `ExecutionContext` of the caller.
     * @return A configured FaunaClient instance.
     */
   def apply(
     secret: String = null,
     endpoint: String = null,
     metrics: MetricRegistry = null,
-    queryTimeout: FiniteDuration = null): FaunaClient = {
+    queryTimeout: FiniteDuration = null,
+    requestListener: RequestListener = null,
+    scheduler: RequestScheduler = null,
+    parserContext: ExecutionContext = null): FaunaClient = {
 
     val b = Connection.builder
     if (endpoint ne null) b.withFaunaRoot(endpoint)
     if (secret ne null) b.withAuthToken(secret)
     if (metrics ne null) b.withMetrics(metrics)
     if (queryTimeout ne null) b.withQueryTimeout(queryTimeout.toJava)
+    if (requestListener ne null) b.withRequestListener(requestListener)
+    if (scheduler ne null) b.withScheduler(scheduler)
     b.withJvmDriver(JvmDriver.SCALA)
 
-    new FaunaClient(b.build)
+    new FaunaClient(b.build, newObjectMapper(), Option(parserContext).getOrElse(CallingThreadExecutionContext))
+  }
+
+  private def newObjectMapper(): ObjectMapper = {
+    val json = new ObjectMapper
+    json.registerModule(new DefaultScalaModule)
+    json
+  }
+
+  /** Runs callbacks on the thread that completes the future, so handling a response costs no thread hop. */
+  private object CallingThreadExecutionContext extends ExecutionContextExecutor {
+    override def execute(runnable: Runnable): Unit = runnable.run()
+    override def reportFailure(cause: Throwable): Unit = ExecutionContext.defaultReporter(cause)
   }
 
   sealed abstract class EventField(val value: String)
@@ -90,12 +116,11 @@ object FaunaClient {
   * userCast.get
   * }}}
   *
-  * @constructor create a new client with a configured [[com.faunadb.common.Connection]].
+  * @constructor create a new client with a configured [[com.faunadb.common.Connection]], and the
+  *              `ObjectMapper` and the `ExecutionContext` responses are parsed on, which it shares with
+  *              its session clients.
   */
-class FaunaClient private (connection: Connection) {
-
-  private[this] val json = new ObjectMapper
-  json.registerModule(new DefaultScalaModule)
+class FaunaClient private (connection: Connection, json: ObjectMapper, parserContext: ExecutionContext) {
 
   /**
     * Issues a query.
@@ -141,7 +166,54 @@ class FaunaClient private (connection: Connection) {
     *         future is returned.
     */
   def query(expr: Expr, timeout: Option[FiniteDuration])(implicit ec: ExecutionContext): Future[Value] =
-    performRequest(json.valueToTree(expr), timeout)
+    performRequest(json.valueToTree(expr), timeout)(readValue)
+
+  /**
+    * Issues a query, decoding its result straight from the response into a `T`.
+    *
+    * Case classes with a codec derived by [[faunadb.values.Codec.Record]] are read field by field
+    * from the response, without building the intermediate [[faunadb.values.Value]].
+    *
+    * @param expr the query to run, created using the query dsl helpers in [[faunadb.query]].
+    * @param decoder the [[faunadb.values.Decoder]] used to decode the query result.
+    * @param ec the `ExecutionContext` used to run the query asynchronously.
+    * @return A [[scala.concurrent.Future]] containing the decoded query result. If the query fails,
+    *         or its result can not be decoded, failed future is returned.
+    */
+  def queryAs[T](expr: Expr)(implicit decoder: Decoder[T], ec: ExecutionContext): Future[T] =
+    queryAs[T](expr, None)
+
+  /**
+    * Issues a query, decoding its result straight from the response into a `T`.
+    *
+    * @param expr the query to run, created using the query dsl helpers in [[faunadb.query]].
+    * @param timeout the timeout for the current query. It replaces the timeout value set for this
+    *                [[faunadb.FaunaClient]] if any for the scope of this query. The timeout value has
+    *                milliseconds precision.
+    * @param decoder the [[faunadb.values.Decoder]] used to decode the query result.
+    * @param ec the `ExecutionContext` used to run the query asynchronously.
+    * @return A [[scala.concurrent.Future]] containing the decoded query result. If the query fails,
+    *         or its result can not be decoded, failed future is returned.
+    */
+  def queryAs[T](expr: Expr, timeout: FiniteDuration)(implicit decoder: Decoder[T], ec: ExecutionContext): Future[T] =
+    queryAs[T](expr, Some(timeout))
+
+  /**
+    * Issues a query, decoding its result straight from the response into a `T`.
+    *
+    * @param expr the query to run, created using the query dsl helpers in [[faunadb.query]].
+    * @param timeout the timeout for the current query. It replaces the timeout value set for this
+    *                [[faunadb.FaunaClient]] if any for the scope of this query. The timeout value has
+    *                milliseconds precision.
+    * @param decoder the [[faunadb.values.Decoder]] used to decode the query result.
+    * @param ec the `ExecutionContext` used to run the query asynchronously.
+    * @return A [[scala.concurrent.Future]] containing the decoded query result. If the query fails,
+    *         or its result can not be decoded, failed future is returned.
+    */
+  def queryAs[T](expr: Expr, timeout: Option[FiniteDuration])(implicit decoder: Decoder[T], ec: ExecutionContext): Future[T] =
+    performRequest(json.valueToTree(expr), timeout) { parser =>
+      StreamingDecoder.decodeFrom(decoder, parser, FieldPathEmpty).get
+    }
 
   /**
     * Issues multiple queries as a single transaction.
@@ -189,20 +261,21 @@ class FaunaClient private (connection: Connection) {
     *         query fails, a failed future is returned.
     */
   def query(exprs: Iterable[Expr], timeout: Option[FiniteDuration])(implicit ec: ExecutionContext): Future[IndexedSeq[Value]] =
-    performRequest(json.valueToTree(exprs), timeout).map { result =>
-      result.asInstanceOf[ArrayV].elems
+    performRequest(json.valueToTree(exprs), timeout) { parser =>
+      readValue(parser).asInstanceOf[ArrayV].elems
     }
 
-  private def performRequest(body: JsonNode, timeout: Option[FiniteDuration])(implicit ec: ExecutionContext): Future[Value] = {
+  // Handles the response in a single stage on the parser context, without going through the caller's context
+  private def performRequest[A](body: JsonNode, timeout: Option[FiniteDuration])(readResource: JsonParser => A): Future[A] = {
     val javaTimeout = timeout.map(_.toJava).asJava
     val response: Future[HttpResponse[String]] = connection.post("", body, javaTimeout).toScala
+    val result = Promise[A]()
 
-    response
-      .flatMap {
-        case successResponse if successResponse.statusCode() < 300 => handleSuccessResponse(successResponse)
-        case errorResponse => handleErrorResponse(errorResponse.statusCode(), errorResponse.body())
-      }
-      .recoverWith(handleNetworkExceptions)
+    response.onComplete { response =>
+      result.complete(response.flatMap(handleResponse(_, readResource)).recoverWith(handleNetworkFailures[A]))
+    }(parserContext)
+
+    result.future
   }
 
   /**
@@ -241,13 +314,13 @@ class FaunaClient private (connection: Connection) {
           val flowEventValueProcessor = new BodyValueFlowProcessor(json, txn => syncLastTxnTime(txn))
           successResponse.body().subscribe(flowEventValueProcessor)
           Future.successful(flowEventValueProcessor)
-        case errorResponse =>
+        case failedResponse =>
           // The request failed, we need to consume the body manually for error reporting
-          ResponseBodyStringProcessor.consumeBody(errorResponse)
+          ResponseBodyStringProcessor.consumeBody(failedResponse)
             .toScala
-            .flatMap(errorBody => handleErrorResponse(errorResponse.statusCode(), errorBody))
+            .flatMap(errorBody => Future.failed(errorResponse(failedResponse.statusCode(), errorBody)))
       }
-      .recoverWith(handleNetworkExceptions)
+      .recoverWith(handleNetworkFailures[Flow.Publisher[Value]].andThen(Future.fromTry(_)))
   }
 
 
@@ -267,12 +340,13 @@ class FaunaClient private (connection: Connection) {
 
   /**
     * Create a new session client. The returned session client shares its parent [[com.faunadb.common.Connection]]
-    * instance.
+    * instance, and its JSON serializers and deserializers, so creating one is cheap.
     *
     * @param secret user secret for the session client
     * @return a new session client
     */
-  def sessionClient(secret: String): FaunaClient = new FaunaClient(connection.newSessionConnection(secret))
+  def sessionClient(secret: String): FaunaClient =
+    new FaunaClient(connection.newSessionConnection(secret), json, parserContext)
 
   /**
    * Get the freshest timestamp reported to this client.
@@ -290,84 +364,75 @@ class FaunaClient private (connection: Connection) {
   def syncLastTxnTime(timestamp: Long): Unit =
     connection.syncLastTxnTime(timestamp)
 
-  private def parseResponseBody(responseBody: String)(implicit ec: ExecutionContext): Future[JsonNode] = {
-    def parse: Future[Option[JsonNode]] = Future(Option(json.readTree(responseBody)))
+  private def handleResponse[A](response: HttpResponse[String], readResource: JsonParser => A): Try[A] =
+    if (response.statusCode() < 300)
+      Try(parseResource(response.body())(readResource))
+    else
+      Failure(errorResponse(response.statusCode(), response.body()))
 
-    parse.flatMap {
-      case Some(json) => Future.successful(json)
-      case None => Future.failed(new IOException("Invalid JSON."))
-    }
-  }
+  private def readValue(parser: JsonParser): Value =
+    if (parser.getCurrentToken == JsonToken.VALUE_NULL) NullV else json.readValue(parser, classOf[Value])
 
-  private def handleSuccessResponse(response: HttpResponse[String])(implicit ec: ExecutionContext): Future[Value] = {
-    def getResource(body: JsonNode): Future[JsonNode] = Option(body.get("resource")) match {
-      case Some(resource) => Future.successful(resource)
-      case None => Future.failed(new IOException("Invalid JSON."))
-    }
+  // Streams the resource straight into its result, skipping the intermediate JsonNode tree
+  private def parseResource[A](responseBody: String)(readResource: JsonParser => A): A = {
+    val parser = json.getFactory.createParser(responseBody)
 
-    def parseValue(resource: JsonNode): Future[Value] = resource match {
-      case _: NullNode => Future.successful(NullV)
-      case _: JsonNode => Future(json.treeToValue[Value](resource, classOf[Value]))
-    }
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT)
+        throw new IOException("Invalid JSON.")
 
-    for {
-      body <- parseResponseBody(response.body())
-      resource <- getResource(body)
-      value <- parseValue(resource)
-    } yield value
-  }
+      var resource: Option[A] = None
 
-  private def handleErrorResponse(statusCode: Int, responseBody: String)(implicit ec: ExecutionContext): Future[Nothing] = {
-    def parseErrors(): Future[QueryErrorResponse] = {
-      def getErrors(body: JsonNode): Future[Iterator[JsonNode]] = Option(body.get("errors")) match {
-        case Some(errors: ArrayNode) => Future.successful(errors.iterator().asScala)
-        case _ => Future.successful(Iterator.empty)
-      }
+      while (resource.isEmpty && parser.nextToken() == JsonToken.FIELD_NAME) {
+        val field = parser.getCurrentName
+        parser.nextToken()
 
-      def parseErrors(errors: Iterator[JsonNode]): Future[IndexedSeq[QueryError]] = Future {
-        errors.map(json.treeToValue(_, classOf[QueryError])).toIndexedSeq
+        if (field == "resource")
+          resource = Some(readResource(parser))
+        else
+          parser.skipChildren()
       }
 
-      val result: Future[QueryErrorResponse] =
-        for {
-          body <- parseResponseBody(responseBody)
-          errors <- getErrors(body)
-          queryErrors <- parseErrors(errors)
-        } yield QueryErrorResponse(statusCode, queryErrors)
-
-      result
-        .recoverWith {
-          case e: FaunaException => Future.failed(e)
-          case unavailable if statusCode == 503 => Future.failed(new UnavailableException("Service Unavailable: Unparseable response.", unavailable))
-          case unknown => Future.failed(new UnknownException(s"Unparseable service $unknown response.", unknown))
-        }
+      resource.getOrElse(throw new IOException("Invalid JSON."))
+    } finally {
+      parser.close()
     }
+  }
 
-    def parseErrorsAndFailWith(fun: QueryErrorResponse => FaunaException): Future[Nothing] = {
-      parseErrors().flatMap { errors =>
-        val exception = fun(errors)
-        Future.failed(exception)
+  private def errorResponse(statusCode: Int, responseBody: String): FaunaException = {
+    def parseErrors(): IndexedSeq[QueryError] = {
+      val body = Option(json.readTree(responseBody)).getOrElse(throw new IOException("Invalid JSON."))
+
+      Option(body.get("errors")) match {
+        case Some(errors: ArrayNode) => errors.iterator().asScala.map(json.treeToValue(_, classOf[QueryError])).toIndexedSeq
+        case _ => IndexedSeq.empty
       }
     }
 
-    statusCode match {
-      case 400 => parseErrorsAndFailWith(new BadRequestException(_))
-      case 401 => parseErrorsAndFailWith(new UnauthorizedException(_))
-      case 403 => parseErrorsAndFailWith(new PermissionDeniedException(_))
-      case 404 => parseErrorsAndFailWith(new NotFoundException(_))
-      case 500 => parseErrorsAndFailWith(new InternalException(_))
-      case 503 => parseErrorsAndFailWith(new UnavailableException(_))
-      case _   => parseErrorsAndFailWith(new UnknownException(_))
+    Try(QueryErrorResponse(statusCode, parseErrors())) match {
+      case Success(errors) =>
+        statusCode match {
+          case 400 => new BadRequestException(errors)
+          case 401 => new UnauthorizedException(errors)
+          case 403 => new PermissionDeniedException(errors)
+          case 404 => new NotFoundException(errors)
+          case 500 => new InternalException(errors)
+          case 503 => new UnavailableException(errors)
+          case _   => new UnknownException(errors)
+        }
+      case Failure(e: FaunaException) => e
+      case Failure(unavailable) if statusCode == 503 => new UnavailableException("Service Unavailable: Unparseable response.", unavailable)
+      case Failure(unknown) => new UnknownException(s"Unparseable service $unknown response.", unknown)
     }
   }
 
-  private def handleNetworkExceptions[A]: PartialFunction[Throwable, Future[A]] = {
+  private def handleNetworkFailures[A]: PartialFunction[Throwable, Try[A]] = {
     case ex: ConnectException =>
-      Future.failed(new UnavailableException(ex.getMessage, ex))
+      Failure(new UnavailableException(ex.getMessage, ex))
     case ex: TimeoutException =>
-      Future.failed(new TimeoutException(ex.getMessage))
+      Failure(new TimeoutException(ex.getMessage))
     case ex: CompletionException if ex.getCause.isInstanceOf[IOException] && ex.getMessage.contains("too many concurrent streams") =>
-      Future.failed(BadRequestException(None, "the maximum number of streams has been reached for this client"))
+      Failure(BadRequestException(None, "the maximum number of streams has been reached for this client"))
   }
 
 }
@@ -3,6 +3,7 @@ package faunadb.jackson
 import com.fasterxml.jackson.core.JsonToken._
 import com.fasterxml.jackson.core.JsonParser
 import com.fasterxml.jackson.databind._
+import com.faunadb.common.Rfc3339
 import faunadb.values._
 
 private[faunadb] class ValueDeserializer extends JsonDeserializer[Value] {
@@ -25,7 +26,14 @@ private[faunadb] class ValueDeserializer extends JsonDeserializer[Value] {
 
   private[this] def readSpecial(in: JsonParser, ctx: DeserializationContext): Value = {
     in.nextToken()
+    readSpecialBody(in, ctx)
+  }
 
+  /**
+    * Reads an object whose start has already been consumed, from its first field name or its end, as a special
+    * value such as a ref or a timestamp, or as an object. Leaves the parser on the end of the object.
+    */
+  private[faunadb] def readSpecialBody(in: JsonParser, ctx: DeserializationContext): Value = {
     in.getCurrentToken match {
       case FIELD_NAME =>
         in.getText match {
@@ -37,12 +45,12 @@ private[faunadb] class ValueDeserializer extends JsonDeserializer[Value] {
             rv
           case "@ts" =>
             in.nextToken()
-            val rv = TimeV(in.getText)
+            val rv = TimeV(Rfc3339.parseInstant(in.getTextCharacters, in.getTextOffset, in.getTextLength))
             in.nextToken()
             rv
           case "@date" =>
             in.nextToken()
-            val rv = DateV(in.getText)
+            val rv = DateV(Rfc3339.parseDate(in.getTextCharacters, in.getTextOffset, in.getTextLength))
             in.nextToken()
             rv
           case "@bytes" =>
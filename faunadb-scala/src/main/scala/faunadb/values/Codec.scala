@@ -1,5 +1,7 @@
 package faunadb.values
 
+import com.fasterxml.jackson.core.{ JsonParser, JsonToken }
+import faunadb.jackson.ValueDeserializer
 import java.time.{ Instant, LocalDate }
 import scala.collection.generic.CanBuildFrom
 import scala.language.experimental.macros
@@ -220,12 +222,15 @@ object Decoder {
       }
   }
 
-  implicit def OptionDecoder[T](implicit decoder: Decoder[T]): Decoder[Option[T]] = new Decoder[Option[T]] {
+  implicit def OptionDecoder[T](implicit decoder: Decoder[T]): Decoder[Option[T]] = new StreamingDecoder[Option[T]] {
     def decode(v: Value, path: FieldPath) =
       v match {
         case NullV => Result.successful(None, path)
         case _ => decoder.decode(v, path).map (Some(_))
       }
+
+    def decodeFrom(in: JsonParser, path: FieldPath) =
+      StreamingDecoder.decodeOptionFrom(decoder, in, path)
   }
 
   implicit def EitherDecoder[A, B](implicit a: Decoder[A], b: Decoder[B], tagA: ClassTag[A], tagB: ClassTag[B]): Decoder[Either[A, B]] = new Decoder[Either[A, B]] {
@@ -489,8 +494,96 @@ object Encoder {
 
 trait Codec[T] extends Decoder[T] with Encoder[T]
 
+// decoders that read straight from JSON tokens, without building the Value first
+trait StreamingDecoder[T] extends Decoder[T] {
+
+  /**
+    * Decodes the value the parser is positioned at, and leaves the parser on the token following it.
+    */
+  def decodeFrom(in: JsonParser, path: FieldPath): Result[T]
+}
+
+object StreamingDecoder {
+
+  private[this] val values = new ValueDeserializer
+
+  /**
+    * Decodes the value the parser is positioned at with the decoder provided, straight from the JSON tokens if
+    * it is a [[StreamingDecoder]], or through its [[Value]] otherwise. Leaves the parser on the token following
+    * the value.
+    */
+  def decodeFrom[T](decoder: Decoder[T], in: JsonParser, path: FieldPath): Result[T] =
+    decoder match {
+      case streaming: StreamingDecoder[T] @unchecked => streaming.decodeFrom(in, path)
+      case _                                       => decoder.decode(readValue(in), path)
+    }
+
+  /**
+    * Decodes an optional value, which is `None` if it is null.
+    */
+  def decodeOptionFrom[T](decoder: Decoder[T], in: JsonParser, path: FieldPath): Result[Option[T]] =
+    if (in.getCurrentToken == JsonToken.VALUE_NULL) {
+      in.nextToken()
+      Result.successful(None, path)
+    } else {
+      decodeFrom(decoder, in, path) map { Some(_) }
+    }
+
+  /**
+    * Reads the value the parser is positioned at, and leaves the parser on the token following it.
+    */
+  def readValue(in: JsonParser): Value =
+    values.deserialize(in, null)
+
+  /**
+    * Skips the value the parser is positioned at, and leaves the parser on the token following it.
+    */
+  def skip(in: JsonParser): Unit = {
+    in.skipChildren()
+    in.nextToken()
+  }
+
+  /**
+    * Reads the fields of the object the parser is positioned at, unwrapping `@obj` objects. The `field` function
+    * is called with the name of each field, with the parser positioned at its value, and must leave the parser
+    * on the token following the value. Fails if the value is not an object.
+    */
+  def readFields(in: JsonParser, path: FieldPath)(field: String => Unit): Result[Unit] = {
+    if (in.getCurrentToken != JsonToken.START_OBJECT)
+      return Result.Unexpected(readValue(in), "Object", path)
+
+    in.nextToken()
+
+    if (in.getCurrentToken == JsonToken.FIELD_NAME && in.getCurrentName.startsWith("@")) {
+      if (in.getCurrentName != "@obj") {
+        // a special value, such as a ref or a timestamp
+        val value = values.readSpecialBody(in, null)
+        in.nextToken()
+        return Result.Unexpected(value, "Object", path)
+      }
+
+      in.nextToken()
+      val rv = readFields(in, path)(field)
+      in.nextToken()
+      return rv
+    }
+
+    while (in.getCurrentToken == JsonToken.FIELD_NAME) {
+      val name = in.getCurrentName
+      in.nextToken()
+      field(name)
+    }
+
+    in.nextToken()
+    Result.successful((), path)
+  }
+}
+
 // base class for macro-generated record style case-class codecs
-trait RecordCodec[T] extends Codec[T]
+trait RecordCodec[T] extends Codec[T] with StreamingDecoder[T] {
+  def decodeFrom(in: JsonParser, path: FieldPath): Result[T] =
+    decode(StreamingDecoder.readValue(in), path)
+}
 
 // base class for macro-generated union codecs
 trait UnionCodec[T] extends Codec[T]
@@ -16,9 +16,60 @@ class CodecMacro(val c: blackbox.Context) {
 
       def encode(value: $tpe): $M.Value =
         ${getEncodedObject(tpe)}
+
+      ..${getStreamingDecodedObject(tpe)}
     }: $M.RecordCodec[$tpe]"""
   }
 
+  // Decodes case classes straight from the JSON tokens. Tuples are decoded through their Value.
+  private def getStreamingDecodedObject(tpe: Type): List[Tree] = {
+    val isTuple = tpe.typeSymbol.fullName.startsWith("scala.Tuple")
+
+    if (isTuple) {
+      Nil
+    } else {
+      val fields = getFields(tpe)
+      val results = fields map { _ => TermName(c.freshName("result")) }
+      val values = fields map { _ => TermName(c.freshName("value")) }
+
+      val resultDefs = fields zip results map { case (field, result) =>
+        q"var $result: $M.Result[${field._2}] = null"
+      }
+
+      val fieldCases = fields zip results map { case (field, result) =>
+        val name = varName(field).toString
+        val decoded = q"$M.StreamingDecoder.decodeFrom(implicitly[$M.Decoder[${field._2}]], in, path ++ $name)"
+
+        cq"$name => $result = $decoded"
+      }
+
+      val fieldsFragments = fields zip results zip values map { case ((field, result), value) =>
+        val name = varName(field).toString
+        // missing optional fields are decoded as null, as when decoding the Value
+        val missing = if (isOption(field._2))
+          q"implicitly[$M.Decoder[${field._2}]].decode($M.NullV, path ++ $name)"
+        else
+          q"$M.Result.NotFound(path ++ $name)"
+
+        fq"$value <- (if ($result eq null) $missing else $result)"
+      }
+
+      val decoded = if (fieldsFragments.nonEmpty)
+        q"for (..$fieldsFragments) yield new $tpe(..$values)"
+      else
+        q"$M.Result.successful(new $tpe, path)"
+
+      List(q"""override def decodeFrom(in: _root_.com.fasterxml.jackson.core.JsonParser, path: $M.FieldPath): $M.Result[$tpe] = {
+        ..$resultDefs
+
+        $M.StreamingDecoder.readFields(in, path) {
+          case ..$fieldCases
+          case _ => $M.StreamingDecoder.skip(in)
+        } flatMap { _ => $decoded }
+      }""")
+    }
+  }
+
   private def getEncodedObject(tpe: Type): Tree = {
     val isTuple = tpe.typeSymbol.fullName.startsWith("scala.Tuple")
 
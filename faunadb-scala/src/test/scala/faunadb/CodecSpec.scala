@@ -1,5 +1,7 @@
 package faunadb
 
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.databind.ObjectMapper
 import faunadb.values._
 import java.time.{ LocalDate, Instant }
 import org.scalatest.flatspec.AnyFlatSpec
@@ -150,6 +152,76 @@ class CodecSpec extends AnyFlatSpec with Matchers {
     obj3.to[ClassWithOption].get shouldBe ClassWithOption("a", None)
   }
 
+  // Parsers of an ObjectMapper, as the client's, can read nested values such as @query
+  def parse(json: String): JsonParser = {
+    val parser = new ObjectMapper().getFactory.createParser(json)
+    parser.nextToken()
+    parser
+  }
+
+  def decodeFrom[T](json: String)(implicit decoder: Decoder[T]): Result[T] =
+    StreamingDecoder.decodeFrom(decoder, parse(json), FieldPathEmpty)
+
+  it should "decode objects straight from JSON" in {
+    decodeFrom[Product]("""{"price":999.0,"ignored":{"a":[1,2]},"description":"laptop"}""").get shouldBe Product("laptop", 999)
+    decodeFrom[Order]("""{"@obj":{"customer":"john","products":[{"description":"mouse","price":9.99}]}}""").get shouldBe
+      Order("john", Seq(Product("mouse", 9.99)))
+
+    decodeFrom[ClassWithOption]("""{"a":"a","b":10}""").get shouldBe ClassWithOption("a", Some(10L))
+    decodeFrom[ClassWithOption]("""{"a":"a","b":null}""").get shouldBe ClassWithOption("a", None)
+    decodeFrom[ClassWithOption]("""{"a":"a"}""").get shouldBe ClassWithOption("a", None)
+
+    the [ValueReadException] thrownBy {
+      decodeFrom[ClassWithOption]("""{"b":10}""").get
+    } should have message "Error at /a: Value not found"
+  }
+
+  it should "decode optional fields with the Option decoder in scope" in {
+    case class Nickname(name: String, nickname: Option[String])
+
+    // Reads empty strings as missing values
+    implicit val nonEmptyDecoder: Decoder[Option[String]] = new Decoder[Option[String]] {
+      def decode(v: Value, path: FieldPath) =
+        v match {
+          case StringV(s) if s.nonEmpty => Result.successful(Some(s), path)
+          case _ => Result.successful(None, path)
+        }
+    }
+    implicit val nicknameCodec: Codec[Nickname] = Codec.Record[Nickname]
+
+    ObjectV("name" -> StringV("john"), "nickname" -> StringV("")).to[Nickname].get shouldBe Nickname("john", None)
+    decodeFrom[Nickname]("""{"name":"john","nickname":""}""").get shouldBe Nickname("john", None)
+    decodeFrom[Nickname]("""{"name":"john","nickname":"jo"}""").get shouldBe Nickname("john", Some("jo"))
+    decodeFrom[Nickname]("""{"name":"john"}""").get shouldBe Nickname("john", None)
+  }
+
+  case class Callback(name: String, fn: Value, at: Instant)
+
+  implicit val callbackCodec: Codec[Callback] = Codec.Record[Callback]
+
+  it should "decode special values straight from JSON" in {
+    val fn = QueryV(ObjectV("lambda" -> StringV("x"), "expr" -> ObjectV("var" -> StringV("x"))))
+    val at = Instant.parse("1970-01-01T00:05:00Z")
+
+    decodeFrom[Callback]("""{"fn":{"@query":{"lambda":"x","expr":{"var":"x"}}},"at":{"@ts":"1970-01-01T00:05:00Z"},"name":"cb"}""").get shouldBe
+      Callback("cb", fn, at)
+    decodeFrom[Callback]("""{"@obj":{"name":"cb","fn":{"@query":{"lambda":"x","expr":{"var":"x"}}},"at":{"@ts":"1970-01-01T00:05:00Z"}}}""").get shouldBe
+      Callback("cb", fn, at)
+  }
+
+  it should "not decode special values as objects straight from JSON" in {
+    val parser = parse("""[{"@ts":"1970-01-01T00:05:00Z"},{"@query":{"lambda":"x","expr":{"var":"x"}}},{"@obj":{"description":"mouse","price":9.99}}]""")
+    parser.nextToken()
+
+    StreamingDecoder.decodeFrom(productCodec, parser, FieldPathEmpty) shouldBe
+      Result.Unexpected[Product](TimeV(Instant.parse("1970-01-01T00:05:00Z")), "Object", FieldPathEmpty)
+    StreamingDecoder.decodeFrom(productCodec, parser, FieldPathEmpty) shouldBe
+      Result.Unexpected[Product](QueryV(ObjectV("lambda" -> StringV("x"), "expr" -> ObjectV("var" -> StringV("x")))), "Object", FieldPathEmpty)
+
+    // The parser is left on the value following each special value
+    StreamingDecoder.decodeFrom(productCodec, parser, FieldPathEmpty).get shouldBe Product("mouse", 9.99)
+  }
+
   case class ClassWithEither(either: Either[String, Long])
 
   implicit val classWithEither: Codec[ClassWithEither] = Codec.Record[ClassWithEither]
@@ -0,0 +1,87 @@
+package faunadb
+
+import com.sun.net.httpserver.{ HttpExchange, HttpHandler, HttpServer }
+import faunadb.errors.{ BadRequestException, NotFoundException }
+import faunadb.query._
+import faunadb.values._
+import java.net.{ InetAddress, InetSocketAddress }
+import java.nio.charset.StandardCharsets
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.duration._
+import scala.concurrent.{ Await, Future }
+
+class QueryResponseSpec extends AnyFlatSpec with Matchers with BeforeAndAfterAll {
+
+  val NotFound =
+    """{"errors":[{"position":[],"code":"instance not found","description":"Document not found."}]}"""
+
+  val StreamsDisabled =
+    """{"errors":[{"position":[],"code":"invalid argument","description":"Streams are not enabled."}]}"""
+
+  // The resources of the queries reading them by name
+  val Resources = scala.collection.immutable.Map(
+    "\"john\"" -> """{"name":"john","age":42,"ignored":{"@ts":"1970-01-01T00:05:00Z"}}""",
+    "\"users\"" -> """[{"@obj":{"email":"john@example.com","name":"john","age":42}}]""",
+    "\"incomplete\"" -> """{"name":"john"}""")
+
+  // Echoes the query back as its resource, unless it reads a resource by name, or "missing"
+  val server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress, 0), 0)
+  server.createContext("/", new HttpHandler {
+    def handle(exchange: HttpExchange): Unit = {
+      val request = new String(exchange.getRequestBody.readAllBytes(), StandardCharsets.UTF_8)
+
+      val (status, response) =
+        if (exchange.getRequestURI.getPath == "/stream") (400, StreamsDisabled)
+        else if (request.contains("missing")) (404, NotFound)
+        else (200, s"""{"resource":${Resources.getOrElse(request, request)}}""")
+
+      val bytes = response.getBytes(StandardCharsets.UTF_8)
+      exchange.sendResponseHeaders(status, bytes.length)
+      exchange.getResponseBody.write(bytes)
+      exchange.close()
+    }
+  })
+  server.start()
+
+  val client = FaunaClient(secret = "secret", endpoint = s"http://localhost:${server.getAddress.getPort}")
+
+  override def afterAll(): Unit = server.stop(0)
+
+  def ready[A](future: Future[A]): A = Await.result(future, 10.seconds)
+
+  case class User(name: String, age: Long, email: Option[String])
+
+  implicit val userCodec: Codec[User] = Codec.Record[User]
+
+  "queryAs" should "decode the result with the decoder provided" in {
+    ready(client.queryAs[User](Value("john"))) shouldBe User("john", 42, None)
+    ready(client.queryAs[Seq[User]](Value("users"))) shouldBe Seq(User("john", 42, Some("john@example.com")))
+    ready(client.queryAs[Long](Value(42))) shouldBe 42L
+  }
+
+  it should "fail when the result can not be decoded" in {
+    the[ValueReadException] thrownBy {
+      ready(client.queryAs[User](Value("incomplete")))
+    } should have message "Error at /age: Value not found"
+  }
+
+  it should "fail with the error of the response" in {
+    a[NotFoundException] should be thrownBy ready(client.queryAs[User](Value("missing")))
+  }
+
+  "Batch queries" should "return the result of each query" in {
+    ready(client.query(Seq[Expr](Value("a"), Value(1), Null()))) shouldBe IndexedSeq(StringV("a"), LongV(1), NullV)
+  }
+
+  it should "fail with the error of the response" in {
+    a[NotFoundException] should be thrownBy ready(client.query(Seq[Expr](Value("a"), Value("missing"))))
+  }
+
+  "Streams" should "fail with the error of the response" in {
+    val ex = the[BadRequestException] thrownBy ready(client.stream(Value("a")))
+    ex.errors.head.code shouldBe "invalid argument"
+  }
+}
@@ -77,6 +77,7 @@ object Dependencies {
   // Projects
   val faunadbCommon = jacksonCommon ++ Seq(slf4j, metrics)
   val faunadbJava = Seq(logbackClassic, snakeYaml, junit, junitInterface, harmcrestLibrary)
+  val faunadbProcessor = Seq(junit, junitInterface, harmcrestLibrary)
   def faunadbScala(scalaVersion: String): Seq[ModuleID] = jacksonScala ++ scalaLang(scalaVersion) ++ Seq(logbackClassic, scalaTest, reactiveStreams, monix)
 
 }
@@ -119,6 +119,14 @@ object Settings {
     testOptions += Tests.Argument(TestFrameworks.JUnit, "+q", "-v")
   )
 
+  lazy val faunadbProcessorSettings = Seq(
+    testOptions += Tests.Argument(TestFrameworks.JUnit, "+q", "-v")
+  )
+
+  lazy val faunadbBenchSettings = Seq(
+    publish / skip := true
+  )
+
   lazy val faunadbScalaSettings = Seq(
     crossScalaVersions := supportedScalaVersions,
 